@@ -25,6 +25,7 @@
  */
 package com.sandflow.smpte.register;
 
+import com.sandflow.smpte.register.catsup.ElementsRegisterModel;
 import com.sandflow.smpte.register.exceptions.DuplicateEntryException;
 import com.sandflow.smpte.util.UL;
 import java.io.IOException;
@@ -39,6 +40,7 @@ import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.Unmarshaller;
 import jakarta.xml.bind.annotation.XmlTransient;
 import jakarta.xml.bind.annotation.XmlType;
+import javax.xml.stream.XMLStreamException;
 
 /**
  * Elements Register as defined in SMPTE ST 335
@@ -63,6 +65,32 @@ public abstract class ElementsRegister {
 
     public abstract Collection<? extends Entry> getEntries();
 
+    private void index(Entry te) throws DuplicateEntryException {
+        QualifiedSymbol sym = new QualifiedSymbol(te.getSymbol(), te.getNamespaceName());
+
+        if (getEntryByUL(te.getUL()) != null) {
+            throw new DuplicateEntryException(
+                    String.format("UL = %s is already present (symbol = %s).",
+                            te.getUL(),
+                            te.getSymbol()
+                    )
+            );
+        }
+
+        if (entriesBySymbol.get(sym) != null) {
+            throw new DuplicateEntryException(
+                    String.format(
+                            "Symbol = %s  is already present (UL = %s).",
+                            te.getSymbol(),
+                            te.getUL()
+                    )
+            );
+        }
+
+        entriesByUL.put(te.getUL(), te);
+        entriesBySymbol.put(sym, te);
+    }
+
     public void toXML(Writer writer) throws JAXBException, IOException {
 
         JAXBContext ctx = JAXBContext.newInstance(this.getClass());
@@ -81,33 +109,99 @@ public abstract class ElementsRegister {
         ElementsRegister reg = (ElementsRegister) m.unmarshal(reader);
 
         for (Entry te : reg.getEntries()) {
-            QualifiedSymbol sym = new QualifiedSymbol(te.getSymbol(), te.getNamespaceName());
-
-            if (reg.getEntryByUL(te.getUL()) != null) {
-                throw new DuplicateEntryException(
-                        String.format("UL = %s is already present (symbol = %s).",
-                                te.getUL(),
-                                te.getSymbol()
-                        )
-                );
-            }
+            reg.index(te);
+        }
+
+        return reg;
 
-            if (reg.entriesBySymbol.get(sym) != null) {
-                throw new DuplicateEntryException(
-                        String.format(
-                                "Symbol = %s  is already present (UL = %s).",
-                                te.getSymbol(),
-                                te.getUL()
-                        )
-                );
+    }
+
+    /**
+     * Reads an Elements Register by streaming over its XML representation,
+     * which avoids building an intermediate JAXB object graph.
+     *
+     * @param reader XML representation of the register
+     * @param lean If true, the definition, notes and defining document of each
+     * entry are skipped and left null
+     * @return Elements Register
+     * @throws XMLStreamException
+     * @throws DuplicateEntryException
+     */
+    public static ElementsRegister fromXML(Reader reader, boolean lean) throws XMLStreamException, DuplicateEntryException {
+
+        RegisterStreamReader xr = new RegisterStreamReader(reader, lean);
+
+        if (!"ElementsRegister".equals(xr.getLocalName())
+            || !ElementsRegisterModel.XML_NAMESPACE.equals(xr.getNamespaceURI())) {
+            throw new XMLStreamException("Not an Elements Register: " + xr.getLocalName());
+        }
+
+        ElementsRegisterModel reg = new ElementsRegisterModel();
+
+        while (xr.nextEntry()) {
+
+            ElementsRegisterModel.Entry e = new ElementsRegisterModel.Entry();
+
+            while (xr.nextChild()) {
+
+                switch (xr.getLocalName()) {
+                    case "NamespaceName":
+                        e.setNamespaceName(xr.getURI());
+                        break;
+                    case "Symbol":
+                        e.setSymbol(xr.getText());
+                        break;
+                    case "UL":
+                        e.setUL(xr.getUL());
+                        break;
+                    case "Kind":
+                        e.setKind(xr.getEnum(Entry.Kind.class));
+                        break;
+                    case "Name":
+                        e.setName(xr.getText());
+                        break;
+                    case "Definition":
+                        e.setDefinition(xr.getInformativeText());
+                        break;
+                    case "Applications":
+                        e.setApplications(xr.getText());
+                        break;
+                    case "Notes":
+                        e.setNotes(xr.getInformativeText());
+                        break;
+                    case "DefiningDocument":
+                        e.setDefiningDocument(xr.getInformativeText());
+                        break;
+                    case "IsDeprecated":
+                        e.setDeprecated(xr.getBoolean());
+                        break;
+                    case "ContextScope":
+                        e.setContextScope(xr.getText());
+                        break;
+                    case "Type":
+                        e.setTypeUL(xr.getUL());
+                        break;
+                    case "ValueLength":
+                        e.setValueLength(xr.getText());
+                        break;
+                    case "ValueRange":
+                        e.setValueRange(xr.getText());
+                        break;
+                    case "UnitOfMeasure":
+                        e.setUnitOfMeasure(xr.getText());
+                        break;
+                    default:
+                        xr.skip();
+                }
             }
 
-            reg.entriesByUL.put(te.getUL(), te);
-            reg.entriesBySymbol.put(sym, te);
+            reg.getEntries().add(e);
+            ((ElementsRegister) reg).index(e);
         }
 
-        return reg;
+        xr.close();
 
+        return reg;
     }
 
     /**
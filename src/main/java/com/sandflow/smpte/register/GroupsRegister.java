@@ -31,8 +31,10 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Set;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
@@ -40,6 +42,7 @@ import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.Unmarshaller;
 import jakarta.xml.bind.annotation.XmlTransient;
 import jakarta.xml.bind.annotation.XmlType;
+import javax.xml.stream.XMLStreamException;
 
 /**
  * Groups Register as defined in SMPTE ST 395
@@ -65,6 +68,32 @@ public abstract class GroupsRegister {
 
     public abstract Collection<? extends Entry> getEntries();
 
+    private void index(Entry te) throws DuplicateEntryException {
+        QualifiedSymbol sym = new QualifiedSymbol(te.getSymbol(), te.getNamespaceName());
+
+        if (getEntryByUL(te.getUL()) != null) {
+            throw new DuplicateEntryException(
+                    String.format("UL = %s is already present (symbol = %s).",
+                            te.getUL(),
+                            te.getSymbol()
+                    )
+            );
+        }
+
+        if (entriesBySymbol.get(sym) != null) {
+            throw new DuplicateEntryException(
+                    String.format(
+                            "Symbol = %s  is already present (UL = %s).",
+                            te.getSymbol(),
+                            te.getUL()
+                    )
+            );
+        }
+
+        entriesByUL.put(te.getUL(), te);
+        entriesBySymbol.put(sym, te);
+    }
+
     public void toXML(Writer writer) throws JAXBException, IOException {
 
         JAXBContext ctx = JAXBContext.newInstance(this.getClass());
@@ -84,33 +113,286 @@ public abstract class GroupsRegister {
         GroupsRegister reg = (GroupsRegister) m.unmarshal(reader);
 
         for (Entry te : reg.getEntries()) {
-            QualifiedSymbol sym = new QualifiedSymbol(te.getSymbol(), te.getNamespaceName());
-
-            if (reg.getEntryByUL(te.getUL()) != null) {
-                throw new DuplicateEntryException(
-                        String.format("UL = %s is already present (symbol = %s).",
-                                te.getUL(),
-                                te.getSymbol()
-                        )
-                );
-            }
+            reg.index(te);
+        }
+
+        return reg;
+
+    }
+
+    /**
+     * Reads a Groups Register by streaming over its XML representation, which
+     * avoids building an intermediate JAXB object graph. Both the 2014 and 2016
+     * schemas are supported.
+     *
+     * @param reader XML representation of the register
+     * @param lean If true, the definition, notes and defining document of each
+     * entry are skipped and left null
+     * @return Groups Register
+     * @throws XMLStreamException
+     * @throws DuplicateEntryException
+     */
+    public static GroupsRegister fromXML(Reader reader, boolean lean) throws XMLStreamException, DuplicateEntryException {
+
+        RegisterStreamReader xr = new RegisterStreamReader(reader, lean);
+
+        GroupsRegister reg;
+
+        if (!"GroupsRegister".equals(xr.getLocalName())) {
 
-            if (reg.entriesBySymbol.get(sym) != null) {
-                throw new DuplicateEntryException(
-                        String.format(
-                                "Symbol = %s  is already present (UL = %s).",
-                                te.getSymbol(),
-                                te.getUL()
-                        )
-                );
+            throw new XMLStreamException("Not a Groups Register: " + xr.getLocalName());
+
+        } else if (com.sandflow.smpte.register.brown_sauce.GroupsRegisterModel.XML_NAMESPACE.equals(xr.getNamespaceURI())) {
+
+            reg = readBrownSauce(xr);
+
+        } else if (com.sandflow.smpte.register.catsup.GroupsRegisterModel.XML_NAMESPACE.equals(xr.getNamespaceURI())) {
+
+            reg = readCatsup(xr);
+
+        } else {
+
+            throw new XMLStreamException("Unknown Groups Register namespace: " + xr.getNamespaceURI());
+
+        }
+
+        xr.close();
+
+        return reg;
+    }
+
+    private static GroupsRegister readBrownSauce(RegisterStreamReader xr) throws XMLStreamException, DuplicateEntryException {
+
+        com.sandflow.smpte.register.brown_sauce.GroupsRegisterModel reg = new com.sandflow.smpte.register.brown_sauce.GroupsRegisterModel();
+
+        while (xr.nextEntry()) {
+
+            com.sandflow.smpte.register.brown_sauce.GroupsRegisterModel.Entry e = new com.sandflow.smpte.register.brown_sauce.GroupsRegisterModel.Entry();
+
+            while (xr.nextChild()) {
+
+                switch (xr.getLocalName()) {
+                    case "NamespaceName":
+                        e.setNamespaceName(xr.getURI());
+                        break;
+                    case "Symbol":
+                        e.setSymbol(xr.getText());
+                        break;
+                    case "UL":
+                        e.setUL(xr.getUL());
+                        break;
+                    case "Kind":
+                        e.setKind(xr.getEnum(Entry.Kind.class));
+                        break;
+                    case "Name":
+                        e.setName(xr.getText());
+                        break;
+                    case "Definition":
+                        e.setDefinition(xr.getInformativeText());
+                        break;
+                    case "Applications":
+                        e.setApplications(xr.getText());
+                        break;
+                    case "Notes":
+                        e.setNotes(xr.getInformativeText());
+                        break;
+                    case "DefiningDocument":
+                        e.setDefiningDocument(xr.getInformativeText());
+                        break;
+                    case "IsDeprecated":
+                        e.setDeprecated(xr.getBoolean());
+                        break;
+                    case "Parent":
+                        e.setParent(xr.getUL());
+                        break;
+                    case "IsConcrete":
+                        e.setConcrete(xr.getBoolean());
+                        break;
+                    case "KLVSyntax":
+                        HashSet<Byte> klvSyntax = new HashSet<>();
+
+                        for (String item : xr.getList()) {
+                            klvSyntax.add(xr.parseByte(item, 16));
+                        }
+
+                        e.setKlvSyntax(klvSyntax);
+                        break;
+                    case "Contents":
+                        ArrayList<com.sandflow.smpte.register.brown_sauce.GroupsRegisterModel.Entry.Record> contents = new ArrayList<>();
+
+                        while (xr.nextChild()) {
+
+                            if (!"Record".equals(xr.getLocalName())) {
+                                xr.skip();
+                                continue;
+                            }
+
+                            com.sandflow.smpte.register.brown_sauce.GroupsRegisterModel.Entry.Record r = new com.sandflow.smpte.register.brown_sauce.GroupsRegisterModel.Entry.Record();
+
+                            while (xr.nextChild()) {
+
+                                switch (xr.getLocalName()) {
+                                    case "UL":
+                                        r.setItem(xr.getUL());
+                                        break;
+                                    case "LocalTag":
+                                        r.setLocalTag(xr.getHexLong());
+                                        break;
+                                    case "LimitLength":
+                                        r.setLimitLength(xr.getLong());
+                                        break;
+                                    case "IsUniqueID":
+                                        r.setUniqueID(xr.getBoolean());
+                                        break;
+                                    case "IsOptional":
+                                        r.setOptional(xr.getBoolean());
+                                        break;
+                                    case "IsIgnorable":
+                                        r.setIgnorable(xr.getBoolean());
+                                        break;
+                                    case "IsDistinguished":
+                                        r.setDistinguished(xr.getBoolean());
+                                        break;
+                                    case "Value":
+                                        r.setValue(xr.getText());
+                                        break;
+                                    default:
+                                        xr.skip();
+                                }
+                            }
+
+                            contents.add(r);
+                        }
+
+                        e.setContents(contents);
+                        break;
+                    default:
+                        xr.skip();
+                }
             }
 
-            reg.entriesByUL.put(te.getUL(), te);
-            reg.entriesBySymbol.put(sym, te);
+            reg.getEntries().add(e);
+            ((GroupsRegister) reg).index(e);
         }
 
         return reg;
+    }
 
+    private static GroupsRegister readCatsup(RegisterStreamReader xr) throws XMLStreamException, DuplicateEntryException {
+
+        com.sandflow.smpte.register.catsup.GroupsRegisterModel reg = new com.sandflow.smpte.register.catsup.GroupsRegisterModel();
+
+        while (xr.nextEntry()) {
+
+            com.sandflow.smpte.register.catsup.GroupsRegisterModel.Entry e = new com.sandflow.smpte.register.catsup.GroupsRegisterModel.Entry();
+
+            while (xr.nextChild()) {
+
+                switch (xr.getLocalName()) {
+                    case "NamespaceName":
+                        e.setNamespaceName(xr.getURI());
+                        break;
+                    case "Symbol":
+                        e.setSymbol(xr.getText());
+                        break;
+                    case "UL":
+                        e.setUL(xr.getUL());
+                        break;
+                    case "Kind":
+                        e.setKind(xr.getEnum(Entry.Kind.class));
+                        break;
+                    case "Name":
+                        e.setName(xr.getText());
+                        break;
+                    case "Definition":
+                        e.setDefinition(xr.getInformativeText());
+                        break;
+                    case "Applications":
+                        e.setApplications(xr.getText());
+                        break;
+                    case "Notes":
+                        e.setNotes(xr.getInformativeText());
+                        break;
+                    case "DefiningDocument":
+                        e.setDefiningDocument(xr.getInformativeText());
+                        break;
+                    case "IsDeprecated":
+                        e.setDeprecated(xr.getBoolean());
+                        break;
+                    case "Parent":
+                        e.setParent(xr.getUL());
+                        break;
+                    case "IsConcrete":
+                        e.setConcrete(xr.getBoolean());
+                        break;
+                    case "KLVSyntax":
+                        HashSet<Byte> klvSyntax = new HashSet<>();
+
+                        for (String item : xr.getList()) {
+                            klvSyntax.add(xr.parseByte(item, 10));
+                        }
+
+                        e.setKlvSyntax(klvSyntax);
+                        break;
+                    case "Contents":
+                        ArrayList<com.sandflow.smpte.register.catsup.GroupsRegisterModel.Entry.Record> contents = new ArrayList<>();
+
+                        while (xr.nextChild()) {
+
+                            if (!"Record".equals(xr.getLocalName())) {
+                                xr.skip();
+                                continue;
+                            }
+
+                            com.sandflow.smpte.register.catsup.GroupsRegisterModel.Entry.Record r = new com.sandflow.smpte.register.catsup.GroupsRegisterModel.Entry.Record();
+
+                            while (xr.nextChild()) {
+
+                                switch (xr.getLocalName()) {
+                                    case "UL":
+                                        r.setItem(xr.getUL());
+                                        break;
+                                    case "LocalTag":
+                                        r.setLocalTag(xr.getLong());
+                                        break;
+                                    case "LimitLength":
+                                        r.setLimitLength(xr.getLong());
+                                        break;
+                                    case "IsUniqueID":
+                                        r.setUniqueID(xr.getBoolean());
+                                        break;
+                                    case "IsOptional":
+                                        r.setOptional(xr.getBoolean());
+                                        break;
+                                    case "IsIgnorable":
+                                        r.setIgnorable(xr.getBoolean());
+                                        break;
+                                    case "IsDistinguished":
+                                        r.setDistinguished(xr.getBoolean());
+                                        break;
+                                    case "Value":
+                                        r.setValue(xr.getText());
+                                        break;
+                                    default:
+                                        xr.skip();
+                                }
+                            }
+
+                            contents.add(r);
+                        }
+
+                        e.setContents(contents);
+                        break;
+                    default:
+                        xr.skip();
+                }
+            }
+
+            reg.getEntries().add(e);
+            ((GroupsRegister) reg).index(e);
+        }
+
+        return reg;
     }
 
     /**
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.register;
+
+import com.sandflow.smpte.util.UL;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Thin cursor over the XML representation of a register, used to populate
+ * register entries without building an intermediate JAXB object graph. Values
+ * are converted as the JAXB models would convert them.
+ */
+class RegisterStreamReader {
+
+    private final XMLStreamReader reader;
+    private final boolean lean;
+
+    /**
+     * Positions the cursor on the root element of the register
+     *
+     * @param reader XML representation of the register
+     * @param lean If true, informative text (definitions, notes and defining
+     * documents) is skipped
+     * @throws XMLStreamException
+     */
+    RegisterStreamReader(Reader reader, boolean lean) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+
+        this.reader = factory.createXMLStreamReader(reader);
+        this.lean = lean;
+
+        this.reader.nextTag();
+    }
+
+    /**
+     * @return Namespace of the current element
+     */
+    String getNamespaceURI() {
+        return reader.getNamespaceURI();
+    }
+
+    /**
+     * @return Local name of the current element
+     */
+    String getLocalName() {
+        return reader.getLocalName();
+    }
+
+    /**
+     * Advances to the next child of the current element
+     *
+     * @return true if the cursor is on a child element, false if the end of
+     * the current element was reached
+     * @throws XMLStreamException
+     */
+    boolean nextChild() throws XMLStreamException {
+        return reader.nextTag() == XMLStreamConstants.START_ELEMENT;
+    }
+
+    /**
+     * Advances to the next entry of the register, skipping anything else
+     *
+     * @return true if the cursor is on an Entry element, false if the end of
+     * the register was reached
+     * @throws XMLStreamException
+     */
+    boolean nextEntry() throws XMLStreamException {
+
+        while (true) {
+
+            if (reader.nextTag() == XMLStreamConstants.END_ELEMENT) {
+
+                /* the end of the Entries wrapper is not the end of the register */
+                if (!"Entries".equals(reader.getLocalName())) {
+                    return false;
+                }
+
+            } else if ("Entry".equals(reader.getLocalName())) {
+
+                return true;
+
+            } else if (!"Entries".equals(reader.getLocalName())) {
+
+                skip();
+
+            }
+        }
+    }
+
+    /**
+     * Skips the current element and its descendants
+     *
+     * @throws XMLStreamException
+     */
+    void skip() throws XMLStreamException {
+        for (int depth = 1; depth > 0;) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+            }
+        }
+    }
+
+    String getText() throws XMLStreamException {
+        return reader.getElementText();
+    }
+
+    /**
+     * Returns informative text, or null and skips the element in lean mode
+     */
+    String getInformativeText() throws XMLStreamException {
+        if (lean) {
+            skip();
+            return null;
+        }
+
+        return reader.getElementText();
+    }
+
+    UL getUL() throws XMLStreamException {
+        return UL.fromURN(reader.getElementText());
+    }
+
+    URI getURI() throws XMLStreamException {
+        String text = reader.getElementText();
+
+        try {
+            return new URI(text);
+        } catch (URISyntaxException e) {
+            throw new XMLStreamException("Invalid URI: " + text, reader.getLocation(), e);
+        }
+    }
+
+    boolean getBoolean() throws XMLStreamException {
+        String text = reader.getElementText().trim();
+
+        switch (text) {
+            case "true":
+            case "1":
+                return true;
+            case "false":
+            case "0":
+                return false;
+            default:
+                throw new XMLStreamException("Invalid boolean: " + text, reader.getLocation());
+        }
+    }
+
+    Long getLong() throws XMLStreamException {
+        return parseLong(reader.getElementText().trim(), 10);
+    }
+
+    /**
+     * Reads an hexBinary value of up to 4 bytes
+     */
+    Long getHexLong() throws XMLStreamException {
+        String text = reader.getElementText().trim();
+
+        if (text.length() > 8) {
+            throw new XMLStreamException("Invalid hexBinary: " + text, reader.getLocation());
+        }
+
+        return parseLong(text, 16);
+    }
+
+    /**
+     * Returns the enum constant named by the element, or null if there is none
+     */
+    <T extends Enum<T>> T getEnum(Class<T> type) throws XMLStreamException {
+        String text = reader.getElementText().trim();
+
+        for (T c : type.getEnumConstants()) {
+            if (c.name().equals(text)) {
+                return c;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the whitespace-separated items of an xsd:list
+     */
+    List<String> getList() throws XMLStreamException {
+        ArrayList<String> items = new ArrayList<>();
+
+        for (String item : reader.getElementText().trim().split("\\s+")) {
+            if (!item.isEmpty()) {
+                items.add(item);
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * Converts an item of an xsd:list to a byte
+     *
+     * @param item Item of the list
+     * @param radix 16 if the item is hexBinary, 10 if it is a decimal byte
+     */
+    byte parseByte(String item, int radix) throws XMLStreamException {
+        try {
+            if (radix != 16) {
+                return Byte.parseByte(item, radix);
+            }
+
+            if (item.length() != 2) {
+                throw new NumberFormatException();
+            }
+
+            return (byte) Integer.parseInt(item, 16);
+
+        } catch (NumberFormatException e) {
+            throw new XMLStreamException("Invalid byte: " + item, reader.getLocation(), e);
+        }
+    }
+
+    void close() throws XMLStreamException {
+        reader.close();
+    }
+
+    private Long parseLong(String text, int radix) throws XMLStreamException {
+        try {
+            return Long.parseLong(text, radix);
+        } catch (NumberFormatException e) {
+            throw new XMLStreamException("Invalid number: " + text, reader.getLocation(), e);
+        }
+    }
+
+}
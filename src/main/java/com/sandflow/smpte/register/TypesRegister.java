@@ -25,12 +25,14 @@
  */
 package com.sandflow.smpte.register;
 
+import com.sandflow.smpte.register.catsup.TypesRegisterModel;
 import com.sandflow.smpte.register.exceptions.DuplicateEntryException;
 import com.sandflow.smpte.util.UL;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -41,6 +43,7 @@ import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.Unmarshaller;
 import jakarta.xml.bind.annotation.XmlTransient;
 import jakarta.xml.bind.annotation.XmlType;
+import javax.xml.stream.XMLStreamException;
 
 /**
  * Types Register as defined in SMPTE ST 2003
@@ -65,6 +68,32 @@ public abstract class TypesRegister {
 
     public abstract Collection<? extends Entry> getEntries();
 
+    private void index(Entry te) throws DuplicateEntryException {
+        QualifiedSymbol sym = new QualifiedSymbol(te.getSymbol(), te.getNamespaceName());
+
+        if (getEntryByUL(te.getUL()) != null) {
+            throw new DuplicateEntryException(
+                    String.format("UL = %s is already present (symbol = %s).",
+                            te.getUL(),
+                            te.getSymbol()
+                    )
+            );
+        }
+
+        if (entriesBySymbol.get(sym) != null) {
+            throw new DuplicateEntryException(
+                    String.format(
+                            "Symbol = %s  is already present (UL = %s).",
+                            te.getSymbol(),
+                            te.getUL()
+                    )
+            );
+        }
+
+        entriesByUL.put(te.getUL(), te);
+        entriesBySymbol.put(sym, te);
+    }
+
     public void toXML(Writer writer) throws JAXBException, IOException {
 
         JAXBContext ctx = JAXBContext.newInstance(this.getClass());
@@ -83,33 +112,164 @@ public abstract class TypesRegister {
         TypesRegister reg = (TypesRegister) m.unmarshal(reader);
 
         for (Entry te : reg.getEntries()) {
-            QualifiedSymbol sym = new QualifiedSymbol(te.getSymbol(), te.getNamespaceName());
-
-            if (reg.getEntryByUL(te.getUL()) != null) {
-                throw new DuplicateEntryException(
-                        String.format("UL = %s is already present (symbol = %s).",
-                                te.getUL(),
-                                te.getSymbol()
-                        )
-                );
-            }
+            reg.index(te);
+        }
+
+        return reg;
+
+    }
 
-            if (reg.entriesBySymbol.get(sym) != null) {
-                throw new DuplicateEntryException(
-                        String.format(
-                                "Symbol = %s  is already present (UL = %s).",
-                                te.getSymbol(),
-                                te.getUL()
-                        )
-                );
+    /**
+     * Reads a Types Register by streaming over its XML representation, which
+     * avoids building an intermediate JAXB object graph.
+     *
+     * @param reader XML representation of the register
+     * @param lean If true, the definition, notes and defining document of each
+     * entry and facet are skipped and left null
+     * @return Types Register
+     * @throws XMLStreamException
+     * @throws DuplicateEntryException
+     */
+    public static TypesRegister fromXML(Reader reader, boolean lean) throws XMLStreamException, DuplicateEntryException {
+
+        RegisterStreamReader xr = new RegisterStreamReader(reader, lean);
+
+        if (!"TypesRegister".equals(xr.getLocalName())
+            || !TypesRegisterModel.XML_NAMESPACE.equals(xr.getNamespaceURI())) {
+            throw new XMLStreamException("Not a Types Register: " + xr.getLocalName());
+        }
+
+        TypesRegisterModel reg = new TypesRegisterModel();
+
+        while (xr.nextEntry()) {
+
+            TypesRegisterModel.Entry e = new TypesRegisterModel.Entry();
+
+            while (xr.nextChild()) {
+
+                switch (xr.getLocalName()) {
+                    case "NamespaceName":
+                        e.setNamespaceName(xr.getURI());
+                        break;
+                    case "Symbol":
+                        e.setSymbol(xr.getText());
+                        break;
+                    case "UL":
+                        e.setUL(xr.getUL());
+                        break;
+                    case "Kind":
+                        e.setKind(xr.getEnum(Entry.Kind.class));
+                        break;
+                    case "Name":
+                        e.setName(xr.getText());
+                        break;
+                    case "Definition":
+                        e.setDefinition(xr.getInformativeText());
+                        break;
+                    case "Applications":
+                        e.setApplications(xr.getText());
+                        break;
+                    case "Notes":
+                        e.setNotes(xr.getInformativeText());
+                        break;
+                    case "DefiningDocument":
+                        e.setDefiningDocument(xr.getInformativeText());
+                        break;
+                    case "IsDeprecated":
+                        e.setDeprecated(xr.getBoolean());
+                        break;
+                    case "ContextScope":
+                        e.setContextScope(xr.getEnum(Entry.ContextScope.class));
+                        break;
+                    case "TypeKind":
+                        e.setTypeKind(xr.getText());
+                        break;
+                    case "TypeSize":
+                        e.setTypeSize(xr.getLong());
+                        break;
+                    case "BaseType":
+                        e.setBaseType(xr.getUL());
+                        break;
+                    case "TypeQualifiers":
+                        EnumSet<Entry.TypeQualifiers> qualifiers = EnumSet.noneOf(Entry.TypeQualifiers.class);
+
+                        for (String item : xr.getList()) {
+                            for (Entry.TypeQualifiers q : Entry.TypeQualifiers.values()) {
+                                if (q.name().equals(item)) {
+                                    qualifiers.add(q);
+                                }
+                            }
+                        }
+
+                        e.setTypeQualifiers(qualifiers);
+                        break;
+                    case "Facets":
+                        ArrayList<TypesRegisterModel.Entry.Facet> facets = new ArrayList<>();
+
+                        while (xr.nextChild()) {
+                            if ("Facet".equals(xr.getLocalName())) {
+                                facets.add(readFacet(xr));
+                            } else {
+                                xr.skip();
+                            }
+                        }
+
+                        e.setFacets(facets);
+                        break;
+                    default:
+                        xr.skip();
+                }
             }
 
-            reg.entriesByUL.put(te.getUL(), te);
-            reg.entriesBySymbol.put(sym, te);
+            reg.getEntries().add(e);
+            ((TypesRegister) reg).index(e);
         }
 
+        xr.close();
+
         return reg;
+    }
+
+    private static TypesRegisterModel.Entry.Facet readFacet(RegisterStreamReader xr) throws XMLStreamException {
+
+        TypesRegisterModel.Entry.Facet f = new TypesRegisterModel.Entry.Facet();
+
+        while (xr.nextChild()) {
+
+            switch (xr.getLocalName()) {
+                case "Symbol":
+                    f.setSymbol(xr.getText());
+                    break;
+                case "Name":
+                    f.setName(xr.getText());
+                    break;
+                case "Type":
+                    f.setType(xr.getUL());
+                    break;
+                case "Value":
+                    f.setValue(xr.getText());
+                    break;
+                case "UL":
+                    f.setUL(xr.getUL());
+                    break;
+                case "Definition":
+                    f.setDefinition(xr.getInformativeText());
+                    break;
+                case "Applications":
+                    f.setApplications(xr.getText());
+                    break;
+                case "Notes":
+                    f.setNotes(xr.getInformativeText());
+                    break;
+                case "IsDeprecated":
+                    f.setDeprecated(xr.getBoolean());
+                    break;
+                default:
+                    xr.skip();
+            }
+        }
 
+        return f;
     }
 
     /**
@@ -56,7 +56,7 @@ public class ElementsRegisterModel extends com.sandflow.smpte.register.ElementsR
     }
 
     @Override
-    public Collection<? extends Entry> getEntries() {
+    public Collection<Entry> getEntries() {
         return entries;
     }
 
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.util.events.Event;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Time spent and octets processed in each phase of the extraction of RegXML
+ * Fragments from an MXF file, along with counts of the structures processed.
+ * Statistics are collected only if an ExtractionStats is provided, e.g. to
+ * {@link HeaderMetadata#fromInputStream(java.io.InputStream, com.sandflow.util.events.EventHandler, com.sandflow.smpte.regxml.ExtractionStats)}
+ * or {@link FragmentBuilder#setStats(com.sandflow.smpte.regxml.ExtractionStats)}.
+ * An ExtractionStats can accumulate statistics across extractions, but is
+ * not thread-safe.
+ */
+public class ExtractionStats {
+
+    /**
+     * Phases of an extraction. Phases do not overlap.
+     */
+    public enum Phase {
+
+        /**
+         * Seeking the target partition within the MXF file
+         */
+        PARTITION_SEEK,
+
+        /**
+         * Reading the Partition Pack and the Primer Pack
+         */
+        PRIMER_PARSE,
+
+        /**
+         * Reading the Local Sets of the Header Metadata
+         */
+        LOCAL_SET_PARSE,
+
+        /**
+         * Resolving Strong References to their target Sets
+         */
+        REFERENCE_RESOLUTION,
+
+        /**
+         * Applying the rules of SMPTE ST 2001-1 to the Header Metadata
+         */
+        RENDERING,
+
+        /**
+         * Writing the RegXML document
+         */
+        SERIALIZATION
+    }
+
+    private final long[] times = new long[Phase.values().length];
+    private final long[] bytes = new long[Phase.values().length];
+    private final TreeMap<String, Long> events = new TreeMap<>();
+    private long setCount = 0;
+    private long propertyCount = 0;
+    private long referenceCount = 0;
+    private long headerByteCount = 0;
+
+    /**
+     * Adds time spent and octets processed to a phase
+     *
+     * @param phase Phase
+     * @param nanos Time spent, in nanoseconds
+     * @param octets Octets processed
+     */
+    public void add(Phase phase, long nanos, long octets) {
+        times[phase.ordinal()] += nanos;
+        bytes[phase.ordinal()] += octets;
+    }
+
+    /**
+     * @param phase Phase
+     * @return Total time spent in the phase, in nanoseconds
+     */
+    public long getTime(Phase phase) {
+        return times[phase.ordinal()];
+    }
+
+    /**
+     * @param phase Phase
+     * @return Total number of octets read or written during the phase
+     */
+    public long getBytes(Phase phase) {
+        return bytes[phase.ordinal()];
+    }
+
+    void addSets(long sets, long properties) {
+        setCount += sets;
+        propertyCount += properties;
+    }
+
+    void addReference() {
+        referenceCount++;
+    }
+
+    void addReferences(long references) {
+        referenceCount += references;
+    }
+
+    void addHeaderBytes(long octets) {
+        headerByteCount += octets;
+    }
+
+    void addEvent(Event evt) {
+
+        String code = evt.getCode().getClass().getCanonicalName() + "::" + evt.getCode().toString();
+
+        Long count = events.get(code);
+
+        events.put(code, count == null ? 1L : count + 1);
+    }
+
+    /**
+     * @return Number of Local Sets read
+     */
+    public long getSetCount() {
+        return setCount;
+    }
+
+    /**
+     * @return Number of properties contained in the Local Sets read
+     */
+    public long getPropertyCount() {
+        return propertyCount;
+    }
+
+    /**
+     * @return Number of Strong References resolved
+     */
+    public long getReferenceCount() {
+        return referenceCount;
+    }
+
+    /**
+     * @return Number of octets of Header Metadata read, including the Primer
+     * Pack
+     */
+    public long getHeaderByteCount() {
+        return headerByteCount;
+    }
+
+    /**
+     * @return Number of events raised, including events discarded by a
+     * {@link com.sandflow.util.events.FilteringEventHandler}, indexed by event
+     * code
+     */
+    public Map<String, Long> getEventCounts() {
+        return Collections.unmodifiableMap(events);
+    }
+
+    /**
+     * @return Statistics, one "name value" pair per line
+     */
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder();
+
+        for (Phase phase : Phase.values()) {
+            sb.append(phase.name().toLowerCase()).append("_ns ").append(getTime(phase)).append('\n');
+            sb.append(phase.name().toLowerCase()).append("_bytes ").append(getBytes(phase)).append('\n');
+        }
+
+        sb.append("header_metadata_bytes ").append(headerByteCount).append('\n');
+        sb.append("sets ").append(setCount).append('\n');
+        sb.append("properties ").append(propertyCount).append('\n');
+        sb.append("references ").append(referenceCount).append('\n');
+
+        for (Map.Entry<String, Long> entry : events.entrySet()) {
+            sb.append("events ").append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+
+        return sb.toString();
+    }
+}
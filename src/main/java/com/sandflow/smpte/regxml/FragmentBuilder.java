@@ -53,6 +53,7 @@ import com.sandflow.smpte.regxml.dict.definitions.StringTypeDefinition;
 import com.sandflow.smpte.regxml.dict.definitions.StrongReferenceTypeDefinition;
 import com.sandflow.smpte.regxml.dict.definitions.VariableArrayTypeDefinition;
 import com.sandflow.smpte.regxml.dict.definitions.WeakReferenceTypeDefinition;
+import com.sandflow.smpte.regxml.sinks.DOMFragmentSink;
 import com.sandflow.smpte.util.AUID;
 import com.sandflow.util.events.EventHandler;
 import com.sandflow.smpte.util.HalfFloat;
@@ -61,26 +62,39 @@ import com.sandflow.smpte.util.UL;
 import com.sandflow.smpte.util.UMID;
 import com.sandflow.smpte.util.UUID;
 import com.sandflow.util.events.Event;
+import com.sandflow.util.events.FilteringEventHandler;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
-import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentFragment;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
 
 /**
  * Builds a RegXML Fragment of a single KLV Group, typically a Header Metadata
@@ -168,7 +182,17 @@ public class FragmentBuilder {
         /**
          * Raised when the target of a Strong Reference is not found
          */
-        STRONG_REFERENCE_NOT_FOUND(Event.Severity.ERROR);
+        STRONG_REFERENCE_NOT_FOUND(Event.Severity.ERROR),
+        /**
+         * Raised when a DataValue is truncated because it exceeds the maximum
+         * inline length.
+         */
+        DATAVALUE_TRUNCATED(Event.Severity.WARN),
+        /**
+         * Raised when a DataValue is written to a DataValueStore because it
+         * exceeds the maximum inline length.
+         */
+        DATAVALUE_STORED(Event.Severity.INFO);
 
         public final Event.Severity severity;
 
@@ -183,8 +207,11 @@ public class FragmentBuilder {
      */
     public static class FragmentEvent extends com.sandflow.util.events.BasicEvent {
 
-        final String reason;
-        final String where;
+        private String reason;
+        private String where;
+        private Supplier<String> reasonSupplier;
+        private Supplier<String> whereSupplier;
+        private final boolean deferred;
 
         public FragmentEvent(EventCodes kind, String reason) {
             this(kind, reason, null);
@@ -195,13 +222,55 @@ public class FragmentBuilder {
 
             this.reason = reason;
             this.where = where;
+            this.deferred = false;
+        }
+
+        /**
+         * Creates an event whose reason and location are only computed when
+         * first requested
+         *
+         * @param kind Event code
+         * @param reason Supplies the reason for the event
+         * @param where Supplies the location of the event. May be null.
+         */
+        public FragmentEvent(EventCodes kind, Supplier<String> reason, Supplier<String> where) {
+            super(kind.severity, kind, (String) null);
+
+            this.reasonSupplier = reason;
+            this.whereSupplier = where;
+            this.deferred = true;
         }
 
-        public String getReason() {
+        @Override
+        public String getMessage() {
+
+            if (!deferred) {
+                return super.getMessage();
+            }
+
+            String w = getWhere();
+
+            return getReason() + (w != null ? " at " + w : "");
+        }
+
+        /* synchronized, as getWhere(), since the reason can be requested from several threads */
+        public synchronized String getReason() {
+
+            if (reasonSupplier != null) {
+                reason = reasonSupplier.get();
+                reasonSupplier = null;
+            }
+
             return reason;
         }
 
-        public String getWhere() {
+        public synchronized String getWhere() {
+
+            if (whereSupplier != null) {
+                where = whereSupplier.get();
+                whereSupplier = null;
+            }
+
             return where;
         }
 
@@ -209,28 +278,30 @@ public class FragmentBuilder {
 
     private final static Logger LOG = Logger.getLogger(FragmentBuilder.class.getName());
 
-    private static final UL INSTANCE_UID_ITEM_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010101.01011502.00000000");
-    private static final UL AUID_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.01.03.01.00.00.00.00.00");
-    private static final UL UUID_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.01.03.03.00.00.00.00.00");
-    private static final UL DateStruct_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.03.01.05.00.00.00.00.00");
-    private static final UL PackageID_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.01.03.02.00.00.00.00.00");
-    private static final UL Rational_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.03.01.01.00.00.00.00.00");
-    private static final UL TimeStruct_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.03.01.06.00.00.00.00.00");
-    private static final UL TimeStamp_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.03.01.07.00.00.00.00.00");
-    private static final UL VersionType_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.03.01.03.00.00.00.00.00");
-    private static final UL ByteOrder_UL = UL.fromDotValue("06.0E.2B.34.01.01.01.01.03.01.02.01.02.00.00.00");
-    private static final UL Character_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01100100.00000000");
-    private static final UL Char_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01100300.00000000");
-    private static final UL UTF8Character_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01100500.00000000");
-    private static final UL ProductReleaseType_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.02010101.00000000");
-    private static final UL Boolean_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01040100.00000000");
-    private static final UL PrimaryPackage_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010104.06010104.01080000");
-    private static final UL LinkedGenerationID_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010102.05200701.08000000");
-    private static final UL GenerationID_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010102.05200701.01000000");
-    private static final UL ApplicationProductID_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010102.05200701.07000000");
-
-    private static final String REGXML_NS = "http://sandflow.com/ns/SMPTEST2001-1/baseline";
-    private final static String XMLNS_NS = "http://www.w3.org/2000/xmlns/";
+    static final UL INSTANCE_UID_ITEM_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010101.01011502.00000000");
+    static final UL AUID_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.01.03.01.00.00.00.00.00");
+    static final UL UUID_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.01.03.03.00.00.00.00.00");
+    static final UL DateStruct_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.03.01.05.00.00.00.00.00");
+    static final UL PackageID_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.01.03.02.00.00.00.00.00");
+    static final UL Rational_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.03.01.01.00.00.00.00.00");
+    static final UL TimeStruct_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.03.01.06.00.00.00.00.00");
+    static final UL TimeStamp_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.03.01.07.00.00.00.00.00");
+    static final UL VersionType_UL = UL.fromDotValue("06.0E.2B.34.01.04.01.01.03.01.03.00.00.00.00.00");
+    static final UL ByteOrder_UL = UL.fromDotValue("06.0E.2B.34.01.01.01.01.03.01.02.01.02.00.00.00");
+    static final UL Character_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01100100.00000000");
+    static final UL Char_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01100300.00000000");
+    static final UL UTF8Character_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01100500.00000000");
+    static final UL ProductReleaseType_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.02010101.00000000");
+    static final UL Boolean_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01040100.00000000");
+    static final UL PrimaryPackage_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010104.06010104.01080000");
+    static final UL LinkedGenerationID_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010102.05200701.08000000");
+    static final UL GenerationID_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010102.05200701.01000000");
+    static final UL ApplicationProductID_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010102.05200701.07000000");
+
+    /**
+     * Namespace of the attributes defined by SMPTE ST 2001-1, e.g. uid
+     */
+    public static final String REGXML_NS = "http://sandflow.com/ns/SMPTEST2001-1/baseline";
 
     private static final String BYTEORDER_BE = "BigEndian";
     private static final String BYTEORDER_LE = "LittleEndian";
@@ -243,6 +314,20 @@ public class FragmentBuilder {
     private final HashMap<URI, String> nsprefixes = new HashMap<>();
     private final AUIDNameResolver anameresolver;
     private final EventHandler evthandler;
+    private final ArrayDeque<UUID> instanceIDs = new ArrayDeque<>();
+    private FragmentSink sink;
+    private List<Projection.Node> projection;
+    private final HashMap<Charset, CharsetDecoder> decoders = new HashMap<>();
+    /* character values are decoded in chunks of this size, see readCharacters() */
+    private static final int CHAR_CHUNK_SIZE = 1024;
+    private final ByteBuffer charbytes = ByteBuffer.allocate(CHAR_CHUNK_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(CHAR_CHUNK_SIZE);
+    private DataValuePolicy datavaluepolicy = DataValuePolicy.INLINE;
+    private RenderCache rendercache;
+    private ExtractionStats stats;
+    private String dictversion;
+    private final ArrayList<Capture> captures = new ArrayList<>();
+    private final IdentityHashMap<Group, byte[]> digests = new IdentityHashMap<>();
 
     /**
      * Resolves a AUID into a local name
@@ -259,6 +344,69 @@ public class FragmentBuilder {
         String getLocalName(AUID enumid);
     }
 
+    /**
+     * Stores DataValue values that are too long to be written inline
+     */
+    public static interface DataValueStore {
+
+        /**
+         * Stores the value of a DataValue property outside of the RegXML
+         * Fragment
+         *
+         * @param elemname Local name of the property
+         * @param value Complete value of the property
+         *
+         * @return Reference to the stored value, e.g. the name of a sidecar
+         * file, which is written in the RegXML Fragment as a comment
+         *
+         * @throws IOException
+         */
+        String store(String elemname, InputStream value) throws IOException;
+    }
+
+    /**
+     * Specifies how DataValue properties are written. Values no longer than
+     * the maximum inline length are written inline. Longer values are written
+     * to the DataValueStore if one is provided, and are otherwise truncated to
+     * the maximum inline length, with the length and SHA-1 digest of the
+     * complete value written as a comment.
+     */
+    public static class DataValuePolicy {
+
+        /**
+         * Writes all DataValue properties inline, regardless of their length
+         */
+        public static final DataValuePolicy INLINE = new DataValuePolicy(Integer.MAX_VALUE, null);
+
+        private final int maxInlineLength;
+        private final DataValueStore store;
+
+        /**
+         * @param maxInlineLength Maximum number of octets written inline. Must
+         * not be negative.
+         * @param store Stores values longer than maxInlineLength. Such values
+         * are truncated if null.
+         */
+        public DataValuePolicy(int maxInlineLength, DataValueStore store) {
+
+            if (maxInlineLength < 0) {
+                throw new IllegalArgumentException();
+            }
+
+            this.maxInlineLength = maxInlineLength;
+            this.store = store;
+        }
+
+        public int getMaxInlineLength() {
+            return maxInlineLength;
+        }
+
+        public DataValueStore getStore() {
+            return store;
+        }
+
+    }
+
     /**
      * Instantiates a FragmentBuilder. If the anamresolver argument is not null,
      * the FragmentBuilder will attempt to resolve the name of each AUID it
@@ -352,6 +500,49 @@ public class FragmentBuilder {
         this(defresolver, setresolver, null);
     }
 
+    /**
+     * Sets the policy used to write DataValue properties. By default, all
+     * DataValue properties are written inline.
+     *
+     * @param policy DataValue policy. Must not be null.
+     */
+    public void setDataValuePolicy(DataValuePolicy policy) {
+
+        if (policy == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.datavaluepolicy = policy;
+    }
+
+    /**
+     * Sets the cache used to reuse the rendering of Sets across Fragments. The
+     * cache is not used when a projection or a DataValueStore is used.
+     *
+     * @param cache Render cache, or null to disable caching.
+     * @param dictversion Identifies the dictionaries and AUID name resolver
+     * used by this FragmentBuilder, e.g. the names and versions of the
+     * dictionaries. Must not be null if cache is not null.
+     */
+    public void setRenderCache(RenderCache cache, String dictversion) {
+
+        if (cache != null && dictversion == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.rendercache = cache;
+        this.dictversion = dictversion;
+    }
+
+    /**
+     * Sets the statistics to which the rendering of Fragments is added.
+     *
+     * @param stats Statistics, or null to disable their collection.
+     */
+    public void setStats(ExtractionStats stats) {
+        this.stats = stats;
+    }
+
     /**
      * Creates a RegXML Fragment, represented an XML DOM Document Fragment
      *
@@ -366,16 +557,91 @@ public class FragmentBuilder {
      */
     public DocumentFragment fromTriplet(Group group, Document document) throws KLVException, RuleException {
 
-        DocumentFragment df = document.createDocumentFragment();
+        DOMFragmentSink dfs = new DOMFragmentSink(document);
+
+        try {
 
-        applyRule3(df, group);
+            fromTriplet(group, dfs);
 
-        /* NOTE: Hack to clean-up namespace prefixes */
-        for (Map.Entry<URI, String> entry : nsprefixes.entrySet()) {
-            ((Element) df.getFirstChild()).setAttributeNS(XMLNS_NS, "xmlns:" + entry.getValue(), entry.getKey().toString());
+        } catch (IOException e) {
+
+            throw new RuleException(e);
+
+        }
+
+        return dfs.getFragment();
+    }
+
+    /**
+     * Creates a RegXML Fragment and writes it to a FragmentSink
+     *
+     * @param group KLV Group for which the Fragment will be generated.
+     * @param sink Sink to which the Fragment is written. Must not be null.
+     *
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     * @throws IOException Thrown if the sink fails
+     */
+    public void fromTriplet(Group group, FragmentSink sink) throws KLVException, RuleException, IOException {
+        fromTriplet(group, sink, null);
+    }
+
+    /**
+     * Creates a RegXML Fragment that contains only the properties selected by a
+     * projection, and writes it to a FragmentSink
+     *
+     * @param group KLV Group for which the Fragment will be generated.
+     * @param sink Sink to which the Fragment is written. Must not be null.
+     * @param projection Paths of the properties to be written. The entire
+     * Fragment is written if null.
+     *
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     * @throws IOException Thrown if the sink fails
+     */
+    public void fromTriplet(Group group, FragmentSink sink, Projection projection) throws KLVException, RuleException, IOException {
+
+        this.sink = sink;
+
+        this.projection = projection == null ? null : Collections.singletonList(projection.getRoot());
+
+        long start = 0;
+        long resolution = 0;
+
+        if (stats != null) {
+            start = System.nanoTime();
+            resolution = stats.getTime(ExtractionStats.Phase.REFERENCE_RESOLUTION);
         }
 
-        return df;
+        try {
+
+            applyRule3(group);
+
+            /* NOTE: namespace prefixes are declared once the Fragment is complete */
+            sink.endFragment(Collections.unmodifiableMap(nsprefixes));
+
+        } finally {
+
+            this.sink = null;
+
+            this.projection = null;
+
+            this.instanceIDs.clear();
+
+            this.captures.clear();
+
+            this.digests.clear();
+
+            /* reference resolution is accounted separately */
+            if (stats != null) {
+                stats.add(
+                    ExtractionStats.Phase.RENDERING,
+                    System.nanoTime() - start - (stats.getTime(ExtractionStats.Phase.REFERENCE_RESOLUTION) - resolution),
+                    0
+                );
+            }
+
+        }
     }
 
     private String getPrefix(URI ns) {
@@ -400,12 +666,28 @@ public class FragmentBuilder {
         }
     }
 
-    void addInformativeComment(Element element, String comment) {
-        element.appendChild(element.getOwnerDocument().createComment(comment));
+    void addInformativeComment(String comment) throws IOException {
+        sink.comment(comment);
     }
 
     void handleEvent(FragmentEvent evt) throws RuleException {
 
+        if (stats != null) {
+            stats.addEvent(evt);
+        }
+
+        /* subtrees that raise events are not cached, so that the events are raised again */
+        for (Capture c : captures) {
+            c.clean = false;
+        }
+
+        /* skip events that the handler would discard, before their messages are formatted */
+        if (evthandler instanceof FilteringEventHandler
+                && !((FilteringEventHandler) evthandler).offer(evt.getCode(), evt.getSeverity())) {
+
+            return;
+        }
+
         if (evthandler != null) {
 
             if (!evthandler.handle(evt)
@@ -426,7 +708,173 @@ public class FragmentBuilder {
 
     }
 
-    void applyRule3(Node node, Group group) throws RuleException {
+    /**
+     * Returns the digest of the encoded Group, which identifies it in the
+     * render cache
+     */
+    private byte[] getDigest(Group group) {
+
+        byte[] digest = digests.get(group);
+
+        if (digest == null) {
+
+            MessageDigest md;
+
+            try {
+                md = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new RuntimeException(ex);
+            }
+
+            md.update(group.getKey().getValue());
+
+            for (Triplet item : group.getItems()) {
+
+                byte[] v = item.getValue();
+
+                md.update(item.getKey().asUL() != null ? item.getKey().asUL().getValue() : item.getKey().asUUID().getValue());
+                md.update((byte) (v.length >>> 24));
+                md.update((byte) (v.length >>> 16));
+                md.update((byte) (v.length >>> 8));
+                md.update((byte) v.length);
+                md.update(v);
+            }
+
+            digest = md.digest();
+
+            digests.put(group, digest);
+        }
+
+        return digest;
+    }
+
+    /**
+     * Resolves a Strong Reference, and records the target as a dependency of
+     * the subtrees being captured
+     */
+    private Set resolveSet(UUID uuid) {
+
+        long start = stats == null ? 0 : System.nanoTime();
+
+        Set s = setresolver.get(uuid);
+
+        if (stats != null) {
+            stats.add(ExtractionStats.Phase.REFERENCE_RESOLUTION, System.nanoTime() - start, 0);
+            stats.addReference();
+        }
+
+        if (!captures.isEmpty()) {
+
+            byte[] digest = s == null ? null : getDigest(s);
+
+            /* only the innermost capture counts the reference, which is propagated when it completes */
+            captures.get(captures.size() - 1).references++;
+
+            for (Capture c : captures) {
+                c.dependencies.put(uuid, digest);
+            }
+        }
+
+        return s;
+    }
+
+    /**
+     * Returns true if none of the dependencies of a cached subtree have
+     * changed, and none would result in a circular reference
+     */
+    private boolean isValid(RenderCache.Entry entry) {
+
+        for (Map.Entry<UUID, byte[]> dep : entry.dependencies.entrySet()) {
+
+            if (instanceIDs.contains(dep.getKey())) {
+                return false;
+            }
+
+            Set s = setresolver.get(dep.getKey());
+
+            if (s == null ? dep.getValue() != null : !Arrays.equals(dep.getValue(), getDigest(s))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    void applyRule3(Group group) throws RuleException, IOException {
+
+        if (rendercache == null || projection != null || datavaluepolicy.getStore() != null || !(group instanceof Set)) {
+
+            writeGroup(group);
+
+            return;
+        }
+
+        RenderCache.Key key = new RenderCache.Key(dictversion, datavaluepolicy.getMaxInlineLength(), getDigest(group));
+
+        RenderCache.Entry entry = rendercache.get(key);
+
+        if (entry != null) {
+
+            if (isValid(entry)) {
+
+                /* namespace prefixes are allocated as if the subtree was rendered */
+                entry.subtree.replay(sink, this::getPrefix);
+
+                for (Capture c : captures) {
+                    c.dependencies.putAll(entry.dependencies);
+                }
+
+                if (!captures.isEmpty()) {
+                    captures.get(captures.size() - 1).references += entry.references;
+                }
+
+                /* the references are counted as if they were resolved */
+                if (stats != null) {
+                    stats.addReferences(entry.references);
+                }
+
+                return;
+            }
+
+            rendercache.invalidated();
+        }
+
+        Capture capture = new Capture(sink);
+
+        capture.dependencies.put(((Set) group).getInstanceID(), key.getDigest());
+
+        captures.add(capture);
+
+        try {
+
+            this.sink = capture;
+
+            writeGroup(group);
+
+        } finally {
+
+            this.sink = capture.target;
+
+            captures.remove(captures.size() - 1);
+
+        }
+
+        if (capture.clean) {
+
+            rendercache.put(key, new RenderCache.Entry(capture.recording, capture.dependencies, capture.references));
+
+        }
+
+        for (Capture c : captures) {
+            c.dependencies.putAll(capture.dependencies);
+        }
+
+        if (!captures.isEmpty()) {
+            captures.get(captures.size() - 1).references += capture.references;
+        }
+    }
+
+    void writeGroup(Group group) throws RuleException, IOException {
 
         Definition definition = defresolver.getDefinition(new AUID(group.getKey()));
 
@@ -434,10 +882,11 @@ public class FragmentBuilder {
 
             handleEvent(new FragmentEvent(
                     EventCodes.UNKNOWN_GROUP,
-                    String.format(
+                    () -> String.format(
                             "Unknown Group UL %s",
                             group.getKey().toString()
-                    )
+                    ),
+                    null
             )
             );
 
@@ -448,169 +897,269 @@ public class FragmentBuilder {
 
             handleEvent(new FragmentEvent(
                     EventCodes.VERSION_BYTE_MISMATCH,
-                    String.format(
+                    () -> String.format(
                             "Group UL %s in file does not have the same version as in the register (0x%02x)",
                             group.getKey(),
                             definition.getIdentification().asUL().getVersion()
-                    )
+                    ),
+                    null
             )
             );
 
         }
 
-        Element objelem = node.getOwnerDocument().createElementNS(definition.getNamespace().toString(), definition.getSymbol());
+        /* steps of the projection, if any, that apply to the properties of the object */
+        List<Projection.Node> objsteps = this.projection;
+
+        if (objsteps != null && definition instanceof ClassDefinition) {
+            objsteps = Projection.Node.forObject(objsteps, (ClassDefinition) definition, defresolver);
+        }
+
+        /* skip objects under a Strong Reference whose properties are not selected */
+        if (objsteps != null && !(objsteps.size() == 1 && objsteps.get(0).isRoot())) {
+
+            boolean selected = false;
+
+            for (Triplet item : group.getItems()) {
+
+                if (Projection.Node.selects(objsteps, defresolver.getDefinition(item.getKey()))) {
+                    selected = true;
+                    break;
+                }
+
+            }
 
-        node.appendChild(objelem);
+            if (!selected) {
+                return;
+            }
+        }
 
-        objelem.setPrefix(getPrefix(definition.getNamespace()));
+        /* find the unique identifier of the object, if any, which is written as the reg:uid attribute */
+        Triplet uniqueitem = null;
 
         for (Triplet item : group.getItems()) {
 
-            /* skip if the property is not defined in the registers */
             Definition itemdef = defresolver.getDefinition(item.getKey());
 
-            if (itemdef == null) {
-
-                handleEvent(new FragmentEvent(
-                        EventCodes.UNKNOWN_PROPERTY,
-                        String.format(
-                                "Unknown property %s",
-                                item.getKey().toString()
-                        ),
-                        String.format(
-                                "Group %s",
-                                definition.getSymbol()
-                        )
-                )
-                );
+            if (itemdef instanceof PropertyDefinition && ((PropertyDefinition) itemdef).isUniqueIdentifier()
+                    && (objsteps == null || Projection.Node.selects(objsteps, itemdef))) {
+                uniqueitem = item;
+            }
 
-                /* inserts the full value of the dark property as a comment */
-                addInformativeComment(
-                        objelem,
-                        String.format(
-                                "Unknown property\nKey: %s\nData: %s",
-                                item.getKey().toString(),
-                                bytesToString(item.getValue())
-                        )
-                );
+        }
 
-                continue;
+        FragmentSink objsink = this.sink;
 
-            }
+        String objprefix = getPrefix(definition.getNamespace());
 
-            /* make sure this is a property definition */
-            if (!(itemdef instanceof PropertyDefinition)) {
+        /* since attributes precede children, buffer the properties until the unique identifier is known */
+        RecordingSink pending = null;
 
-                FragmentEvent evt = new FragmentEvent(
-                        EventCodes.UNEXPECTED_DEFINITION,
-                        String.format(
-                                "Item %s is not a property",
-                                item.getKey().toString()
-                        ),
-                        String.format(
-                                "Group %s",
-                                definition.getSymbol()
-                        )
-                );
+        if (uniqueitem != null) {
 
-                handleEvent(evt);
+            pending = new RecordingSink();
 
-                addInformativeComment(objelem, evt.getReason());
+            this.sink = pending;
 
-                continue;
-            }
+        } else {
+
+            objsink.startElement(definition.getNamespace().toString(), objprefix, definition.getSymbol());
+
+        }
+
+        int ancestorcount = instanceIDs.size();
+
+        List<Projection.Node> objprojection = this.projection;
+
+        try {
+
+            for (Triplet item : group.getItems()) {
+
+                /* skip if the property is not defined in the registers */
+                Definition itemdef = defresolver.getDefinition(item.getKey());
+
+                /* steps of the projection, if any, that apply to the value of the property */
+                List<Projection.Node> propsteps = null;
+
+                if (objsteps != null) {
+
+                    propsteps = Projection.Node.forProperty(objsteps, itemdef);
+
+                    /* skip properties that are not selected, but keep track of the InstanceID */
+                    if (propsteps != null && propsteps.isEmpty()) {
+
+                        if (item.getKey().equals(INSTANCE_UID_ITEM_UL)) {
+                            instanceIDs.push(new UUID(item.getValue()));
+                        }
+
+                        continue;
+                    }
+
+                }
+
+                if (itemdef == null) {
+
+                    handleEvent(new FragmentEvent(
+                            EventCodes.UNKNOWN_PROPERTY,
+                            () -> String.format(
+                                    "Unknown property %s",
+                                    item.getKey().toString()
+                            ),
+                            () -> String.format(
+                                    "Group %s",
+                                    definition.getSymbol()
+                            )
+                    )
+                    );
+
+                    /* inserts the full value of the dark property as a comment */
+                    addInformativeComment(
+                            String.format(
+                                    "Unknown property\nKey: %s\nData: %s",
+                                    item.getKey().toString(),
+                                    bytesToString(item.getValue())
+                            )
+                    );
+
+                    continue;
+
+                }
+
+                /* make sure this is a property definition */
+                if (!(itemdef instanceof PropertyDefinition)) {
+
+                    FragmentEvent evt = new FragmentEvent(
+                            EventCodes.UNEXPECTED_DEFINITION,
+                            () -> String.format(
+                                    "Item %s is not a property",
+                                    item.getKey().toString()
+                            ),
+                            () -> String.format(
+                                    "Group %s",
+                                    definition.getSymbol()
+                            )
+                    );
+
+                    handleEvent(evt);
+
+                    addInformativeComment(evt.getReason());
+
+                    continue;
+                }
+
+                /* warn if version byte of the property does not match the register version byte  */
+                if (itemdef.getIdentification().asUL().getVersion() != item.getKey().asUL().getVersion()) {
+
+                    handleEvent(new FragmentEvent(
+                            EventCodes.VERSION_BYTE_MISMATCH,
+                            () -> String.format(
+                                    "Property UL %s in file does not have the same version as in the register (0x%02x)",
+                                    item.getKey().toString(),
+                                    itemdef.getIdentification().asUL().getVersion()
+                            ),
+                            () -> String.format(
+                                    "Group %s",
+                                    definition.getSymbol()
+                            )
+                    )
+                    );
+
+                }
+
+                int textstart = pending == null ? 0 : pending.size();
+
+                sink.startElement(itemdef.getNamespace().toString(), getPrefix(itemdef.getNamespace()), itemdef.getSymbol());
+
+                /* write the property */
+                this.projection = propsteps;
+
+                try {
+
+                    applyRule4(itemdef.getSymbol(), new MXFInputStream(item.getValueAsStream()), itemdef);
+
+                } finally {
+
+                    this.projection = objprojection;
+
+                }
+
+                sink.endElement();
+
+                /* detect cyclic references  */
+                if (item.getKey().equals(INSTANCE_UID_ITEM_UL)) {
+
+                    UUID iid = new UUID(item.getValue());
+
+                    /* look for identical instanceID in parent objects */
+                    if (instanceIDs.contains(iid)) {
+
+                        FragmentEvent evt = new FragmentEvent(
+                                EventCodes.CIRCULAR_STRONG_REFERENCE,
+                                () -> String.format(
+                                        "Circular Strong Reference to Set UID %s",
+                                        iid.toString()
+                                ),
+                                () -> String.format(
+                                        "Group %s",
+                                        definition.getSymbol()
+                                )
+                        );
 
-            /* warn if version byte of the property does not match the register version byte  */
-            if (itemdef.getIdentification().asUL().getVersion() != item.getKey().asUL().getVersion()) {
-
-                handleEvent(new FragmentEvent(
-                        EventCodes.VERSION_BYTE_MISMATCH,
-                        String.format(
-                                "Property UL %s in file does not have the same version as in the register (0x%02x)",
-                                item.getKey().toString(),
-                                itemdef.getIdentification().asUL().getVersion()
-                        ),
-                        String.format(
-                                "Group %s",
-                                definition.getSymbol()
-                        )
-                )
-                );
+                        handleEvent(evt);
 
-            }
+                        if (pending != null) {
 
-            Element elem = node.getOwnerDocument().createElementNS(itemdef.getNamespace().toString(), itemdef.getSymbol());
+                            objsink.startElement(definition.getNamespace().toString(), objprefix, definition.getSymbol());
 
-            objelem.appendChild(elem);
+                            pending.replay(objsink);
 
-            elem.setPrefix(getPrefix(itemdef.getNamespace()));
+                            pending = null;
+                        }
 
-            /* write the property */
-            applyRule4(elem, new MXFInputStream(item.getValueAsStream()), itemdef);
+                        objsink.endElement();
 
-            /* detect cyclic references  */
-            if (item.getKey().equals(INSTANCE_UID_ITEM_UL)) {
+                        this.sink = objsink;
 
-                String iidns = objelem.getLastChild().getNamespaceURI();
-                String iidname = objelem.getLastChild().getLocalName();
-                String iid = objelem.getLastChild().getTextContent();
+                        addInformativeComment(evt.getReason());
 
-                /* look for identical instanceID in parent elements */
-                Node parent = node;
+                        return;
+                    }
 
-                while (parent.getNodeType() == Node.ELEMENT_NODE) {
+                    instanceIDs.push(iid);
 
-                    for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+                }
 
-                        if (n.getNodeType() == Node.ELEMENT_NODE
-                                && iidname.equals(n.getLocalName())
-                                && iidns.equals(n.getNamespaceURI())
-                                && iid.equals(n.getTextContent())) {
+                /* add reg:uid if property is a unique ID */
+                if (item == uniqueitem) {
 
-                            FragmentEvent evt = new FragmentEvent(
-                                    EventCodes.CIRCULAR_STRONG_REFERENCE,
-                                    String.format(
-                                            "Circular Strong Reference to Set UID %s",
-                                            iid
-                                    ),
-                                    String.format(
-                                            "Group %s",
-                                            definition.getSymbol()
-                                    )
-                            );
+                    objsink.startElement(definition.getNamespace().toString(), objprefix, definition.getSymbol());
 
-                            handleEvent(evt);
+                    objsink.attribute(REGXML_NS, getPrefix(REGXML_NS), UID_ATTR, pending.getTextContent(textstart));
 
-                            addInformativeComment(
-                                    (Element) node,
-                                    evt.getReason()
-                            );
+                    pending.replay(objsink);
 
-                            return;
-                        }
-                    }
+                    pending = null;
 
-                    parent = parent.getParentNode();
+                    this.sink = objsink;
                 }
 
             }
 
-            /* add reg:uid if property is a unique ID */
-            if (((PropertyDefinition) itemdef).isUniqueIdentifier()) {
+            objsink.endElement();
 
-                Attr attr = node.getOwnerDocument().createAttributeNS(REGXML_NS, UID_ATTR);
+        } finally {
 
-                attr.setPrefix(getPrefix(REGXML_NS));
-                attr.setTextContent(objelem.getLastChild().getTextContent());
+            this.sink = objsink;
 
-                objelem.setAttributeNodeNS(attr);
+            while (instanceIDs.size() > ancestorcount) {
+                instanceIDs.pop();
             }
 
         }
 
     }
 
-    void applyRule4(Element element, MXFInputStream value, Definition propdef) throws RuleException {
+    void applyRule4(String elemname, MXFInputStream value, Definition propdef) throws RuleException, IOException {
 
         try {
 
@@ -623,11 +1172,11 @@ public class FragmentBuilder {
                 /* ISSUE: ST 2001-1 inverses these constants */
                 if (byteorder == 0x4D4D) {
 
-                    element.setTextContent(BYTEORDER_BE);
+                    sink.text(BYTEORDER_BE);
 
                 } else if (byteorder == 0x4949) {
 
-                    element.setTextContent(BYTEORDER_LE);
+                    sink.text(BYTEORDER_LE);
 
                     FragmentEvent evt = new FragmentEvent(
                             EventCodes.UNEXPECTED_BYTE_ORDER,
@@ -638,7 +1187,7 @@ public class FragmentBuilder {
 
                     handleEvent(evt);
 
-                    addInformativeComment(element, evt.getReason());
+                    addInformativeComment(evt.getReason());
 
                 } else {
                     throw new RuleException("Unknown ByteOrder value.");
@@ -647,30 +1196,33 @@ public class FragmentBuilder {
             } else {
 
                 if (propdef instanceof PropertyAliasDefinition) {
-                    propdef = defresolver.getDefinition(((PropertyAliasDefinition) propdef).getOriginalProperty());
+
+                    applyRule4(elemname, value, defresolver.getDefinition(((PropertyAliasDefinition) propdef).getOriginalProperty()));
+
+                    return;
                 }
 
-                Definition typedef = findBaseDefinition(defresolver.getDefinition(((PropertyDefinition) propdef).getType()));
+                Definition typedef = defresolver.getReferencedDefinition(propdef);
 
                 /* return if no type definition is found */
                 if (typedef == null) {
 
                     FragmentEvent evt = new FragmentEvent(
                             EventCodes.UNKNOWN_TYPE,
-                            String.format(
+                            () -> String.format(
                                     "Type %s not found",
                                     ((PropertyDefinition) propdef).getType().toString()
                             ),
-                            String.format(
+                            () -> String.format(
                                     "Property %s at Element %s",
                                     propdef.getSymbol(),
-                                    element.getLocalName()
+                                    elemname
                             )
                     );
 
                     handleEvent(evt);
 
-                    addInformativeComment(element, evt.getReason());
+                    addInformativeComment(evt.getReason());
 
                     return;
 
@@ -683,7 +1235,7 @@ public class FragmentBuilder {
                     UUID uuid = value.readUUID();
 
                     /* is this a local reference through Instance ID? */
-                    Group g = setresolver.get(uuid);
+                    Group g = resolveSet(uuid);
 
                     if (g != null) {
 
@@ -698,7 +1250,7 @@ public class FragmentBuilder {
                                     && itemdef instanceof PropertyDefinition
                                     && ((PropertyDefinition) itemdef).isUniqueIdentifier()) {
 
-                                applyRule4(element, new MXFInputStream(item.getValueAsStream()), itemdef);
+                                applyRule4(elemname, new MXFInputStream(item.getValueAsStream()), itemdef);
 
                                 foundUniqueID = true;
 
@@ -712,20 +1264,20 @@ public class FragmentBuilder {
 
                             FragmentEvent evt = new FragmentEvent(
                                     EventCodes.MISSING_UNIQUE,
-                                    String.format(
+                                    () -> String.format(
                                             "Target Primary Package with Instance UID %s has no IsUnique element.",
                                             uuid.toString()
                                     ),
-                                    String.format(
+                                    () -> String.format(
                                             "Property %s at Element %s",
                                             propdef.getSymbol(),
-                                            element.getLocalName()
+                                            elemname
                                     )
                             );
 
                             handleEvent(evt);
 
-                            addInformativeComment(element, evt.getReason());
+                            addInformativeComment(evt.getReason());
 
                         }
 
@@ -733,20 +1285,20 @@ public class FragmentBuilder {
 
                         FragmentEvent evt = new FragmentEvent(
                                 EventCodes.MISSING_PRIMARY_PACKAGE,
-                                String.format(
+                                () -> String.format(
                                         "Target Primary Package with Instance UID %s not found",
                                         uuid.toString()
                                 ),
-                                String.format(
+                                () -> String.format(
                                         "Property %s at Element %s",
                                         propdef.getSymbol(),
-                                        element.getLocalName()
+                                        elemname
                                 )
                         );
 
                         handleEvent(evt);
 
-                        addInformativeComment(element, evt.getReason());
+                        addInformativeComment(evt.getReason());
 
                     }
 
@@ -761,7 +1313,7 @@ public class FragmentBuilder {
                         typedef = defresolver.getDefinition(new AUID(UUID_UL));
                     }
 
-                    applyRule5(element, value, typedef);
+                    applyRule5(elemname, value, typedef);
                 }
             }
 
@@ -769,17 +1321,17 @@ public class FragmentBuilder {
 
             FragmentEvent evt = new FragmentEvent(
                     EventCodes.VALUE_LENGTH_MISMATCH,
-                    "Value too short",
-                    String.format(
+                    () -> "Value too short",
+                    () -> String.format(
                             "Property %s at Element %s",
                             propdef.getSymbol(),
-                            element.getLocalName()
+                            elemname
                     )
             );
 
             handleEvent(evt);
 
-            addInformativeComment(element, evt.getReason());
+            addInformativeComment(evt.getReason());
 
         } catch (IOException ioe) {
 
@@ -789,42 +1341,42 @@ public class FragmentBuilder {
 
     }
 
-    void applyRule5(Element element, MXFInputStream value, Definition definition) throws RuleException, IOException {
+    void applyRule5(String elemname, MXFInputStream value, Definition definition) throws RuleException, IOException {
 
         if (definition instanceof CharacterTypeDefinition) {
-            applyRule5_1(element, value, (CharacterTypeDefinition) definition);
+            applyRule5_1(elemname, value, (CharacterTypeDefinition) definition);
         } else if (definition instanceof EnumerationTypeDefinition) {
-            applyRule5_2(element, value, (EnumerationTypeDefinition) definition);
+            applyRule5_2(elemname, value, (EnumerationTypeDefinition) definition);
         } else if (definition instanceof ExtendibleEnumerationTypeDefinition) {
-            applyRule5_3(element, value, (ExtendibleEnumerationTypeDefinition) definition);
+            applyRule5_3(elemname, value, (ExtendibleEnumerationTypeDefinition) definition);
         } else if (definition instanceof FixedArrayTypeDefinition) {
-            applyRule5_4(element, value, (FixedArrayTypeDefinition) definition);
+            applyRule5_4(elemname, value, (FixedArrayTypeDefinition) definition);
         } else if (definition instanceof IndirectTypeDefinition) {
-            applyRule5_5(element, value, (IndirectTypeDefinition) definition);
+            applyRule5_5(elemname, value, (IndirectTypeDefinition) definition);
         } else if (definition instanceof IntegerTypeDefinition) {
-            applyRule5_6(element, value, (IntegerTypeDefinition) definition);
+            applyRule5_6(elemname, value, (IntegerTypeDefinition) definition);
         } else if (definition instanceof OpaqueTypeDefinition) {
-            applyRule5_7(element, value, (OpaqueTypeDefinition) definition);
+            applyRule5_7(elemname, value, (OpaqueTypeDefinition) definition);
         } else if (definition instanceof RecordTypeDefinition) {
-            applyRule5_8(element, value, (RecordTypeDefinition) definition);
+            applyRule5_8(elemname, value, (RecordTypeDefinition) definition);
         } else if (definition instanceof RenameTypeDefinition) {
-            applyRule5_9(element, value, (RenameTypeDefinition) definition);
+            applyRule5_9(elemname, value, (RenameTypeDefinition) definition);
         } else if (definition instanceof SetTypeDefinition) {
-            applyRule5_10(element, value, (SetTypeDefinition) definition);
+            applyRule5_10(elemname, value, (SetTypeDefinition) definition);
         } else if (definition instanceof StreamTypeDefinition) {
-            applyRule5_11(element, value, (StreamTypeDefinition) definition);
+            applyRule5_11(elemname, value, (StreamTypeDefinition) definition);
         } else if (definition instanceof StringTypeDefinition) {
-            applyRule5_12(element, value, (StringTypeDefinition) definition);
+            applyRule5_12(elemname, value, (StringTypeDefinition) definition);
         } else if (definition instanceof StrongReferenceTypeDefinition) {
-            applyRule5_13(element, value, (StrongReferenceTypeDefinition) definition);
+            applyRule5_13(elemname, value, (StrongReferenceTypeDefinition) definition);
         } else if (definition instanceof VariableArrayTypeDefinition) {
-            applyRule5_14(element, value, (VariableArrayTypeDefinition) definition);
+            applyRule5_14(elemname, value, (VariableArrayTypeDefinition) definition);
         } else if (definition instanceof WeakReferenceTypeDefinition) {
-            applyRule5_15(element, value, (WeakReferenceTypeDefinition) definition);
+            applyRule5_15(elemname, value, (WeakReferenceTypeDefinition) definition);
         } else if (definition instanceof FloatTypeDefinition) {
-            applyRule5_alpha(element, value, (FloatTypeDefinition) definition);
+            applyRule5_alpha(elemname, value, (FloatTypeDefinition) definition);
         } else if (definition instanceof LensSerialFloatTypeDefinition) {
-            applyRule5_beta(element, value, (LensSerialFloatTypeDefinition) definition);
+            applyRule5_beta(elemname, value, (LensSerialFloatTypeDefinition) definition);
         } else {
 
             throw new RuleException(
@@ -838,103 +1390,152 @@ public class FragmentBuilder {
 
     }
 
-    private void readCharacters(Element element, MXFInputStream value, CharacterTypeDefinition definition, boolean isSingleChar) throws RuleException, IOException {
+    private CharsetDecoder getDecoder(Charset charset) {
+
+        CharsetDecoder decoder = decoders.get(charset);
+
+        if (decoder == null) {
+
+            /* NOTE: same error handling as InputStreamReader */
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
 
-        StringBuilder sb = new StringBuilder();
+            decoders.put(charset, decoder);
+        }
+
+        return decoder;
+    }
+
+    private void readCharacters(String elemname, MXFInputStream value, CharacterTypeDefinition definition, boolean isSingleChar) throws RuleException, IOException {
 
-        Reader in = null;
+        Charset charset;
 
         if (definition.getIdentification().equals(Character_UL)) {
 
             if (value.getByteOrder() == ByteOrder.BIG_ENDIAN) {
 
-                in = new InputStreamReader(value, "UTF-16BE");
+                charset = StandardCharsets.UTF_16BE;
 
             } else {
 
-                in = new InputStreamReader(value, "UTF-16LE");
+                charset = StandardCharsets.UTF_16LE;
 
             }
 
         } else if (definition.getIdentification().equals(Char_UL)) {
 
-            in = new InputStreamReader(value, "US-ASCII");
+            charset = StandardCharsets.US_ASCII;
 
         } else if (definition.getIdentification().equals(UTF8Character_UL)) {
 
             /* NOTE: Use of UTF-8 character encoding is specified in RP 2057 */
-            in = new InputStreamReader(value, "UTF-8");
+            charset = StandardCharsets.UTF_8;
 
         } else {
 
             FragmentEvent evt = new FragmentEvent(
                     EventCodes.UNSUPPORTED_CHAR_TYPE,
-                    String.format(
+                    () -> String.format(
                             "Character type %s is not supported at Element %s",
                             definition.getSymbol(),
-                            element.getLocalName()
-                    )
+                            elemname
+                    ),
+                    null
             );
 
             handleEvent(evt);
 
-            addInformativeComment(element, evt.getReason());
+            addInformativeComment(evt.getReason());
 
             return;
 
         }
 
-        char[] chars = new char[32];
+        /*
+         * decode the remainder of the value in chunks, removing trailing
+         * zeroes if requested and escaping characters per ST 2001-1 as they
+         * are decoded
+         */
+        CharsetDecoder decoder = getDecoder(charset).reset();
+
+        StringBuilder text = new StringBuilder();
 
-        for (int c; (c = in.read(chars)) != -1;) {
-            sb.append(chars, 0, c);
-        }
+        boolean escaped = false;
+        boolean ended = false;
+        boolean eof = false;
+
+        charbytes.clear();
+
+        while (!eof) {
 
-        StringBuilder esb = new StringBuilder();
+            int c = value.read(charbytes.array(), charbytes.position(), charbytes.remaining());
 
-        /* remove trailing zeroes if requested */
-        /* and escape characters per ST 2001-1 */
-        boolean isescaped = false;
+            if (c == -1) {
+                eof = true;
+            } else {
+                charbytes.position(charbytes.position() + c);
+            }
 
-        for (int i = 0; i < sb.length(); i++) {
-            char c = sb.charAt(i);
-            
-            if (c == 0 && (! isSingleChar)) break;
+            charbytes.flip();
 
-            if (c == 0x09 ||
-                c == 0x0A ||
-                (c >= 0x20 && c <= 0x23) ||
-                c >= 0x25) {
+            CoderResult result;
 
-                    esb.append(c);
+            do {
 
-                } else {
-                
-                    isescaped = true;
+                chars.clear();
 
-                    esb.append("$#x");
-                    esb.append(Integer.toString(c, 16));
-                    esb.append(";");
+                result = decoder.decode(charbytes, chars, eof);
 
+                if (eof && result.isUnderflow()) {
+                    result = decoder.flush(chars);
+                }
+
+                chars.flip();
+
+                while (chars.hasRemaining() && !ended) {
+
+                    char ch = chars.get();
+
+                    if (ch == 0 && (!isSingleChar)) {
+
+                        ended = true;
+
+                    } else if (ch == 0x09
+                            || ch == 0x0A
+                            || (ch >= 0x20 && ch <= 0x23)
+                            || ch >= 0x25) {
+
+                        text.append(ch);
+
+                    } else {
+
+                        escaped = true;
+
+                        text.append("$#x");
+                        text.append(Integer.toString(ch, 16));
+                        text.append(";");
+
+                    }
                 }
-        }
 
-        if (isescaped) {
+            } while (result.isOverflow());
+
+            /* keeps any incomplete byte sequence for the next chunk */
+            charbytes.compact();
+        }
 
-            Attr attr = element.getOwnerDocument().createAttributeNS(REGXML_NS, ESCAPE_ATTR);
-            attr.setPrefix(getPrefix(REGXML_NS));
-            attr.setTextContent("true");
-            element.setAttributeNodeNS(attr);
-            
+        if (escaped) {
+            sink.attribute(REGXML_NS, getPrefix(REGXML_NS), ESCAPE_ATTR, "true");
         }
-        
-        element.setTextContent(esb.toString());
+
+        sink.text(text.toString());
 
     }
 
-    void applyRule5_1(Element element, MXFInputStream value, CharacterTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_1(String elemname, MXFInputStream value, CharacterTypeDefinition definition) throws RuleException, IOException {
 
-        readCharacters(element, value, definition, true /* do not remove trailing zeroes for a single char */);
+        readCharacters(elemname, value, definition, true /* do not remove trailing zeroes for a single char */);
 
     }
 
@@ -956,27 +1557,27 @@ public class FragmentBuilder {
         return bytes;
     }
 
-    void applyRule5_2(Element element, MXFInputStream value, EnumerationTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_2(String elemname, MXFInputStream value, EnumerationTypeDefinition definition) throws RuleException, IOException {
 
         try {
 
-            Definition bdef = findBaseDefinition(defresolver.getDefinition(definition.getElementType()));
+            Definition bdef = defresolver.getReferencedDefinition(definition);
 
             if (!(bdef instanceof IntegerTypeDefinition)) {
 
                 FragmentEvent evt = new FragmentEvent(
                         EventCodes.UNSUPPORTED_ENUM_TYPE,
-                        "Enum does not have an Integer base type.",
-                        String.format(
+                        () -> "Enum does not have an Integer base type.",
+                        () -> String.format(
                                 "Enum %s at Element %s",
                                 definition.getSymbol(),
-                                element.getLocalName()
+                                elemname
                         )
                 );
 
                 handleEvent(evt);
 
-                addInformativeComment(element, evt.getReason());
+                addInformativeComment(evt.getReason());
 
                 return;
             }
@@ -1012,23 +1613,26 @@ public class FragmentBuilder {
 
             String str = null;
 
+            /* informative comment, if any, follows the value */
+            String comment = null;
+
             if (val.length == 0) {
 
                 str = "ERROR";
 
                 FragmentEvent evt = new FragmentEvent(
                         EventCodes.VALUE_LENGTH_MISMATCH,
-                        "No data",
-                        String.format(
+                        () -> "No data",
+                        () -> String.format(
                                 "Enum %s at Element %s",
                                 definition.getSymbol(),
-                                element.getLocalName()
+                                elemname
                         )
                 );
 
                 handleEvent(evt);
 
-                addInformativeComment(element, evt.getReason());
+                comment = evt.getReason();
 
             } else {
 
@@ -1061,64 +1665,70 @@ public class FragmentBuilder {
 
                     FragmentEvent evt = new FragmentEvent(
                             EventCodes.UNKNOWN_ENUM_VALUE,
-                            String.format(
+                            () -> String.format(
                                     "Undefined value %d",
                                     bi.intValue()
                             ),
-                            String.format(
+                            () -> String.format(
                                     "Enum %s at Element %s",
                                     definition.getSymbol(),
-                                    element.getLocalName()
+                                    elemname
                             )
                     );
 
                     handleEvent(evt);
 
-                    addInformativeComment(element, evt.getReason());
+                    comment = evt.getReason();
 
                 } else if (val.length != len) {
 
+                    final int expectedlen = len;
+
                     FragmentEvent evt = new FragmentEvent(
                             EventCodes.VALUE_LENGTH_MISMATCH,
-                            String.format(
+                            () -> String.format(
                                     "Incorrect length: expected %d and received %d",
-                                    len,
+                                    expectedlen,
                                     val.length
                             ),
-                            String.format(
+                            () -> String.format(
                                     "Enumeration %s at Element %s",
                                     definition.getSymbol(),
-                                    element.getLocalName()
+                                    elemname
                             )
                     );
 
                     handleEvent(evt);
 
-                    addInformativeComment(element, evt.getReason());
+                    comment = evt.getReason();
 
                 }
             }
 
-            element.setTextContent(str);
+            sink.text(str);
+
+            if (comment != null) {
+                addInformativeComment(comment);
+            }
 
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException(e);
         }
     }
 
-    void appendCommentWithAUIDName(AUIDNameResolver anr, AUID auid, Element elem) {
+    void appendCommentWithAUIDName(AUIDNameResolver anr, AUID auid) throws IOException {
         if (this.anameresolver != null) {
 
             String ename = this.anameresolver.getLocalName(auid);
 
             if (ename != null) {
-                elem.appendChild(elem.getOwnerDocument().createComment(ename));
+                sink.comment(ename);
             }
 
         }
     }
 
-    void applyRule5_3(Element element, MXFInputStream value, ExtendibleEnumerationTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_3(String elemname, MXFInputStream value, ExtendibleEnumerationTypeDefinition definition) throws RuleException, IOException {
 
         try {
 
@@ -1126,57 +1736,55 @@ public class FragmentBuilder {
 
             /* NOTE: ST 2001-1 XML Schema does not allow ULs as values for Extendible Enumerations, which
              defeats the purpose of the type. This issue could be addressed at the next revision opportunity. */
-            element.setTextContent(ul.toString());
+            sink.text(ul.toString());
 
-            appendCommentWithAUIDName(anameresolver, new AUID(ul), element);
+            appendCommentWithAUIDName(anameresolver, new AUID(ul));
 
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException(e);
         }
     }
 
-    void applyRule5_4(Element element, MXFInputStream value, FixedArrayTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_4(String elemname, MXFInputStream value, FixedArrayTypeDefinition definition) throws RuleException, IOException {
 
         if (definition.getIdentification().equals(UUID_UL)) {
 
             UUID uuid = value.readUUID();
 
-            element.setTextContent(uuid.toString());
+            sink.text(uuid.toString());
 
         } else {
 
-            Definition typedef = findBaseDefinition(defresolver.getDefinition(definition.getElementType()));
+            Definition typedef = defresolver.getReferencedDefinition(definition);
 
-            applyCoreRule5_4(element, value, typedef, definition.getElementCount());
+            applyCoreRule5_4(elemname, value, typedef, definition.getElementCount());
 
         }
     }
 
-    void applyCoreRule5_4(Element element, MXFInputStream value, Definition typedef, int elementcount) throws RuleException, IOException {
+    void applyCoreRule5_4(String elemname, MXFInputStream value, Definition typedef, int elementcount) throws RuleException, IOException {
 
         for (int i = 0; i < elementcount; i++) {
 
             if (typedef instanceof StrongReferenceTypeDefinition) {
 
                 /* Rule 5.4.1 */
-                applyRule5_13(element, value, (StrongReferenceTypeDefinition) typedef);
+                applyRule5_13(elemname, value, (StrongReferenceTypeDefinition) typedef);
 
             } else {
 
                 /* Rule 5.4.2 */
-                Element elem = element.getOwnerDocument().createElementNS(typedef.getNamespace().toString(), typedef.getSymbol());
-
-                elem.setPrefix(getPrefix(typedef.getNamespace()));
+                sink.startElement(typedef.getNamespace().toString(), getPrefix(typedef.getNamespace()), typedef.getSymbol());
 
-                applyRule5(elem, value, typedef);
+                applyRule5(typedef.getSymbol(), value, typedef);
 
-                element.appendChild(elem);
+                sink.endElement();
 
             }
         }
     }
 
-    void applyRule5_5(Element element, MXFInputStream value, IndirectTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_5(String elemname, MXFInputStream value, IndirectTypeDefinition definition) throws RuleException, IOException {
 
         /* see https://github.com/sandflow/regxmllib/issues/74 for a discussion on Indirect Type */
         ByteOrder bo;
@@ -1200,17 +1808,17 @@ public class FragmentBuilder {
 
             FragmentEvent evt = new FragmentEvent(
                     EventCodes.INVALID_IDAU,
-                    "Invalid IDAU",
-                    String.format(
+                    () -> "Invalid IDAU",
+                    () -> String.format(
                             "Indirect Type %s at Element %s",
                             definition.getSymbol(),
-                            element.getLocalName()
+                            elemname
                     )
             );
 
             handleEvent(evt);
 
-            addInformativeComment(element, evt.getReason());
+            addInformativeComment(evt.getReason());
 
             return;
         }
@@ -1223,35 +1831,32 @@ public class FragmentBuilder {
 
             FragmentEvent evt = new FragmentEvent(
                     EventCodes.UNKNOWN_TYPE,
-                    String.format(
+                    () -> String.format(
                             "No definition found for indirect type %s.",
                             auid.toString()
                     ),
-                    String.format(
+                    () -> String.format(
                             "Indirect Type %s at Element %s",
                             definition.getSymbol(),
-                            element.getLocalName()
+                            elemname
                     )
             );
 
             handleEvent(evt);
 
-            addInformativeComment(element, evt.getReason());
+            addInformativeComment(evt.getReason());
 
             return;
         }
 
         // create reg:actualType attribute
-        Attr attr = element.getOwnerDocument().createAttributeNS(REGXML_NS, ACTUALTYPE_ATTR);
-        attr.setPrefix(getPrefix(REGXML_NS));
-        attr.setTextContent(def.getSymbol());
-        element.setAttributeNodeNS(attr);
+        sink.attribute(REGXML_NS, getPrefix(REGXML_NS), ACTUALTYPE_ATTR, def.getSymbol());
 
-        applyRule5(element, orderedval, def);
+        applyRule5(elemname, orderedval, def);
 
     }
 
-    void applyRule5_6(Element element, MXFInputStream value, IntegerTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_6(String elemname, MXFInputStream value, IntegerTypeDefinition definition) throws RuleException, IOException {
 
         try {
 
@@ -1276,49 +1881,49 @@ public class FragmentBuilder {
 
             if (val.length == 0) {
 
-                element.setTextContent("NaN");
+                sink.text("NaN");
 
                 FragmentEvent evt = new FragmentEvent(
                         EventCodes.VALUE_LENGTH_MISMATCH,
-                        "No data",
-                        String.format(
+                        () -> "No data",
+                        () -> String.format(
                                 "Integer %s at Element %s",
                                 definition.getSymbol(),
-                                element.getLocalName()
+                                elemname
                         )
                 );
 
                 handleEvent(evt);
 
-                addInformativeComment(element, evt.getReason());
+                addInformativeComment(evt.getReason());
 
             } else {
 
                 try {
 
-                    BigInteger bi = definition.isSigned() ? new BigInteger(val) : new BigInteger(1, val);
-
-                    element.setTextContent(bi.toString());
+                    sink.text(integerToString(val, definition.isSigned()));
 
                     if (val.length != len) {
 
+                        final int expectedlen = len;
+
                         FragmentEvent evt = new FragmentEvent(
                                 EventCodes.VALUE_LENGTH_MISMATCH,
-                                String.format(
+                                () -> String.format(
                                         "Incorrect field length: expected %d and parsed %d.",
-                                        len,
+                                        expectedlen,
                                         val.length
                                 ),
-                                String.format(
+                                () -> String.format(
                                         "Integer %s at Element %s",
                                         definition.getSymbol(),
-                                        element.getLocalName()
+                                        elemname
                                 )
                         );
 
                         handleEvent(evt);
 
-                        addInformativeComment(element, evt.getReason());
+                        addInformativeComment(evt.getReason());
 
                     }
 
@@ -1326,17 +1931,17 @@ public class FragmentBuilder {
 
                     FragmentEvent evt = new FragmentEvent(
                             EventCodes.INVALID_INTEGER_VALUE,
-                            "Invalid integer value",
-                            String.format(
+                            () -> "Invalid integer value",
+                            () -> String.format(
                                     "Integer %s at Element %s",
                                     definition.getSymbol(),
-                                    element.getLocalName()
+                                    elemname
                             )
                     );
 
                     handleEvent(evt);
 
-                    addInformativeComment(element, evt.getReason());
+                    addInformativeComment(evt.getReason());
                 }
 
             }
@@ -1347,40 +1952,75 @@ public class FragmentBuilder {
 
     }
 
-    void applyRule5_7(Element element, MXFInputStream value, OpaqueTypeDefinition definition) throws RuleException {
+    /* formats a big-endian integer of at most 8 bytes, as BigInteger.toString() would */
+    private static String integerToString(byte[] val, boolean isSigned) {
+
+        long v = isSigned ? val[0] : val[0] & 0xFF;
+
+        for (int i = 1; i < val.length; i++) {
+            v = (v << 8) | (val[i] & 0xFF);
+        }
+
+        return (isSigned || val.length < 8) ? Long.toString(v) : Long.toUnsignedString(v);
+    }
+
+    void applyRule5_7(String elemname, MXFInputStream value, OpaqueTypeDefinition definition) throws RuleException {
 
         /* NOTE: Opaque Types are not used in MXF */
         throw new RuleException("Opaque types are not supported.");
 
     }
 
-    String generateISO8601Time(int hour, int minutes, int seconds, int millis) {
-        StringBuilder sb = new StringBuilder();
+    /* appends a non-negative integer, left-padded with zeroes to width digits */
+    private static StringBuilder appendPadded(StringBuilder sb, int value, int width) {
+
+        for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+            if (value < limit) {
+                sb.append('0');
+            }
+        }
+
+        return sb.append(value);
+    }
 
-        sb.append(String.format("%02d:%02d:%02d", hour, minutes, seconds));
+    private static StringBuilder appendISO8601Time(StringBuilder sb, int hour, int minutes, int seconds, int millis) {
+
+        appendPadded(sb, hour, 2).append(':');
+        appendPadded(sb, minutes, 2).append(':');
+        appendPadded(sb, seconds, 2);
 
         if (millis != 0) {
-            sb.append(String.format(".%03d", millis));
+            appendPadded(sb.append('.'), millis, 3);
         }
 
-        sb.append("Z");
+        return sb.append('Z');
+    }
+
+    private static StringBuilder appendISO8601Date(StringBuilder sb, int year, int month, int day) {
+
+        appendPadded(sb, year, 4).append('-');
+        appendPadded(sb, month, 2).append('-');
 
-        return sb.toString();
+        return appendPadded(sb, day, 2);
+    }
+
+    String generateISO8601Time(int hour, int minutes, int seconds, int millis) {
+        return appendISO8601Time(new StringBuilder(13), hour, minutes, seconds, millis).toString();
     }
 
     String generateISO8601Date(int year, int month, int day) {
-        return String.format("%04d-%02d-%02d", year, month, day);
+        return appendISO8601Date(new StringBuilder(10), year, month, day).toString();
     }
 
-    void applyRule5_8(Element element, MXFInputStream value, RecordTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_8(String elemname, MXFInputStream value, RecordTypeDefinition definition) throws RuleException, IOException {
 
         if (definition.getIdentification().equals(AUID_UL)) {
 
             AUID auid = value.readAUID();
 
-            element.setTextContent(auid.toString());
+            sink.text(auid.toString());
 
-            appendCommentWithAUIDName(anameresolver, auid, element);
+            appendCommentWithAUIDName(anameresolver, auid);
 
         } else if (definition.getIdentification().equals(DateStruct_UL)) {
 
@@ -1388,20 +2028,20 @@ public class FragmentBuilder {
             int month = value.readUnsignedByte();
             int day = value.readUnsignedByte();
 
-            element.setTextContent(generateISO8601Date(year, month, day));
+            sink.text(generateISO8601Date(year, month, day));
 
         } else if (definition.getIdentification().equals(PackageID_UL)) {
 
             UMID umid = value.readUMID();
 
-            element.setTextContent(umid.toString());
+            sink.text(umid.toString());
 
         } else if (definition.getIdentification().equals(Rational_UL)) {
 
             int numerator = value.readInt();
             int denominator = value.readInt();
 
-            element.setTextContent(String.format("%d/%d", numerator, denominator));
+            sink.text(new StringBuilder(23).append(numerator).append('/').append(denominator).toString());
 
         } else if (definition.getIdentification().equals(TimeStruct_UL)) {
 
@@ -1412,7 +2052,7 @@ public class FragmentBuilder {
             int second = value.readUnsignedByte();
             int fraction = value.readUnsignedByte();
 
-            element.setTextContent(generateISO8601Time(hour, minute, second, 4 * fraction));
+            sink.text(generateISO8601Time(hour, minute, second, 4 * fraction));
 
         } else if (definition.getIdentification().equals(TimeStamp_UL)) {
 
@@ -1424,7 +2064,11 @@ public class FragmentBuilder {
             int second = value.readUnsignedByte();
             int fraction = value.readUnsignedByte();
 
-            element.setTextContent(generateISO8601Date(year, month, day) + "T" + generateISO8601Time(hour, minute, second, 4 * fraction));
+            StringBuilder sb = new StringBuilder(24);
+
+            appendISO8601Date(sb, year, month, day).append('T');
+
+            sink.text(appendISO8601Time(sb, hour, minute, second, 4 * fraction).toString());
 
         } else if (definition.getIdentification().equals(VersionType_UL)) {
 
@@ -1432,7 +2076,7 @@ public class FragmentBuilder {
             int major = value.readUnsignedByte();
             int minor = value.readUnsignedByte();
 
-            element.setTextContent(String.format("%d.%d", major, minor));
+            sink.text(new StringBuilder(7).append(major).append('.').append(minor).toString());
 
         } else {
 
@@ -1440,29 +2084,27 @@ public class FragmentBuilder {
 
                 Definition itemdef = findBaseDefinition(defresolver.getDefinition(member.getType()));
 
-                Element elem = element.getOwnerDocument().createElementNS(definition.getNamespace().toString(), member.getName());
-
-                elem.setPrefix(getPrefix(definition.getNamespace()));
+                sink.startElement(definition.getNamespace().toString(), getPrefix(definition.getNamespace()), member.getName());
 
-                applyRule5(elem, value, itemdef);
+                applyRule5(member.getName(), value, itemdef);
 
-                element.appendChild(elem);
+                sink.endElement();
             }
         }
 
     }
 
-    void applyRule5_9(Element element, MXFInputStream value, RenameTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_9(String elemname, MXFInputStream value, RenameTypeDefinition definition) throws RuleException, IOException {
 
         Definition rdef = defresolver.getDefinition(definition.getRenamedType());
 
-        applyRule5(element, value, rdef);
+        applyRule5(elemname, value, rdef);
 
     }
 
-    void applyRule5_10(Element element, MXFInputStream value, SetTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_10(String elemname, MXFInputStream value, SetTypeDefinition definition) throws RuleException, IOException {
 
-        Definition typedef = findBaseDefinition(defresolver.getDefinition(definition.getElementType()));
+        Definition typedef = defresolver.getReferencedDefinition(definition);
 
         try {
 
@@ -1471,7 +2113,7 @@ public class FragmentBuilder {
             long itemcount = dis.readInt() & 0xfffffffL;
             long itemlength = dis.readInt() & 0xfffffffL;
 
-            applyCoreRule5_4(element, value, typedef, (int) itemcount);
+            applyCoreRule5_4(elemname, value, typedef, (int) itemcount);
 
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException(e);
@@ -1479,16 +2121,16 @@ public class FragmentBuilder {
 
     }
 
-    void applyRule5_11(Element element, MXFInputStream value, StreamTypeDefinition definition) throws RuleException {
+    void applyRule5_11(String elemname, MXFInputStream value, StreamTypeDefinition definition) throws RuleException {
 
         throw new RuleException("Rule 5.11 is not supported yet.");
 
     }
 
-    void applyRule5_12(Element element, MXFInputStream value, StringTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_12(String elemname, MXFInputStream value, StringTypeDefinition definition) throws RuleException, IOException {
 
         /* Rule 5.12 */
-        Definition chrdef = findBaseDefinition(defresolver.getDefinition(definition.getElementType()));
+        Definition chrdef = defresolver.getReferencedDefinition(definition);
 
         /* NOTE: ST 2001-1 implies that integer-based strings are supported, but
          does not described semantics.
@@ -1497,26 +2139,26 @@ public class FragmentBuilder {
 
             FragmentEvent evt = new FragmentEvent(
                     EventCodes.UNSUPPORTED_STRING_TYPE,
-                    String.format(
+                    () -> String.format(
                             "Unsupported String with Element %s",
                             chrdef.getSymbol()
                     ),
-                    String.format(
+                    () -> String.format(
                             "String %s at Element %s",
                             definition.getSymbol(),
-                            element.getLocalName()
+                            elemname
                     )
             );
 
             handleEvent(evt);
 
-            addInformativeComment(element, evt.getReason());
+            addInformativeComment(evt.getReason());
 
             return;
         }
 
         readCharacters(
-                element,
+                elemname,
                 value,
                 (CharacterTypeDefinition) chrdef,
                 false /* remove trailing zeroes */
@@ -1524,28 +2166,28 @@ public class FragmentBuilder {
 
     }
 
-    void applyRule5_13(Element element, MXFInputStream value, StrongReferenceTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_13(String elemname, MXFInputStream value, StrongReferenceTypeDefinition definition) throws RuleException, IOException {
 
-        Definition typedef = findBaseDefinition(defresolver.getDefinition(definition.getReferencedType()));
+        Definition typedef = defresolver.getReferencedDefinition(definition);
 
         if (!(typedef instanceof ClassDefinition)) {
 
             FragmentEvent evt = new FragmentEvent(
                     EventCodes.INVALID_STRONG_REFERENCE_TYPE,
-                    String.format(
+                    () -> String.format(
                             "Target %s of Strong Reference Type is not a class",
                             typedef.getSymbol()
                     ),
-                    String.format(
+                    () -> String.format(
                             "Type %s at Element %s",
                             definition.getSymbol(),
-                            element.getLocalName()
+                            elemname
                     )
             );
 
             handleEvent(evt);
 
-            addInformativeComment(element, evt.getReason());
+            addInformativeComment(evt.getReason());
 
             return;
 
@@ -1553,36 +2195,36 @@ public class FragmentBuilder {
 
         UUID uuid = value.readUUID();
 
-        Group g = setresolver.get(uuid);
+        Group g = resolveSet(uuid);
 
         if (g != null) {
 
-            applyRule3(element, g);
+            applyRule3(g);
 
         } else {
 
             FragmentEvent evt = new FragmentEvent(
                     EventCodes.STRONG_REFERENCE_NOT_FOUND,
-                    String.format(
+                    () -> String.format(
                             "Strong Reference target %s is not found",
                             uuid.toString()
                     ),
-                    String.format(
+                    () -> String.format(
                             "Type %s at Element %s",
                             definition.getSymbol(),
-                            element.getLocalName()
+                            elemname
                     )
             );
 
             handleEvent(evt);
 
-            addInformativeComment(element, evt.getReason());
+            addInformativeComment(evt.getReason());
 
         }
 
     }
 
-    void applyRule5_alpha(Element element, MXFInputStream value, FloatTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_alpha(String elemname, MXFInputStream value, FloatTypeDefinition definition) throws RuleException, IOException {
 
         try {
 
@@ -1604,7 +2246,7 @@ public class FragmentBuilder {
                     break;
             }
 
-            element.setTextContent(Double.toString(val));
+            sink.text(Double.toString(val));
 
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException(e);
@@ -1612,7 +2254,7 @@ public class FragmentBuilder {
 
     }
 
-    void applyRule5_beta(Element element, MXFInputStream value, LensSerialFloatTypeDefinition definition) throws RuleException {
+    void applyRule5_beta(String elemname, MXFInputStream value, LensSerialFloatTypeDefinition definition) throws RuleException {
 
         throw new RuleException("Lens serial floats not supported.");
 
@@ -1627,47 +2269,160 @@ public class FragmentBuilder {
         return definition;
     }
 
-    private Collection<PropertyDefinition> getAllMembersOf(ClassDefinition definition) {
-        ClassDefinition cdef = definition;
+    final static char[] HEXMAP = "0123456789abcdef".toCharArray();
+
+    private String bytesToString(byte[] buffer) {
+        return bytesToString(buffer, 0, buffer.length);
+    }
+
+    private String bytesToString(byte[] buffer, int offset, int length) {
+
+        char[] out = new char[2 * length];
+
+        for (int j = 0; j < length; j++) {
+
+            int v = buffer[offset + j] & 0xFF;
+            out[j * 2] = HEXMAP[v >>> 4];
+            out[j * 2 + 1] = HEXMAP[v & 0x0F];
+        }
+
+        return new String(out);
+    }
+
+    /* number of octets converted to hexadecimal characters at a time */
+    private static final int HEX_CHUNK_LENGTH = 4096;
+
+    /* writes octets to the sink as hexadecimal characters, one chunk at a time */
+    private void writeHex(byte[] buffer, int offset, int length) throws IOException {
 
-        ArrayList<PropertyDefinition> props = new ArrayList<>();
+        char[] out = new char[2 * Math.min(length, HEX_CHUNK_LENGTH)];
 
-        while (cdef != null) {
+        do {
 
-            for (AUID auid : defresolver.getMembersOf(cdef)) {
-                props.add((PropertyDefinition) defresolver.getDefinition(auid));
+            int chunklen = Math.min(length, HEX_CHUNK_LENGTH);
+
+            for (int j = 0; j < chunklen; j++) {
+
+                int v = buffer[offset + j] & 0xFF;
+                out[j * 2] = HEXMAP[v >>> 4];
+                out[j * 2 + 1] = HEXMAP[v & 0x0F];
             }
 
-            if (cdef.getParentClass() != null) {
-                cdef = (ClassDefinition) defresolver.getDefinition(cdef.getParentClass());
-            } else {
-                cdef = null;
+            sink.text(new String(out, 0, 2 * chunklen));
+
+            offset += chunklen;
+            length -= chunklen;
+
+        } while (length > 0);
+    }
+
+    void applyDataValue(String elemname, InputStream value) throws RuleException, IOException {
+
+        int maxlength = datavaluepolicy.getMaxInlineLength();
+
+        if (datavaluepolicy.getStore() != null) {
+
+            /* retain at most one octet more than can be written inline */
+            int headmax = (int) Math.min(maxlength + 1L, Integer.MAX_VALUE - 8);
+
+            byte[] head = new byte[Math.min(headmax, 256)];
+            int headlen = 0;
+
+            for (int sz; headlen < headmax && (sz = value.read(head, headlen, head.length - headlen)) > -1;) {
+
+                headlen += sz;
+
+                if (headlen == head.length && headlen < headmax) {
+                    head = Arrays.copyOf(head, (int) Math.min(headmax, 2L * head.length));
+                }
+            }
+
+            if (headlen <= maxlength) {
+
+                writeHex(head, 0, headlen);
+
+                return;
             }
 
+            String ref = datavaluepolicy.getStore().store(
+                    elemname,
+                    new SequenceInputStream(new ByteArrayInputStream(head, 0, headlen), value)
+            );
+
+            FragmentEvent evt = new FragmentEvent(
+                    EventCodes.DATAVALUE_STORED,
+                    () -> "DataValue stored at " + ref,
+                    () -> String.format("Element %s", elemname)
+            );
+
+            handleEvent(evt);
+
+            addInformativeComment(evt.getReason());
+
+            return;
         }
 
-        return props;
-    }
+        /* the digest is only needed if the value can be truncated */
+        MessageDigest md = null;
 
-    final static char[] HEXMAP = "0123456789abcdef".toCharArray();
+        if (maxlength != Integer.MAX_VALUE) {
+            try {
+                md = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
 
-    private String bytesToString(byte[] buffer) {
+        /* write the value as it is read, up to the maximum inline length */
+        long totallen = 0;
 
-        char[] out = new char[2 * buffer.length];
+        byte[] buffer = new byte[HEX_CHUNK_LENGTH];
 
-        for (int j = 0; j < buffer.length; j++) {
+        for (int sz; (sz = value.read(buffer)) > -1;) {
 
-            int v = buffer[j] & 0xFF;
-            out[j * 2] = HEXMAP[v >>> 4];
-            out[j * 2 + 1] = HEXMAP[v & 0x0F];
+            if (totallen < maxlength) {
+                writeHex(buffer, 0, (int) Math.min(sz, maxlength - totallen));
+            }
+
+            if (md != null) {
+                md.update(buffer, 0, sz);
+            }
+
+            totallen += sz;
         }
 
-        return new String(out);
+        if (totallen == 0 || maxlength == 0) {
+
+            /* nothing was written inline */
+            sink.text("");
+
+        }
+
+        if (totallen > maxlength) {
+
+            final String digest = bytesToString(md.digest());
+            final long len = totallen;
+
+            FragmentEvent evt = new FragmentEvent(
+                    EventCodes.DATAVALUE_TRUNCATED,
+                    () -> String.format(
+                            "DataValue truncated to %d of %d octets, SHA-1 %s",
+                            maxlength,
+                            len,
+                            digest
+                    ),
+                    () -> String.format("Element %s", elemname)
+            );
+
+            handleEvent(evt);
+
+            addInformativeComment(evt.getReason());
+        }
     }
 
-    void applyRule5_14(Element element, MXFInputStream value, VariableArrayTypeDefinition definition) throws RuleException, IOException {
+    void applyRule5_14(String elemname, MXFInputStream value, VariableArrayTypeDefinition definition) throws RuleException, IOException {
 
-        Definition typedef = findBaseDefinition(defresolver.getDefinition(definition.getElementType()));
+        Definition typedef = defresolver.getReferencedDefinition(definition);
 
         try {
 
@@ -1677,21 +2432,7 @@ public class FragmentBuilder {
 
                 /* RULE 5.14.2 */
                 /* DataValue is string of octets, without number of elements or size of elements */
-                byte[] buffer = new byte[32];
-
-                StringBuilder sb = new StringBuilder();
-
-                for (int sz = 0; (sz = dis.read(buffer)) > -1;) {
-
-                    for (int j = 0; j < sz; j++) {
-
-                        int v = buffer[j] & 0xFF;
-                        sb.append(HEXMAP[v >>> 4]);
-                        sb.append(HEXMAP[v & 0x0F]);
-                    }
-                }
-
-                element.setTextContent(sb.toString());
+                applyDataValue(elemname, dis);
 
             } else {
 
@@ -1708,7 +2449,7 @@ public class FragmentBuilder {
                     long itemcount = dis.readInt() & 0xfffffffL;
                     long itemlength = dis.readInt() & 0xfffffffL;
 
-                    applyCoreRule5_4(element, value, typedef, (int) itemcount);
+                    applyCoreRule5_4(elemname, value, typedef, (int) itemcount);
                 }
 
             }
@@ -1721,29 +2462,31 @@ public class FragmentBuilder {
 
             FragmentEvent evt = new FragmentEvent(
                     EventCodes.VALUE_LENGTH_MISMATCH,
-                    "Value too short",
-                    String.format(
+                    () -> "Value too short",
+                    () -> String.format(
                             "Array %s at Element %s",
                             definition.getSymbol(),
-                            element.getLocalName()
+                            elemname
                     )
             );
 
             handleEvent(evt);
 
-            addInformativeComment(element, evt.getReason());
+            addInformativeComment(evt.getReason());
 
         }
 
     }
 
-    void applyRule5_15(Element element, MXFInputStream value, WeakReferenceTypeDefinition typedefinition) throws RuleException {
+    void applyRule5_15(String elemname, MXFInputStream value, WeakReferenceTypeDefinition typedefinition) throws RuleException, IOException {
 
-        ClassDefinition classdef = (ClassDefinition) defresolver.getDefinition(typedefinition.getReferencedType());
+        ClassDefinition classdef = (ClassDefinition) defresolver.getReferencedDefinition(typedefinition);
 
         PropertyDefinition uniquepropdef = null;
 
-        for (PropertyDefinition propdef : getAllMembersOf(classdef)) {
+        for (AUID auid : defresolver.getAllMembersOf(classdef)) {
+
+            PropertyDefinition propdef = (PropertyDefinition) defresolver.getDefinition(auid);
 
             if (propdef.isUniqueIdentifier()) {
                 uniquepropdef = propdef;
@@ -1755,25 +2498,200 @@ public class FragmentBuilder {
 
             FragmentEvent evt = new FragmentEvent(
                     EventCodes.MISSING_UNIQUE,
-                    String.format(
+                    () -> String.format(
                             "Weak reference target %s has no IsUnique element.",
                             classdef.getSymbol()
                     ),
-                    String.format(
+                    () -> String.format(
                             "Type %s at Element %s",
                             typedefinition.getSymbol(),
-                            element.getLocalName()
+                            elemname
                     )
             );
 
             handleEvent(evt);
 
-            addInformativeComment(element, evt.getReason());
+            addInformativeComment(evt.getReason());
 
             return;
         }
 
-        applyRule4(element, value, uniquepropdef);
+        applyRule4(elemname, value, uniquepropdef);
+
+    }
+
+    /**
+     * Records the calls made to a sink, so that they can be replayed later
+     */
+    static class RecordingSink implements FragmentSink {
+
+        private static enum Op {
+            START_ELEMENT,
+            ATTRIBUTE,
+            TEXT,
+            COMMENT,
+            END_ELEMENT
+        }
+
+        private final ArrayList<Op> ops = new ArrayList<>();
+        private final ArrayList<String[]> args = new ArrayList<>();
+
+        private void record(Op op, String... opargs) {
+            ops.add(op);
+            args.add(opargs);
+        }
+
+        int size() {
+            return ops.size();
+        }
+
+        /**
+         * Returns the concatenation of all text recorded since a given
+         * position, which matches the text content of the element that
+         * started at that position
+         */
+        String getTextContent(int start) {
+            StringBuilder sb = new StringBuilder();
+
+            for (int i = start; i < ops.size(); i++) {
+                if (ops.get(i) == Op.TEXT) {
+                    sb.append(args.get(i)[0]);
+                }
+            }
+
+            return sb.toString();
+        }
+
+        /**
+         * Returns the number of characters recorded
+         */
+        long getCharCount() {
+            long count = 0;
+
+            for (String[] a : args) {
+                for (String arg : a) {
+                    count += arg.length();
+                }
+            }
+
+            return count;
+        }
+
+        void replay(FragmentSink sink) throws IOException {
+            replay(sink, null);
+        }
+
+        /**
+         * Replays the recorded calls, with namespace prefixes recomputed
+         * by prefixes if not null
+         */
+        void replay(FragmentSink sink, Function<String, String> prefixes) throws IOException {
+
+            for (int i = 0; i < ops.size(); i++) {
+
+                String[] a = args.get(i);
+
+                switch (ops.get(i)) {
+                    case START_ELEMENT:
+                        sink.startElement(a[0], prefixes == null ? a[1] : prefixes.apply(a[0]), a[2]);
+                        break;
+                    case ATTRIBUTE:
+                        sink.attribute(a[0], prefixes == null ? a[1] : prefixes.apply(a[0]), a[2], a[3]);
+                        break;
+                    case TEXT:
+                        sink.text(a[0]);
+                        break;
+                    case COMMENT:
+                        sink.comment(a[0]);
+                        break;
+                    case END_ELEMENT:
+                        sink.endElement();
+                        break;
+                }
+            }
+        }
+
+        @Override
+        public void startElement(String namespace, String prefix, String localName) {
+            record(Op.START_ELEMENT, namespace, prefix, localName);
+        }
+
+        @Override
+        public void attribute(String namespace, String prefix, String localName, String value) {
+            record(Op.ATTRIBUTE, namespace, prefix, localName, value);
+        }
+
+        @Override
+        public void text(String text) {
+            record(Op.TEXT, text);
+        }
+
+        @Override
+        public void comment(String comment) {
+            record(Op.COMMENT, comment);
+        }
+
+        @Override
+        public void endElement() {
+            record(Op.END_ELEMENT);
+        }
+
+        @Override
+        public void endFragment(Map<URI, String> prefixes) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    /**
+     * Forwards calls to a sink while recording them for the render cache
+     */
+    private static class Capture implements FragmentSink {
+
+        final FragmentSink target;
+        final RecordingSink recording = new RecordingSink();
+        final HashMap<UUID, byte[]> dependencies = new HashMap<>();
+        long references = 0;
+        boolean clean = true;
+
+        Capture(FragmentSink target) {
+            this.target = target;
+        }
+
+        @Override
+        public void startElement(String namespace, String prefix, String localName) throws IOException {
+            recording.startElement(namespace, prefix, localName);
+            target.startElement(namespace, prefix, localName);
+        }
+
+        @Override
+        public void attribute(String namespace, String prefix, String localName, String value) throws IOException {
+            recording.attribute(namespace, prefix, localName, value);
+            target.attribute(namespace, prefix, localName, value);
+        }
+
+        @Override
+        public void text(String text) throws IOException {
+            recording.text(text);
+            target.text(text);
+        }
+
+        @Override
+        public void comment(String comment) throws IOException {
+            recording.comment(comment);
+            target.comment(comment);
+        }
+
+        @Override
+        public void endElement() throws IOException {
+            recording.endElement();
+            target.endElement();
+        }
+
+        @Override
+        public void endFragment(Map<URI, String> prefixes) {
+            throw new UnsupportedOperationException();
+        }
 
     }
 
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Receives the structure of a RegXML Fragment as it is generated by a
+ * {@link FragmentBuilder}, allowing RegXML Fragments to be encoded in forms
+ * other than an XML DOM.
+ *
+ * The FragmentBuilder calls the methods of the sink in document order. A call
+ * to {@link #attribute} is only made after the call to {@link #startElement}
+ * that opened the element and before any text, comment or child element is
+ * written to that element.
+ */
+public interface FragmentSink {
+
+    /**
+     * Opens an element as a child of the current element, or as the root
+     * element of the fragment.
+     *
+     * @param namespace Namespace of the element
+     * @param prefix Namespace prefix allocated by the FragmentBuilder to the
+     * namespace
+     * @param localName Local name of the element
+     *
+     * @throws IOException
+     */
+    void startElement(String namespace, String prefix, String localName) throws IOException;
+
+    /**
+     * Adds an attribute to the current element.
+     *
+     * @param namespace Namespace of the attribute
+     * @param prefix Namespace prefix allocated by the FragmentBuilder to the
+     * namespace
+     * @param localName Local name of the attribute
+     * @param value Value of the attribute
+     *
+     * @throws IOException
+     */
+    void attribute(String namespace, String prefix, String localName, String value) throws IOException;
+
+    /**
+     * Appends text to the current element. Long values, e.g. DataValue
+     * properties, may be written in multiple parts through consecutive calls.
+     *
+     * @param text Text content
+     *
+     * @throws IOException
+     */
+    void text(String text) throws IOException;
+
+    /**
+     * Appends an informative comment to the current element.
+     *
+     * @param comment Comment text
+     *
+     * @throws IOException
+     */
+    void comment(String comment) throws IOException;
+
+    /**
+     * Closes the current element.
+     *
+     * @throws IOException
+     */
+    void endElement() throws IOException;
+
+    /**
+     * Signals that the root element has been closed and the fragment is
+     * complete.
+     *
+     * @param prefixes Namespace prefixes allocated by the FragmentBuilder,
+     * indexed by namespace
+     *
+     * @throws IOException
+     */
+    void endFragment(Map<URI, String> prefixes) throws IOException;
+
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.smpte.klv.Group;
+import com.sandflow.smpte.klv.KLVInputStream;
+import com.sandflow.smpte.klv.LocalSet;
+import com.sandflow.smpte.klv.LocalTagRegister;
+import com.sandflow.smpte.klv.Triplet;
+import com.sandflow.smpte.klv.exceptions.KLVException;
+import com.sandflow.smpte.mxf.FillItem;
+import com.sandflow.smpte.mxf.PartitionPack;
+import com.sandflow.smpte.mxf.PrimerPack;
+import com.sandflow.smpte.mxf.Set;
+import com.sandflow.smpte.regxml.MXFFragmentBuilder.EventCodes;
+import com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFEvent;
+import com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException;
+import com.sandflow.smpte.regxml.dict.DefinitionResolver;
+import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.util.AUID;
+import com.sandflow.smpte.util.CountingInputStream;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.smpte.util.UUID;
+import com.sandflow.util.events.EventHandler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Header Metadata of an MXF partition, parsed once so that any number of
+ * RegXML Fragments can be created from it, e.g. using
+ * {@link MXFFragmentBuilder#fromHeaderMetadata}. A HeaderMetadata is
+ * immutable.
+ */
+public class HeaderMetadata {
+
+    private static final UL INDEX_TABLE_SEGMENT_UL
+        = UL.fromURN("urn:smpte:ul:060e2b34.02530101.0d010201.01100100");
+
+    private static final UL PREFACE_KEY
+        = UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00");
+
+    private final PartitionPack partitionPack;
+    private final LocalTagRegister localTagRegister;
+    private final List<Group> groups;
+    private final Map<UUID, Set> sets;
+
+    private HeaderMetadata(PartitionPack partitionPack, LocalTagRegister localTagRegister, List<Group> groups, Map<UUID, Set> sets) {
+        this.partitionPack = partitionPack;
+        this.localTagRegister = localTagRegister;
+        this.groups = Collections.unmodifiableList(groups);
+        this.sets = Collections.unmodifiableMap(sets);
+    }
+
+    /**
+     * Reads the Header Metadata of an MXF partition
+     *
+     * @param mxfpartition MXF partition, including the Partition Pack. Must not be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @return Header Metadata
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     */
+    public static HeaderMetadata fromInputStream(InputStream mxfpartition, EventHandler evthandler) throws IOException, KLVException, MXFException {
+        return fromInputStream(mxfpartition, evthandler, null);
+    }
+
+    /**
+     * Reads the Header Metadata of an MXF partition, and collects statistics
+     * about the primer and local set parsing phases
+     *
+     * @param mxfpartition MXF partition, including the Partition Pack. Must not be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param stats Statistics to which the parsing is added. No statistics
+     * are collected if null.
+     * @return Header Metadata
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     */
+    public static HeaderMetadata fromInputStream(InputStream mxfpartition, EventHandler evthandler, ExtractionStats stats) throws IOException, KLVException, MXFException {
+
+        long start = stats == null ? 0 : System.nanoTime();
+
+        CountingInputStream cis = new CountingInputStream(mxfpartition);
+
+        /* look for the partition pack */
+        KLVInputStream kis = new KLVInputStream(cis);
+
+        PartitionPack pp = null;
+
+        for (Triplet t; (t = kis.readTriplet()) != null;) {
+
+            if ((pp = PartitionPack.fromTriplet(t)) != null) {
+                break;
+            }
+        }
+
+        if (pp == null) {
+
+            MXFEvent evt = new MXFEvent(
+                EventCodes.MISSING_PARTITION_PACK,
+                "No Partition Pack found"
+            );
+
+            MXFFragmentBuilder.handleEvent(evthandler, evt, stats);
+
+        }
+
+        long partitionpackbytes = cis.getCount();
+
+        /* start counting header metadata bytes */
+        cis.resetCount();
+
+        /* look for the primer pack */
+        LocalTagRegister localreg = null;
+
+        for (Triplet t; (t = kis.readTriplet()) != null; cis.resetCount()) {
+
+            /* skip fill items, if any */
+            if (!FillItem.getKey().equalsIgnoreVersion(t.getKey())) {
+                localreg = PrimerPack.createLocalTagRegister(t);
+                break;
+            }
+
+        }
+
+        if (localreg == null) {
+
+            MXFEvent evt = new MXFEvent(
+                EventCodes.MISSING_PRIMER_PACK,
+                "No Primer Pack found"
+            );
+
+            MXFFragmentBuilder.handleEvent(evthandler, evt, stats);
+        }
+
+        long primerbytes = cis.getCount();
+
+        if (stats != null) {
+
+            long now = System.nanoTime();
+
+            stats.add(ExtractionStats.Phase.PRIMER_PARSE, now - start, partitionpackbytes + primerbytes);
+
+            start = now;
+        }
+
+        /* capture all local sets within the header metadata */
+        ArrayList<Group> gs = new ArrayList<>();
+
+        HashMap<UUID, Set> setresolver = new HashMap<>();
+
+        for (Triplet t;
+            cis.getCount() < pp.getHeaderByteCount()
+            && (t = kis.readTriplet()) != null;) {
+
+            if (INDEX_TABLE_SEGMENT_UL.equalsIgnoreVersion(t.getKey())) {
+
+                /* stop if Index Table reached */
+                MXFEvent evt = new MXFEvent(
+                    EventCodes.UNEXPECTED_STRUCTURE,
+                    "Index Table Segment encountered before Header Byte Count bytes read"
+                );
+
+                MXFFragmentBuilder.handleEvent(evthandler, evt, stats);
+
+                break;
+
+            } else if (FillItem.getKey().equalsIgnoreVersion(t.getKey())) {
+
+                /* skip fill items */
+                continue;
+            }
+
+            final AUID key = t.getKey();
+
+            try {
+                Group g = LocalSet.fromTriplet(t, localreg);
+
+                if (g != null) {
+
+                    Set set = Set.fromGroup(g);
+
+                    if (set != null) {
+
+                        gs.add(set);
+
+                        setresolver.put(set.getInstanceID(), set);
+
+                    } else {
+
+                        gs.add(g);
+
+                    }
+
+                } else {
+
+                    MXFEvent evt = new MXFEvent(
+                        EventCodes.GROUP_READ_FAILED,
+                        () -> String.format(
+                            "Failed to read Group: {0}",
+                            key.toString()
+                        )
+                    );
+
+                    MXFFragmentBuilder.handleEvent(evthandler, evt, stats);
+
+                }
+            } catch (KLVException ke) {
+
+                MXFEvent evt = new MXFEvent(
+                    EventCodes.GROUP_READ_FAILED,
+                    () -> String.format(
+                        "Failed to read Group %s with error %s",
+                        key.toString(),
+                        ke.getMessage()
+                    )
+                );
+
+                MXFFragmentBuilder.handleEvent(evthandler, evt, stats);
+
+            }
+        }
+
+        if (stats != null) {
+
+            stats.add(ExtractionStats.Phase.LOCAL_SET_PARSE, System.nanoTime() - start, cis.getCount() - primerbytes);
+
+            stats.addHeaderBytes(cis.getCount());
+
+            long propertycount = 0;
+
+            for (Group g : gs) {
+                propertycount += g.getItems().size();
+            }
+
+            stats.addSets(gs.size(), propertycount);
+        }
+
+        for (Group agroup : gs) {
+
+            /* in MXF, the first header metadata set should be the 
+             Preface set according to ST 377-1 Section 9.5.1, preceded
+             by Class 14 groups
+             */
+            if (agroup.getKey().equalsWithMask(PREFACE_KEY, 0b1111101011111111 /* ignore version and Group coding */)) {
+
+                break;
+
+            } else if (!agroup.getKey().isClass14()) {
+
+                MXFEvent evt = new MXFEvent(
+                    EventCodes.UNEXPECTED_STRUCTURE,
+                    () -> String.format(
+                        "At least one non-class 14 Set %s was found between"
+                        + " the Primer Pack and the Preface Set.",
+                        agroup.getKey()
+                    )
+                );
+
+                MXFFragmentBuilder.handleEvent(evthandler, evt, stats);
+
+                break;
+
+            }
+
+        }
+
+        return new HeaderMetadata(pp, localreg, gs, setresolver);
+    }
+
+    /**
+     * @return Partition Pack of the partition
+     */
+    public PartitionPack getPartitionPack() {
+        return partitionPack;
+    }
+
+    /**
+     * @return Local Tag Register created from the Primer Pack
+     */
+    public LocalTagRegister getLocalTagRegister() {
+        return localTagRegister;
+    }
+
+    /**
+     * @return Unmodifiable list of all the Groups of the Header Metadata, in
+     * the order in which they occur
+     */
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    /**
+     * @return Unmodifiable map of all the Sets of the Header Metadata, indexed
+     * by Instance UID, which can be used to resolve Strong References
+     */
+    public Map<UUID, Set> getSets() {
+        return sets;
+    }
+
+    /**
+     * Returns true if the class of the Group is one of the specified classes
+     * or one of their descendants
+     */
+    private static boolean isInstanceOf(Group g, DefinitionResolver defresolver, Collection<AUID> classes) {
+
+        Definition def = defresolver.getDefinition(new AUID(g.getKey()));
+
+        /* skip if not a class instance */
+        if (!(def instanceof ClassDefinition)) {
+            return false;
+        }
+
+        for (AUID clazz : classes) {
+            if (defresolver.isSubclassOf((ClassDefinition) def, clazz)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the first Group that is an instance of the specified class or
+     * of one of its descendants.
+     *
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param classkey Key of the class, ignoring version and Group coding
+     * @return First matching Group, or null if none is found
+     */
+    public Group getFirstInstanceOf(DefinitionResolver defresolver, UL classkey) {
+
+        Collection<AUID> classes = Collections.singleton(new AUID(classkey));
+
+        for (Group g : groups) {
+
+            if (isInstanceOf(g, defresolver, classes)) {
+                return g;
+            }
+
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns all the Groups that are instances of any of the specified
+     * classes or of their descendants. The class hierarchy is walked once per
+     * distinct Group Key.
+     *
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param classkeys Keys of the classes, ignoring version and Group coding
+     * @return Matching Groups, in the order in which they occur
+     */
+    public List<Group> getInstancesOf(DefinitionResolver defresolver, Collection<UL> classkeys) {
+
+        HashMap<UL, Boolean> matches = new HashMap<>();
+
+        ArrayList<AUID> classes = new ArrayList<>(classkeys.size());
+
+        for (UL classkey : classkeys) {
+            classes.add(new AUID(classkey));
+        }
+
+        ArrayList<Group> instances = new ArrayList<>();
+
+        for (Group g : groups) {
+
+            Boolean match = matches.get(g.getKey());
+
+            if (match == null) {
+
+                match = isInstanceOf(g, defresolver, classes);
+
+                matches.put(g.getKey(), match);
+            }
+
+            if (match) {
+                instances.add(g);
+            }
+        }
+
+        return instances;
+    }
+
+}
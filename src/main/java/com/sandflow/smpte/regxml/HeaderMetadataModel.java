@@ -0,0 +1,1155 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.smpte.klv.Group;
+import com.sandflow.smpte.klv.KLVInputStream.ByteOrder;
+import com.sandflow.smpte.klv.Triplet;
+import com.sandflow.smpte.klv.exceptions.KLVException;
+import com.sandflow.smpte.mxf.MXFInputStream;
+import com.sandflow.smpte.mxf.Set;
+import com.sandflow.smpte.regxml.FragmentBuilder.EventCodes;
+import com.sandflow.smpte.regxml.FragmentBuilder.FragmentEvent;
+import com.sandflow.smpte.regxml.FragmentBuilder.RuleException;
+import com.sandflow.smpte.regxml.dict.DefinitionResolver;
+import com.sandflow.smpte.regxml.dict.definitions.CharacterTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.regxml.dict.definitions.EnumerationTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.ExtendibleEnumerationTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.FixedArrayTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.FloatTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.IndirectTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.IntegerTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.PropertyAliasDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.PropertyDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.RecordTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.RenameTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.SetTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.StringTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.StrongReferenceTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.VariableArrayTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.WeakReferenceTypeDefinition;
+import com.sandflow.smpte.util.AUID;
+import com.sandflow.smpte.util.HalfFloat;
+import com.sandflow.smpte.util.IDAU;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.smpte.util.UUID;
+import com.sandflow.util.events.Event;
+import com.sandflow.util.events.EventHandler;
+import com.sandflow.util.events.FilteringEventHandler;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes Header Metadata sets into typed Java objects, using the same
+ * MetaDictionary rules as {@link FragmentBuilder} but without generating XML.
+ *
+ * Property values are mapped as follows:
+ * <ul>
+ * <li>Integer: Long (UInt64 values are stored as their two's complement)</li>
+ * <li>Float: Double</li>
+ * <li>Boolean: Boolean</li>
+ * <li>Enumeration: String containing the name of the enumeration element</li>
+ * <li>Extendible Enumeration: UL</li>
+ * <li>Character and String: String</li>
+ * <li>AUID, UUID and PackageID: AUID, UUID and UMID</li>
+ * <li>Rational: {@link Rational}</li>
+ * <li>other Records: {@link Record}</li>
+ * <li>Fixed Array, Variable Array and Set: List</li>
+ * <li>DataValue: byte[]</li>
+ * <li>Strong Reference: {@link MetadataObject}</li>
+ * <li>Weak Reference: value of the unique identifier of the target</li>
+ * <li>Indirect: value of the actual type</li>
+ * </ul>
+ *
+ * Objects referenced from multiple Strong References are decoded once, and
+ * circular Strong References result in circular object links.
+ */
+public class HeaderMetadataModel {
+
+    private static final String BYTEORDER_BE = "BigEndian";
+    private static final String BYTEORDER_LE = "LittleEndian";
+
+    private final DefinitionResolver defresolver;
+    private final Map<UUID, Set> setresolver;
+    private final EventHandler evthandler;
+    private final HashMap<UUID, MetadataObject> objects = new HashMap<>();
+
+    /**
+     * Instantiates a HeaderMetadataModel.
+     *
+     * @param defresolver Maps Group Keys to MetaDictionary definitions. Must
+     * not be null;
+     * @param setresolver Resolves Strong References to groups. Must not be
+     * null.
+     * @param evthandler Calls back the caller when an event occurs. May be
+     * null.
+     */
+    public HeaderMetadataModel(DefinitionResolver defresolver, Map<UUID, Set> setresolver, EventHandler evthandler) {
+
+        if (defresolver == null || setresolver == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.defresolver = defresolver;
+        this.setresolver = setresolver;
+        this.evthandler = evthandler;
+    }
+
+    /**
+     * Returns the first Header Metadata object of an MXF partition with a class
+     * that descends from the specified class.
+     *
+     * @param mxfpartition MXF partition, including the Partition Pack. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskey Class of the root object. The first object of the
+     * Header Metadata is used if null.
+     *
+     * @return Root object, or null if the root object is not found
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static MetadataObject fromInputStream(
+            InputStream mxfpartition,
+            DefinitionResolver defresolver,
+            EventHandler evthandler,
+            UL rootclasskey
+    ) throws IOException, KLVException, MXFFragmentBuilder.MXFException, RuleException {
+
+        HashMap<UUID, Set> setresolver = new HashMap<>();
+
+        Group rootgroup = MXFFragmentBuilder.readRootGroup(mxfpartition, defresolver, evthandler, rootclasskey, setresolver);
+
+        if (rootgroup == null) {
+            return null;
+        }
+
+        return new HeaderMetadataModel(defresolver, setresolver, evthandler).fromGroup(rootgroup);
+    }
+
+    /**
+     * Decodes a group and the objects it references.
+     *
+     * @param group KLV Group to be decoded
+     * @return Decoded object, or null if the class of the group is unknown
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public MetadataObject fromGroup(Group group) throws RuleException {
+
+        Definition definition = defresolver.getDefinition(new AUID(group.getKey()));
+
+        if (!(definition instanceof ClassDefinition)) {
+
+            handleEvent(new FragmentEvent(
+                    EventCodes.UNKNOWN_GROUP,
+                    () -> String.format(
+                            "Unknown Group UL %s",
+                            group.getKey().toString()
+                    ),
+                    null
+            )
+            );
+
+            return null;
+        }
+
+        Set set = group instanceof Set ? (Set) group : Set.fromGroup(group);
+
+        UUID iid = set == null ? null : set.getInstanceID();
+
+        if (iid != null && objects.containsKey(iid)) {
+            return objects.get(iid);
+        }
+
+        MetadataObject obj = new MetadataObject((ClassDefinition) definition, iid);
+
+        /* register the object before its properties are decoded so that circular references are resolved */
+        if (iid != null) {
+            objects.put(iid, obj);
+        }
+
+        for (Triplet item : group.getItems()) {
+
+            Definition itemdef = defresolver.getDefinition(item.getKey());
+
+            if (itemdef == null) {
+
+                handleEvent(new FragmentEvent(
+                        EventCodes.UNKNOWN_PROPERTY,
+                        () -> String.format(
+                                "Unknown property %s",
+                                item.getKey().toString()
+                        ),
+                        () -> String.format(
+                                "Group %s",
+                                definition.getSymbol()
+                        )
+                )
+                );
+
+                continue;
+            }
+
+            if (!(itemdef instanceof PropertyDefinition)) {
+
+                handleEvent(new FragmentEvent(
+                        EventCodes.UNEXPECTED_DEFINITION,
+                        () -> String.format(
+                                "Item %s is not a property",
+                                item.getKey().toString()
+                        ),
+                        () -> String.format(
+                                "Group %s",
+                                definition.getSymbol()
+                        )
+                )
+                );
+
+                continue;
+            }
+
+            Object value = readProperty(new MXFInputStream(item.getValueAsStream()), itemdef);
+
+            if (value != null) {
+                obj.properties.put((PropertyDefinition) itemdef, value);
+            }
+        }
+
+        return obj;
+    }
+
+    private void handleEvent(FragmentEvent evt) throws RuleException {
+
+        /* skip events that the handler would discard, before their messages are formatted */
+        if (evthandler instanceof FilteringEventHandler
+                && !((FilteringEventHandler) evthandler).offer(evt.getCode(), evt.getSeverity())) {
+
+            return;
+        }
+
+        if (evthandler != null) {
+
+            if (!evthandler.handle(evt)
+                    || evt.getSeverity() == Event.Severity.FATAL) {
+
+                /* die on FATAL events or if requested by the handler */
+                throw new RuleException(evt.getMessage());
+
+            }
+
+        } else if (evt.getSeverity() == Event.Severity.ERROR
+                || evt.getSeverity() == Event.Severity.FATAL) {
+
+            /* if no event handler was provided, die on FATAL and ERROR events */
+            throw new RuleException(evt.getMessage());
+
+        }
+
+    }
+
+    private Definition findBaseDefinition(Definition definition) {
+
+        while (definition instanceof RenameTypeDefinition) {
+            definition = defresolver.getDefinition(((RenameTypeDefinition) definition).getRenamedType());
+        }
+
+        return definition;
+    }
+
+    private Object readProperty(MXFInputStream value, Definition propdef) throws RuleException {
+
+        try {
+
+            if (propdef.getIdentification().equals(FragmentBuilder.ByteOrder_UL)) {
+
+                int byteorder = value.readUnsignedShort();
+
+                if (byteorder == 0x4D4D) {
+                    return BYTEORDER_BE;
+                } else if (byteorder == 0x4949) {
+                    return BYTEORDER_LE;
+                } else {
+                    throw new RuleException("Unknown ByteOrder value.");
+                }
+
+            }
+
+            if (propdef instanceof PropertyAliasDefinition) {
+                return readProperty(value, defresolver.getDefinition(((PropertyAliasDefinition) propdef).getOriginalProperty()));
+            }
+
+            Definition typedef = findBaseDefinition(defresolver.getDefinition(((PropertyDefinition) propdef).getType()));
+
+            if (typedef == null) {
+
+                handleEvent(new FragmentEvent(
+                        EventCodes.UNKNOWN_TYPE,
+                        () -> String.format(
+                                "Type %s not found",
+                                ((PropertyDefinition) propdef).getType().toString()
+                        ),
+                        () -> String.format(
+                                "Property %s",
+                                propdef.getSymbol()
+                        )
+                )
+                );
+
+                return null;
+            }
+
+            if (propdef.getIdentification().equals(FragmentBuilder.PrimaryPackage_UL)) {
+
+                /* EXCEPTION: PrimaryPackage is encoded as the Instance UUID of the target set
+                 but needs to be the UMID contained in the unique ID of the target set */
+                UUID uuid = value.readUUID();
+
+                Group g = setresolver.get(uuid);
+
+                if (g != null) {
+
+                    for (Triplet item : g.getItems()) {
+
+                        Definition itemdef = defresolver.getDefinition(item.getKey());
+
+                        if (itemdef instanceof PropertyDefinition
+                                && ((PropertyDefinition) itemdef).isUniqueIdentifier()) {
+
+                            return readProperty(new MXFInputStream(item.getValueAsStream()), itemdef);
+
+                        }
+                    }
+
+                    handleEvent(new FragmentEvent(
+                            EventCodes.MISSING_UNIQUE,
+                            () -> String.format(
+                                    "Target Primary Package with Instance UID %s has no IsUnique element.",
+                                    uuid.toString()
+                            ),
+                            () -> String.format(
+                                    "Property %s",
+                                    propdef.getSymbol()
+                            )
+                    )
+                    );
+
+                } else {
+
+                    handleEvent(new FragmentEvent(
+                            EventCodes.MISSING_PRIMARY_PACKAGE,
+                            () -> String.format(
+                                    "Target Primary Package with Instance UID %s not found",
+                                    uuid.toString()
+                            ),
+                            () -> String.format(
+                                    "Property %s",
+                                    propdef.getSymbol()
+                            )
+                    )
+                    );
+
+                }
+
+                return null;
+            }
+
+            if (propdef.getIdentification().equals(FragmentBuilder.LinkedGenerationID_UL)
+                    || propdef.getIdentification().equals(FragmentBuilder.GenerationID_UL)
+                    || propdef.getIdentification().equals(FragmentBuilder.ApplicationProductID_UL)) {
+
+                /* EXCEPTION: LinkedGenerationID, GenerationID and ApplicationProductID
+                 are encoded using UUID */
+                return value.readUUID();
+            }
+
+            return readValue(propdef.getSymbol(), value, typedef);
+
+        } catch (EOFException eof) {
+
+            handleEvent(new FragmentEvent(
+                    EventCodes.VALUE_LENGTH_MISMATCH,
+                    () -> "Value too short",
+                    () -> String.format(
+                            "Property %s",
+                            propdef.getSymbol()
+                    )
+            )
+            );
+
+            return null;
+
+        } catch (IOException ioe) {
+
+            throw new RuleException(ioe);
+
+        }
+    }
+
+    private Object readValue(String where, MXFInputStream value, Definition definition) throws RuleException, IOException {
+
+        if (definition instanceof CharacterTypeDefinition) {
+
+            return readCharacters(where, value, (CharacterTypeDefinition) definition, true);
+
+        } else if (definition instanceof EnumerationTypeDefinition) {
+
+            return readEnumeration(where, value, (EnumerationTypeDefinition) definition);
+
+        } else if (definition instanceof ExtendibleEnumerationTypeDefinition) {
+
+            return value.readUL();
+
+        } else if (definition instanceof FixedArrayTypeDefinition) {
+
+            if (definition.getIdentification().equals(FragmentBuilder.UUID_UL)) {
+                return value.readUUID();
+            }
+
+            FixedArrayTypeDefinition fdef = (FixedArrayTypeDefinition) definition;
+
+            return readElements(where, value, defresolver.getDefinition(fdef.getElementType()), fdef.getElementCount());
+
+        } else if (definition instanceof IndirectTypeDefinition) {
+
+            return readIndirect(where, value, (IndirectTypeDefinition) definition);
+
+        } else if (definition instanceof IntegerTypeDefinition) {
+
+            return readInteger(where, value, (IntegerTypeDefinition) definition);
+
+        } else if (definition instanceof RecordTypeDefinition) {
+
+            return readRecord(where, value, (RecordTypeDefinition) definition);
+
+        } else if (definition instanceof RenameTypeDefinition) {
+
+            return readValue(where, value, findBaseDefinition(definition));
+
+        } else if (definition instanceof SetTypeDefinition) {
+
+            DataInputStream dis = new DataInputStream(value);
+
+            long itemcount = dis.readInt() & 0xfffffffL;
+            long itemlength = dis.readInt() & 0xfffffffL;
+
+            return readElements(where, value, defresolver.getDefinition(((SetTypeDefinition) definition).getElementType()), (int) itemcount);
+
+        } else if (definition instanceof StringTypeDefinition) {
+
+            Definition chrdef = findBaseDefinition(defresolver.getDefinition(((StringTypeDefinition) definition).getElementType()));
+
+            if (!(chrdef instanceof CharacterTypeDefinition)) {
+
+                handleEvent(new FragmentEvent(
+                        EventCodes.UNSUPPORTED_STRING_TYPE,
+                        () -> String.format(
+                                "Unsupported String with Element %s",
+                                chrdef.getSymbol()
+                        ),
+                        () -> String.format(
+                                "String %s at %s",
+                                definition.getSymbol(),
+                                where
+                        )
+                )
+                );
+
+                return null;
+            }
+
+            return readCharacters(where, value, (CharacterTypeDefinition) chrdef, false);
+
+        } else if (definition instanceof StrongReferenceTypeDefinition) {
+
+            return readStrongReference(where, value, (StrongReferenceTypeDefinition) definition);
+
+        } else if (definition instanceof VariableArrayTypeDefinition) {
+
+            return readVariableArray(where, value, (VariableArrayTypeDefinition) definition);
+
+        } else if (definition instanceof WeakReferenceTypeDefinition) {
+
+            return readWeakReference(where, value, (WeakReferenceTypeDefinition) definition);
+
+        } else if (definition instanceof FloatTypeDefinition) {
+
+            DataInputStream dis = new DataInputStream(value);
+
+            switch (((FloatTypeDefinition) definition).getSize()) {
+                case HALF:
+                    return HalfFloat.toDouble(dis.readUnsignedShort());
+                case SINGLE:
+                    return (double) dis.readFloat();
+                default:
+                    return dis.readDouble();
+            }
+
+        }
+
+        throw new RuleException(
+                String.format(
+                        "Unsupported Definition %s at %s.",
+                        definition.getClass().toString(),
+                        where
+                )
+        );
+
+    }
+
+    private static int getLength(IntegerTypeDefinition definition) {
+
+        switch (definition.getSize()) {
+            case ONE:
+                return 1;
+            case TWO:
+                return 2;
+            case FOUR:
+                return 4;
+            default:
+                return 8;
+        }
+
+    }
+
+    private static byte[] fullyReadBytes(MXFInputStream value, int len) throws IOException {
+
+        byte[] bytes = new byte[len];
+
+        int br = 0;
+
+        while (br < len) {
+            int count = value.read(bytes, br, len - br);
+            if (count < 0) {
+                break;
+            }
+            br += count;
+        }
+
+        if (br < len) {
+            throw new EOFException();
+        }
+
+        return bytes;
+    }
+
+    private Object readInteger(String where, MXFInputStream value, IntegerTypeDefinition definition) throws RuleException, IOException {
+
+        byte[] val = fullyReadBytes(value, getLength(definition));
+
+        return definition.isSigned() ? new BigInteger(val).longValue() : new BigInteger(1, val).longValue();
+    }
+
+    private Object readEnumeration(String where, MXFInputStream value, EnumerationTypeDefinition definition) throws RuleException, IOException {
+
+        Definition bdef = findBaseDefinition(defresolver.getDefinition(definition.getElementType()));
+
+        if (!(bdef instanceof IntegerTypeDefinition)) {
+
+            handleEvent(new FragmentEvent(
+                    EventCodes.UNSUPPORTED_ENUM_TYPE,
+                    () -> "Enum does not have an Integer base type.",
+                    () -> String.format(
+                            "Enum %s at %s",
+                            definition.getSymbol(),
+                            where
+                    )
+            )
+            );
+
+            return null;
+        }
+
+        IntegerTypeDefinition idef = (IntegerTypeDefinition) bdef;
+
+        /* EXCEPTION: ProductReleaseType_UL is listed as a UInt8 enum but encoded as a UInt16 */
+        int len = definition.getIdentification().equals(FragmentBuilder.ProductReleaseType_UL) ? 2 : getLength(idef);
+
+        byte[] val = fullyReadBytes(value, len);
+
+        int ival = (idef.isSigned() ? new BigInteger(val) : new BigInteger(1, val)).intValue();
+
+        if (definition.getIdentification().equals(FragmentBuilder.Boolean_UL)
+                || definition.getElementType().equals(FragmentBuilder.Boolean_UL)) {
+
+            /* MXF can encode "true" as any value other than 0 */
+            return ival != 0;
+
+        }
+
+        for (EnumerationTypeDefinition.Element e : definition.getElements()) {
+            if (e.getValue() == ival) {
+                return e.getName();
+            }
+        }
+
+        handleEvent(new FragmentEvent(
+                EventCodes.UNKNOWN_ENUM_VALUE,
+                () -> String.format(
+                        "Undefined value %d",
+                        ival
+                ),
+                () -> String.format(
+                        "Enum %s at %s",
+                        definition.getSymbol(),
+                        where
+                )
+        )
+        );
+
+        return null;
+    }
+
+    private String readCharacters(String where, MXFInputStream value, CharacterTypeDefinition definition, boolean isSingleChar) throws RuleException, IOException {
+
+        Reader in;
+
+        if (definition.getIdentification().equals(FragmentBuilder.Character_UL)) {
+
+            in = new InputStreamReader(value, value.getByteOrder() == ByteOrder.BIG_ENDIAN ? "UTF-16BE" : "UTF-16LE");
+
+        } else if (definition.getIdentification().equals(FragmentBuilder.Char_UL)) {
+
+            in = new InputStreamReader(value, "US-ASCII");
+
+        } else if (definition.getIdentification().equals(FragmentBuilder.UTF8Character_UL)) {
+
+            in = new InputStreamReader(value, "UTF-8");
+
+        } else {
+
+            handleEvent(new FragmentEvent(
+                    EventCodes.UNSUPPORTED_CHAR_TYPE,
+                    () -> String.format(
+                            "Character type %s is not supported at %s",
+                            definition.getSymbol(),
+                            where
+                    ),
+                    null
+            )
+            );
+
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        char[] chars = new char[32];
+
+        for (int c; (c = in.read(chars)) != -1;) {
+            sb.append(chars, 0, c);
+        }
+
+        /* remove trailing zeroes, unless the value is a single character */
+        if (!isSingleChar) {
+
+            for (int i = 0; i < sb.length(); i++) {
+
+                if (sb.charAt(i) == 0) {
+                    sb.setLength(i);
+                    break;
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private Object readIndirect(String where, MXFInputStream value, IndirectTypeDefinition definition) throws RuleException, IOException {
+
+        ByteOrder bo;
+
+        switch (value.readUnsignedByte()) {
+            case 0x4c /* little endian */:
+                bo = ByteOrder.LITTLE_ENDIAN;
+                break;
+            case 0x42 /* big endian */:
+                bo = ByteOrder.BIG_ENDIAN;
+                break;
+            default:
+                throw new RuleException("Unknown Indirect Byte Order value.");
+        }
+
+        MXFInputStream orderedval = new MXFInputStream(value, bo);
+
+        IDAU idau = orderedval.readIDAU();
+
+        if (idau == null) {
+
+            handleEvent(new FragmentEvent(
+                    EventCodes.INVALID_IDAU,
+                    () -> "Invalid IDAU",
+                    () -> String.format(
+                            "Indirect Type %s at %s",
+                            definition.getSymbol(),
+                            where
+                    )
+            )
+            );
+
+            return null;
+        }
+
+        Definition def = defresolver.getDefinition(idau.asAUID());
+
+        if (def == null) {
+
+            handleEvent(new FragmentEvent(
+                    EventCodes.UNKNOWN_TYPE,
+                    () -> String.format(
+                            "No definition found for indirect type %s.",
+                            idau.asAUID().toString()
+                    ),
+                    () -> String.format(
+                            "Indirect Type %s at %s",
+                            definition.getSymbol(),
+                            where
+                    )
+            )
+            );
+
+            return null;
+        }
+
+        return readValue(where, orderedval, def);
+    }
+
+    private Object readRecord(String where, MXFInputStream value, RecordTypeDefinition definition) throws RuleException, IOException {
+
+        if (definition.getIdentification().equals(FragmentBuilder.AUID_UL)) {
+
+            return value.readAUID();
+
+        } else if (definition.getIdentification().equals(FragmentBuilder.PackageID_UL)) {
+
+            return value.readUMID();
+
+        } else if (definition.getIdentification().equals(FragmentBuilder.Rational_UL)) {
+
+            int numerator = value.readInt();
+            int denominator = value.readInt();
+
+            return new Rational(numerator, denominator);
+
+        }
+
+        Record r = new Record(definition);
+
+        for (RecordTypeDefinition.Member member : definition.getMembers()) {
+
+            if (definition.getIdentification().equals(FragmentBuilder.VersionType_UL)) {
+
+                /* EXCEPTION: registers used Int8 but MXF specifies UInt8 */
+                r.members.put(member.getName(), (long) value.readUnsignedByte());
+
+            } else {
+
+                r.members.put(member.getName(), readValue(member.getName(), value, findBaseDefinition(defresolver.getDefinition(member.getType()))));
+
+            }
+        }
+
+        return r;
+    }
+
+    private List<Object> readElements(String where, MXFInputStream value, Definition typedef, int elementcount) throws RuleException, IOException {
+
+        typedef = findBaseDefinition(typedef);
+
+        ArrayList<Object> elements = new ArrayList<>(elementcount);
+
+        for (int i = 0; i < elementcount; i++) {
+            elements.add(readValue(where, value, typedef));
+        }
+
+        return elements;
+    }
+
+    private Object readVariableArray(String where, MXFInputStream value, VariableArrayTypeDefinition definition) throws RuleException, IOException {
+
+        DataInputStream dis = new DataInputStream(value);
+
+        if (definition.getSymbol().equals("DataValue")) {
+
+            /* DataValue is string of octets, without number of elements or size of elements */
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+            byte[] buffer = new byte[32];
+
+            for (int sz; (sz = dis.read(buffer)) > -1;) {
+                bos.write(buffer, 0, sz);
+            }
+
+            return bos.toByteArray();
+        }
+
+        Definition typedef = findBaseDefinition(defresolver.getDefinition(definition.getElementType()));
+
+        if (typedef instanceof CharacterTypeDefinition || typedef.getName().contains("StringArray")) {
+
+            /* INFO: StringArray is not used in MXF (ST 377-1) */
+            throw new RuleException("StringArray not supported.");
+
+        }
+
+        long itemcount = dis.readInt() & 0xfffffffL;
+        long itemlength = dis.readInt() & 0xfffffffL;
+
+        return readElements(where, value, typedef, (int) itemcount);
+    }
+
+    private MetadataObject readStrongReference(String where, MXFInputStream value, StrongReferenceTypeDefinition definition) throws RuleException, IOException {
+
+        Definition typedef = findBaseDefinition(defresolver.getDefinition(definition.getReferencedType()));
+
+        if (!(typedef instanceof ClassDefinition)) {
+
+            handleEvent(new FragmentEvent(
+                    EventCodes.INVALID_STRONG_REFERENCE_TYPE,
+                    () -> String.format(
+                            "Target %s of Strong Reference Type is not a class",
+                            typedef.getSymbol()
+                    ),
+                    () -> String.format(
+                            "Type %s at %s",
+                            definition.getSymbol(),
+                            where
+                    )
+            )
+            );
+
+            return null;
+        }
+
+        UUID uuid = value.readUUID();
+
+        Group g = setresolver.get(uuid);
+
+        if (g == null) {
+
+            handleEvent(new FragmentEvent(
+                    EventCodes.STRONG_REFERENCE_NOT_FOUND,
+                    () -> String.format(
+                            "Strong Reference target %s is not found",
+                            uuid.toString()
+                    ),
+                    () -> String.format(
+                            "Type %s at %s",
+                            definition.getSymbol(),
+                            where
+                    )
+            )
+            );
+
+            return null;
+        }
+
+        return fromGroup(g);
+    }
+
+    private Object readWeakReference(String where, MXFInputStream value, WeakReferenceTypeDefinition definition) throws RuleException, IOException {
+
+        /* the value of a weak reference is the unique identifier of the target */
+        ClassDefinition cdef = (ClassDefinition) defresolver.getDefinition(definition.getReferencedType());
+
+        if (cdef != null) {
+
+            for (AUID auid : defresolver.getAllMembersOf(cdef)) {
+
+                Definition propdef = defresolver.getDefinition(auid);
+
+                if (propdef instanceof PropertyDefinition && ((PropertyDefinition) propdef).isUniqueIdentifier()) {
+                    return readProperty(value, propdef);
+                }
+
+            }
+
+        }
+
+        handleEvent(new FragmentEvent(
+                EventCodes.MISSING_UNIQUE,
+                () -> String.format(
+                        "Weak reference target %s has no IsUnique element.",
+                        definition.getReferencedType()
+                ),
+                () -> String.format(
+                        "Type %s at %s",
+                        definition.getSymbol(),
+                        where
+                )
+        )
+        );
+
+        return null;
+    }
+
+    /**
+     * Object decoded from a Header Metadata set
+     */
+    public static class MetadataObject {
+
+        private final ClassDefinition definition;
+        private final UUID instanceID;
+        private final LinkedHashMap<PropertyDefinition, Object> properties = new LinkedHashMap<>();
+
+        MetadataObject(ClassDefinition definition, UUID instanceID) {
+            this.definition = definition;
+            this.instanceID = instanceID;
+        }
+
+        /**
+         * @return Definition of the class of the object
+         */
+        public ClassDefinition getDefinition() {
+            return definition;
+        }
+
+        /**
+         * @return Instance UID of the object, or null if none is present
+         */
+        public UUID getInstanceID() {
+            return instanceID;
+        }
+
+        /**
+         * @return Properties of the object, in the order they appear in the
+         * set
+         */
+        public Map<PropertyDefinition, Object> getProperties() {
+            return Collections.unmodifiableMap(properties);
+        }
+
+        /**
+         * Returns the value of a property
+         *
+         * @param symbol Symbol of the property
+         * @return Value of the property, or null if the property is not present
+         */
+        public Object get(String symbol) {
+
+            for (Map.Entry<PropertyDefinition, Object> e : properties.entrySet()) {
+                if (e.getKey().getSymbol().equals(symbol)) {
+                    return e.getValue();
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Returns the value of a property, ignoring the version byte of the
+         * identification of the property
+         *
+         * @param identification Identification of the property
+         * @return Value of the property, or null if the property is not present
+         */
+        public Object get(AUID identification) {
+
+            for (Map.Entry<PropertyDefinition, Object> e : properties.entrySet()) {
+
+                AUID auid = e.getKey().getIdentification();
+
+                if (auid.equals(identification)
+                        || (auid.isUL() && auid.asUL().equalsIgnoreVersion(identification))) {
+                    return e.getValue();
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Returns the value of an integer property
+         *
+         * @param symbol Symbol of the property
+         * @param defaultValue Value returned if the property is not present
+         * @return Value of the property
+         * @throws ClassCastException if the property is not an integer
+         */
+        public long getLong(String symbol, long defaultValue) {
+
+            Object value = get(symbol);
+
+            return value == null ? defaultValue : (Long) value;
+        }
+
+        /**
+         * Returns the value of a string property
+         *
+         * @param symbol Symbol of the property
+         * @return Value of the property, or null if the property is not present
+         * @throws ClassCastException if the property is not a string
+         */
+        public String getString(String symbol) {
+            return (String) get(symbol);
+        }
+
+        /**
+         * Returns the object referenced by a Strong Reference property
+         *
+         * @param symbol Symbol of the property
+         * @return Referenced object, or null if the property is not present
+         * @throws ClassCastException if the property is not a Strong Reference
+         */
+        public MetadataObject getObject(String symbol) {
+            return (MetadataObject) get(symbol);
+        }
+
+        /**
+         * Returns the objects referenced by a Strong Reference Array or Set
+         * property
+         *
+         * @param symbol Symbol of the property
+         * @return Referenced objects, which is empty if the property is not
+         * present
+         * @throws ClassCastException if the property is not an Array or Set of
+         * Strong References
+         */
+        public List<MetadataObject> getObjects(String symbol) {
+
+            List<?> value = (List<?>) get(symbol);
+
+            ArrayList<MetadataObject> objs = new ArrayList<>();
+
+            if (value != null) {
+                for (Object obj : value) {
+                    objs.add((MetadataObject) obj);
+                }
+            }
+
+            return objs;
+        }
+
+        @Override
+        public String toString() {
+            return definition.getSymbol() + (instanceID == null ? "" : " " + instanceID.toString());
+        }
+    }
+
+    /**
+     * Value of a Record type
+     */
+    public static class Record {
+
+        private final RecordTypeDefinition definition;
+        private final LinkedHashMap<String, Object> members = new LinkedHashMap<>();
+
+        Record(RecordTypeDefinition definition) {
+            this.definition = definition;
+        }
+
+        /**
+         * @return Definition of the Record type
+         */
+        public RecordTypeDefinition getDefinition() {
+            return definition;
+        }
+
+        /**
+         * @return Values of the members of the record, indexed by member name
+         */
+        public Map<String, Object> getMembers() {
+            return Collections.unmodifiableMap(members);
+        }
+
+        /**
+         * Returns the value of a member of the record
+         *
+         * @param name Name of the member
+         * @return Value of the member, or null if the member does not exist
+         */
+        public Object get(String name) {
+            return members.get(name);
+        }
+
+        @Override
+        public String toString() {
+            return members.toString();
+        }
+    }
+
+    /**
+     * Value of the Rational type
+     */
+    public static class Rational {
+
+        private final int numerator;
+        private final int denominator;
+
+        public Rational(int numerator, int denominator) {
+            this.numerator = numerator;
+            this.denominator = denominator;
+        }
+
+        public int getNumerator() {
+            return numerator;
+        }
+
+        public int getDenominator() {
+            return denominator;
+        }
+
+        public double doubleValue() {
+            return (double) numerator / denominator;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if (!(obj instanceof Rational)) {
+                return false;
+            }
+
+            return ((Rational) obj).numerator == numerator && ((Rational) obj).denominator == denominator;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * numerator + denominator;
+        }
+
+        @Override
+        public String toString() {
+            return numerator + "/" + denominator;
+        }
+    }
+}
@@ -26,30 +26,21 @@
 package com.sandflow.smpte.regxml;
 
 import com.sandflow.smpte.klv.Group;
-import com.sandflow.smpte.klv.KLVInputStream;
-import com.sandflow.smpte.klv.LocalSet;
-import com.sandflow.smpte.klv.LocalTagRegister;
-import com.sandflow.smpte.klv.Triplet;
 import com.sandflow.smpte.klv.exceptions.KLVException;
-import com.sandflow.smpte.mxf.FillItem;
-import com.sandflow.smpte.mxf.PartitionPack;
-import com.sandflow.smpte.mxf.PrimerPack;
 import com.sandflow.smpte.mxf.Set;
 import com.sandflow.smpte.regxml.dict.DefinitionResolver;
-import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
-import com.sandflow.smpte.regxml.dict.definitions.Definition;
-import com.sandflow.smpte.util.AUID;
-import com.sandflow.smpte.util.CountingInputStream;
+import com.sandflow.smpte.regxml.sinks.DOMFragmentSink;
 import com.sandflow.smpte.util.UL;
 import com.sandflow.smpte.util.UUID;
 import com.sandflow.util.events.BasicEvent;
 import com.sandflow.util.events.Event;
 import com.sandflow.util.events.EventHandler;
+import com.sandflow.util.events.FilteringEventHandler;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentFragment;
@@ -61,12 +52,6 @@ public class MXFFragmentBuilder {
 
     private final static Logger LOG = Logger.getLogger(MXFFragmentBuilder.class.getName());
 
-    private static final UL INDEX_TABLE_SEGMENT_UL
-        = UL.fromURN("urn:smpte:ul:060e2b34.02530101.0d010201.01100100");
-
-    private static final UL PREFACE_KEY
-        = UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00");
-
     /**
      * Defines all events raised by this class
      */
@@ -110,10 +95,48 @@ public class MXFFragmentBuilder {
             super(kind.severity, kind, message);
         }
 
+        public MXFEvent(EventCodes kind, Supplier<String> message) {
+            super(kind.severity, kind, message);
+        }
+
+    }
+
+    /**
+     * Supplies the sink to which the Fragment of each root object is written
+     */
+    public static interface FragmentSinkFactory {
+
+        /**
+         * Called before the Fragment of a root object is written
+         *
+         * @param root Root object of the Fragment
+         *
+         * @return Sink to which the Fragment is written, or null if the root
+         * object is to be skipped
+         *
+         * @throws IOException
+         */
+        FragmentSink getSink(Group root) throws IOException;
+    }
+
+    static void handleEvent(EventHandler handler, com.sandflow.util.events.Event evt, ExtractionStats stats) throws MXFException {
+
+        if (stats != null) {
+            stats.addEvent(evt);
+        }
+
+        handleEvent(handler, evt);
     }
 
     static void handleEvent(EventHandler handler, com.sandflow.util.events.Event evt) throws MXFException {
 
+        /* skip events that the handler would discard */
+        if (handler instanceof FilteringEventHandler
+            && !((FilteringEventHandler) handler).offer(evt.getCode(), evt.getSeverity())) {
+
+            return;
+        }
+
         if (handler != null) {
 
             if (! handler.handle(evt) ||
@@ -249,197 +272,473 @@ public class MXFFragmentBuilder {
         Document document
     ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-        CountingInputStream cis = new CountingInputStream(mxfpartition);
-
-        /* look for the partition pack */
-        KLVInputStream kis = new KLVInputStream(cis);
+        DOMFragmentSink sink = new DOMFragmentSink(document);
 
-        PartitionPack pp = null;
+        fromInputStream(mxfpartition, defresolver, enumnameresolver, evthandler, rootclasskey, sink);
 
-        for (Triplet t; (t = kis.readTriplet()) != null;) {
-
-            if ((pp = PartitionPack.fromTriplet(t)) != null) {
-                break;
-            }
-        }
-
-        if (pp == null) {
-
-            MXFEvent evt = new MXFEvent(
-                EventCodes.MISSING_PARTITION_PACK,
-                "No Partition Pack found"
-            );
-
-            handleEvent(evthandler, evt);
-
-        }
+        return sink.getFragment();
+    }
 
-        /* start counting header metadata bytes */
-        cis.resetCount();
+    /**
+     * Writes to a FragmentSink a RegXML Fragment rooted at the first Header
+     * Metadata object with a class that descends from the specified class.
+     *
+     * @param mxfpartition MXF partition, including the Partition Pack. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param enumnameresolver Allows the local name of extendible enumeration
+     * values to be inserted as comments. May be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskey Root class of Fragment. The Preface class is used if null.
+     * @param sink Sink to which the RegXML Fragment is written. Must not be null.
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static void fromInputStream(
+        InputStream mxfpartition,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver enumnameresolver,
+        EventHandler evthandler,
+        UL rootclasskey,
+        FragmentSink sink
+    ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-        /* look for the primer pack */
-        LocalTagRegister localreg = null;
+        fromInputStream(mxfpartition, defresolver, enumnameresolver, evthandler, rootclasskey, sink, null);
+    }
 
-        for (Triplet t; (t = kis.readTriplet()) != null; cis.resetCount()) {
+    /**
+     * Writes to a FragmentSink a RegXML Fragment rooted at the first Header
+     * Metadata object with a class that descends from the specified class,
+     * and restricted to the properties selected by a projection.
+     *
+     * @param mxfpartition MXF partition, including the Partition Pack. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param enumnameresolver Allows the local name of extendible enumeration
+     * values to be inserted as comments. May be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskey Root class of Fragment. The Preface class is used if null.
+     * @param sink Sink to which the RegXML Fragment is written. Must not be null.
+     * @param projection Paths of the properties to be written, starting at the
+     * root object. All properties are written if null.
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static void fromInputStream(
+        InputStream mxfpartition,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver enumnameresolver,
+        EventHandler evthandler,
+        UL rootclasskey,
+        FragmentSink sink,
+        Projection projection
+    ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-            /* skip fill items, if any */
-            if (!FillItem.getKey().equalsIgnoreVersion(t.getKey())) {
-                localreg = PrimerPack.createLocalTagRegister(t);
-                break;
-            }
+        fromInputStream(mxfpartition, defresolver, enumnameresolver, evthandler, rootclasskey, sink, projection, FragmentBuilder.DataValuePolicy.INLINE);
+    }
 
-        }
+    /**
+     * Writes to a FragmentSink a RegXML Fragment rooted at the first Header
+     * Metadata object with a class that descends from the specified class,
+     * restricted to the properties selected by a projection and with
+     * DataValue properties written according to a policy.
+     *
+     * @param mxfpartition MXF partition, including the Partition Pack. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param enumnameresolver Allows the local name of extendible enumeration
+     * values to be inserted as comments. May be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskey Root class of Fragment. The Preface class is used if null.
+     * @param sink Sink to which the RegXML Fragment is written. Must not be null.
+     * @param projection Paths of the properties to be written, starting at the
+     * root object. All properties are written if null.
+     * @param datavaluepolicy Specifies how DataValue properties are written.
+     * Must not be null.
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static void fromInputStream(
+        InputStream mxfpartition,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver enumnameresolver,
+        EventHandler evthandler,
+        UL rootclasskey,
+        FragmentSink sink,
+        Projection projection,
+        FragmentBuilder.DataValuePolicy datavaluepolicy
+    ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-        if (localreg == null) {
+        fromInputStream(mxfpartition, defresolver, enumnameresolver, evthandler, rootclasskey, sink, projection, datavaluepolicy, null);
 
-            MXFEvent evt = new MXFEvent(
-                EventCodes.MISSING_PRIMER_PACK,
-                "No Primer Pack found"
-            );
+    }
 
-            handleEvent(evthandler, evt);
-        }
+    /**
+     * Writes to a FragmentSink a RegXML Fragment, and collects statistics
+     * about the extraction.
+     *
+     * @param mxfpartition MXF partition, including the Partition Pack. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param enumnameresolver Allows the local name of extendible enumeration
+     * values to be inserted as comments. May be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskey Root class of Fragment. The Preface class is used if null.
+     * @param sink Sink to which the RegXML Fragment is written. Must not be null.
+     * @param projection Paths of the properties to be written, starting at the
+     * root object. All properties are written if null.
+     * @param datavaluepolicy Specifies how DataValue properties are written.
+     * Must not be null.
+     * @param stats Statistics to which the extraction is added. No statistics
+     * are collected if null.
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static void fromInputStream(
+        InputStream mxfpartition,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver enumnameresolver,
+        EventHandler evthandler,
+        UL rootclasskey,
+        FragmentSink sink,
+        Projection projection,
+        FragmentBuilder.DataValuePolicy datavaluepolicy,
+        ExtractionStats stats
+    ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-        /* capture all local sets within the header metadata */
-        ArrayList<Group> gs = new ArrayList<>();
-        HashMap<UUID, Set> setresolver = new HashMap<>();
+        fromInputStream(mxfpartition, defresolver, enumnameresolver, evthandler, rootclasskey, sink, projection, datavaluepolicy, stats, null, null);
 
-        for (Triplet t;
-            cis.getCount() < pp.getHeaderByteCount()
-            && (t = kis.readTriplet()) != null;) {
+    }
 
-            if (INDEX_TABLE_SEGMENT_UL.equalsIgnoreVersion(t.getKey())) {
+    /**
+     * Writes to a FragmentSink a RegXML Fragment, collects statistics about
+     * the extraction, and reuses the rendering of Sets already rendered, e.g.
+     * from other MXF files.
+     *
+     * @param mxfpartition MXF partition, including the Partition Pack. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param enumnameresolver Allows the local name of extendible enumeration
+     * values to be inserted as comments. May be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskey Root class of Fragment. The Preface class is used if null.
+     * @param sink Sink to which the RegXML Fragment is written. Must not be null.
+     * @param projection Paths of the properties to be written, starting at the
+     * root object. All properties are written if null.
+     * @param datavaluepolicy Specifies how DataValue properties are written.
+     * Must not be null.
+     * @param stats Statistics to which the extraction is added. No statistics
+     * are collected if null.
+     * @param cache Render cache, see
+     * {@link FragmentBuilder#setRenderCache(com.sandflow.smpte.regxml.RenderCache, java.lang.String)}.
+     * No cache is used if null.
+     * @param dictversion Identifies defresolver and enumnameresolver. Must not
+     * be null if cache is not null.
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static void fromInputStream(
+        InputStream mxfpartition,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver enumnameresolver,
+        EventHandler evthandler,
+        UL rootclasskey,
+        FragmentSink sink,
+        Projection projection,
+        FragmentBuilder.DataValuePolicy datavaluepolicy,
+        ExtractionStats stats,
+        RenderCache cache,
+        String dictversion
+    ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-                /* stop if Index Table reached */
-                MXFEvent evt = new MXFEvent(
-                    EventCodes.UNEXPECTED_STRUCTURE,
-                    "Index Table Segment encountered before Header Byte Count bytes read"
-                );
+        HeaderMetadata hm = HeaderMetadata.fromInputStream(mxfpartition, evthandler, stats);
 
-                handleEvent(evthandler, evt);
+        fromHeaderMetadata(hm, defresolver, enumnameresolver, evthandler, rootclasskey, sink, projection, datavaluepolicy, stats, cache, dictversion);
 
-                break;
+    }
 
-            } else if (FillItem.getKey().equalsIgnoreVersion(t.getKey())) {
+    /**
+     * Writes to a FragmentSink a RegXML Fragment rooted at the first object of
+     * previously parsed Header Metadata with a class that descends from the
+     * specified class. Any number of Fragments can be created from the same
+     * Header Metadata.
+     *
+     * @param hm Header Metadata. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param enumnameresolver Allows the local name of extendible enumeration
+     * values to be inserted as comments. May be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskey Root class of Fragment. The first object is used if null.
+     * @param sink Sink to which the RegXML Fragment is written. Must not be null.
+     * @param projection Paths of the properties to be written, starting at the
+     * root object. All properties are written if null.
+     * @param datavaluepolicy Specifies how DataValue properties are written.
+     * Must not be null.
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static void fromHeaderMetadata(
+        HeaderMetadata hm,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver enumnameresolver,
+        EventHandler evthandler,
+        UL rootclasskey,
+        FragmentSink sink,
+        Projection projection,
+        FragmentBuilder.DataValuePolicy datavaluepolicy
+    ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-                /* skip fill items */
-                continue;
-            }
+        fromHeaderMetadata(hm, defresolver, enumnameresolver, evthandler, rootclasskey, sink, projection, datavaluepolicy, null);
 
-            try {
-                Group g = LocalSet.fromTriplet(t, localreg);
+    }
 
-                if (g != null) {
+    /**
+     * Writes to a FragmentSink a RegXML Fragment rooted at the first object of
+     * previously parsed Header Metadata with a class that descends from the
+     * specified class, and collects statistics about the rendering.
+     *
+     * @param hm Header Metadata. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param enumnameresolver Allows the local name of extendible enumeration
+     * values to be inserted as comments. May be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskey Root class of Fragment. The first object is used if null.
+     * @param sink Sink to which the RegXML Fragment is written. Must not be null.
+     * @param projection Paths of the properties to be written, starting at the
+     * root object. All properties are written if null.
+     * @param datavaluepolicy Specifies how DataValue properties are written.
+     * Must not be null.
+     * @param stats Statistics to which the rendering is added. No statistics
+     * are collected if null.
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static void fromHeaderMetadata(
+        HeaderMetadata hm,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver enumnameresolver,
+        EventHandler evthandler,
+        UL rootclasskey,
+        FragmentSink sink,
+        Projection projection,
+        FragmentBuilder.DataValuePolicy datavaluepolicy,
+        ExtractionStats stats
+    ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-                    gs.add(g);
+        fromHeaderMetadata(hm, defresolver, enumnameresolver, evthandler, rootclasskey, sink, projection, datavaluepolicy, stats, null, null);
 
-                    Set set = Set.fromGroup(g);
+    }
 
-                    if (set != null) {
-                        setresolver.put(set.getInstanceID(), set);
-                    }
+    /**
+     * Writes to a FragmentSink a RegXML Fragment rooted at the first object of
+     * previously parsed Header Metadata with a class that descends from the
+     * specified class, collects statistics about the rendering, and reuses the
+     * rendering of Sets already rendered, e.g. from other MXF files.
+     *
+     * @param hm Header Metadata. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param enumnameresolver Allows the local name of extendible enumeration
+     * values to be inserted as comments. May be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskey Root class of Fragment. The first object is used if null.
+     * @param sink Sink to which the RegXML Fragment is written. Must not be null.
+     * @param projection Paths of the properties to be written, starting at the
+     * root object. All properties are written if null.
+     * @param datavaluepolicy Specifies how DataValue properties are written.
+     * Must not be null.
+     * @param stats Statistics to which the rendering is added. No statistics
+     * are collected if null.
+     * @param cache Render cache, see
+     * {@link FragmentBuilder#setRenderCache(com.sandflow.smpte.regxml.RenderCache, java.lang.String)}.
+     * No cache is used if null.
+     * @param dictversion Identifies defresolver and enumnameresolver. Must not
+     * be null if cache is not null.
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static void fromHeaderMetadata(
+        HeaderMetadata hm,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver enumnameresolver,
+        EventHandler evthandler,
+        UL rootclasskey,
+        FragmentSink sink,
+        Projection projection,
+        FragmentBuilder.DataValuePolicy datavaluepolicy,
+        ExtractionStats stats,
+        RenderCache cache,
+        String dictversion
+    ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-                } else {
+        Group rootgroup = getRootGroup(hm, defresolver, evthandler, rootclasskey, stats);
 
-                    MXFEvent evt = new MXFEvent(
-                        EventCodes.GROUP_READ_FAILED,
-                        String.format(
-                            "Failed to read Group: {0}",
-                            t.getKey().toString()
-                        )
-                    );
+        /* create the fragment */
+        FragmentBuilder fb = new FragmentBuilder(defresolver, hm.getSets(), enumnameresolver, evthandler);
 
-                    handleEvent(evthandler, evt);
+        fb.setDataValuePolicy(datavaluepolicy);
 
-                }
-            } catch (KLVException ke) {
+        fb.setStats(stats);
 
-                MXFEvent evt = new MXFEvent(
-                    EventCodes.GROUP_READ_FAILED,
-                    String.format(
-                        "Failed to read Group %s with error %s",
-                        t.getKey().toString(),
-                        ke.getMessage()
-                    )
-                );
+        fb.setRenderCache(cache, dictversion);
 
-                handleEvent(evthandler, evt);
+        fb.fromTriplet(rootgroup, sink, projection);
 
-            }
-        }
+    }
 
-        for (Group agroup : gs) {
+    /**
+     * Writes a RegXML Fragment for each object of the Header Metadata with a
+     * class that descends from any of the specified classes. The MXF
+     * partition is read once.
+     *
+     * @param mxfpartition MXF partition, including the Partition Pack. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param enumnameresolver Allows the local name of extendible enumeration
+     * values to be inserted as comments. May be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskeys Root classes of the Fragments. Must not be null.
+     * @param sinks Supplies the sink of each Fragment. Must not be null.
+     *
+     * @return Number of Fragments written
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static int fromInputStream(
+        InputStream mxfpartition,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver enumnameresolver,
+        EventHandler evthandler,
+        Collection<UL> rootclasskeys,
+        FragmentSinkFactory sinks
+    ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-            /* in MXF, the first header metadata set should be the 
-             Preface set according to ST 377-1 Section 9.5.1, preceded
-             by Class 14 groups
-             */
-            if (agroup.getKey().equalsWithMask(PREFACE_KEY, 0b1111101011111111 /* ignore version and Group coding */)) {
+        HeaderMetadata hm = HeaderMetadata.fromInputStream(mxfpartition, evthandler);
 
-                break;
+        return fromHeaderMetadata(hm, defresolver, enumnameresolver, evthandler, rootclasskeys, sinks);
+    }
 
-            } else if (!agroup.getKey().isClass14()) {
+    /**
+     * Writes a RegXML Fragment for each object of previously parsed Header
+     * Metadata with a class that descends from any of the specified classes.
+     *
+     * @param hm Header Metadata. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param enumnameresolver Allows the local name of extendible enumeration
+     * values to be inserted as comments. May be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskeys Root classes of the Fragments. Must not be null.
+     * @param sinks Supplies the sink of each Fragment. Must not be null.
+     *
+     * @return Number of Fragments written
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     * @throws com.sandflow.smpte.regxml.FragmentBuilder.RuleException
+     */
+    public static int fromHeaderMetadata(
+        HeaderMetadata hm,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver enumnameresolver,
+        EventHandler evthandler,
+        Collection<UL> rootclasskeys,
+        FragmentSinkFactory sinks
+    ) throws IOException, KLVException, MXFException, FragmentBuilder.RuleException {
 
-                MXFEvent evt = new MXFEvent(
-                    EventCodes.UNEXPECTED_STRUCTURE,
-                    String.format(
-                        "At least one non-class 14 Set %s was found between"
-                        + " the Primer Pack and the Preface Set.",
-                        agroup.getKey()
-                    )
-                );
+        int count = 0;
 
-                handleEvent(evthandler, evt);
+        for (Group root : hm.getInstancesOf(defresolver, rootclasskeys)) {
 
-                break;
+            FragmentSink sink = sinks.getSink(root);
 
+            if (sink == null) {
+                continue;
             }
 
-        }
+            /* each Fragment declares only the namespace prefixes it uses */
+            FragmentBuilder fb = new FragmentBuilder(defresolver, hm.getSets(), enumnameresolver, evthandler);
 
-        /* create the fragment */
-        FragmentBuilder fb = new FragmentBuilder(defresolver, setresolver, enumnameresolver, evthandler);
-
-        Group rootgroup = null;
-
-        if (rootclasskey != null) {
+            fb.fromTriplet(root, sink);
 
-            Iterator<Group> iter = gs.iterator();
-
-            /* find first essence descriptor */
-            while (rootgroup == null && iter.hasNext()) {
+            count++;
+        }
 
-                Group g = iter.next();
+        return count;
+    }
 
-                AUID gid = new AUID(g.getKey());
+    /**
+     * Reads the Header Metadata of an MXF partition and returns the first
+     * object with a class that descends from the specified class.
+     *
+     * @param mxfpartition MXF partition, including the Partition Pack. Must not be null.
+     * @param defresolver MetaDictionary definitions. Must not be null.
+     * @param evthandler Calls back the caller when an event occurs. Must not be null.
+     * @param rootclasskey Root class of Fragment. The first object is returned if null.
+     * @param setresolver Map to which all the sets of the Header Metadata are added,
+     * indexed by Instance UID. Must not be null.
+     * @return Root object
+     *
+     * @throws IOException
+     * @throws KLVException
+     * @throws com.sandflow.smpte.regxml.MXFFragmentBuilder.MXFException
+     */
+    static Group readRootGroup(
+        InputStream mxfpartition,
+        DefinitionResolver defresolver,
+        EventHandler evthandler,
+        UL rootclasskey,
+        Map<UUID, Set> setresolver
+    ) throws IOException, KLVException, MXFException {
 
-                /* go up the class hierarchy */
-                while (rootgroup == null && gid != null) {
+        HeaderMetadata hm = HeaderMetadata.fromInputStream(mxfpartition, evthandler);
 
-                    Definition def = defresolver.getDefinition(gid);
+        setresolver.putAll(hm.getSets());
 
-                    /* skip if not a class instance */
-                    if (!(def instanceof ClassDefinition)) {
-                        break;
-                    }
+        return getRootGroup(hm, defresolver, evthandler, rootclasskey, null);
+    }
 
-                    /* is it an instance of the requested root object */
-                    UL gul = def.getIdentification().asUL();
+    /**
+     * Returns the first object of the Header Metadata with a class that
+     * descends from the specified class.
+     */
+    static Group getRootGroup(
+        HeaderMetadata hm,
+        DefinitionResolver defresolver,
+        EventHandler evthandler,
+        UL rootclasskey,
+        ExtractionStats stats
+    ) throws MXFException {
 
-                    if (gul.equalsWithMask(rootclasskey, 0b1111101011111111 /* ignore version and Group coding */)) {
-                        rootgroup = g;
+        Group rootgroup = null;
 
-                    } else {
-                        /* get parent class */
-                        gid = ((ClassDefinition) def).getParentClass();
-                    }
-                }
+        if (rootclasskey != null) {
 
-            }
+            rootgroup = hm.getFirstInstanceOf(defresolver, rootclasskey);
 
-        } else {
+        } else if (!hm.getGroups().isEmpty()) {
 
-            rootgroup = gs.get(0);
+            rootgroup = hm.getGroups().get(0);
 
         }
 
@@ -450,11 +749,11 @@ public class MXFFragmentBuilder {
                 "No Root Object found"
             );
 
-            handleEvent(evthandler, evt);
+            handleEvent(evthandler, evt, stats);
 
         }
 
-        return fb.fromTriplet(rootgroup, document);
+        return rootgroup;
 
     }
 
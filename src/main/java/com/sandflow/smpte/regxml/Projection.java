@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.smpte.regxml.dict.DefinitionResolver;
+import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.util.AUID;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Restricts the RegXML Fragment generated by a {@link FragmentBuilder} to a set
+ * of property paths. Properties that are not on a path are neither decoded nor
+ * written, and Strong References are only followed if they lead to a requested
+ * property.
+ *
+ * A path is a sequence of steps separated by '/'. Each step is either the
+ * symbol of a definition, e.g. <code>EssenceDescription</code>, or the URN of
+ * its identification, e.g.
+ * <code>urn:smpte:ul:060e2b34.01010101.04060101.00000000</code>. A property
+ * step selects the property of the current object. A class step restricts the
+ * remainder of the path to objects that are instances of the class, including
+ * its subclasses. For example:
+ *
+ * <pre>
+ * ContentStorageObject/Packages/SourcePackage/EssenceDescription/SampleRate
+ * </pre>
+ *
+ * The last step of a path selects the entire value of the property. Steps that
+ * follow a property that is not a Strong Reference are ignored, and the entire
+ * value of the property is written. Objects referenced by a Strong Reference
+ * none of whose properties are selected, e.g. objects that match no class step,
+ * are not written.
+ *
+ * The reg:uid attribute and the cycle detection rely on properties of the
+ * object, and are therefore only available for objects whose unique identifier
+ * and InstanceID are selected.
+ */
+public class Projection {
+
+    private final Node root = new Node(null);
+
+    private Projection() {
+    }
+
+    /**
+     * Creates a projection from a collection of paths
+     *
+     * @param paths Paths to the requested properties, starting at the root
+     * object of the fragment
+     * @return Projection
+     * @throws IllegalArgumentException if a path is empty
+     */
+    public static Projection fromPaths(Collection<String> paths) {
+
+        Projection p = new Projection();
+
+        for (String path : paths) {
+
+            if (path == null || path.trim().isEmpty()) {
+                throw new IllegalArgumentException("Empty projection path");
+            }
+
+            Node n = p.root;
+
+            for (String step : path.split("/")) {
+
+                step = step.trim();
+
+                if (step.isEmpty()) {
+                    continue;
+                }
+
+                n = n.getOrAddChild(step);
+            }
+
+            /* a path that also prefixes another path selects the entire value */
+            n.terminal = true;
+        }
+
+        return p;
+    }
+
+    /**
+     * Creates a projection from paths
+     *
+     * @param paths Paths to the requested properties, starting at the root
+     * object of the fragment
+     * @return Projection
+     */
+    public static Projection fromPaths(String... paths) {
+        return fromPaths(Arrays.asList(paths));
+    }
+
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Step of a projection path
+     */
+    static class Node {
+
+        private final String symbol;
+        private final AUID identification;
+        private final ArrayList<Node> children = new ArrayList<>();
+        private boolean terminal = false;
+
+        private Node(String step) {
+            this.identification = step == null ? null : AUID.fromURN(step);
+            this.symbol = this.identification == null ? step : null;
+        }
+
+        private Node getOrAddChild(String step) {
+
+            for (Node child : children) {
+                if (step.equals(child.symbol)
+                        || (child.identification != null && child.identification.equals(AUID.fromURN(step)))) {
+                    return child;
+                }
+            }
+
+            Node child = new Node(step);
+
+            children.add(child);
+
+            return child;
+        }
+
+        /**
+         * @return true if the step is the root of the projection, which
+         * selects the root object of the fragment
+         */
+        boolean isRoot() {
+            return symbol == null && identification == null;
+        }
+
+        /**
+         * @return true if the entire value of the property is selected
+         */
+        boolean isTerminal() {
+            return terminal || children.isEmpty();
+        }
+
+        boolean matches(Definition def) {
+
+            if (def == null) {
+                return false;
+            }
+
+            if (symbol != null) {
+                return symbol.equals(def.getSymbol());
+            }
+
+            return identification.equals(def.getIdentification())
+                    || (identification.isUL()
+                    && def.getIdentification().isUL()
+                    && identification.asUL().equalsIgnoreVersion(def.getIdentification()));
+
+        }
+
+        /**
+         * Returns the steps that are selected by an object, which include the
+         * steps that follow class steps matching the object class or one of
+         * its ancestors.
+         *
+         * @param nodes Steps selected by the parent property
+         * @param classdef Definition of the object class
+         * @param resolver Resolver used to retrieve the ancestors of the class
+         * @return Steps selected by the object
+         */
+        static List<Node> forObject(List<Node> nodes, ClassDefinition classdef, DefinitionResolver resolver) {
+
+            ArrayList<Node> selected = new ArrayList<>(nodes);
+
+            /* symbols of the class and its ancestors, collected on first use */
+            HashSet<String> symbols = null;
+
+            for (int i = 0; i < selected.size(); i++) {
+
+                for (Node child : selected.get(i).children) {
+
+                    if (selected.contains(child)) {
+                        continue;
+                    }
+
+                    boolean matches;
+
+                    if (child.identification != null) {
+
+                        matches = resolver.isSubclassOf(classdef, child.identification);
+
+                    } else {
+
+                        if (symbols == null) {
+                            symbols = getAncestorSymbols(classdef, resolver);
+                        }
+
+                        matches = symbols.contains(child.symbol);
+
+                    }
+
+                    if (matches) {
+                        selected.add(child);
+                    }
+                }
+            }
+
+            return selected;
+        }
+
+        /*
+         * Symbols are not indexed by the resolver, so the ancestors of the
+         * class are visited. Each symbol is visited once, which stops at
+         * circular hierarchies.
+         */
+        private static HashSet<String> getAncestorSymbols(ClassDefinition classdef, DefinitionResolver resolver) {
+
+            HashSet<String> symbols = new HashSet<>();
+
+            Definition def = classdef;
+
+            while (def instanceof ClassDefinition && symbols.add(def.getSymbol())) {
+
+                AUID parent = ((ClassDefinition) def).getParentClass();
+
+                def = parent == null ? null : resolver.getDefinition(parent);
+            }
+
+            return symbols;
+        }
+
+        /**
+         * Returns whether a property of the object is selected.
+         *
+         * @param nodes Steps selected by the object
+         * @param propdef Definition of the property
+         * @return true if the property is selected
+         */
+        static boolean selects(List<Node> nodes, Definition propdef) {
+
+            for (Node node : nodes) {
+
+                for (Node child : node.children) {
+
+                    if (child.matches(propdef)) {
+                        return true;
+                    }
+
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Returns the steps that select a property of the object.
+         *
+         * @param nodes Steps selected by the object
+         * @param propdef Definition of the property
+         * @return Steps selected by the property, an empty list if the property
+         * is not selected, or null if the entire value of the property is
+         * selected
+         */
+        static List<Node> forProperty(List<Node> nodes, Definition propdef) {
+
+            List<Node> selected = Collections.emptyList();
+
+            for (Node node : nodes) {
+
+                for (Node child : node.children) {
+
+                    if (!child.matches(propdef)) {
+                        continue;
+                    }
+
+                    if (child.isTerminal()) {
+                        return null;
+                    }
+
+                    if (selected.isEmpty()) {
+                        selected = new ArrayList<>();
+                    }
+
+                    selected.add(child);
+                }
+            }
+
+            return selected;
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.smpte.util.UUID;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of RegXML subtrees, which allows a FragmentBuilder to reuse the
+ * rendering of a Set, including the Sets it strongly references, when a
+ * byte-identical Set is encountered again, e.g. in another file. A subtree is
+ * keyed by a digest of the encoded Set, by a caller-supplied dictionary
+ * version and by the maximum length of DataValue properties written inline,
+ * and is reused only if the Sets it depends on are also unchanged.
+ * Subtrees during which events were raised are not cached. Least recently used
+ * subtrees are evicted first. A RenderCache is thread-safe and can be shared by
+ * FragmentBuilders that use the same dictionaries and AUID name resolver.
+ */
+public class RenderCache {
+
+    /**
+     * Identifies a rendered Set
+     */
+    static final class Key {
+
+        private final String dictversion;
+        private final int maxInlineLength;
+        private final byte[] digest;
+        private final int hash;
+
+        Key(String dictversion, int maxInlineLength, byte[] digest) {
+            this.dictversion = dictversion;
+            this.maxInlineLength = maxInlineLength;
+            this.digest = digest;
+            this.hash = 31 * (31 * dictversion.hashCode() + maxInlineLength) + Arrays.hashCode(digest);
+        }
+
+        byte[] getDigest() {
+            return digest;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return maxInlineLength == other.maxInlineLength
+                && Arrays.equals(digest, other.digest)
+                && dictversion.equals(other.dictversion);
+        }
+    }
+
+    /**
+     * Rendered Set, together with the digest of each Set it depends on,
+     * indexed by InstanceID, and the number of Strong References resolved
+     * while rendering it
+     */
+    static final class Entry {
+
+        final FragmentBuilder.RecordingSink subtree;
+        final Map<UUID, byte[]> dependencies;
+        final long references;
+        final long size;
+
+        Entry(FragmentBuilder.RecordingSink subtree, Map<UUID, byte[]> dependencies, long references) {
+            this.subtree = subtree;
+            this.dependencies = dependencies;
+            this.references = references;
+            this.size = subtree.getCharCount();
+        }
+    }
+
+    private final long maxSize;
+    private long size = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxSize Approximate maximum size of the cached subtrees, in
+     * characters
+     */
+    public RenderCache(long maxSize) {
+
+        if (maxSize < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.maxSize = maxSize;
+    }
+
+    synchronized Entry get(Key key) {
+
+        Entry e = entries.get(key);
+
+        if (e == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+
+        return e;
+    }
+
+    synchronized void put(Key key, Entry entry) {
+
+        if (entry.size > maxSize) {
+            return;
+        }
+
+        Entry old = entries.put(key, entry);
+
+        if (old != null) {
+            size -= old.size;
+        }
+
+        size += entry.size;
+
+        /* evict least recently used entries */
+        for (Iterator<Entry> it = entries.values().iterator(); size > maxSize && it.hasNext();) {
+            size -= it.next().size;
+            it.remove();
+        }
+    }
+
+    /**
+     * Records that a cached subtree could not be reused because a Set it
+     * depends on has changed
+     */
+    synchronized void invalidated() {
+        hits--;
+        misses++;
+    }
+
+    /**
+     * @return Number of Sets whose rendering was reused
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return Number of Sets that were rendered
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return Number of cached subtrees
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return Approximate size of the cached subtrees, in characters
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Removes all cached subtrees
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+}
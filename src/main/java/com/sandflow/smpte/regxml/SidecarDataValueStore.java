@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Stores each DataValue in a separate sidecar file within a directory. The
+ * name of the sidecar file, relative to the directory, is returned as
+ * reference.
+ */
+public class SidecarDataValueStore implements FragmentBuilder.DataValueStore {
+
+    private final Path directory;
+    private final String prefix;
+    private int count = 0;
+
+    /**
+     * @param directory Directory where sidecar files are written. Must not be
+     * null.
+     * @param prefix Prefix of the name of each sidecar file, e.g. the name of
+     * the RegXML document. Must not be null.
+     */
+    public SidecarDataValueStore(Path directory, String prefix) {
+
+        if (directory == null || prefix == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.directory = directory;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public synchronized String store(String elemname, InputStream value) throws IOException {
+
+        String name = prefix + elemname + "." + (count++) + ".bin";
+
+        Files.copy(value, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+
+        return name;
+    }
+
+}
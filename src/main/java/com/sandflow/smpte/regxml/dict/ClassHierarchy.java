@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict;
+
+import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.util.AUID;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ancestry, members, flattened members and subclasses of every class of a
+ * DefinitionResolver, computed once and immutable. Each class is assigned a
+ * dense id, and its ancestry, including itself, is represented by a bitset over
+ * these ids. Ids are looked up without allocating.
+ */
+class ClassHierarchy {
+
+    /* the id of a class is its position in the index */
+    private final DefinitionIndex ids = new DefinitionIndex();
+    private final ArrayList<ClassDefinition> classes = new ArrayList<>();
+    private final BitSet[] ancestors;
+    private final List<List<AUID>> members;
+    private final List<List<AUID>> directMembers;
+    private final List<List<AUID>> subclasses;
+
+    /**
+     * @param resolver Resolves the members and subclasses of each class
+     * @param definitions Definitions from which classes are collected
+     */
+    ClassHierarchy(DefinitionResolver resolver, Collection<Definition> definitions) {
+
+        for (Definition def : definitions) {
+
+            if (!(def instanceof ClassDefinition)) {
+                continue;
+            }
+
+            if (ids.putIfAbsent(def)) {
+                classes.add((ClassDefinition) def);
+            }
+        }
+
+        ancestors = new BitSet[classes.size()];
+        members = new ArrayList<>(Collections.nCopies(classes.size(), (List<AUID>) null));
+        directMembers = new ArrayList<>(classes.size());
+        subclasses = new ArrayList<>(classes.size());
+
+        for (int i = 0; i < classes.size(); i++) {
+            directMembers.add(freeze(resolver.getMembersOf(classes.get(i))));
+            subclasses.add(freeze(resolver.getSubclassesOf(classes.get(i))));
+        }
+
+        for (int i = 0; i < classes.size(); i++) {
+            index(resolver, i);
+        }
+    }
+
+    private static List<AUID> freeze(Collection<AUID> auids) {
+
+        if (auids == null || auids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return Collections.unmodifiableList(new ArrayList<>(auids));
+    }
+
+    private void index(DefinitionResolver resolver, int id) {
+
+        if (ancestors[id] != null) {
+            return;
+        }
+
+        ClassDefinition def = classes.get(id);
+
+        BitSet bs = new BitSet();
+
+        bs.set(id);
+
+        /* marks the class as in progress, which stops circular hierarchies */
+        ancestors[id] = bs;
+
+        ArrayList<AUID> m = new ArrayList<>(directMembers.get(id));
+
+        int parentid = def.getParentClass() == null ? -1 : ids.indexOf(def.getParentClass());
+
+        if (parentid >= 0 && members.get(parentid) == null && ancestors[parentid] == null) {
+            index(resolver, parentid);
+        }
+
+        if (parentid >= 0 && members.get(parentid) != null) {
+            bs.or(ancestors[parentid]);
+            m.addAll(members.get(parentid));
+        }
+
+        members.set(id, Collections.unmodifiableList(m));
+    }
+
+    /**
+     * @return true if the class is known and is the ancestor or one of its
+     * descendants, false if the class is known and is not, and null if either
+     * is unknown
+     */
+    Boolean isSubclassOf(ClassDefinition definition, AUID ancestor) {
+
+        int id = getId(definition);
+
+        if (id < 0) {
+            return null;
+        }
+
+        int ancestorid = ids.indexOf(ancestor);
+
+        if (ancestorid < 0) {
+            return false;
+        }
+
+        return ancestors[id].get(ancestorid);
+    }
+
+    /* -1 if the class is unknown, or is not the class known by its identification */
+    private int getId(ClassDefinition definition) {
+
+        int id = ids.indexOf(definition.getIdentification());
+
+        return id < 0 || classes.get(id) != definition ? -1 : id;
+    }
+
+    /**
+     * @return Members of the class and its ancestors, or null if the class is
+     * unknown
+     */
+    List<AUID> getAllMembersOf(ClassDefinition definition) {
+
+        int id = getId(definition);
+
+        return id < 0 ? null : members.get(id);
+    }
+
+    /**
+     * @return Members of the class, or null if the class is unknown
+     */
+    List<AUID> getMembersOf(ClassDefinition definition) {
+
+        int id = getId(definition);
+
+        return id < 0 ? null : directMembers.get(id);
+    }
+
+    /**
+     * @return Direct subclasses of the class, or null if the class is unknown
+     */
+    List<AUID> getSubclassesOf(ClassDefinition definition) {
+
+        int id = getId(definition);
+
+        return id < 0 ? null : subclasses.get(id);
+    }
+
+}
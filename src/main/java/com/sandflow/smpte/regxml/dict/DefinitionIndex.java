@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict;
+
+import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.util.AUID;
+
+/**
+ * Index of definitions by normalized AUID (see
+ * {@link MetaDictionary#createNormalizedAUID(com.sandflow.smpte.util.AUID)}).
+ * AUIDs are normalized as they are hashed and compared, so that lookups do
+ * not allocate. Uses open addressing with linear probing.
+ */
+final class DefinitionIndex {
+
+    private static final int UL_VERSION_BYTE = 7;
+    private static final int UL_CATEGORY_DESIGNATOR_BYTE = 4;
+    private static final int UL_REGISTRY_DESIGNATOR_BYTE = 5;
+
+    /* normalized AUID values */
+    private byte[][] keys = new byte[256][];
+    private Definition[] values = new Definition[256];
+    /* order in which definitions were added, see indexOf() */
+    private int[] positions = new int[256];
+    private int size = 0;
+
+    private static int normalizedOctet(byte[] auid, int i) {
+
+        if ((auid[0] & 0x80) == 0) {
+
+            /* UL */
+            if (i == UL_VERSION_BYTE) {
+                return 0;
+            }
+
+            if (i == UL_REGISTRY_DESIGNATOR_BYTE && auid[UL_CATEGORY_DESIGNATOR_BYTE] == 2) {
+                return 0x7f;
+            }
+        }
+
+        return auid[i];
+    }
+
+    private static int hash(byte[] auid) {
+
+        int h = 1;
+
+        for (int i = 0; i < 16; i++) {
+            h = 31 * h + normalizedOctet(auid, i);
+        }
+
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(byte[] key, byte[] auid) {
+
+        for (int i = 0; i < 16; i++) {
+            if (key[i] != (byte) normalizedOctet(auid, i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int slot(byte[] auid) {
+
+        int mask = keys.length - 1;
+
+        int i = hash(auid) & mask;
+
+        while (keys[i] != null && !matches(keys[i], auid)) {
+            i = (i + 1) & mask;
+        }
+
+        return i;
+    }
+
+    /**
+     * @param auid AUID, which need not be normalized
+     * @return Definition whose normalized identification is equal to the
+     * normalized AUID, or null if none exists
+     */
+    Definition get(AUID auid) {
+        return values[slot(auid.getValue())];
+    }
+
+    /**
+     * @param auid AUID, which need not be normalized
+     * @return Position, in the order in which definitions were added, of the
+     * definition whose normalized identification is equal to the normalized
+     * AUID, or -1 if none exists
+     */
+    int indexOf(AUID auid) {
+
+        int i = slot(auid.getValue());
+
+        return values[i] == null ? -1 : positions[i];
+    }
+
+    /**
+     * Adds a definition unless the index already contains a definition with
+     * the same normalized identification
+     *
+     * @param def Definition to add
+     * @return true if the definition was added
+     */
+    boolean putIfAbsent(Definition def) {
+
+        byte[] auid = def.getIdentification().getValue();
+
+        int i = slot(auid);
+
+        if (keys[i] != null) {
+            return false;
+        }
+
+        byte[] key = new byte[16];
+
+        for (int j = 0; j < 16; j++) {
+            key[j] = (byte) normalizedOctet(auid, j);
+        }
+
+        keys[i] = key;
+        values[i] = def;
+        positions[i] = size;
+
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+
+        return true;
+    }
+
+    private void resize() {
+
+        byte[][] oldkeys = keys;
+        Definition[] oldvalues = values;
+        int[] oldpositions = positions;
+
+        keys = new byte[oldkeys.length * 2][];
+        values = new Definition[oldkeys.length * 2];
+        positions = new int[oldkeys.length * 2];
+
+        for (int i = 0; i < oldkeys.length; i++) {
+
+            if (oldkeys[i] != null) {
+
+                int j = slot(oldkeys[i]);
+
+                keys[j] = oldkeys[i];
+                values[j] = oldvalues[i];
+                positions[j] = oldpositions[i];
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+}
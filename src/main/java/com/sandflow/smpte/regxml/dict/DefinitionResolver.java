@@ -27,8 +27,11 @@ package com.sandflow.smpte.regxml.dict;
 
 import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
 import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.regxml.dict.definitions.RenameTypeDefinition;
 import com.sandflow.smpte.util.AUID;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 
 /**
  * A class that can retrieve Metadictionary definitions.
@@ -60,4 +63,95 @@ public interface DefinitionResolver {
      * @return Identifications for the definition of all members
      */
     public Collection<AUID> getMembersOf(ClassDefinition definition);
+
+    /**
+     * Returns true if a Class definition is the specified class or one of its
+     * descendants. The version byte of ULs, and the Group coding byte of Group
+     * ULs, are ignored.
+     *
+     * @param definition Class definition
+     * @param ancestor Identification of the ancestor class
+     * @return true if the class descends from the ancestor
+     */
+    default boolean isSubclassOf(ClassDefinition definition, AUID ancestor) {
+
+        AUID normancestor = MetaDictionary.createNormalizedAUID(ancestor);
+
+        /* stops at circular hierarchies, e.g. a root class that is its own parent */
+        HashSet<AUID> visited = new HashSet<>();
+
+        for (Definition def = definition; def instanceof ClassDefinition;) {
+
+            AUID normid = MetaDictionary.createNormalizedAUID(def.getIdentification());
+
+            if (normid.equals(normancestor)) {
+                return true;
+            }
+
+            if (!visited.add(normid)) {
+                break;
+            }
+
+            AUID parent = ((ClassDefinition) def).getParentClass();
+
+            def = parent == null ? null : getDefinition(parent);
+        }
+
+        return false;
+    }
+
+    /**
+     * Return all members of a Class definition and of its ancestors, starting
+     * with the members of the Class definition itself.
+     *
+     * @param definition Class definition for which members are sought
+     * @return Identifications for the definition of all members
+     */
+    default Collection<AUID> getAllMembersOf(ClassDefinition definition) {
+
+        ArrayList<AUID> members = new ArrayList<>();
+
+        /* stops at circular hierarchies, e.g. a root class that is its own parent */
+        HashSet<AUID> visited = new HashSet<>();
+
+        for (Definition def = definition;
+            def instanceof ClassDefinition && visited.add(MetaDictionary.createNormalizedAUID(def.getIdentification()));) {
+
+            Collection<AUID> defs = getMembersOf((ClassDefinition) def);
+
+            if (defs != null) {
+                members.addAll(defs);
+            }
+
+            AUID parent = ((ClassDefinition) def).getParentClass();
+
+            def = parent == null ? null : getDefinition(parent);
+        }
+
+        return members;
+    }
+
+    /**
+     * Returns the definition referenced by a definition, resolving any
+     * RenameTypeDefinition, i.e. the type of a Property definition, the element
+     * type of an Enumeration, Fixed Array, Variable Array, Set or String type
+     * definition, the referenced class of a Strong or Weak Reference type
+     * definition, or the type renamed by a Rename type definition.
+     *
+     * @param definition Definition
+     * @return Referenced definition, or null if the definition does not
+     * reference a definition or if the referenced definition is unknown
+     */
+    default Definition getReferencedDefinition(Definition definition) {
+
+        AUID auid = MetaDictionary.getReferencedAUID(definition);
+
+        Definition def = auid == null ? null : getDefinition(auid);
+
+        while (def instanceof RenameTypeDefinition) {
+            def = getDefinition(((RenameTypeDefinition) def).getRenamedType());
+        }
+
+        return def;
+    }
 }
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict;
+
+import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.regxml.dict.exceptions.IllegalDefinitionException;
+import com.sandflow.smpte.regxml.dict.exceptions.IllegalDictionaryException;
+import com.sandflow.smpte.util.AUID;
+import jakarta.xml.bind.JAXBException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Resolves definitions from a set of RegXML metadictionary files, each of which
+ * is loaded only when one of its definitions is first needed. When created, the
+ * files are scanned for the identifications of their definitions, and for the
+ * classes their definitions extend or belong to, without building the
+ * definitions themselves.
+ *
+ * When several files define the same AUID, the definition of the first of these
+ * files, in the order they are provided, is returned, as if the dictionaries
+ * had been added upfront to a {@link MetaDictionaryCollection} in that order.
+ * Lookups do not lock, and loading a file does not affect the dictionaries
+ * already loaded.
+ */
+public class LazyDefinitionResolver implements DefinitionResolver {
+
+    private static final String IDENTIFICATION = "Identification";
+    private static final String MEMBER_OF = "MemberOf";
+    private static final String PARENT_CLASS = "ParentClass";
+    private static final String SCHEME_URI = "SchemeURI";
+    private static final String PROPERTY_ALIAS_DEFINITION = "PropertyAliasDefinition";
+
+    private final List<Path> files;
+
+    /* Scheme URI of each file */
+    private final List<URI> namespaces = new ArrayList<>();
+
+    /*
+     * maps normalized AUIDs to the files that define them. Property aliases
+     * share their identification with the original property, and are not
+     * included, as in MetaDictionary.
+     */
+    private final HashMap<AUID, BitSet> definedBy = new HashMap<>();
+
+    /* maps normalized AUIDs of classes to the files that define their members */
+    private final HashMap<AUID, BitSet> membersDefinedBy = new HashMap<>();
+
+    /* maps normalized AUIDs of classes to the files that define their subclasses */
+    private final HashMap<AUID, BitSet> subclassesDefinedBy = new HashMap<>();
+
+    /* indexed by file, null until loaded */
+    private final AtomicReferenceArray<MetaDictionary> dicts;
+
+    /**
+     * @param files RegXML metadictionary files, in order of precedence
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    public LazyDefinitionResolver(Collection<Path> files) throws IOException, XMLStreamException {
+
+        this.files = new ArrayList<>(files);
+
+        this.dicts = new AtomicReferenceArray<>(this.files.size());
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+
+        for (int i = 0; i < this.files.size(); i++) {
+
+            namespaces.add(scan(factory, i));
+
+            if (namespaces.get(i) == null) {
+                throw new XMLStreamException("Missing SchemeURI: " + this.files.get(i));
+            }
+        }
+    }
+
+    /**
+     * Creates a resolver from the .xml files of a directory, in the order of
+     * the file names
+     *
+     * @param dir Directory
+     * @return Resolver
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    public static LazyDefinitionResolver fromDirectory(Path dir) throws IOException, XMLStreamException {
+
+        ArrayList<Path> files = new ArrayList<>();
+
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.xml")) {
+            for (Path f : ds) {
+                files.add(f);
+            }
+        }
+
+        Collections.sort(files);
+
+        return new LazyDefinitionResolver(files);
+    }
+
+    private static void put(HashMap<AUID, BitSet> map, String urn, int file) {
+
+        AUID auid = AUID.fromURN(urn.trim());
+
+        if (auid == null) {
+            return;
+        }
+
+        auid = MetaDictionary.createNormalizedAUID(auid);
+
+        BitSet bs = map.get(auid);
+
+        if (bs == null) {
+            bs = new BitSet();
+            map.put(auid, bs);
+        }
+
+        bs.set(file);
+    }
+
+    /* returns the Scheme URI of the file */
+    private URI scan(XMLInputFactory factory, int file) throws IOException, XMLStreamException {
+
+        URI schemeURI = null;
+
+        boolean isAlias = false;
+
+        try (InputStream is = Files.newInputStream(files.get(file))) {
+
+            XMLStreamReader r = factory.createXMLStreamReader(is);
+
+            try {
+
+                while (r.hasNext()) {
+
+                    int event = r.next();
+
+                    if ((event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT)
+                        || !MetaDictionary.XML_NS.equals(r.getNamespaceURI())) {
+                        continue;
+                    }
+
+                    if (PROPERTY_ALIAS_DEFINITION.equals(r.getLocalName())) {
+                        isAlias = event == XMLStreamConstants.START_ELEMENT;
+                        continue;
+                    }
+
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        continue;
+                    }
+
+                    switch (r.getLocalName()) {
+                        case IDENTIFICATION:
+                            if (!isAlias) {
+                                put(definedBy, r.getElementText(), file);
+                            }
+                            break;
+                        case MEMBER_OF:
+                            put(membersDefinedBy, r.getElementText(), file);
+                            break;
+                        case PARENT_CLASS:
+                            put(subclassesDefinedBy, r.getElementText(), file);
+                            break;
+                        case SCHEME_URI:
+                            schemeURI = URI.create(r.getElementText().trim());
+                            break;
+                        default:
+                    }
+                }
+
+            } finally {
+                r.close();
+            }
+        }
+
+        return schemeURI;
+    }
+
+    /* returns the dictionary of a file, loading it if necessary */
+    private MetaDictionary load(int file) {
+
+        MetaDictionary md = dicts.get(file);
+
+        if (md != null) {
+            return md;
+        }
+
+        synchronized (this) {
+
+            md = dicts.get(file);
+
+            if (md == null) {
+
+                try (Reader r = Files.newBufferedReader(files.get(file), StandardCharsets.UTF_8)) {
+
+                    md = MetaDictionary.fromXML(r);
+
+                } catch (IOException | JAXBException | IllegalDefinitionException e) {
+
+                    throw new IllegalStateException("Cannot load dictionary " + files.get(file), e);
+
+                }
+
+                dicts.set(file, md);
+            }
+        }
+
+        return md;
+    }
+
+    /**
+     * @return Scheme URIs of all the dictionaries, whether loaded or not
+     */
+    public Collection<URI> getNamespaces() {
+        return Collections.unmodifiableList(namespaces);
+    }
+
+    /**
+     * Returns a collection of the dictionaries loaded so far, added in the
+     * order of their files. The collection is created on each call, and is not
+     * affected by dictionaries subsequently loaded.
+     *
+     * @return Dictionaries loaded so far
+     */
+    public MetaDictionaryCollection getLoadedDictionaries() {
+
+        MetaDictionaryCollection mds = new MetaDictionaryCollection();
+
+        try {
+
+            for (int i = 0; i < dicts.length(); i++) {
+                if (dicts.get(i) != null) {
+                    mds.addDictionary(dicts.get(i));
+                }
+            }
+
+        } catch (IllegalDictionaryException e) {
+
+            throw new IllegalStateException("Cannot add dictionary", e);
+
+        }
+
+        return mds;
+    }
+
+    /**
+     * Loads all dictionaries
+     *
+     * @return Dictionaries, see {@link #getLoadedDictionaries()}
+     */
+    public MetaDictionaryCollection loadAll() {
+
+        for (int i = 0; i < files.size(); i++) {
+            load(i);
+        }
+
+        return getLoadedDictionaries();
+    }
+
+    @Override
+    public Definition getDefinition(AUID identification) {
+
+        BitSet candidates = definedBy.get(MetaDictionary.createNormalizedAUID(identification));
+
+        if (candidates == null) {
+            return null;
+        }
+
+        /* the first file that defines the AUID takes precedence */
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+
+            Definition def = load(i).getDefinition(identification);
+
+            if (def != null) {
+                return def;
+            }
+        }
+
+        return null;
+    }
+
+    /* concatenates the AUIDs returned by each file, in file order */
+    private Collection<AUID> collect(BitSet candidates, ClassDefinition definition, boolean members) {
+
+        if (candidates == null) {
+            return Collections.emptyList();
+        }
+
+        ArrayList<AUID> auids = new ArrayList<>();
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+
+            MetaDictionary md = load(i);
+
+            Collection<AUID> defs = members ? md.getMembersOf(definition) : md.getSubclassesOf(definition);
+
+            if (defs != null) {
+                auids.addAll(defs);
+            }
+        }
+
+        return auids;
+    }
+
+    @Override
+    public Collection<AUID> getSubclassesOf(ClassDefinition definition) {
+        return collect(subclassesDefinedBy.get(MetaDictionary.createNormalizedAUID(definition.getIdentification())), definition, false);
+    }
+
+    @Override
+    public Collection<AUID> getMembersOf(ClassDefinition definition) {
+        return collect(membersDefinedBy.get(MetaDictionary.createNormalizedAUID(definition.getIdentification())), definition, true);
+    }
+
+}
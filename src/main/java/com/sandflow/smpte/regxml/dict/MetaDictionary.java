@@ -112,6 +112,49 @@ public class MetaDictionary implements DefinitionResolver {
         return new UL(value);
     }
 
+    /**
+     * @return Identification of the definition referenced by a definition, as
+     * specified at
+     * {@link DefinitionResolver#getReferencedDefinition(Definition)}, or null if
+     * none
+     */
+    static AUID getReferencedAUID(Definition definition) {
+
+        if (definition instanceof PropertyDefinition) {
+            return ((PropertyDefinition) definition).getType();
+        } else if (definition instanceof EnumerationTypeDefinition) {
+            return ((EnumerationTypeDefinition) definition).getElementType();
+        } else if (definition instanceof FixedArrayTypeDefinition) {
+            return ((FixedArrayTypeDefinition) definition).getElementType();
+        } else if (definition instanceof VariableArrayTypeDefinition) {
+            return ((VariableArrayTypeDefinition) definition).getElementType();
+        } else if (definition instanceof SetTypeDefinition) {
+            return ((SetTypeDefinition) definition).getElementType();
+        } else if (definition instanceof StringTypeDefinition) {
+            return ((StringTypeDefinition) definition).getElementType();
+        } else if (definition instanceof StrongReferenceTypeDefinition) {
+            return ((StrongReferenceTypeDefinition) definition).getReferencedType();
+        } else if (definition instanceof WeakReferenceTypeDefinition) {
+            return ((WeakReferenceTypeDefinition) definition).getReferencedType();
+        } else if (definition instanceof RenameTypeDefinition) {
+            return ((RenameTypeDefinition) definition).getRenamedType();
+        } else {
+            return null;
+        }
+    }
+
+    private static JAXBContext jaxbContext;
+
+    /* the context is thread-safe, and costly to create */
+    static synchronized JAXBContext getJAXBContext() throws JAXBException {
+
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(MetaDictionary.class);
+        }
+
+        return jaxbContext;
+    }
+
     static String createQualifiedSymbol(String namespace, String symbol) {
         if (namespace == null || namespace.length() == 0) {
             return symbol;
@@ -130,9 +173,7 @@ public class MetaDictionary implements DefinitionResolver {
      * @throws IllegalDefinitionException 
      */
     public static MetaDictionary fromXML(Reader reader) throws JAXBException, IOException, IllegalDefinitionException {
-        JAXBContext ctx = JAXBContext.newInstance(MetaDictionary.class);
-        
-        Unmarshaller m = ctx.createUnmarshaller();
+        Unmarshaller m = getJAXBContext().createUnmarshaller();
         MetaDictionary md = (MetaDictionary) m.unmarshal(reader);
         
         for (Definition def : md.definitions) {
@@ -177,6 +218,16 @@ public class MetaDictionary implements DefinitionResolver {
         this.schemeURI = schemeURI;
     }
     
+    /**
+     * Instantiates an empty MetaDictionary with the fields of an existing one,
+     * e.g. read from a {@link MetaDictionarySnapshot}.
+     */
+    MetaDictionary(UUID schemeID, URI schemeURI, String description) {
+        this.schemeID = schemeID;
+        this.schemeURI = schemeURI;
+        this.description = description;
+    }
+    
     void indexDefinition(Definition def) throws IllegalDefinitionException {
         AUID defid = createNormalizedAUID(def.getIdentification());
         
@@ -336,7 +387,7 @@ public class MetaDictionary implements DefinitionResolver {
         try {
 
             doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
-            Marshaller m = JAXBContext.newInstance(MetaDictionary.class).createMarshaller();
+            Marshaller m = getJAXBContext().createMarshaller();
             m.marshal(this, doc);
 
         } catch (JAXBException | ParserConfigurationException e) {
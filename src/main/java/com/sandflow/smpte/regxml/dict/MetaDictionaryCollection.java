@@ -27,32 +27,269 @@ package com.sandflow.smpte.regxml.dict;
 
 import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
 import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.regxml.dict.definitions.PropertyAliasDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.PropertyDefinition;
 import com.sandflow.smpte.regxml.dict.exceptions.IllegalDefinitionException;
 import com.sandflow.smpte.regxml.dict.exceptions.IllegalDictionaryException;
 import com.sandflow.smpte.util.AUID;
+import com.sandflow.util.events.BasicEvent;
+import com.sandflow.util.events.Event;
+import com.sandflow.util.events.EventHandler;
+import jakarta.xml.bind.JAXBException;
+import java.io.IOException;
+import java.io.Reader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * A collection of multiple RegXML Metadictionary as specified in SMPTE ST 2001-1
  */
 public class MetaDictionaryCollection implements DefinitionResolver {
 
-    final private HashMap<URI, MetaDictionary> dicts = new HashMap<>();
+    /**
+     * Defines all events raised by the class
+     */
+    public static enum EventKind {
 
-    @Override
-    public Definition getDefinition(AUID auid) {
-        Definition def = null;
+        /**
+         * A definition references a definition that is not in the collection
+         */
+        UNRESOLVED_REFERENCE(Event.Severity.ERROR);
+
+        public final Event.Severity severity;
+
+        private EventKind(Event.Severity severity) {
+            this.severity = severity;
+        }
+
+    }
+
+    /**
+     * All events raised by this class are instances of this class
+     */
+    public static class DictionaryEvent extends BasicEvent {
+
+        public DictionaryEvent(EventKind kind, String message) {
+            super(kind.severity, kind, message);
+        }
+
+    }
+
+    /**
+     * Loads the RegXML metadictionaries contained in the .xml files of a
+     * directory. The files are parsed concurrently, and the metadictionaries
+     * are added to the collection in the order of the file names. A
+     * {@link EventKind#UNRESOLVED_REFERENCE} error is raised for each
+     * reference to a definition that none of the metadictionaries contains.
+     *
+     * @param dir Directory
+     * @param executor Executor on which the files are parsed
+     * @param evthandler Handles events, or null if errors cause an exception
+     * to be thrown
+     * @return Collection of the metadictionaries
+     * @throws IOException
+     * @throws JAXBException
+     * @throws IllegalDefinitionException
+     * @throws IllegalDictionaryException If two metadictionaries have the same
+     * Scheme URI, or if a reference cannot be resolved and evthandler is null or
+     * returns false
+     */
+    public static MetaDictionaryCollection loadAll(Path dir, Executor executor, EventHandler evthandler)
+        throws IOException, JAXBException, IllegalDefinitionException, IllegalDictionaryException {
+
+        ArrayList<Path> files = new ArrayList<>();
+
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.xml")) {
+            for (Path f : ds) {
+                files.add(f);
+            }
+        }
+
+        Collections.sort(files);
+
+        ArrayList<CompletableFuture<MetaDictionary>> futures = new ArrayList<>();
+
+        for (final Path f : files) {
+
+            futures.add(CompletableFuture.supplyAsync(() -> {
+
+                try (Reader r = Files.newBufferedReader(f, StandardCharsets.UTF_8)) {
+                    return MetaDictionary.fromXML(r);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+
+            }, executor));
+        }
+
+        MetaDictionaryCollection mds = new MetaDictionaryCollection();
+
+        for (CompletableFuture<MetaDictionary> future : futures) {
+
+            try {
+
+                mds.addDictionary(future.join());
+
+            } catch (CompletionException e) {
+
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                } else if (e.getCause() instanceof JAXBException) {
+                    throw (JAXBException) e.getCause();
+                } else if (e.getCause() instanceof IllegalDefinitionException) {
+                    throw (IllegalDefinitionException) e.getCause();
+                }
+
+                throw e;
+            }
+        }
+
+        mds.freeze();
+
+        mds.validate(evthandler);
+
+        return mds;
+    }
+
+    /**
+     * Same as {@link #loadAll(Path, Executor, EventHandler)}, but throws an
+     * exception if a reference cannot be resolved.
+     */
+    public static MetaDictionaryCollection loadAll(Path dir, Executor executor)
+        throws IOException, JAXBException, IllegalDefinitionException, IllegalDictionaryException {
+        return loadAll(dir, executor, null);
+    }
+
+    private void checkReference(EventHandler evthandler, Definition def, AUID ref, String field) throws IllegalDictionaryException {
+
+        if (ref == null || getDefinition(ref) != null) {
+            return;
+        }
+
+        DictionaryEvent evt = new DictionaryEvent(
+            EventKind.UNRESOLVED_REFERENCE,
+            String.format("%s of %s (%s) references unknown definition %s", field, def.getSymbol(), def.getIdentification(), ref)
+        );
+
+        if (evthandler == null) {
+
+            if (evt.getSeverity() == Event.Severity.ERROR || evt.getSeverity() == Event.Severity.FATAL) {
+                throw new IllegalDictionaryException(evt.getMessage());
+            }
+
+        } else if (!evthandler.handle(evt) || evt.getSeverity() == Event.Severity.FATAL) {
+
+            throw new IllegalDictionaryException(evt.getMessage());
+
+        }
+    }
+
+    /*
+     * checks, across all members, the references to types, parent classes and
+     * containing classes
+     */
+    private void validate(EventHandler evthandler) throws IllegalDictionaryException {
 
         for (MetaDictionary md : dicts.values()) {
-            if ((def = md.getDefinition(auid)) != null) {
-                break;
+
+            for (Definition def : md.getDefinitions()) {
+
+                checkReference(evthandler, def, MetaDictionary.getReferencedAUID(def), "Type");
+
+                if (def instanceof PropertyDefinition) {
+                    checkReference(evthandler, def, ((PropertyDefinition) def).getMemberOf(), "MemberOf");
+                } else if (def instanceof ClassDefinition) {
+                    checkReference(evthandler, def, ((ClassDefinition) def).getParentClass(), "ParentClass");
+                }
             }
         }
+    }
 
-        return def;
+    final private HashMap<URI, MetaDictionary> dicts = new HashMap<>();
+
+    /*
+     * definitions of all the members of the collection, updated as
+     * dictionaries and definitions are added. When two members define the same
+     * AUID, the definition added first is retained.
+     */
+    final private DefinitionIndex definitions = new DefinitionIndex();
+
+    /* computed on first use, and discarded whenever a definition is added */
+    private volatile ClassHierarchy hierarchy;
+
+    /*
+     * ids of the definitions of the collection, and the definition referenced
+     * by each, indexed by id, see freeze(). Definitions can be shared by several
+     * collections: each definition carries the id assigned by the last table
+     * built (see DefinitionId), and ids assigned by other tables are looked up
+     * in the map.
+     */
+    private static class DefinitionTable {
+
+        final IdentityHashMap<Definition, Integer> ids;
+        final Definition[] referenced;
+
+        DefinitionTable(IdentityHashMap<Definition, Integer> ids, Definition[] referenced) {
+            this.ids = ids;
+            this.referenced = referenced;
+        }
+
+        int getId(Definition definition) {
+
+            Object hint = definition.getResolverHint();
+
+            if (hint instanceof DefinitionId && ((DefinitionId) hint).table == this) {
+                return ((DefinitionId) hint).id;
+            }
+
+            Integer id = ids.get(definition);
+
+            return id == null ? -1 : id;
+        }
+    }
+
+    /* id of a definition within a table, attached to the definition */
+    private static final class DefinitionId {
+
+        final DefinitionTable table;
+        final int id;
+
+        DefinitionId(DefinitionTable table, int id) {
+            this.table = table;
+            this.id = id;
+        }
+    }
+
+    /* computed on first use, and discarded whenever a definition is added */
+    private volatile DefinitionTable table;
+
+    /* set once the collection is published, see MetaDictionaryHolder */
+    private volatile boolean readOnly;
+
+    /*
+     * Property aliases share their identification with the original property,
+     * and are not indexed, as in MetaDictionary
+     */
+    private void indexDefinition(Definition def) {
+        if (def.getClass() != PropertyAliasDefinition.class) {
+            definitions.putIfAbsent(def);
+        }
+    }
+
+    @Override
+    public Definition getDefinition(AUID auid) {
+        return definitions.get(auid);
     }
     
     /**
@@ -74,16 +311,29 @@ public class MetaDictionaryCollection implements DefinitionResolver {
     }
 
     /**
-     * Adds a MetaDictionary to the collection. 
+     * Adds a MetaDictionary to the collection. Definitions subsequently added
+     * directly to the MetaDictionary are not visible through the collection,
+     * and should instead be added using {@link #addDefinition(Definition)}.
      * 
      * @param metadictionary MetaDictionary to be added
      * @throws IllegalDictionaryException If the MetaDictionary
+     * @throws IllegalStateException If the collection is read-only, see
+     * {@link MetaDictionaryHolder}
      */
     public void addDictionary(MetaDictionary metadictionary) throws IllegalDictionaryException {
+        checkWritable();
+
         MetaDictionary oldmd = dicts.get(metadictionary.getSchemeURI());
 
         if (oldmd == null) {
             dicts.put(metadictionary.getSchemeURI(), metadictionary);
+
+            for (Definition def : metadictionary.getDefinitions()) {
+                indexDefinition(def);
+            }
+
+            hierarchy = null;
+            table = null;
         } else {
             throw new IllegalDictionaryException("Metadictionary already present in group.");
         }
@@ -96,8 +346,12 @@ public class MetaDictionaryCollection implements DefinitionResolver {
      * 
      * @param def Definition to be added
      * @throws IllegalDefinitionException 
+     * @throws IllegalStateException If the collection is read-only, see
+     * {@link MetaDictionaryHolder}
      */
     public void addDefinition(Definition def) throws IllegalDefinitionException {
+        checkWritable();
+
         MetaDictionary md = dicts.get(def.getNamespace());
 
         if (md == null) {
@@ -107,18 +361,46 @@ public class MetaDictionaryCollection implements DefinitionResolver {
         }
 
         md.add(def);
+
+        indexDefinition(def);
+
+        hierarchy = null;
+        table = null;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new IllegalStateException("Metadictionary collection is read-only.");
+        }
+    }
+
+    /*
+     * freezes the collection and prevents further additions, before it is
+     * published by a MetaDictionaryHolder
+     */
+    void makeReadOnly() {
+        freeze();
+        readOnly = true;
+    }
+
+    /**
+     * @return true if dictionaries and definitions can no longer be added to
+     * the collection, i.e. once it is published by a {@link MetaDictionaryHolder}
+     */
+    public boolean isReadOnly() {
+        return readOnly;
     }
 
     /**
      * Returns all the members of the collection
-     * @return Collection of MetaDictionaries
+     * @return Unmodifiable collection of MetaDictionaries
      */
     public Collection<MetaDictionary> getDictionaries() {
-        return dicts.values();
+        return Collections.unmodifiableCollection(dicts.values());
     }
 
-    @Override
-    public Collection<AUID> getSubclassesOf(ClassDefinition parent) {
+    /* concatenates the subclasses declared by each member */
+    private Collection<AUID> collectSubclassesOf(ClassDefinition parent) {
 
         ArrayList<AUID> subclasses = new ArrayList<>();
 
@@ -133,8 +415,8 @@ public class MetaDictionaryCollection implements DefinitionResolver {
         return subclasses;
     }
 
-    @Override
-    public Collection<AUID> getMembersOf(ClassDefinition parent) {
+    /* concatenates the members declared by each member */
+    private Collection<AUID> collectMembersOf(ClassDefinition parent) {
         ArrayList<AUID> members = new ArrayList<>();
 
         for (MetaDictionary md : dicts.values()) {
@@ -147,4 +429,154 @@ public class MetaDictionaryCollection implements DefinitionResolver {
         return members;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * The returned collection must not be modified.
+     */
+    @Override
+    public Collection<AUID> getSubclassesOf(ClassDefinition parent) {
+
+        Collection<AUID> subclasses = getHierarchy().getSubclassesOf(parent);
+
+        return subclasses == null ? collectSubclassesOf(parent) : subclasses;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The returned collection must not be modified.
+     */
+    @Override
+    public Collection<AUID> getMembersOf(ClassDefinition parent) {
+
+        Collection<AUID> members = getHierarchy().getMembersOf(parent);
+
+        return members == null ? collectMembersOf(parent) : members;
+    }
+
+    private ClassHierarchy getHierarchy() {
+
+        ClassHierarchy h = hierarchy;
+
+        if (h == null) {
+
+            ArrayList<Definition> defs = new ArrayList<>();
+
+            for (MetaDictionary md : dicts.values()) {
+                defs.addAll(md.getDefinitions());
+            }
+
+            h = new ClassHierarchy(new DefinitionResolver() {
+
+                @Override
+                public Definition getDefinition(AUID identification) {
+                    return MetaDictionaryCollection.this.getDefinition(identification);
+                }
+
+                @Override
+                public Collection<AUID> getSubclassesOf(ClassDefinition definition) {
+                    return collectSubclassesOf(definition);
+                }
+
+                @Override
+                public Collection<AUID> getMembersOf(ClassDefinition definition) {
+                    return collectMembersOf(definition);
+                }
+            }, defs);
+
+            hierarchy = h;
+        }
+
+        return h;
+    }
+
+    @Override
+    public boolean isSubclassOf(ClassDefinition definition, AUID ancestor) {
+
+        Boolean b = getHierarchy().isSubclassOf(definition, ancestor);
+
+        return b == null ? DefinitionResolver.super.isSubclassOf(definition, ancestor) : b;
+    }
+
+    @Override
+    public Collection<AUID> getAllMembersOf(ClassDefinition definition) {
+
+        Collection<AUID> members = getHierarchy().getAllMembersOf(definition);
+
+        return members == null ? DefinitionResolver.super.getAllMembersOf(definition) : members;
+    }
+
+    private DefinitionTable getTable() {
+
+        DefinitionTable t = table;
+
+        if (t == null) {
+
+            ArrayList<Definition> defs = new ArrayList<>();
+
+            for (MetaDictionary md : dicts.values()) {
+                defs.addAll(md.getDefinitions());
+            }
+
+            IdentityHashMap<Definition, Integer> ids = new IdentityHashMap<>(defs.size());
+
+            Definition[] referenced = new Definition[defs.size()];
+
+            for (int i = 0; i < referenced.length; i++) {
+                ids.put(defs.get(i), i);
+                referenced[i] = DefinitionResolver.super.getReferencedDefinition(defs.get(i));
+            }
+
+            t = new DefinitionTable(ids, referenced);
+
+            for (int i = 0; i < referenced.length; i++) {
+                defs.get(i).setResolverHint(new DefinitionId(t, i));
+            }
+
+            table = t;
+        }
+
+        return t;
+    }
+
+    /**
+     * Returns the dense integer id assigned by the collection to one of its
+     * definitions. Ids range from 0 to one less than the number of definitions
+     * in the collection, and are reassigned after a dictionary or definition
+     * is added.
+     *
+     * @param definition Definition
+     * @return Id of the definition, or -1 if the definition is not a member of
+     * the collection
+     */
+    public int getId(Definition definition) {
+        return getTable().getId(definition);
+    }
+
+    /**
+     * Assigns a dense integer id to each definition of the collection (see
+     * {@link #getId(Definition)}), and precomputes the references between
+     * definitions and the class hierarchy. This otherwise happens on first
+     * use, and again after a dictionary or definition is added.
+     */
+    public void freeze() {
+        getTable();
+        getHierarchy();
+    }
+
+    @Override
+    public Definition getReferencedDefinition(Definition definition) {
+
+        DefinitionTable t = getTable();
+
+        int id = t.getId(definition);
+
+        if (id >= 0) {
+            return t.referenced[id];
+        }
+
+        return DefinitionResolver.super.getReferencedDefinition(definition);
+    }
+
 }
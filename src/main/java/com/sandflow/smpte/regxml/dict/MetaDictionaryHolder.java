@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current version of a MetaDictionaryCollection, which can be
+ * replaced while it is in use, e.g. by a long-running service when new
+ * registers are published. Users retrieve the current version once, e.g. at
+ * the start of a request, and use it until they are done: they are unaffected
+ * by the publication of a subsequent version. Retrieving the current version
+ * does not lock.
+ *
+ * A MetaDictionaryCollection becomes read-only when it is published (see
+ * {@link MetaDictionaryCollection#isReadOnly()}).
+ */
+public class MetaDictionaryHolder {
+
+    /**
+     * Immutable version of a MetaDictionaryCollection
+     */
+    public static final class Version {
+
+        private final long version;
+        private final MetaDictionaryCollection dictionaries;
+        private final long publicationTime;
+
+        private Version(long version, MetaDictionaryCollection dictionaries) {
+            this.version = version;
+            this.dictionaries = dictionaries;
+            this.publicationTime = System.currentTimeMillis();
+        }
+
+        /**
+         * @return Version number, starting at 1 and incremented with each
+         * publication
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return MetaDictionaries of the version
+         */
+        public MetaDictionaryCollection getDictionaries() {
+            return dictionaries;
+        }
+
+        /**
+         * @return Time at which the version was published, in milliseconds
+         * since the epoch
+         */
+        public long getPublicationTime() {
+            return publicationTime;
+        }
+    }
+
+    private final AtomicReference<Version> current;
+
+    /**
+     * @param dictionaries Initial version of the MetaDictionaries. Must not be
+     * null.
+     */
+    public MetaDictionaryHolder(MetaDictionaryCollection dictionaries) {
+
+        if (dictionaries == null) {
+            throw new IllegalArgumentException();
+        }
+
+        dictionaries.makeReadOnly();
+
+        current = new AtomicReference<>(new Version(1, dictionaries));
+    }
+
+    /**
+     * @return Current version
+     */
+    public Version get() {
+        return current.get();
+    }
+
+    /**
+     * Replaces the current version. Versions already retrieved remain
+     * usable.
+     *
+     * @param dictionaries MetaDictionaries of the new version. Must not be null.
+     * @return Published version
+     */
+    public Version publish(MetaDictionaryCollection dictionaries) {
+
+        if (dictionaries == null) {
+            throw new IllegalArgumentException();
+        }
+
+        /* readers never see a partially built collection */
+        dictionaries.makeReadOnly();
+
+        Version prev;
+        Version next;
+
+        do {
+
+            prev = current.get();
+
+            next = new Version(prev.getVersion() + 1, dictionaries);
+
+        } while (!current.compareAndSet(prev, next));
+
+        return next;
+    }
+
+    /**
+     * Builds a new version and publishes it. The current version remains
+     * available while the new version is built, and remains current if the
+     * build fails.
+     *
+     * @param loader Builds the MetaDictionaries of the new version, e.g. from
+     * dictionary files or using
+     * {@link com.sandflow.smpte.regxml.dict.importers.RegisterImporter}
+     * @param executor Executor on which the new version is built
+     * @return Published version, or the exception thrown by the loader
+     */
+    public CompletableFuture<Version> reload(Callable<MetaDictionaryCollection> loader, Executor executor) {
+
+        return CompletableFuture.supplyAsync(() -> {
+
+            try {
+                return publish(loader.call());
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+
+        }, executor);
+    }
+
+}
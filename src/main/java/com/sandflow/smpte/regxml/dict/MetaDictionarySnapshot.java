@@ -0,0 +1,886 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict;
+
+import com.sandflow.smpte.regxml.dict.definitions.CharacterTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.regxml.dict.definitions.DefinitionVisitor;
+import com.sandflow.smpte.regxml.dict.definitions.EnumerationTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.ExtendibleEnumerationTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.FixedArrayTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.FloatTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.IndirectTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.IntegerTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.OpaqueTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.PropertyAliasDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.PropertyDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.RecordTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.RenameTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.SetTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.StreamTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.StringTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.StrongReferenceTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.VariableArrayTypeDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.WeakReferenceTypeDefinition;
+import com.sandflow.smpte.regxml.dict.exceptions.IllegalDefinitionException;
+import com.sandflow.smpte.util.AUID;
+import com.sandflow.smpte.util.UUID;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compact binary representation of a set of MetaDictionaries, which can be
+ * read significantly faster than their XML representation. A snapshot is
+ * specific to this library and is not a substitute for the XML
+ * representation specified in SMPTE ST 2001-1. All integers are big-endian.
+ *
+ * <pre>
+ * snapshot    = magic("RXMD") version(u16) auidCount(u32) auid* dictCount(u32) dictionary*
+ * dictionary  = schemeID(16) schemeURI(string) description(string) defCount(u32) definition*
+ * definition  = kind(u8) identification(auidref) symbol(string) description(string) name(string) fields
+ * auidref     = index into the auid table (i32), or -1 if null
+ * string      = length of the UTF-8 encoding (i32), or -1 if null, followed by the UTF-8 encoding
+ * collection  = number of items (i32), or -1 if null, followed by the items
+ * </pre>
+ *
+ * The fields of each kind of definition are listed in {@link Writer}.
+ */
+public class MetaDictionarySnapshot {
+
+    private static final byte[] MAGIC = {'R', 'X', 'M', 'D'};
+
+    /**
+     * Version of the snapshot format written by this class
+     */
+    public static final int VERSION = 1;
+
+    private static final int CHARACTER = 0;
+    private static final int CLASS = 1;
+    private static final int INTEGER = 2;
+    private static final int PROPERTY = 3;
+    private static final int EXTENDIBLE_ENUMERATION = 4;
+    private static final int ENUMERATION = 5;
+    private static final int FIXED_ARRAY = 6;
+    private static final int INDIRECT = 7;
+    private static final int OPAQUE = 8;
+    private static final int RECORD = 9;
+    private static final int RENAME = 10;
+    private static final int SET = 11;
+    private static final int STREAM = 12;
+    private static final int STRONG_REFERENCE = 13;
+    private static final int STRING = 14;
+    private static final int VARIABLE_ARRAY = 15;
+    private static final int WEAK_REFERENCE = 16;
+    private static final int PROPERTY_ALIAS = 17;
+    private static final int FLOAT = 18;
+    private static final int LENS_SERIAL_FLOAT = 19;
+
+    private MetaDictionarySnapshot() {
+    }
+
+    /**
+     * Writes the definitions of each kind, after the fields common to all
+     * definitions, and collects the AUIDs they reference
+     */
+    private static class Writer implements DefinitionVisitor {
+
+        private final DataOutputStream dos;
+        private final HashMap<AUID, Integer> auids;
+
+        Writer(DataOutputStream dos, HashMap<AUID, Integer> auids) {
+            this.dos = dos;
+            this.auids = auids;
+        }
+
+        void writeAUID(AUID auid) throws IOException {
+
+            if (auid == null) {
+                dos.writeInt(-1);
+                return;
+            }
+
+            Integer index = auids.get(auid);
+
+            if (index == null) {
+                index = auids.size();
+                auids.put(auid, index);
+            }
+
+            dos.writeInt(index);
+        }
+
+        void writeString(String str) throws IOException {
+
+            if (str == null) {
+                dos.writeInt(-1);
+                return;
+            }
+
+            byte[] utf8 = str.getBytes(StandardCharsets.UTF_8);
+
+            dos.writeInt(utf8.length);
+            dos.write(utf8);
+        }
+
+        /**
+         * Writes the size of a collection, or -1 if it is null
+         *
+         * @return true if the collection is null
+         */
+        boolean writeCount(Collection<?> c) throws IOException {
+
+            dos.writeInt(c == null ? -1 : c.size());
+
+            return c == null;
+        }
+
+        private void writeHeader(int kind, Definition def) throws VisitorException {
+
+            try {
+                dos.writeByte(kind);
+                writeAUID(def.getIdentification());
+                writeString(def.getSymbol());
+                writeString(def.getDescription());
+                writeString(def.getName());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        private void writeProperty(PropertyDefinition def) throws IOException {
+            writeAUID(def.getType());
+            dos.writeBoolean(def.isOptional());
+            dos.writeBoolean(def.isUniqueIdentifier());
+            dos.writeInt(def.getLocalIdentification());
+            writeAUID(def.getMemberOf());
+        }
+
+        @Override
+        public void visit(ClassDefinition def) throws VisitorException {
+
+            writeHeader(CLASS, def);
+
+            try {
+                writeAUID(def.getParentClass());
+                dos.writeBoolean(def.isConcrete());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(CharacterTypeDefinition def) throws VisitorException {
+            writeHeader(CHARACTER, def);
+        }
+
+        @Override
+        public void visit(IntegerTypeDefinition def) throws VisitorException {
+
+            writeHeader(INTEGER, def);
+
+            try {
+                dos.writeByte(def.getSize().ordinal());
+                dos.writeBoolean(def.isSigned());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(PropertyDefinition def) throws VisitorException {
+
+            writeHeader(PROPERTY, def);
+
+            try {
+                writeProperty(def);
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(ExtendibleEnumerationTypeDefinition def) throws VisitorException {
+
+            writeHeader(EXTENDIBLE_ENUMERATION, def);
+
+            try {
+
+                if (writeCount(def.getElements())) {
+                    return;
+                }
+
+                for (ExtendibleEnumerationTypeDefinition.Element e : def.getElements()) {
+                    writeString(e.getName());
+                    writeAUID(e.getValue());
+                    writeString(e.getDescription());
+                }
+
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(EnumerationTypeDefinition def) throws VisitorException {
+
+            writeHeader(ENUMERATION, def);
+
+            try {
+
+                writeAUID(def.getElementType());
+
+                if (writeCount(def.getElements())) {
+                    return;
+                }
+
+                for (EnumerationTypeDefinition.Element e : def.getElements()) {
+                    writeString(e.getName());
+                    dos.writeInt(e.getValue());
+                    writeString(e.getDescription());
+                }
+
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(FixedArrayTypeDefinition def) throws VisitorException {
+
+            writeHeader(FIXED_ARRAY, def);
+
+            try {
+                writeAUID(def.getElementType());
+                dos.writeInt(def.getElementCount());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(IndirectTypeDefinition def) throws VisitorException {
+            writeHeader(INDIRECT, def);
+        }
+
+        @Override
+        public void visit(OpaqueTypeDefinition def) throws VisitorException {
+            writeHeader(OPAQUE, def);
+        }
+
+        @Override
+        public void visit(RecordTypeDefinition def) throws VisitorException {
+
+            writeHeader(RECORD, def);
+
+            try {
+
+                if (writeCount(def.getMembers())) {
+                    return;
+                }
+
+                for (RecordTypeDefinition.Member m : def.getMembers()) {
+                    writeString(m.getName());
+                    writeAUID(m.getType());
+                    writeString(m.getDescription());
+                }
+
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(RenameTypeDefinition def) throws VisitorException {
+
+            writeHeader(RENAME, def);
+
+            try {
+                writeAUID(def.getRenamedType());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(SetTypeDefinition def) throws VisitorException {
+
+            writeHeader(SET, def);
+
+            try {
+                writeAUID(def.getElementType());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(StreamTypeDefinition def) throws VisitorException {
+            writeHeader(STREAM, def);
+        }
+
+        @Override
+        public void visit(StrongReferenceTypeDefinition def) throws VisitorException {
+
+            writeHeader(STRONG_REFERENCE, def);
+
+            try {
+                writeAUID(def.getReferencedType());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(StringTypeDefinition def) throws VisitorException {
+
+            writeHeader(STRING, def);
+
+            try {
+                writeAUID(def.getElementType());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(VariableArrayTypeDefinition def) throws VisitorException {
+
+            writeHeader(VARIABLE_ARRAY, def);
+
+            try {
+                writeAUID(def.getElementType());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(WeakReferenceTypeDefinition def) throws VisitorException {
+
+            writeHeader(WEAK_REFERENCE, def);
+
+            try {
+
+                writeAUID(def.getReferencedType());
+
+                if (writeCount(def.getTargetSet())) {
+                    return;
+                }
+
+                for (AUID target : def.getTargetSet()) {
+                    writeAUID(target);
+                }
+
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(PropertyAliasDefinition def) throws VisitorException {
+
+            writeHeader(PROPERTY_ALIAS, def);
+
+            try {
+                writeProperty(def);
+                writeAUID(def.getOriginalProperty());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        @Override
+        public void visit(FloatTypeDefinition def) throws VisitorException {
+
+            writeHeader(FLOAT, def);
+
+            try {
+                dos.writeByte(def.getSize().ordinal());
+            } catch (IOException e) {
+                throw new VisitorException(e);
+            }
+        }
+
+        /* deprecated, but registers still define Lens Serial Float types */
+        @Override
+        @SuppressWarnings("deprecation")
+        public void visit(com.sandflow.smpte.regxml.dict.definitions.LensSerialFloatTypeDefinition def) throws VisitorException {
+            writeHeader(LENS_SERIAL_FLOAT, def);
+        }
+
+    }
+
+    /**
+     * Writes a snapshot of MetaDictionaries
+     *
+     * @param dicts MetaDictionaries, e.g. the members of a
+     * {@link MetaDictionaryCollection}
+     * @param os Stream to which the snapshot is written. The stream is not
+     * closed.
+     * @throws IOException
+     */
+    public static void write(Collection<MetaDictionary> dicts, OutputStream os) throws IOException {
+
+        /* the definitions are written first, so that the AUID table can precede them */
+        HashMap<AUID, Integer> auids = new HashMap<>();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        DataOutputStream dos = new DataOutputStream(body);
+
+        Writer w = new Writer(dos, auids);
+
+        dos.writeInt(dicts.size());
+
+        for (MetaDictionary md : dicts) {
+
+            dos.write(md.getSchemeID().getValue());
+            w.writeString(md.getSchemeURI().toString());
+            w.writeString(md.getDescription());
+
+            dos.writeInt(md.getDefinitions().size());
+
+            for (Definition def : md.getDefinitions()) {
+
+                try {
+                    def.accept(w);
+                } catch (DefinitionVisitor.VisitorException e) {
+                    throw new IOException(e);
+                }
+
+            }
+        }
+
+        dos.flush();
+
+        AUID[] table = new AUID[auids.size()];
+
+        for (java.util.Map.Entry<AUID, Integer> entry : auids.entrySet()) {
+            table[entry.getValue()] = entry.getKey();
+        }
+
+        DataOutputStream out = new DataOutputStream(os);
+
+        out.write(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(table.length);
+
+        for (AUID auid : table) {
+            out.write(auid.getValue());
+        }
+
+        body.writeTo(out);
+
+        out.flush();
+    }
+
+    /**
+     * Reads a snapshot of MetaDictionaries
+     *
+     * @param is Stream from which the snapshot is read
+     * @return MetaDictionaries, in the order they were written
+     * @throws IOException If the stream is not a valid snapshot
+     * @throws IllegalDefinitionException
+     */
+    public static List<MetaDictionary> read(InputStream is) throws IOException, IllegalDefinitionException {
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        byte[] buf = new byte[65536];
+
+        for (int sz; (sz = is.read(buf)) >= 0;) {
+            bos.write(buf, 0, sz);
+        }
+
+        return read(ByteBuffer.wrap(bos.toByteArray()));
+    }
+
+    /**
+     * Reads a snapshot of MetaDictionaries from a file, which is mapped into
+     * memory
+     *
+     * @param path File from which the snapshot is read
+     * @return MetaDictionaries, in the order they were written
+     * @throws IOException If the file is not a valid snapshot
+     * @throws IllegalDefinitionException
+     */
+    public static List<MetaDictionary> read(Path path) throws IOException, IllegalDefinitionException {
+
+        try (FileChannel fc = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size()));
+        }
+    }
+
+    /**
+     * @param path File
+     * @return true if the file starts with the signature of a snapshot
+     * @throws IOException
+     */
+    public static boolean isSnapshot(Path path) throws IOException {
+
+        try (FileChannel fc = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+
+            while (magic.hasRemaining() && fc.read(magic) >= 0) {
+            }
+
+            return Arrays.equals(MAGIC, magic.array());
+        }
+    }
+
+    private static String readString(ByteBuffer bb) {
+
+        int len = bb.getInt();
+
+        if (len < 0) {
+            return null;
+        }
+
+        return new String(readBytes(bb, len), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(ByteBuffer bb, int len) {
+
+        byte[] b = new byte[len];
+
+        bb.get(b);
+
+        return b;
+    }
+
+    private static AUID readAUID(ByteBuffer bb, AUID[] table) throws IOException {
+
+        int index = bb.getInt();
+
+        if (index < -1 || index >= table.length) {
+            throw new IOException("Invalid AUID reference in snapshot: " + index);
+        }
+
+        return index == -1 ? null : table[index];
+    }
+
+    private static void readProperty(ByteBuffer bb, AUID[] table, PropertyDefinition def) throws IOException {
+        def.setType(readAUID(bb, table));
+        def.setOptional(bb.get() != 0);
+        def.setUniqueIdentifier(bb.get() != 0);
+        def.setLocalIdentification(bb.getInt());
+        def.setMemberOf(readAUID(bb, table));
+    }
+
+    private static Definition readDefinition(ByteBuffer bb, AUID[] table) throws IOException {
+
+        int kind = bb.get();
+
+        AUID identification = readAUID(bb, table);
+        String symbol = readString(bb);
+        String description = readString(bb);
+        String name = readString(bb);
+
+        Definition def;
+
+        switch (kind) {
+
+            case CHARACTER:
+                def = new CharacterTypeDefinition();
+                break;
+
+            case CLASS: {
+                ClassDefinition d = new ClassDefinition();
+                d.setParentClass(readAUID(bb, table));
+                d.setConcrete(bb.get() != 0);
+                def = d;
+                break;
+            }
+
+            case INTEGER: {
+                IntegerTypeDefinition d = new IntegerTypeDefinition();
+                d.setSize(IntegerTypeDefinition.Size.values()[bb.get()]);
+                d.setSigned(bb.get() != 0);
+                def = d;
+                break;
+            }
+
+            case PROPERTY: {
+                PropertyDefinition d = new PropertyDefinition();
+                readProperty(bb, table, d);
+                def = d;
+                break;
+            }
+
+            case EXTENDIBLE_ENUMERATION: {
+
+                int count = bb.getInt();
+
+                if (count < 0) {
+                    def = new ExtendibleEnumerationTypeDefinition();
+                    break;
+                }
+
+                ArrayList<ExtendibleEnumerationTypeDefinition.Element> elements = new ArrayList<>(count);
+
+                for (int i = 0; i < count; i++) {
+                    ExtendibleEnumerationTypeDefinition.Element e = new ExtendibleEnumerationTypeDefinition.Element();
+                    e.setName(readString(bb));
+                    e.setValue(readAUID(bb, table));
+                    e.setDescription(readString(bb));
+                    elements.add(e);
+                }
+
+                def = new ExtendibleEnumerationTypeDefinition(elements);
+                break;
+            }
+
+            case ENUMERATION: {
+
+                AUID elementType = readAUID(bb, table);
+
+                int count = bb.getInt();
+
+                if (count < 0) {
+                    EnumerationTypeDefinition d = new EnumerationTypeDefinition();
+                    d.setElementType(elementType);
+                    def = d;
+                    break;
+                }
+
+                ArrayList<EnumerationTypeDefinition.Element> elements = new ArrayList<>(count);
+
+                for (int i = 0; i < count; i++) {
+                    EnumerationTypeDefinition.Element e = new EnumerationTypeDefinition.Element();
+                    e.setName(readString(bb));
+                    e.setValue(bb.getInt());
+                    e.setDescription(readString(bb));
+                    elements.add(e);
+                }
+
+                EnumerationTypeDefinition d = new EnumerationTypeDefinition(elements);
+                d.setElementType(elementType);
+                def = d;
+                break;
+            }
+
+            case FIXED_ARRAY: {
+                FixedArrayTypeDefinition d = new FixedArrayTypeDefinition();
+                d.setElementType(readAUID(bb, table));
+                d.setElementCount(bb.getInt());
+                def = d;
+                break;
+            }
+
+            case INDIRECT:
+                def = new IndirectTypeDefinition();
+                break;
+
+            case OPAQUE:
+                def = new OpaqueTypeDefinition();
+                break;
+
+            case RECORD: {
+
+                RecordTypeDefinition d = new RecordTypeDefinition();
+
+                int count = bb.getInt();
+
+                /* a null list of members is read as an empty one */
+                for (int i = 0; i < count; i++) {
+                    RecordTypeDefinition.Member m = new RecordTypeDefinition.Member();
+                    m.setName(readString(bb));
+                    m.setType(readAUID(bb, table));
+                    m.setDescription(readString(bb));
+                    d.addMember(m);
+                }
+
+                def = d;
+                break;
+            }
+
+            case RENAME: {
+                RenameTypeDefinition d = new RenameTypeDefinition();
+                d.setRenamedType(readAUID(bb, table));
+                def = d;
+                break;
+            }
+
+            case SET: {
+                SetTypeDefinition d = new SetTypeDefinition();
+                d.setElementType(readAUID(bb, table));
+                def = d;
+                break;
+            }
+
+            case STREAM:
+                def = new StreamTypeDefinition();
+                break;
+
+            case STRONG_REFERENCE: {
+                StrongReferenceTypeDefinition d = new StrongReferenceTypeDefinition();
+                d.setReferenceType(readAUID(bb, table));
+                def = d;
+                break;
+            }
+
+            case STRING: {
+                StringTypeDefinition d = new StringTypeDefinition();
+                d.setElementType(readAUID(bb, table));
+                def = d;
+                break;
+            }
+
+            case VARIABLE_ARRAY: {
+                VariableArrayTypeDefinition d = new VariableArrayTypeDefinition();
+                d.setElementType(readAUID(bb, table));
+                def = d;
+                break;
+            }
+
+            case WEAK_REFERENCE: {
+
+                WeakReferenceTypeDefinition d = new WeakReferenceTypeDefinition();
+
+                d.setReferencedType(readAUID(bb, table));
+
+                int count = bb.getInt();
+
+                ArrayList<AUID> targets = count < 0 ? null : new ArrayList<>(count);
+
+                for (int i = 0; i < count; i++) {
+                    targets.add(readAUID(bb, table));
+                }
+
+                d.setTargetSet(targets);
+
+                def = d;
+                break;
+            }
+
+            case PROPERTY_ALIAS: {
+                PropertyAliasDefinition d = new PropertyAliasDefinition();
+                readProperty(bb, table, d);
+                d.setOriginalProperty(readAUID(bb, table));
+                def = d;
+                break;
+            }
+
+            case FLOAT: {
+                FloatTypeDefinition d = new FloatTypeDefinition();
+                d.setSize(FloatTypeDefinition.Size.values()[bb.get()]);
+                def = d;
+                break;
+            }
+
+            case LENS_SERIAL_FLOAT: {
+                /* deprecated, but registers still define Lens Serial Float types */
+                @SuppressWarnings("deprecation")
+                Definition d = new com.sandflow.smpte.regxml.dict.definitions.LensSerialFloatTypeDefinition();
+                def = d;
+                break;
+            }
+
+            default:
+                throw new IOException("Unknown definition kind in snapshot: " + kind);
+        }
+
+        def.setIdentification(identification);
+        def.setSymbol(symbol);
+        def.setDescription(description);
+        def.setName(name);
+
+        return def;
+    }
+
+    private static List<MetaDictionary> read(ByteBuffer bb) throws IOException, IllegalDefinitionException {
+
+        try {
+
+            if (!Arrays.equals(MAGIC, readBytes(bb, MAGIC.length))) {
+                throw new IOException("Not a MetaDictionary snapshot");
+            }
+
+            int version = bb.getShort();
+
+            if (version != VERSION) {
+                throw new IOException("Unsupported MetaDictionary snapshot version: " + version);
+            }
+
+            AUID[] table = new AUID[bb.getInt()];
+
+            for (int i = 0; i < table.length; i++) {
+                table[i] = new AUID(readBytes(bb, 16));
+            }
+
+            int dictcount = bb.getInt();
+
+            ArrayList<MetaDictionary> dicts = new ArrayList<>(dictcount);
+
+            for (int i = 0; i < dictcount; i++) {
+
+                UUID schemeID = new UUID(readBytes(bb, 16));
+                URI schemeURI = new URI(readString(bb));
+                String description = readString(bb);
+
+                MetaDictionary md = new MetaDictionary(schemeID, schemeURI, description);
+
+                int defcount = bb.getInt();
+
+                for (int j = 0; j < defcount; j++) {
+
+                    Definition def = readDefinition(bb, table);
+
+                    def.setNamespace(schemeURI);
+
+                    md.add(def);
+                }
+
+                dicts.add(md);
+            }
+
+            return dicts;
+
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | URISyntaxException | NullPointerException e) {
+
+            throw new IOException("Malformed MetaDictionary snapshot", e);
+
+        }
+    }
+}
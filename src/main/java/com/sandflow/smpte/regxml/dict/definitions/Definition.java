@@ -60,6 +60,10 @@ abstract public class Definition {
     @XmlTransient()
     private URI namespace;
 
+    /* see getResolverHint() */
+    @XmlTransient()
+    private Object resolverHint;
+
     public URI getNamespace() {
         return namespace;
     }
@@ -68,6 +72,29 @@ abstract public class Definition {
         this.namespace = namespace;
     }
 
+    /**
+     * Returns state attached to the definition by a resolver, e.g. the id
+     * assigned to the definition by the last MetaDictionaryCollection frozen.
+     * The state is not part of the definition, and is ignored by resolvers
+     * that did not attach it.
+     *
+     * @return Resolver state, or null
+     */
+    public Object getResolverHint() {
+        return resolverHint;
+    }
+
+    /**
+     * Attaches state to the definition, see {@link #getResolverHint()}. The
+     * state must be immutable, since it can be read by other threads without
+     * synchronization.
+     *
+     * @param resolverHint Resolver state, or null
+     */
+    public void setResolverHint(Object resolverHint) {
+        this.resolverHint = resolverHint;
+    }
+
     public AUID getIdentification() {
         return identification;
     }
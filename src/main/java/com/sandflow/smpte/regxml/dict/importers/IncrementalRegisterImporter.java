@@ -0,0 +1,470 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict.importers;
+
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.regxml.dict.MetaDictionary;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import com.sandflow.smpte.regxml.dict.importers.RegisterImporter.EventKind;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.util.events.Event;
+import com.sandflow.util.events.EventHandler;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Regenerates only the MetaDictionaries affected by the changes between two
+ * versions of the SMPTE Types, Groups and Elements Registers. Entries are
+ * matched by UL, and a namespace is affected if it contains a definition that
+ * is converted from a modified entry, or that depends on one, e.g. a property
+ * whose type was modified or removed.
+ */
+public class IncrementalRegisterImporter {
+
+    /**
+     * Outcome of an incremental import
+     */
+    public static class Result {
+
+        private final Set<URI> affectedNamespaces;
+        private final MetaDictionaryCollection dictionaries;
+
+        Result(Set<URI> affectedNamespaces, MetaDictionaryCollection dictionaries) {
+            this.affectedNamespaces = Collections.unmodifiableSet(affectedNamespaces);
+            this.dictionaries = dictionaries;
+        }
+
+        /**
+         * @return Namespaces whose MetaDictionary differs from the one imported
+         * from the previous registers. A namespace that is absent from
+         * {@link #getDictionaries()} no longer contains any definition.
+         */
+        public Set<URI> getAffectedNamespaces() {
+            return affectedNamespaces;
+        }
+
+        /**
+         * @return MetaDictionaries of the affected namespaces, identical to
+         * those generated by
+         * {@link RegisterImporter#fromRegister(TypesRegister, GroupsRegister, ElementsRegister, EventHandler)}
+         * from the current registers
+         */
+        public MetaDictionaryCollection getDictionaries() {
+            return dictionaries;
+        }
+
+    }
+
+    /**
+     * Generates the MetaDictionaries affected by the changes between two
+     * versions of the SMPTE Types, Groups and Elements Registers. Events are
+     * only reported for the entries that are re-imported.
+     *
+     * @param oldtr Previous Types Register
+     * @param oldgr Previous Groups Register
+     * @param older Previous Elements Register
+     * @param tr Types Register
+     * @param gr Groups Register
+     * @param er Elements Register
+     * @param evthandler Event Handler. May be null.
+     *
+     * @return Affected namespaces and their MetaDictionaries
+     *
+     * @throws Exception
+     */
+    public static Result fromRegister(TypesRegister oldtr,
+        GroupsRegister oldgr,
+        ElementsRegister older,
+        TypesRegister tr,
+        GroupsRegister gr,
+        ElementsRegister er,
+        EventHandler evthandler
+    ) throws Exception {
+
+        Registers prev = new Registers(oldtr, oldgr, older);
+        Registers cur = new Registers(tr, gr, er);
+
+        /* collect the entries that were added, removed or modified */
+        HashSet<UL> modified = new HashSet<>();
+
+        _diff(oldtr.getEntries(), tr::getEntryByUL, TypesRegister.Entry::getUL, IncrementalRegisterImporter::_sameType, modified);
+        _diff(tr.getEntries(), oldtr::getEntryByUL, TypesRegister.Entry::getUL, (a, b) -> true, modified);
+        _diff(oldgr.getEntries(), gr::getEntryByUL, GroupsRegister.Entry::getUL, IncrementalRegisterImporter::_sameGroup, modified);
+        _diff(gr.getEntries(), oldgr::getEntryByUL, GroupsRegister.Entry::getUL, (a, b) -> true, modified);
+        _diff(older.getEntries(), er::getEntryByUL, ElementsRegister.Entry::getUL, IncrementalRegisterImporter::_sameElement, modified);
+        _diff(er.getEntries(), older::getEntryByUL, ElementsRegister.Entry::getUL, (a, b) -> true, modified);
+
+        /* propagate the modifications to the dependents, in both versions of
+         the registers so that dependencies that were removed are accounted for */
+        HashMap<UL, List<UL>> dependents = new HashMap<>();
+
+        prev.addDependents(dependents);
+        cur.addDependents(dependents);
+
+        Set<UL> affected = _closure(modified, ul -> dependents.getOrDefault(ul, Collections.<UL>emptyList()));
+
+        LinkedHashSet<URI> namespaces = new LinkedHashSet<>();
+
+        for (UL ul : affected) {
+            prev.addNamespace(ul, namespaces);
+            cur.addNamespace(ul, namespaces);
+        }
+
+        if (namespaces.isEmpty()) {
+            return new Result(namespaces, new MetaDictionaryCollection());
+        }
+
+        /* re-import the entries that define the affected namespaces, along with
+         everything they depend on, so that pruning and aliasing are identical
+         to a complete import */
+        ArrayList<UL> roots = new ArrayList<>();
+
+        for (TypesRegister.Entry e : tr.getEntries()) {
+            if (namespaces.contains(e.getNamespaceName())) {
+                roots.add(e.getUL());
+            }
+        }
+
+        for (GroupsRegister.Entry e : gr.getEntries()) {
+            if (namespaces.contains(e.getNamespaceName())) {
+                roots.add(e.getUL());
+            }
+        }
+
+        for (UL ul : cur.groupsByElement.keySet()) {
+            ElementsRegister.Entry e = er.getEntryByUL(ul);
+
+            if (e != null && namespaces.contains(e.getNamespaceName())) {
+                roots.add(ul);
+            }
+        }
+
+        Set<UL> needed = _closure(roots, cur::getDependencies);
+
+        final List<TypesRegister.Entry> subtypes = tr.getEntries().stream()
+            .filter(e -> needed.contains(e.getUL()))
+            .collect(Collectors.toList());
+
+        final List<GroupsRegister.Entry> subgroups = gr.getEntries().stream()
+            .filter(e -> needed.contains(e.getUL()))
+            .collect(Collectors.toList());
+
+        /* defer events until it is known whether the partial import can be used */
+        ArrayList<Event> events = new ArrayList<>();
+
+        MetaDictionaryCollection mds = RegisterImporter.fromRegister(
+            new TypesRegister() {
+                @Override
+                public Collection<? extends TypesRegister.Entry> getEntries() {
+                    return subtypes;
+                }
+            },
+            new GroupsRegister() {
+                @Override
+                public Collection<? extends GroupsRegister.Entry> getEntries() {
+                    return subgroups;
+                }
+            },
+            er,
+            evt -> events.add(evt)
+        );
+
+        if (events.stream().anyMatch(evt -> evt.getCode() == EventKind.DUPLICATE_SYMBOL)) {
+
+            /* duplicate symbols are renamed using a counter that spans all
+             namespaces, so a complete import is needed and every namespace
+             may be affected */
+            mds = RegisterImporter.fromRegister(tr, gr, er, evthandler);
+
+            for (TypesRegister.Entry e : oldtr.getEntries()) {
+                namespaces.add(e.getNamespaceName());
+            }
+
+            for (GroupsRegister.Entry e : oldgr.getEntries()) {
+                namespaces.add(e.getNamespaceName());
+            }
+
+            for (ElementsRegister.Entry e : older.getEntries()) {
+                namespaces.add(e.getNamespaceName());
+            }
+
+            for (MetaDictionary md : mds.getDictionaries()) {
+                namespaces.add(md.getSchemeURI());
+            }
+
+            namespaces.remove(null);
+
+            return new Result(namespaces, mds);
+        }
+
+        for (Event evt : events) {
+            RegisterImporter.handleEvent(evthandler, evt);
+        }
+
+        MetaDictionaryCollection result = new MetaDictionaryCollection();
+
+        for (MetaDictionary md : mds.getDictionaries()) {
+            if (namespaces.contains(md.getSchemeURI())) {
+                result.addDictionary(md);
+            }
+        }
+
+        return new Result(namespaces, result);
+    }
+
+    /* adds to modified the entries that are absent from, or different in, the other register */
+    private static <T> void _diff(Collection<? extends T> entries,
+        Function<UL, ? extends T> other,
+        Function<T, UL> key,
+        BiPredicate<T, T> same,
+        Set<UL> modified) {
+
+        for (T e : entries) {
+
+            UL ul = key.apply(e);
+
+            T o = other.apply(ul);
+
+            if (o == null || !same.test(e, o)) {
+                modified.add(ul);
+            }
+        }
+    }
+
+    private static Set<UL> _closure(Collection<UL> roots, Function<UL, Collection<UL>> successors) {
+
+        HashSet<UL> visited = new HashSet<>(roots);
+        ArrayDeque<UL> worklist = new ArrayDeque<>(visited);
+
+        while (!worklist.isEmpty()) {
+            for (UL next : successors.apply(worklist.remove())) {
+                if (visited.add(next)) {
+                    worklist.add(next);
+                }
+            }
+        }
+
+        return visited;
+    }
+
+    /* compares the fields used by RegisterImporter */
+    private static boolean _sameType(TypesRegister.Entry a, TypesRegister.Entry b) {
+
+        if (!(Objects.equals(a.getKind(), b.getKind())
+            && Objects.equals(a.getTypeKind(), b.getTypeKind())
+            && Objects.equals(a.getSymbol(), b.getSymbol())
+            && Objects.equals(a.getName(), b.getName())
+            && Objects.equals(a.getDefinition(), b.getDefinition())
+            && Objects.equals(a.getNamespaceName(), b.getNamespaceName())
+            && Objects.equals(a.getBaseType(), b.getBaseType())
+            && Objects.equals(a.getTypeSize(), b.getTypeSize())
+            && Objects.equals(a.getTypeQualifiers(), b.getTypeQualifiers())
+            && a.getFacets().size() == b.getFacets().size())) {
+            return false;
+        }
+
+        Iterator<? extends TypesRegister.Entry.Facet> bi = b.getFacets().iterator();
+
+        for (TypesRegister.Entry.Facet fa : a.getFacets()) {
+            TypesRegister.Entry.Facet fb = bi.next();
+
+            if (!(Objects.equals(fa.getSymbol(), fb.getSymbol())
+                && Objects.equals(fa.getType(), fb.getType())
+                && Objects.equals(fa.getValue(), fb.getValue()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean _sameGroup(GroupsRegister.Entry a, GroupsRegister.Entry b) {
+
+        if (!(Objects.equals(a.getKind(), b.getKind())
+            && Objects.equals(a.getSymbol(), b.getSymbol())
+            && Objects.equals(a.getName(), b.getName())
+            && Objects.equals(a.getDefinition(), b.getDefinition())
+            && Objects.equals(a.getNamespaceName(), b.getNamespaceName())
+            && Objects.equals(a.getParent(), b.getParent())
+            && Objects.equals(a.isConcrete(), b.isConcrete())
+            && Objects.equals(a.getKlvSyntax(), b.getKlvSyntax())
+            && a.getContents().size() == b.getContents().size())) {
+            return false;
+        }
+
+        Iterator<? extends GroupsRegister.Entry.Record> bi = b.getContents().iterator();
+
+        for (GroupsRegister.Entry.Record ra : a.getContents()) {
+            GroupsRegister.Entry.Record rb = bi.next();
+
+            if (!(Objects.equals(ra.getItem(), rb.getItem())
+                && Objects.equals(ra.getLocalTag(), rb.getLocalTag())
+                && Objects.equals(ra.getOptional(), rb.getOptional())
+                && Objects.equals(ra.getUniqueID(), rb.getUniqueID()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean _sameElement(ElementsRegister.Entry a, ElementsRegister.Entry b) {
+        return Objects.equals(a.getSymbol(), b.getSymbol())
+            && Objects.equals(a.getName(), b.getName())
+            && Objects.equals(a.getDefinition(), b.getDefinition())
+            && Objects.equals(a.getNamespaceName(), b.getNamespaceName())
+            && Objects.equals(a.getTypeUL(), b.getTypeUL());
+    }
+
+    /**
+     * Dependencies between register entries, as seen by RegisterImporter. The
+     * definitions converted from an entry depend on:
+     * <ul>
+     * <li>a type: the types, groups and elements it references, since it is
+     * pruned if any of them is missing;</li>
+     * <li>an element: the groups that contain it, which carry its properties,
+     * and its type;</li>
+     * <li>a group: nothing beyond the group itself, since its properties are
+     * attributed to their elements.</li>
+     * </ul>
+     */
+    private static class Registers {
+
+        final TypesRegister tr;
+        final GroupsRegister gr;
+        final ElementsRegister er;
+        final HashMap<UL, List<UL>> groupsByElement = new HashMap<>();
+
+        Registers(TypesRegister tr, GroupsRegister gr, ElementsRegister er) {
+            this.tr = tr;
+            this.gr = gr;
+            this.er = er;
+
+            for (GroupsRegister.Entry group : gr.getEntries()) {
+                for (GroupsRegister.Entry.Record child : group.getContents()) {
+                    groupsByElement.computeIfAbsent(child.getItem(), k -> new ArrayList<>()).add(group.getUL());
+                }
+            }
+        }
+
+        Collection<UL> getDependencies(UL ul) {
+
+            ArrayList<UL> deps = new ArrayList<>();
+
+            TypesRegister.Entry type = tr.getEntryByUL(ul);
+
+            if (type != null) {
+
+                if (type.getBaseType() != null) {
+                    deps.add(type.getBaseType());
+                }
+
+                for (TypesRegister.Entry.Facet f : type.getFacets()) {
+
+                    if (f.getType() != null) {
+                        deps.add(f.getType());
+                    }
+
+                    UL target = f.getValue() == null ? null : UL.fromURN(f.getValue());
+
+                    if (target != null) {
+                        deps.add(target);
+                    }
+                }
+            }
+
+            List<UL> groups = groupsByElement.get(ul);
+
+            if (groups != null) {
+
+                deps.addAll(groups);
+
+                ElementsRegister.Entry element = er.getEntryByUL(ul);
+
+                if (element != null && element.getTypeUL() != null) {
+                    deps.add(element.getTypeUL());
+                }
+            }
+
+            return deps;
+        }
+
+        void addDependents(Map<UL, List<UL>> dependents) {
+
+            HashSet<UL> nodes = new HashSet<>(groupsByElement.keySet());
+
+            for (TypesRegister.Entry e : tr.getEntries()) {
+                nodes.add(e.getUL());
+            }
+
+            for (UL node : nodes) {
+                for (UL dep : getDependencies(node)) {
+                    dependents.computeIfAbsent(dep, k -> new ArrayList<>()).add(node);
+                }
+            }
+        }
+
+        void addNamespace(UL ul, Set<URI> namespaces) {
+
+            TypesRegister.Entry type = tr.getEntryByUL(ul);
+
+            if (type != null) {
+                namespaces.add(type.getNamespaceName());
+            }
+
+            GroupsRegister.Entry group = gr.getEntryByUL(ul);
+
+            if (group != null) {
+                namespaces.add(group.getNamespaceName());
+            }
+
+            ElementsRegister.Entry element = er.getEntryByUL(ul);
+
+            if (element != null && groupsByElement.containsKey(ul)) {
+                namespaces.add(element.getNamespaceName());
+            }
+
+            namespaces.remove(null);
+        }
+    }
+
+}
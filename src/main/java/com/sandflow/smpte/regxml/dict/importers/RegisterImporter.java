@@ -57,11 +57,14 @@ import com.sandflow.smpte.util.UL;
 import com.sandflow.util.events.Event;
 import com.sandflow.util.events.EventHandler;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Generates MetaDictionaries from SMPTE Metadata Registers.
@@ -213,555 +216,696 @@ public class RegisterImporter {
         EventHandler evthandler
     ) throws Exception {
 
+        /* convert each entry independently of all others, and merge the
+         results in register order so that the output is deterministic */
+        List<Conversion> groups = gr.getEntries().parallelStream()
+            .map(group -> Conversion.of(c -> _convertGroup(group, er, c)))
+            .collect(Collectors.toList());
+
+        List<Conversion> types = tr.getEntries().parallelStream()
+            .map(type -> Conversion.of(c -> _convertType(type, c)))
+            .collect(Collectors.toList());
+
         /* definition collection */
         LinkedHashMap<AUID, ArrayList<Definition>> defs = new LinkedHashMap<>();
 
         /* some types may refer to groups that have been excluded since they
          did not have a local set representation. This variable keep track of
          references in order to prune dangling references later */
-        HashMap<AUID, HashSet<AUID>> isReferencedBy = new HashMap<>();
+        ReferenceGraph isReferencedBy = new ReferenceGraph();
 
-        /* Handles Group Entries */
-        for (GroupsRegister.Entry group : gr.getEntries()) {
-
-            if (group.getKind().equals(GroupsRegister.Entry.Kind.NODE)) {
-                continue;
-            }
+        for (Conversion c : groups) {
+            _merge(c, defs, isReferencedBy, evthandler);
+        }
 
-            /* Skip class 15 */
-            if (group.getUL().isClass15()) {
-                continue;
-            }
+        for (Conversion c : types) {
+            _merge(c, defs, isReferencedBy, evthandler);
+        }
 
-            /* Skip groups that do not have a local set representation locat set groups */
-            if (!group.getKlvSyntax().contains((byte) 0x53)) {
-                continue;
-            }
+        /* prune all dangling entries */
+        isReferencedBy.prune(defs);
 
-            ClassDefinition cdef = new ClassDefinition();
+        /* create the metadictionaries */
+        MetaDictionaryCollection mds = new MetaDictionaryCollection();
 
-            if (group.isConcrete() != null) {
-                cdef.setConcrete(group.isConcrete());
-            } else {
-                cdef.setConcrete(true);
-            }
+        long index = 0;
 
-            cdef.setDescription(group.getDefinition());
+        for (ArrayList<Definition> defarray : defs.values()) {
 
-            cdef.setName(group.getName());
+            for (Definition def : defarray) {
 
-            cdef.setSymbol(group.getSymbol());
+                try {
+                    mds.addDefinition(def);
+                } catch (DuplicateSymbolException dse) {
 
-            cdef.setNamespace(group.getNamespaceName());
+                    /* attempt to generate an ad hoc symbol instead of dying */
+                    String newsym = "dup" + def.getSymbol() + (index++);
 
-            if (group.getParent() != null) {
-                cdef.setParentClass(new AUID(group.getParent()));
-            }
+                    RegisterEvent evt = new RegisterEvent(
+                        EventKind.DUPLICATE_SYMBOL,
+                        String.format(
+                            "Duplicate symbol %s (%s) renamed %s",
+                            def.getSymbol(),
+                            def.getNamespace().toASCIIString(),
+                            newsym
+                        )
+                    );
 
-            cdef.setIdentification(new AUID(group.getUL()));
+                    handleEvent(evthandler, evt);
 
-            for (GroupsRegister.Entry.Record child : group.getContents()) {
+                    def.setSymbol(newsym);
 
-                AUID id = new AUID(child.getItem());
+                    mds.addDefinition(def);
+                }
+            }
+        }
 
-                PropertyDefinition pdef = null;
+        return mds;
 
-                if (defs.containsKey(id)) {
+    }
 
-                    /* if the property has already been added, e.g. BodySID, create an alias */
-                    PropertyAliasDefinition padef = new PropertyAliasDefinition();
+    private static void _add(Map<AUID, ArrayList<Definition>> defs, Definition def) {
+        ArrayList<Definition> ad = defs.get(def.getIdentification());
 
-                    padef.setOriginalProperty(id);
+        if (ad == null) {
+            ad = new ArrayList<>();
+            defs.put(def.getIdentification(), ad);
+        }
 
-                    pdef = padef;
+        ad.add(def);
 
-                } else {
+    }
 
-                    pdef = new PropertyDefinition();
+    private static void _merge(Conversion c,
+        Map<AUID, ArrayList<Definition>> defs,
+        ReferenceGraph isReferencedBy,
+        EventHandler evthandler) throws Exception {
 
-                }
+        for (RegisterEvent evt : c.events) {
+            handleEvent(evthandler, evt);
+        }
 
-                pdef.setIdentification(id);
-                pdef.setOptional(child.getOptional());
+        if (c.failure != null) {
+            throw c.failure;
+        }
 
-                if (child.getUniqueID() != null) {
-                    pdef.setUniqueIdentifier(child.getUniqueID());
-                }
-                pdef.setLocalIdentification((int) (child.getLocalTag() == null ? 0 : child.getLocalTag()));
+        for (Definition def : c.definitions) {
 
-                /* retrieve the element */
-                ElementsRegister.Entry element = er.getEntryByUL(child.getItem());
+            if (def instanceof PropertyDefinition && defs.containsKey(def.getIdentification())) {
 
-                if (element == null) {
+                /* if the property has already been added, e.g. BodySID, create an alias */
+                def = _alias((PropertyDefinition) def);
 
-                    RegisterEvent evt = new RegisterEvent(
-                        EventKind.UNKNOWN_ELEMENT,
-                        String.format(
-                            "Undefined Element %s for Group %s",
-                            child.getItem(),
-                            group.getUL()
-                        )
-                    );
+            }
 
-                    handleEvent(evthandler, evt);
+            _add(defs, def);
+        }
 
-                    continue;
-                }
+        for (int i = 0; i < c.references.size(); i += 2) {
+            isReferencedBy.addReference(c.references.get(i), c.references.get(i + 1));
+        }
+    }
 
-                pdef.setDescription(element.getDefinition());
+    private static PropertyAliasDefinition _alias(PropertyDefinition pdef) {
+        PropertyAliasDefinition padef = new PropertyAliasDefinition();
 
-                pdef.setName(element.getName());
+        padef.setOriginalProperty(pdef.getIdentification());
 
-                pdef.setSymbol(element.getSymbol());
+        padef.setIdentification(pdef.getIdentification());
+        padef.setSymbol(pdef.getSymbol());
+        padef.setName(pdef.getName());
+        padef.setDescription(pdef.getDescription());
+        padef.setNamespace(pdef.getNamespace());
+        padef.setType(pdef.getType());
+        padef.setOptional(pdef.isOptional());
+        padef.setUniqueIdentifier(pdef.isUniqueIdentifier());
+        padef.setLocalIdentification(pdef.getLocalIdentification());
+        padef.setMemberOf(pdef.getMemberOf());
 
-                if (element.getTypeUL() == null) {
+        return padef;
+    }
 
-                    RegisterEvent evt = new RegisterEvent(
-                        EventKind.UNKNOWN_TYPE,
-                        String.format(
-                            "Missing Type UL at Element %s for Group %s",
-                            child.getItem(),
-                            group.getUL()
-                        )
-                    );
+    private static void _convertGroup(GroupsRegister.Entry group, ElementsRegister er, Conversion conversion) throws Exception {
 
-                    handleEvent(evthandler, evt);
+        if (group.getKind().equals(GroupsRegister.Entry.Kind.NODE)) {
+            return;
+        }
 
-                    continue;
-                }
+        /* Skip class 15 */
+        if (group.getUL().isClass15()) {
+            return;
+        }
 
-                pdef.setType(new AUID(element.getTypeUL()));
+        /* Skip groups that do not have a local set representation locat set groups */
+        if (!group.getKlvSyntax().contains((byte) 0x53)) {
+            return;
+        }
 
-                pdef.setMemberOf(cdef.getIdentification());
+        ClassDefinition cdef = new ClassDefinition();
 
-                pdef.setNamespace(element.getNamespaceName());
+        if (group.isConcrete() != null) {
+            cdef.setConcrete(group.isConcrete());
+        } else {
+            cdef.setConcrete(true);
+        }
 
-                _add(defs, pdef);
+        cdef.setDescription(group.getDefinition());
 
-                /* register the property's type as referenced by the property definition */
-                HashSet<AUID> hs = isReferencedBy.get(pdef.getType());
+        cdef.setName(group.getName());
 
-                if (hs == null) {
+        cdef.setSymbol(group.getSymbol());
 
-                    hs = new HashSet<>();
+        cdef.setNamespace(group.getNamespaceName());
 
-                    isReferencedBy.put(pdef.getType(), hs);
+        if (group.getParent() != null) {
+            cdef.setParentClass(new AUID(group.getParent()));
+        }
 
-                }
+        cdef.setIdentification(new AUID(group.getUL()));
 
-                hs.add(pdef.getIdentification());
+        for (GroupsRegister.Entry.Record child : group.getContents()) {
 
-            }
+            AUID id = new AUID(child.getItem());
 
-            _add(defs, cdef);
+            /* properties that have already been added, e.g. BodySID, are
+             turned into aliases when the conversions are merged */
+            PropertyDefinition pdef = new PropertyDefinition();
 
-        }
+            pdef.setIdentification(id);
+            pdef.setOptional(child.getOptional());
 
-        /* Handle Types Entries */
-        for (com.sandflow.smpte.register.TypesRegister.Entry type : tr.getEntries()) {
-            if (!type.getKind().equals(com.sandflow.smpte.register.TypesRegister.Entry.Kind.LEAF)) {
-                continue;
+            if (child.getUniqueID() != null) {
+                pdef.setUniqueIdentifier(child.getUniqueID());
             }
+            pdef.setLocalIdentification((int) (child.getLocalTag() == null ? 0 : child.getLocalTag()));
 
-            Definition tdef = null;
+            /* retrieve the element */
+            ElementsRegister.Entry element = er.getEntryByUL(child.getItem());
 
-            HashSet<AUID> references = new HashSet<>();
+            if (element == null) {
 
-            if (com.sandflow.smpte.register.TypesRegister.Entry.RENAME_TYPEKIND.equals(type.getTypeKind())) {
+                RegisterEvent evt = new RegisterEvent(
+                    EventKind.UNKNOWN_ELEMENT,
+                    String.format(
+                        "Undefined Element %s for Group %s",
+                        child.getItem(),
+                        group.getUL()
+                    )
+                );
 
-                tdef = new RenameTypeDefinition();
+                conversion.events.add(evt);
 
-                ((RenameTypeDefinition) tdef).setRenamedType(new AUID(type.getBaseType()));
+                continue;
+            }
 
-                references.add(((RenameTypeDefinition) tdef).getRenamedType());
+            pdef.setDescription(element.getDefinition());
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.INTEGER_TYPEKIND.equals(type.getTypeKind())) {
+            pdef.setName(element.getName());
 
-                tdef = new IntegerTypeDefinition();
+            pdef.setSymbol(element.getSymbol());
 
-                ((IntegerTypeDefinition) tdef).setSigned(type.getTypeQualifiers().contains(com.sandflow.smpte.register.TypesRegister.Entry.TypeQualifiers.isSigned));
+            if (element.getTypeUL() == null) {
 
-                switch (type.getTypeSize().intValue()) {
-                    case 1:
-                        ((IntegerTypeDefinition) tdef).setSize(IntegerTypeDefinition.Size.ONE);
-                        break;
-                    case 2:
-                        ((IntegerTypeDefinition) tdef).setSize(IntegerTypeDefinition.Size.TWO);
-                        break;
-                    case 4:
-                        ((IntegerTypeDefinition) tdef).setSize(IntegerTypeDefinition.Size.FOUR);
-                        break;
-                    case 8:
-                        ((IntegerTypeDefinition) tdef).setSize(IntegerTypeDefinition.Size.EIGHT);
-                        break;
-                    default:
-                        RegisterEvent evt = new RegisterEvent(
-                            EventKind.BAD_TYPE_SIZE,
-                            String.format(
-                                "Type size %d is not supported for Type UL %s.",
-                                type.getTypeSize().intValue(),
-                                type.getUL().toString()
-                            )
-                        );
-
-                        handleEvent(evthandler, evt);
-
-                        continue;
-                }
+                RegisterEvent evt = new RegisterEvent(
+                    EventKind.UNKNOWN_TYPE,
+                    String.format(
+                        "Missing Type UL at Element %s for Group %s",
+                        child.getItem(),
+                        group.getUL()
+                    )
+                );
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.FLOAT_TYPEKIND.equals(type.getTypeKind())) {
+                conversion.events.add(evt);
 
-                tdef = new FloatTypeDefinition();
+                continue;
+            }
 
-                switch (type.getTypeSize().intValue()) {
-                    case 2:
-                        ((FloatTypeDefinition) tdef).setSize(FloatTypeDefinition.Size.HALF);
-                        break;
-                    case 4:
-                        ((FloatTypeDefinition) tdef).setSize(FloatTypeDefinition.Size.SINGLE);
-                        break;
-                    case 8:
-                        ((FloatTypeDefinition) tdef).setSize(FloatTypeDefinition.Size.DOUBLE);
-                        break;
-                    default:
-                        RegisterEvent evt = new RegisterEvent(
-                            EventKind.BAD_TYPE_SIZE,
-                            String.format(
-                                "Type size %d is not supported for Type UL %s.",
-                                type.getTypeSize().intValue(),
-                                type.getUL().toString()
-                            )
-                        );
-
-                        handleEvent(evthandler, evt);
-
-                        continue;
-                }
+            pdef.setType(new AUID(element.getTypeUL()));
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.LENSSERIALFLOAT_TYPEKIND.equals(type.getTypeKind())) {
+            pdef.setMemberOf(cdef.getIdentification());
 
-                tdef = new LensSerialFloatTypeDefinition();
+            pdef.setNamespace(element.getNamespaceName());
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.RECORD_TYPEKIND.equals(type.getTypeKind())) {
+            conversion.definitions.add(pdef);
 
-                tdef = new RecordTypeDefinition();
+            /* register the property's type as referenced by the property definition */
+            conversion.addReference(pdef.getType(), pdef.getIdentification());
 
-                for (com.sandflow.smpte.register.TypesRegister.Entry.Facet tchild : type.getFacets()) {
-                    Member m = new Member();
+        }
 
-                    m.setName(tchild.getSymbol());
-                    m.setType(new AUID(tchild.getType()));
+        conversion.definitions.add(cdef);
+    }
 
-                    ((RecordTypeDefinition) tdef).addMember(m);
+    private static void _convertType(TypesRegister.Entry type, Conversion conversion) throws Exception {
 
-                    references.add(m.getType());
-                }
+        if (!type.getKind().equals(com.sandflow.smpte.register.TypesRegister.Entry.Kind.LEAF)) {
+            return;
+        }
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.FIXEDARRAY_TYPEKIND.equals(type.getTypeKind())) {
 
-                tdef = new FixedArrayTypeDefinition();
+        Definition tdef = null;
 
-                ((FixedArrayTypeDefinition) tdef).setElementType(new AUID(type.getBaseType()));
+        HashSet<AUID> references = new HashSet<>();
 
-                ((FixedArrayTypeDefinition) tdef).setElementCount(type.getTypeSize().intValue());
+        if (com.sandflow.smpte.register.TypesRegister.Entry.RENAME_TYPEKIND.equals(type.getTypeKind())) {
 
-                references.add(((FixedArrayTypeDefinition) tdef).getElementType());
+            tdef = new RenameTypeDefinition();
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.ARRAY_TYPEKIND.equals(type.getTypeKind())) {
+            ((RenameTypeDefinition) tdef).setRenamedType(new AUID(type.getBaseType()));
 
-                tdef = new VariableArrayTypeDefinition();
-                ((VariableArrayTypeDefinition) tdef).setElementType(new AUID(type.getBaseType()));
+            references.add(((RenameTypeDefinition) tdef).getRenamedType());
 
-                references.add(((VariableArrayTypeDefinition) tdef).getElementType());
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.INTEGER_TYPEKIND.equals(type.getTypeKind())) {
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.SET_TYPEKIND.equals(type.getTypeKind())) {
+            tdef = new IntegerTypeDefinition();
 
-                tdef = new SetTypeDefinition();
-                ((SetTypeDefinition) tdef).setElementType(new AUID(type.getBaseType()));
+            ((IntegerTypeDefinition) tdef).setSigned(type.getTypeQualifiers().contains(com.sandflow.smpte.register.TypesRegister.Entry.TypeQualifiers.isSigned));
 
-                references.add(((SetTypeDefinition) tdef).getElementType());
+            switch (type.getTypeSize().intValue()) {
+                case 1:
+                    ((IntegerTypeDefinition) tdef).setSize(IntegerTypeDefinition.Size.ONE);
+                    break;
+                case 2:
+                    ((IntegerTypeDefinition) tdef).setSize(IntegerTypeDefinition.Size.TWO);
+                    break;
+                case 4:
+                    ((IntegerTypeDefinition) tdef).setSize(IntegerTypeDefinition.Size.FOUR);
+                    break;
+                case 8:
+                    ((IntegerTypeDefinition) tdef).setSize(IntegerTypeDefinition.Size.EIGHT);
+                    break;
+                default:
+                    RegisterEvent evt = new RegisterEvent(
+                        EventKind.BAD_TYPE_SIZE,
+                        String.format(
+                            "Type size %d is not supported for Type UL %s.",
+                            type.getTypeSize().intValue(),
+                            type.getUL().toString()
+                        )
+                    );
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.INDIRECT_TYPEKIND.equals(type.getTypeKind())) {
+                    conversion.events.add(evt);
 
-                tdef = new IndirectTypeDefinition();
+                    return;
+            }
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.OPAQUE_TYPEKIND.equals(type.getTypeKind())) {
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.FLOAT_TYPEKIND.equals(type.getTypeKind())) {
+
+            tdef = new FloatTypeDefinition();
+
+            switch (type.getTypeSize().intValue()) {
+                case 2:
+                    ((FloatTypeDefinition) tdef).setSize(FloatTypeDefinition.Size.HALF);
+                    break;
+                case 4:
+                    ((FloatTypeDefinition) tdef).setSize(FloatTypeDefinition.Size.SINGLE);
+                    break;
+                case 8:
+                    ((FloatTypeDefinition) tdef).setSize(FloatTypeDefinition.Size.DOUBLE);
+                    break;
+                default:
+                    RegisterEvent evt = new RegisterEvent(
+                        EventKind.BAD_TYPE_SIZE,
+                        String.format(
+                            "Type size %d is not supported for Type UL %s.",
+                            type.getTypeSize().intValue(),
+                            type.getUL().toString()
+                        )
+                    );
 
-                tdef = new OpaqueTypeDefinition();
+                    conversion.events.add(evt);
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.STREAM_TYPEKIND.equals(type.getTypeKind())) {
+                    return;
+            }
 
-                tdef = new StreamTypeDefinition();
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.LENSSERIALFLOAT_TYPEKIND.equals(type.getTypeKind())) {
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.WEAKREF_TYPEKIND.equals(type.getTypeKind())) {
+            tdef = new LensSerialFloatTypeDefinition();
 
-                tdef = new WeakReferenceTypeDefinition();
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.RECORD_TYPEKIND.equals(type.getTypeKind())) {
 
-                if (type.getBaseType() == null) {
-                    throw new Exception(
-                        String.format(
-                            "Missing base type for Type %s",
-                            type.getUL()
-                        )
-                    );
-                }
+            tdef = new RecordTypeDefinition();
 
-                ((WeakReferenceTypeDefinition) tdef).setReferencedType(new AUID(type.getBaseType()));
+            for (com.sandflow.smpte.register.TypesRegister.Entry.Facet tchild : type.getFacets()) {
+                Member m = new Member();
 
-                references.add(((WeakReferenceTypeDefinition) tdef).getReferencedType());
+                m.setName(tchild.getSymbol());
+                m.setType(new AUID(tchild.getType()));
 
-                for (TypesRegister.Entry.Facet f : type.getFacets()) {
+                ((RecordTypeDefinition) tdef).addMember(m);
 
-                    UL ul = null;
+                references.add(m.getType());
+            }
 
-                    if (f.getValue() != null) {
-                        ul = UL.fromURN(f.getValue());
-                    }
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.FIXEDARRAY_TYPEKIND.equals(type.getTypeKind())) {
 
-                    if (ul == null) {
+            tdef = new FixedArrayTypeDefinition();
 
-                        RegisterEvent evt = new RegisterEvent(
-                            EventKind.UNKNOWN_TARGET_SET,
-                            String.format(
-                                "Missing Target Set UL at Type %s",
-                                type.getUL().toString()
-                            )
-                        );
+            ((FixedArrayTypeDefinition) tdef).setElementType(new AUID(type.getBaseType()));
 
-                        handleEvent(evthandler, evt);
+            ((FixedArrayTypeDefinition) tdef).setElementCount(type.getTypeSize().intValue());
 
-                        continue;
-                    }
+            references.add(((FixedArrayTypeDefinition) tdef).getElementType());
 
-                    if (!((WeakReferenceTypeDefinition) tdef).getTargetSet().add(new AUID(ul))) {
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.ARRAY_TYPEKIND.equals(type.getTypeKind())) {
 
-                        RegisterEvent evt = new RegisterEvent(
-                            EventKind.DUP_TARGET_SET,
-                            String.format(
-                                "Duplicate Target Set UL at Type %s",
-                                type.getUL().toString()
-                            )
-                        );
+            tdef = new VariableArrayTypeDefinition();
+            ((VariableArrayTypeDefinition) tdef).setElementType(new AUID(type.getBaseType()));
 
-                        handleEvent(evthandler, evt);
+            references.add(((VariableArrayTypeDefinition) tdef).getElementType());
 
-                    }
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.SET_TYPEKIND.equals(type.getTypeKind())) {
 
-                    references.add(new AUID(ul));
-                }
+            tdef = new SetTypeDefinition();
+            ((SetTypeDefinition) tdef).setElementType(new AUID(type.getBaseType()));
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.STRONGREF_TYPEKIND.equals(type.getTypeKind())) {
+            references.add(((SetTypeDefinition) tdef).getElementType());
 
-                tdef = new StrongReferenceTypeDefinition();
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.INDIRECT_TYPEKIND.equals(type.getTypeKind())) {
 
-                ((StrongReferenceTypeDefinition) tdef).setReferenceType(new AUID(type.getBaseType()));
+            tdef = new IndirectTypeDefinition();
 
-                references.add(((StrongReferenceTypeDefinition) tdef).getReferencedType());
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.OPAQUE_TYPEKIND.equals(type.getTypeKind())) {
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.ENUMERATION_TYPEKIND.equals(type.getTypeKind())) {
+            tdef = new OpaqueTypeDefinition();
 
-                if (type.getBaseType().equals(UL.fromURN("urn:smpte:ul:060E2B34.01040101.01030100.00000000"))) {
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.STREAM_TYPEKIND.equals(type.getTypeKind())) {
 
-                    ArrayList<ExtendibleEnumerationTypeDefinition.Element> ecelems = new ArrayList<>();
+            tdef = new StreamTypeDefinition();
 
-                    /* NOTE: Facets of Extendible Enumeration Definitions are not imported since
-                     *       they are, by definition, extendible. In other words, Extendible
-                     *       Enumeration instance are expected to handle UL values that are not
-                     *       listed in the register. 
-                     */
-                    /*
-                     for (Facet f : type.getFacets()) {
-                     ExtendibleEnumerationTypeDefinition.Element m = new ExtendibleEnumerationTypeDefinition.Element();
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.WEAKREF_TYPEKIND.equals(type.getTypeKind())) {
 
-                     m.setValue(new AUID(f.getUL()));
+            tdef = new WeakReferenceTypeDefinition();
 
-                     ecelems.add(m);
-                     }*/
-                    tdef = new ExtendibleEnumerationTypeDefinition(ecelems);
+            if (type.getBaseType() == null) {
+                throw new Exception(
+                    String.format(
+                        "Missing base type for Type %s",
+                        type.getUL()
+                    )
+                );
+            }
 
-                } else if (type.getBaseType().equalsWithMask(UL.fromURN("urn:smpte:ul:060e2b34.01040101.01010000.00000000"), 0b1111111111000000)) {
+            ((WeakReferenceTypeDefinition) tdef).setReferencedType(new AUID(type.getBaseType()));
 
-                    ArrayList<EnumerationTypeDefinition.Element> celems = new ArrayList<>();
+            references.add(((WeakReferenceTypeDefinition) tdef).getReferencedType());
 
-                    for (TypesRegister.Entry.Facet f : type.getFacets()) {
-                        EnumerationTypeDefinition.Element m = new EnumerationTypeDefinition.Element();
+            for (TypesRegister.Entry.Facet f : type.getFacets()) {
 
-                        m.setName(f.getSymbol());
-                        m.setValue(Integer.decode(f.getValue()));
+                UL ul = null;
 
-                        celems.add(m);
-                    }
+                if (f.getValue() != null) {
+                    ul = UL.fromURN(f.getValue());
+                }
+
+                if (ul == null) {
 
-                    tdef = new EnumerationTypeDefinition(celems);
+                    RegisterEvent evt = new RegisterEvent(
+                        EventKind.UNKNOWN_TARGET_SET,
+                        String.format(
+                            "Missing Target Set UL at Type %s",
+                            type.getUL().toString()
+                        )
+                    );
 
-                    ((EnumerationTypeDefinition) tdef).setElementType(new AUID(type.getBaseType()));
+                    conversion.events.add(evt);
 
-                    references.add(((EnumerationTypeDefinition) tdef).getElementType());
+                    return;
+                }
 
-                } else {
+                if (!((WeakReferenceTypeDefinition) tdef).getTargetSet().add(new AUID(ul))) {
 
                     RegisterEvent evt = new RegisterEvent(
-                        EventKind.BAD_ENUM_TYPE,
+                        EventKind.DUP_TARGET_SET,
                         String.format(
-                            "Enumeration base type %s is neither integer nor AUID for Type UL %s.",
-                            type.getBaseType(),
+                            "Duplicate Target Set UL at Type %s",
                             type.getUL().toString()
                         )
                     );
 
-                    handleEvent(evthandler, evt);
+                    conversion.events.add(evt);
 
-                    continue;
                 }
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.CHARACTER_TYPEKIND.equals(type.getTypeKind())) {
+                references.add(new AUID(ul));
+            }
 
-                tdef = new CharacterTypeDefinition();
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.STRONGREF_TYPEKIND.equals(type.getTypeKind())) {
 
-            } else if (com.sandflow.smpte.register.TypesRegister.Entry.STRING_TYPEKIND.equals(type.getTypeKind())) {
+            tdef = new StrongReferenceTypeDefinition();
 
-                tdef = new StringTypeDefinition();
+            ((StrongReferenceTypeDefinition) tdef).setReferenceType(new AUID(type.getBaseType()));
 
-                ((StringTypeDefinition) tdef).setElementType(new AUID(type.getBaseType()));
+            references.add(((StrongReferenceTypeDefinition) tdef).getReferencedType());
 
-                references.add(((StringTypeDefinition) tdef).getElementType());
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.ENUMERATION_TYPEKIND.equals(type.getTypeKind())) {
 
-            } else {
+            if (type.getBaseType().equals(UL.fromURN("urn:smpte:ul:060E2B34.01040101.01030100.00000000"))) {
 
-                RegisterEvent evt = new RegisterEvent(
-                    EventKind.UNKNOWN_TYPE_KIND,
-                    String.format(
-                        "Unknown type kind of %s for Type UL %s.",
-                        type.getTypeKind(),
-                        type.getUL().toString()
-                    )
-                );
+                ArrayList<ExtendibleEnumerationTypeDefinition.Element> ecelems = new ArrayList<>();
 
-                handleEvent(evthandler, evt);
+                /* NOTE: Facets of Extendible Enumeration Definitions are not imported since
+                 *       they are, by definition, extendible. In other words, Extendible
+                 *       Enumeration instance are expected to handle UL values that are not
+                 *       listed in the register. 
+                 */
+                /*
+                 for (Facet f : type.getFacets()) {
+                 ExtendibleEnumerationTypeDefinition.Element m = new ExtendibleEnumerationTypeDefinition.Element();
 
-                continue;
-            }
-
-            if (tdef != null) {
+                 m.setValue(new AUID(f.getUL()));
 
-                tdef.setIdentification(new AUID(type.getUL()));
-                tdef.setSymbol(type.getSymbol());
-                tdef.setName(type.getName());
-                tdef.setDescription(type.getDefinition());
-                tdef.setNamespace(type.getNamespaceName());
+                 ecelems.add(m);
+                 }*/
+                tdef = new ExtendibleEnumerationTypeDefinition(ecelems);
 
-                _add(defs, tdef);
+            } else if (type.getBaseType().equalsWithMask(UL.fromURN("urn:smpte:ul:060e2b34.01040101.01010000.00000000"), 0b1111111111000000)) {
 
-                /* adds any entry that the entry references */
-                for (AUID aref : references) {
+                ArrayList<EnumerationTypeDefinition.Element> celems = new ArrayList<>();
 
-                    HashSet<AUID> hs = isReferencedBy.get(aref);
+                for (TypesRegister.Entry.Facet f : type.getFacets()) {
+                    EnumerationTypeDefinition.Element m = new EnumerationTypeDefinition.Element();
 
-                    if (hs == null) {
+                    m.setName(f.getSymbol());
+                    m.setValue(Integer.decode(f.getValue()));
 
-                        hs = new HashSet<>();
+                    celems.add(m);
+                }
 
-                        isReferencedBy.put(aref, hs);
+                tdef = new EnumerationTypeDefinition(celems);
 
-                    }
+                ((EnumerationTypeDefinition) tdef).setElementType(new AUID(type.getBaseType()));
 
-                    hs.add(tdef.getIdentification());
-                }
+                references.add(((EnumerationTypeDefinition) tdef).getElementType());
 
             } else {
 
                 RegisterEvent evt = new RegisterEvent(
-                    EventKind.TYPE_IMPORT_FAILED,
+                    EventKind.BAD_ENUM_TYPE,
                     String.format(
-                        "Type UL %s import failed",
+                        "Enumeration base type %s is neither integer nor AUID for Type UL %s.",
+                        type.getBaseType(),
                         type.getUL().toString()
                     )
                 );
 
-                handleEvent(evthandler, evt);
+                conversion.events.add(evt);
 
+                return;
             }
+
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.CHARACTER_TYPEKIND.equals(type.getTypeKind())) {
+
+            tdef = new CharacterTypeDefinition();
+
+        } else if (com.sandflow.smpte.register.TypesRegister.Entry.STRING_TYPEKIND.equals(type.getTypeKind())) {
+
+            tdef = new StringTypeDefinition();
+
+            ((StringTypeDefinition) tdef).setElementType(new AUID(type.getBaseType()));
+
+            references.add(((StringTypeDefinition) tdef).getElementType());
+
+        } else {
+
+            RegisterEvent evt = new RegisterEvent(
+                EventKind.UNKNOWN_TYPE_KIND,
+                String.format(
+                    "Unknown type kind of %s for Type UL %s.",
+                    type.getTypeKind(),
+                    type.getUL().toString()
+                )
+            );
+
+            conversion.events.add(evt);
+
+            return;
         }
 
-        /* prune all dangling entries */
-        for (AUID aref : isReferencedBy.keySet()) {
+        if (tdef != null) {
 
-            if (!defs.containsKey(aref)) {
+            tdef.setIdentification(new AUID(type.getUL()));
+            tdef.setSymbol(type.getSymbol());
+            tdef.setName(type.getName());
+            tdef.setDescription(type.getDefinition());
+            tdef.setNamespace(type.getNamespaceName());
 
-                /* if the referenced entry does not exist prune all entries that
-                 reference it, directly or indirectly */
-                _prune(defs, isReferencedBy, aref);
+            conversion.definitions.add(tdef);
 
+            /* adds any entry that the entry references */
+            for (AUID aref : references) {
+                conversion.addReference(aref, tdef.getIdentification());
             }
 
-        }
+        } else {
 
-        /* create the metadictionaries */
-        MetaDictionaryCollection mds = new MetaDictionaryCollection();
+            RegisterEvent evt = new RegisterEvent(
+                EventKind.TYPE_IMPORT_FAILED,
+                String.format(
+                    "Type UL %s import failed",
+                    type.getUL().toString()
+                )
+            );
 
-        long index = 0;
+            conversion.events.add(evt);
 
-        for (ArrayList<Definition> defarray : defs.values()) {
+        }
+    }
 
-            for (Definition def : defarray) {
+    /**
+     * Result of the conversion of a single register entry
+     */
+    private static class Conversion {
 
-                try {
-                    mds.addDefinition(def);
-                } catch (DuplicateSymbolException dse) {
+        interface Body {
 
-                    /* attempt to generate an ad hoc symbol instead of dying */
-                    String newsym = "dup" + def.getSymbol() + (index++);
+            void convert(Conversion conversion) throws Exception;
+        }
 
-                    RegisterEvent evt = new RegisterEvent(
-                        EventKind.DUPLICATE_SYMBOL,
-                        String.format(
-                            "Duplicate symbol %s (%s) renamed %s",
-                            def.getSymbol(),
-                            def.getNamespace().toASCIIString(),
-                            newsym
-                        )
-                    );
+        /* definitions in the order they were created */
+        final ArrayList<Definition> definitions = new ArrayList<>();
 
-                    handleEvent(evthandler, evt);
+        /* (referenced, referencing) pairs */
+        final ArrayList<AUID> references = new ArrayList<>();
 
-                    def.setSymbol(newsym);
+        /* events in the order they were raised */
+        final ArrayList<RegisterEvent> events = new ArrayList<>();
 
-                    mds.addDefinition(def);
-                }
+        /* exception that interrupted the conversion, if any */
+        Exception failure;
+
+        static Conversion of(Body body) {
+            Conversion c = new Conversion();
+
+            try {
+                body.convert(c);
+            } catch (Exception e) {
+                c.failure = e;
             }
-        }
 
-        return mds;
+            return c;
+        }
 
+        void addReference(AUID referenced, AUID referencing) {
+            references.add(referenced);
+            references.add(referencing);
+        }
     }
 
-    private static void _add(Map<AUID, ArrayList<Definition>> defs, Definition def) {
-        ArrayList<Definition> ad = defs.get(def.getIdentification());
+    /**
+     * Graph of the references between definitions, where each AUID is mapped
+     * to a node index and each reference is stored as a pair of node indices.
+     */
+    private static class ReferenceGraph {
 
-        if (ad == null) {
-            ad = new ArrayList<>();
-            defs.put(def.getIdentification(), ad);
+        private final HashMap<AUID, Integer> indices = new HashMap<>();
+        private final ArrayList<AUID> nodes = new ArrayList<>();
+
+        private int[] referenced = new int[1024];
+        private int[] referencing = new int[1024];
+        private int size = 0;
+
+        private int indexOf(AUID auid) {
+            Integer i = indices.get(auid);
+
+            if (i == null) {
+                i = nodes.size();
+                indices.put(auid, i);
+                nodes.add(auid);
+            }
+
+            return i;
         }
 
-        ad.add(def);
+        void addReference(AUID to, AUID from) {
 
-    }
+            if (size == referenced.length) {
+                referenced = Arrays.copyOf(referenced, 2 * size);
+                referencing = Arrays.copyOf(referencing, 2 * size);
+            }
 
-    private static void _prune(Map<AUID, ArrayList<Definition>> defs,
-        HashMap<AUID, HashSet<AUID>> isReferencedBy,
-        AUID aref) {
+            referenced[size] = indexOf(to);
+            referencing[size] = indexOf(from);
+            size++;
+        }
 
-        if (isReferencedBy.containsKey(aref)) {
+        /**
+         * Removes every definition that references, directly or indirectly, a
+         * definition that does not exist. Each node is visited at most once.
+         *
+         * @param defs Definitions, indexed by AUID
+         */
+        void prune(Map<AUID, ?> defs) {
 
-            for (AUID entry : isReferencedBy.get(aref)) {
+            int count = nodes.size();
 
-                _prune(defs,  isReferencedBy, entry);
+            /* adjacency arrays: the nodes that reference node i are
+             referencedBy[first[i]] ... referencedBy[first[i + 1] - 1] */
+            int[] first = new int[count + 1];
 
+            for (int i = 0; i < size; i++) {
+                first[referenced[i] + 1]++;
             }
 
-        }
+            for (int i = 0; i < count; i++) {
+                first[i + 1] += first[i];
+            }
+
+            int[] referencedBy = new int[size];
+            int[] next = Arrays.copyOf(first, count);
 
-        defs.remove(aref);
+            for (int i = 0; i < size; i++) {
+                referencedBy[next[referenced[i]]++] = referencing[i];
+            }
+
+            /* start from the referenced definitions that do not exist */
+            boolean[] pruned = new boolean[count];
+            int[] worklist = new int[count];
+            int top = 0;
+
+            for (int i = 0; i < count; i++) {
+                if (first[i + 1] > first[i] && !defs.containsKey(nodes.get(i))) {
+                    pruned[i] = true;
+                    worklist[top++] = i;
+                }
+            }
+
+            while (top > 0) {
+
+                int i = worklist[--top];
+
+                defs.remove(nodes.get(i));
+
+                for (int j = first[i]; j < first[i + 1]; j++) {
+
+                    if (!pruned[referencedBy[j]]) {
+                        pruned[referencedBy[j]] = true;
+                        worklist[top++] = referencedBy[j];
+                    }
+
+                }
+            }
+        }
     }
 
 }
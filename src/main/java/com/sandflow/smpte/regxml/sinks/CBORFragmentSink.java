@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.sinks;
+
+import com.sandflow.smpte.regxml.FragmentSink;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Encodes a RegXML Fragment as CBOR (IETF RFC 8949), which is written to the
+ * underlying OutputStream as the Fragment is generated.
+ *
+ * The structure of the output is identical to that of
+ * {@link JSONFragmentSink}: a map with a <code>fragment</code> entry
+ * containing the RegXML Fragment, where each element is encoded as an array
+ * consisting of its qualified name, an optional map of attributes, and its
+ * text and child elements; and a <code>namespaces</code> entry mapping
+ * namespace prefixes to namespaces. Maps and arrays use indefinite-length
+ * encoding so that the output can be streamed.
+ *
+ * Consecutive text is encoded as a single text string, using
+ * indefinite-length encoding if it is received in multiple parts. Comments,
+ * which are informative only, are not encoded.
+ */
+public class CBORFragmentSink implements FragmentSink {
+
+    private static final int MAJOR_TYPE_TEXT_STRING = 3;
+    private static final int INDEFINITE_TEXT_STRING = 0x7f;
+    private static final int INDEFINITE_ARRAY = 0x9f;
+    private static final int INDEFINITE_MAP = 0xbf;
+    private static final int BREAK = 0xff;
+    private static final int NULL = 0xf6;
+
+    private final OutputStream os;
+    private boolean isStarted = false;
+    private boolean isAttributeListOpen = false;
+    private String pendingText = null;
+    private boolean isTextOpen = false;
+
+    /**
+     * Instantiates a CBORFragmentSink. The OutputStream is flushed, but not
+     * closed, when the Fragment is complete.
+     *
+     * @param os OutputStream to which the CBOR data item is written. Must not
+     * be null.
+     */
+    public CBORFragmentSink(OutputStream os) {
+
+        if (os == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.os = os;
+    }
+
+    private void writeHeader(int majortype, long value) throws IOException {
+
+        int mt = majortype << 5;
+
+        if (value < 24) {
+
+            os.write(mt | (int) value);
+
+        } else if (value < 0x100) {
+
+            os.write(mt | 24);
+            os.write((int) value);
+
+        } else if (value < 0x10000) {
+
+            os.write(mt | 25);
+            os.write((int) (value >> 8));
+            os.write((int) value);
+
+        } else {
+
+            os.write(mt | 26);
+            os.write((int) (value >> 24));
+            os.write((int) (value >> 16));
+            os.write((int) (value >> 8));
+            os.write((int) value);
+
+        }
+    }
+
+    private void writeString(String str) throws IOException {
+
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+
+        writeHeader(MAJOR_TYPE_TEXT_STRING, bytes.length);
+
+        os.write(bytes);
+    }
+
+    private void writeQName(String prefix, String localName) throws IOException {
+        writeString(prefix == null ? localName : prefix + ":" + localName);
+    }
+
+    private void closeText() throws IOException {
+
+        if (pendingText != null) {
+            writeString(pendingText);
+            pendingText = null;
+        }
+
+        if (isTextOpen) {
+            os.write(BREAK);
+            isTextOpen = false;
+        }
+    }
+
+    private void closeAttributeList() throws IOException {
+        if (isAttributeListOpen) {
+            os.write(BREAK);
+            isAttributeListOpen = false;
+        }
+    }
+
+    @Override
+    public void startElement(String namespace, String prefix, String localName) throws IOException {
+
+        closeText();
+
+        closeAttributeList();
+
+        if (!isStarted) {
+            os.write(INDEFINITE_MAP);
+            writeString("fragment");
+            isStarted = true;
+        }
+
+        os.write(INDEFINITE_ARRAY);
+
+        writeQName(prefix, localName);
+    }
+
+    @Override
+    public void attribute(String namespace, String prefix, String localName, String value) throws IOException {
+
+        if (!isAttributeListOpen) {
+            os.write(INDEFINITE_MAP);
+            isAttributeListOpen = true;
+        }
+
+        writeQName(prefix, localName);
+
+        writeString(value);
+    }
+
+    @Override
+    public void text(String text) throws IOException {
+
+        closeAttributeList();
+
+        if (isTextOpen) {
+
+            writeString(text);
+
+        } else if (pendingText != null) {
+
+            /* text received in multiple parts is written as chunks of an indefinite-length string */
+            os.write(INDEFINITE_TEXT_STRING);
+            writeString(pendingText);
+            writeString(text);
+
+            pendingText = null;
+            isTextOpen = true;
+
+        } else {
+
+            /* held until it is known whether more text follows */
+            pendingText = text;
+
+        }
+    }
+
+    @Override
+    public void comment(String comment) {
+        /* comments are not encoded */
+    }
+
+    @Override
+    public void endElement() throws IOException {
+
+        closeText();
+
+        closeAttributeList();
+
+        os.write(BREAK);
+    }
+
+    @Override
+    public void endFragment(Map<URI, String> prefixes) throws IOException {
+
+        /* an empty Fragment is encoded as null */
+        if (!isStarted) {
+            os.write(INDEFINITE_MAP);
+            writeString("fragment");
+            os.write(NULL);
+        }
+
+        writeString("namespaces");
+
+        os.write(INDEFINITE_MAP);
+
+        for (Map.Entry<URI, String> entry : prefixes.entrySet()) {
+
+            writeString(entry.getValue());
+
+            writeString(entry.getKey().toString());
+
+        }
+
+        os.write(BREAK);
+
+        os.write(BREAK);
+
+        os.flush();
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.sinks;
+
+import com.sandflow.smpte.regxml.FragmentSink;
+import java.net.URI;
+import java.util.Map;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentFragment;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+
+/**
+ * Builds a RegXML Fragment as an XML DOM Document Fragment
+ */
+public class DOMFragmentSink implements FragmentSink {
+
+    private final static String XMLNS_NS = "http://www.w3.org/2000/xmlns/";
+
+    private final Document document;
+    private final DocumentFragment fragment;
+    private Node current;
+
+    /**
+     * Instantiates a DOMFragmentSink
+     *
+     * @param document Document from which the XML DOM Document Fragment will
+     * be created. Must not be null.
+     */
+    public DOMFragmentSink(Document document) {
+
+        if (document == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.document = document;
+        this.fragment = document.createDocumentFragment();
+        this.current = this.fragment;
+    }
+
+    /**
+     * @return XML DOM Document Fragment containing the RegXML Fragment
+     */
+    public DocumentFragment getFragment() {
+        return fragment;
+    }
+
+    @Override
+    public void startElement(String namespace, String prefix, String localName) {
+
+        Element elem = document.createElementNS(namespace, localName);
+
+        elem.setPrefix(prefix);
+
+        current.appendChild(elem);
+
+        current = elem;
+    }
+
+    @Override
+    public void attribute(String namespace, String prefix, String localName, String value) {
+
+        Attr attr = document.createAttributeNS(namespace, localName);
+
+        attr.setPrefix(prefix);
+        attr.setTextContent(value);
+
+        ((Element) current).setAttributeNodeNS(attr);
+    }
+
+    @Override
+    public void text(String text) {
+
+        /* mirrors Node.setTextContent(), which does not create empty text nodes */
+        if (text.length() == 0) {
+            return;
+        }
+
+        /* consecutive text is merged into a single text node */
+        if (current.getLastChild() instanceof Text) {
+            ((Text) current.getLastChild()).appendData(text);
+        } else {
+            current.appendChild(document.createTextNode(text));
+        }
+    }
+
+    @Override
+    public void comment(String comment) {
+        current.appendChild(document.createComment(comment));
+    }
+
+    @Override
+    public void endElement() {
+        current = current.getParentNode();
+    }
+
+    @Override
+    public void endFragment(Map<URI, String> prefixes) {
+
+        /* declare all namespace prefixes on the root element */
+        if (fragment.getFirstChild() instanceof Element) {
+
+            for (Map.Entry<URI, String> entry : prefixes.entrySet()) {
+                ((Element) fragment.getFirstChild()).setAttributeNS(XMLNS_NS, "xmlns:" + entry.getValue(), entry.getKey().toString());
+            }
+
+        }
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.sinks;
+
+import com.sandflow.smpte.regxml.FragmentSink;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Encodes a RegXML Fragment as compact JSON, which is written to the
+ * underlying Writer as the Fragment is generated.
+ *
+ * The output is a single object with two members: <code>fragment</code>
+ * contains the RegXML Fragment using the JsonML array form, where each element
+ * is encoded as an array consisting of its qualified name, an optional object
+ * of attributes, and its text and child elements; and <code>namespaces</code>
+ * maps each namespace prefix used in qualified names to its namespace. For
+ * example:
+ *
+ * <pre>
+ * {"fragment":["r0:Preface",["r1:InstanceID","urn:uuid:..."],...],
+ *  "namespaces":{"r0":"http://www.smpte-ra.org/reg/395/2014/13/1/aaf",...}}
+ * </pre>
+ *
+ * Consecutive text is encoded as a single string. Comments, which are
+ * informative only, are not encoded.
+ */
+public class JSONFragmentSink implements FragmentSink {
+
+    final static char[] HEXMAP = "0123456789abcdef".toCharArray();
+
+    private final Writer writer;
+    private boolean isStarted = false;
+    private boolean isAttributeListOpen = false;
+    private boolean isTextOpen = false;
+
+    /**
+     * Instantiates a JSONFragmentSink. The Writer is flushed, but not closed,
+     * when the Fragment is complete.
+     *
+     * @param writer Writer to which the JSON text is written. Must not be
+     * null.
+     */
+    public JSONFragmentSink(Writer writer) {
+
+        if (writer == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.writer = writer;
+    }
+
+    private void writeString(String str) throws IOException {
+
+        writer.write('"');
+
+        writeChars(str);
+
+        writer.write('"');
+    }
+
+    private void writeChars(String str) throws IOException {
+
+        for (int i = 0; i < str.length(); i++) {
+
+            char c = str.charAt(i);
+
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write("\\u00");
+                        writer.write(HEXMAP[c >>> 4]);
+                        writer.write(HEXMAP[c & 0x0F]);
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+    }
+
+    private void writeQName(String prefix, String localName) throws IOException {
+        writeString(prefix == null ? localName : prefix + ":" + localName);
+    }
+
+    private void closeText() throws IOException {
+        if (isTextOpen) {
+            writer.write('"');
+            isTextOpen = false;
+        }
+    }
+
+    private void closeAttributeList() throws IOException {
+        if (isAttributeListOpen) {
+            writer.write('}');
+            isAttributeListOpen = false;
+        }
+    }
+
+    @Override
+    public void startElement(String namespace, String prefix, String localName) throws IOException {
+
+        closeText();
+
+        closeAttributeList();
+
+        writer.write(isStarted ? ",[" : "{\"fragment\":[");
+
+        writeQName(prefix, localName);
+
+        isStarted = true;
+    }
+
+    @Override
+    public void attribute(String namespace, String prefix, String localName, String value) throws IOException {
+
+        writer.write(isAttributeListOpen ? "," : ",{");
+
+        isAttributeListOpen = true;
+
+        writeQName(prefix, localName);
+
+        writer.write(':');
+
+        writeString(value);
+    }
+
+    @Override
+    public void text(String text) throws IOException {
+
+        closeAttributeList();
+
+        /* the string is left open in case more text follows */
+        if (!isTextOpen) {
+            writer.write(",\"");
+            isTextOpen = true;
+        }
+
+        writeChars(text);
+    }
+
+    @Override
+    public void comment(String comment) {
+        /* comments are not encoded */
+    }
+
+    @Override
+    public void endElement() throws IOException {
+
+        closeText();
+
+        closeAttributeList();
+
+        writer.write(']');
+    }
+
+    @Override
+    public void endFragment(Map<URI, String> prefixes) throws IOException {
+
+        /* an empty Fragment is encoded as null */
+        if (!isStarted) {
+            writer.write("{\"fragment\":null");
+        }
+
+        writer.write(",\"namespaces\":{");
+
+        boolean isFirst = true;
+
+        for (Map.Entry<URI, String> entry : prefixes.entrySet()) {
+
+            if (!isFirst) {
+                writer.write(',');
+            }
+
+            writeString(entry.getValue());
+
+            writer.write(':');
+
+            writeString(entry.getKey().toString());
+
+            isFirst = false;
+        }
+
+        writer.write("}}");
+
+        writer.flush();
+    }
+
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.sinks;
+
+import com.sandflow.smpte.regxml.FragmentSink;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Encodes a RegXML Fragment as XML text, which is written to the underlying
+ * Writer as the Fragment is generated, without building an XML DOM.
+ *
+ * Since the namespaces used by a Fragment are known only once it is complete,
+ * the sink allocates its own namespace prefixes: namespaces known in advance,
+ * e.g. those of the MetaDictionaries, are declared on the root element, and
+ * any other namespace is declared on each element that uses it and where it
+ * is not already in scope.
+ *
+ * When indenting, the text of an element is held until the element is closed
+ * or a child is written, since text followed by children is written on its
+ * own line. Without indentation, text is written as it is received.
+ */
+public class XMLFragmentSink implements FragmentSink {
+
+    private static class Element {
+
+        final String qname;
+        final ArrayList<String> declaredPrefixes = new ArrayList<>();
+        boolean hasChildren = false;
+        StringBuilder text = null;
+
+        Element(String qname) {
+            this.qname = qname;
+        }
+    }
+
+    private final Writer writer;
+    private final String indent;
+    private final ArrayList<Element> elements = new ArrayList<>();
+    private final ArrayList<String> rootNamespaces = new ArrayList<>();
+    private final HashMap<String, String> prefixes = new HashMap<>();
+    private final HashSet<String> inScopePrefixes = new HashSet<>();
+    private boolean isTagOpen = false;
+
+    /**
+     * Instantiates an XMLFragmentSink. The Writer is flushed, but not closed,
+     * when the Fragment is complete.
+     *
+     * @param writer Writer to which the XML text is written. Must not be
+     * null.
+     * @param indent Each nested element is written on a new line, indented by
+     * this string. The output is not indented if null.
+     * @param namespaces Namespaces declared on the root element. May be null.
+     */
+    public XMLFragmentSink(Writer writer, String indent, Collection<URI> namespaces) {
+
+        if (writer == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.writer = writer;
+        this.indent = indent;
+
+        if (namespaces != null) {
+            for (URI namespace : namespaces) {
+                getPrefix(namespace.toString());
+                rootNamespaces.add(namespace.toString());
+            }
+        }
+    }
+
+    /**
+     * Writes XML text, escaping markup characters
+     *
+     * @param writer Writer to which the text is written
+     * @param str Text
+     * @param isAttribute True if the text is an attribute value
+     * @throws IOException
+     */
+    static void writeEscaped(Writer writer, String str, boolean isAttribute) throws IOException {
+
+        int start = 0;
+
+        for (int i = 0; i < str.length(); i++) {
+
+            String entity;
+
+            switch (str.charAt(i)) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '"':
+                    entity = isAttribute ? "&quot;" : null;
+                    break;
+                case '\n':
+                    entity = isAttribute ? "&#10;" : null;
+                    break;
+                case '\r':
+                    entity = "&#13;";
+                    break;
+                default:
+                    entity = null;
+            }
+
+            if (entity != null) {
+                writer.write(str, start, i - start);
+                writer.write(entity);
+                start = i + 1;
+            }
+        }
+
+        writer.write(str, start, str.length() - start);
+    }
+
+    private void writeIndent(int depth) throws IOException {
+
+        if (indent != null) {
+
+            writer.write('\n');
+
+            for (int i = 0; i < depth; i++) {
+                writer.write(indent);
+            }
+        }
+    }
+
+    private String getPrefix(String namespace) {
+
+        String prefix = prefixes.get(namespace);
+
+        if (prefix == null) {
+            prefix = "r" + prefixes.size();
+            prefixes.put(namespace, prefix);
+        }
+
+        return prefix;
+    }
+
+    private void declarePrefix(String namespace, String prefix) throws IOException {
+
+        if (!inScopePrefixes.add(prefix)) {
+            return;
+        }
+
+        elements.get(elements.size() - 1).declaredPrefixes.add(prefix);
+
+        writer.write(" xmlns:");
+        writer.write(prefix);
+        writer.write("=\"");
+        writeEscaped(writer, namespace, true);
+        writer.write('"');
+    }
+
+    /* called before a child element or comment is written to the current element */
+    private void startChild() throws IOException {
+
+        if (elements.isEmpty()) {
+            return;
+        }
+
+        Element current = elements.get(elements.size() - 1);
+
+        if (isTagOpen) {
+            writer.write('>');
+            isTagOpen = false;
+        }
+
+        /* text followed by other children is written on its own line */
+        if (current.text != null) {
+            writeIndent(elements.size());
+            writeEscaped(writer, current.text.toString(), false);
+            current.text = null;
+        }
+
+        current.hasChildren = true;
+    }
+
+    @Override
+    public void startElement(String namespace, String prefix, String localName) throws IOException {
+
+        startChild();
+
+        if (!elements.isEmpty()) {
+            writeIndent(elements.size());
+        }
+
+        String qname = namespace == null ? localName : getPrefix(namespace) + ":" + localName;
+
+        writer.write('<');
+        writer.write(qname);
+
+        elements.add(new Element(qname));
+
+        isTagOpen = true;
+
+        if (elements.size() == 1) {
+            for (String rootNamespace : rootNamespaces) {
+                declarePrefix(rootNamespace, getPrefix(rootNamespace));
+            }
+        }
+
+        if (namespace != null) {
+            declarePrefix(namespace, getPrefix(namespace));
+        }
+    }
+
+    @Override
+    public void attribute(String namespace, String prefix, String localName, String value) throws IOException {
+
+        if (namespace != null) {
+
+            declarePrefix(namespace, getPrefix(namespace));
+
+            writer.write(' ');
+            writer.write(getPrefix(namespace));
+            writer.write(':');
+
+        } else {
+
+            writer.write(' ');
+
+        }
+
+        writer.write(localName);
+        writer.write("=\"");
+        writeEscaped(writer, value, true);
+        writer.write('"');
+    }
+
+    @Override
+    public void text(String text) throws IOException {
+
+        Element current = elements.get(elements.size() - 1);
+
+        if (text.length() == 0) {
+
+            return;
+
+        } else if (indent == null) {
+
+            /* without indentation, the text can be written as it is received */
+            startChild();
+
+            writeEscaped(writer, text, false);
+
+        } else if (current.hasChildren) {
+
+            writeIndent(elements.size());
+            writeEscaped(writer, text, false);
+
+        } else if (current.text == null) {
+
+            current.text = new StringBuilder(text);
+
+        } else {
+
+            current.text.append(text);
+
+        }
+    }
+
+    @Override
+    public void comment(String comment) throws IOException {
+
+        startChild();
+
+        writeIndent(elements.size());
+
+        writer.write("<!--");
+        writer.write(comment);
+        writer.write("-->");
+    }
+
+    @Override
+    public void endElement() throws IOException {
+
+        Element current = elements.remove(elements.size() - 1);
+
+        if (current.hasChildren) {
+
+            writeIndent(elements.size());
+
+            writer.write("</");
+            writer.write(current.qname);
+            writer.write('>');
+
+        } else if (current.text != null) {
+
+            writer.write('>');
+            writeEscaped(writer, current.text.toString(), false);
+            writer.write("</");
+            writer.write(current.qname);
+            writer.write('>');
+
+        } else {
+
+            writer.write("/>");
+
+        }
+
+        isTagOpen = false;
+
+        inScopePrefixes.removeAll(current.declaredPrefixes);
+    }
+
+    @Override
+    public void endFragment(Map<URI, String> prefixes) throws IOException {
+        writer.flush();
+    }
+
+}
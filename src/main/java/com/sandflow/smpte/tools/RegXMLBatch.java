@@ -0,0 +1,603 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.tools;
+
+import com.sandflow.smpte.register.LabelsRegister;
+import com.sandflow.smpte.regxml.FragmentBuilder;
+import com.sandflow.smpte.regxml.RenderCache;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import com.sandflow.smpte.tools.RegXMLDump.TargetPartition;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.util.events.Event;
+import com.sandflow.util.events.EventHandler;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.w3c.dom.Document;
+
+/**
+ * Dumps the header metadata of many MXF files as RegXML documents, in parallel,
+ * using dictionaries and a labels register that are loaded once. At most
+ * parallelism files are processed, or waiting for their result to be handled,
+ * at any given time.
+ */
+public class RegXMLBatch {
+
+    private final static Logger LOG = Logger.getLogger(RegXMLBatch.class.getName());
+
+    protected final static String USAGE = "Dump header metadata of many MXF files as RegXML structures.\n"
+        + "  Usage:\n"
+        + "     RegXMLBatch ( -all | -ed ) ( -header | -footer | -auto ) (-l labelsregister) (-j threads) (-cache size) -d regxmldictionarydirorfile_1 ... regxmldictionarydirorfile_n -o outputdir -i mxffileordir_1 ... mxffileordir_n\n"
+        + "     RegXMLBatch -?\n"
+        + "  Where:\n"
+        + "     -all: dumps all header metadata (default)\n"
+        + "     -ed: dumps only the first essence descriptor found\n"
+        + "     -l labelsregister: given a SMPTE labels register, inserts the symbol of labels as XML comment\n"
+        + "     -header: dumps metadata from the header partition (default)\n"
+        + "     -footer: dumps metadata from the footer partition\n"
+        + "     -auto: dumps metadata from the footer partition if available and from the header if not\n"
+        + "     -j threads: number of files processed in parallel (default: number of processors)\n"
+        + "     -cache size: reuses the rendering of Sets found in several files, keeping at most size characters of rendered Sets\n"
+        + "     -o outputdir: directory where the RegXML document of each MXF file is written, as mxffile.xml\n"
+        + "     -i: MXF files, or directories whose .mxf files are processed\n";
+
+    /**
+     * Outcome of the processing of a single MXF file
+     */
+    public static class Result {
+
+        private final Path path;
+        private final Document document;
+        private final List<Event> events;
+        private final Exception exception;
+
+        Result(Path path, Document document, List<Event> events, Exception exception) {
+            this.path = path;
+            this.document = document;
+            this.events = Collections.unmodifiableList(events);
+            this.exception = exception;
+        }
+
+        /**
+         * @return Path of the MXF file
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * @return RegXML document, or null if processing failed
+         */
+        public Document getDocument() {
+            return document;
+        }
+
+        /**
+         * @return Events raised while processing the file, in order
+         */
+        public List<Event> getEvents() {
+            return events;
+        }
+
+        /**
+         * @return Exception that caused processing to fail, or null if
+         * processing succeeded
+         */
+        public Exception getException() {
+            return exception;
+        }
+
+    }
+
+    /**
+     * Receives the result of each MXF file
+     */
+    public static interface ResultHandler {
+
+        /**
+         * Called once per MXF file, as soon as its processing completes. Calls
+         * are made from worker threads, but never concurrently.
+         *
+         * @param result Result of the MXF file
+         * @throws IOException Stops the batch
+         */
+        void handle(Result result) throws IOException;
+    }
+
+    private final MetaDictionaryCollection mds;
+    private final FragmentBuilder.AUIDNameResolver anr;
+    private final int parallelism;
+    private UL rootclasskey = RegXMLDump.PREFACE_KEY;
+    private TargetPartition partition = TargetPartition.HEADER;
+    private RenderCache rendercache;
+    private String dictversion;
+
+    /**
+     * @param mds MetaDictionary definitions, shared by all files. Must not be
+     * null.
+     * @param lr Labels register used to insert the symbol of labels as XML
+     * comments. May be null.
+     * @param parallelism Maximum number of files processed concurrently. Must
+     * be positive.
+     */
+    public RegXMLBatch(MetaDictionaryCollection mds, LabelsRegister lr, int parallelism) {
+
+        if (mds == null || parallelism < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        /* precomputes the shared tables once, rather than in the first files */
+        mds.freeze();
+
+        this.mds = mds;
+        this.anr = lr == null ? null : RegXMLDump.createNameResolver(lr);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param essenceDescriptorOnly Dumps only the first essence descriptor of
+     * each file if true, and all header metadata otherwise (default)
+     */
+    public void setEssenceDescriptorOnly(boolean essenceDescriptorOnly) {
+        this.rootclasskey = essenceDescriptorOnly ? RegXMLDump.ESSENCE_DESCRIPTOR_KEY : RegXMLDump.PREFACE_KEY;
+    }
+
+    /**
+     * @param partition Partition from which header metadata is dumped.
+     * Defaults to HEADER.
+     */
+    public void setPartition(TargetPartition partition) {
+
+        if (partition == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.partition = partition;
+    }
+
+    /**
+     * Sets the cache used to reuse the rendering of Sets across files, see
+     * {@link FragmentBuilder#setRenderCache(com.sandflow.smpte.regxml.RenderCache, java.lang.String)}
+     *
+     * @param cache Render cache, or null to disable caching (default).
+     * @param dictversion Identifies the dictionaries and labels register of
+     * the batch. Must not be null if cache is not null.
+     */
+    public void setRenderCache(RenderCache cache, String dictversion) {
+
+        if (cache != null && dictversion == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.rendercache = cache;
+        this.dictversion = dictversion;
+    }
+
+    private static ExecutorService newExecutor(int parallelism) {
+
+        /* use virtual threads where available, since the number of tasks is bounded anyway */
+        try {
+
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+
+        } catch (ReflectiveOperationException e) {
+
+            return Executors.newFixedThreadPool(parallelism);
+
+        }
+    }
+
+    private Result process(Path path) {
+
+        final ArrayList<Event> events = new ArrayList<>();
+
+        EventHandler evthandler = new EventHandler() {
+
+            @Override
+            public boolean handle(Event evt) {
+                events.add(evt);
+                return true;
+            }
+        };
+
+        try (SeekableByteChannel f = Files.newByteChannel(path)) {
+
+            Document doc = RegXMLDump.dump(
+                f,
+                path.getFileName().toString(),
+                mds,
+                anr,
+                evthandler,
+                rootclasskey,
+                partition,
+                FragmentBuilder.DataValuePolicy.INLINE,
+                null,
+                rendercache,
+                dictversion
+            );
+
+            return new Result(path, doc, events, null);
+
+        } catch (Exception e) {
+
+            return new Result(path, null, events, e);
+
+        }
+    }
+
+    /**
+     * Processes MXF files. Returns once all files have been processed and their
+     * results handled.
+     *
+     * @param paths MXF files
+     * @param handler Receives the result of each file
+     * @return Number of files that were processed successfully
+     * @throws IOException Thrown by the handler, in which case the remaining
+     * files are not processed
+     * @throws RuntimeException Thrown by the handler, in which case the
+     * remaining files are not processed
+     * @throws InterruptedException
+     */
+    public int process(Collection<Path> paths, final ResultHandler handler) throws IOException, InterruptedException {
+
+        final Semaphore permits = new Semaphore(parallelism);
+
+        final Object lock = new Object();
+
+        /* IOException or RuntimeException thrown by the handler */
+        final Exception[] failure = new Exception[1];
+
+        final int[] successes = new int[1];
+
+        ExecutorService executor = newExecutor(parallelism);
+
+        try {
+
+            for (final Path path : paths) {
+
+                /* backpressure: wait until a file has been processed and its result handled */
+                permits.acquire();
+
+                synchronized (lock) {
+                    if (failure[0] != null) {
+                        permits.release();
+                        break;
+                    }
+                }
+
+                executor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        try {
+
+                            Result r = process(path);
+
+                            synchronized (lock) {
+
+                                if (failure[0] == null) {
+
+                                    if (r.getException() == null) {
+                                        successes[0]++;
+                                    }
+
+                                    handler.handle(r);
+
+                                }
+                            }
+
+                        } catch (IOException | RuntimeException e) {
+
+                            synchronized (lock) {
+                                if (failure[0] == null) {
+                                    failure[0] = e;
+                                }
+                            }
+
+                        } finally {
+
+                            permits.release();
+
+                        }
+                    }
+                });
+
+            }
+
+            /* wait for all files to be handled */
+            permits.acquire(parallelism);
+
+        } finally {
+
+            executor.shutdown();
+
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+        }
+
+        synchronized (lock) {
+
+            if (failure[0] instanceof IOException) {
+                throw (IOException) failure[0];
+            }
+
+            if (failure[0] != null) {
+                throw (RuntimeException) failure[0];
+            }
+
+            return successes[0];
+        }
+    }
+
+    /**
+     * Usage is specified at {@link #USAGE}
+     */
+    public static void main(String[] args) throws Exception {
+
+        boolean error = false;
+        TargetPartition selectedpartition = null;
+        Boolean isEssenceDescriptorOnly = null;
+        MetaDictionaryCollection mds = null;
+        FileReader labelreader = null;
+        Integer threads = null;
+        Long cachesize = null;
+        Path outdir = null;
+        ArrayList<Path> inputs = new ArrayList<>();
+
+        for (int i = 0; i < args.length;) {
+
+            if ("-?".equals(args[i])) {
+
+                error = true;
+                break;
+
+            } else if ("-ed".equals(args[i]) || "-all".equals(args[i])) {
+
+                if (isEssenceDescriptorOnly != null) {
+                    error = true;
+                    break;
+                }
+
+                isEssenceDescriptorOnly = "-ed".equals(args[i]);
+
+                i++;
+
+            } else if ("-footer".equals(args[i]) || "-auto".equals(args[i]) || "-header".equals(args[i])) {
+
+                if (selectedpartition != null) {
+                    error = true;
+                    break;
+                }
+
+                selectedpartition = TargetPartition.valueOf(args[i].substring(1).toUpperCase());
+
+                i++;
+
+            } else if ("-d".equals(args[i])) {
+
+                if (mds != null) {
+                    error = true;
+                    break;
+                }
+
+                i++;
+
+                mds = new MetaDictionaryCollection();
+
+                for (; i < args.length && args[i].charAt(0) != '-'; i++) {
+
+                    RegXMLDump.addDictionaries(mds, new File(args[i]));
+
+                }
+
+                if (mds.getDictionaries().isEmpty()) {
+                    error = true;
+                    break;
+                }
+
+            } else if ("-l".equals(args[i])) {
+
+                i++;
+
+                if (labelreader != null || i >= args.length) {
+                    error = true;
+                    break;
+                }
+
+                labelreader = new FileReader(args[i++]);
+
+            } else if ("-j".equals(args[i])) {
+
+                i++;
+
+                if (threads != null || i >= args.length) {
+                    error = true;
+                    break;
+                }
+
+                try {
+                    threads = Integer.parseInt(args[i++]);
+                } catch (NumberFormatException e) {
+                    error = true;
+                    break;
+                }
+
+                if (threads < 1) {
+                    error = true;
+                    break;
+                }
+
+            } else if ("-cache".equals(args[i])) {
+
+                i++;
+
+                if (cachesize != null || i >= args.length) {
+                    error = true;
+                    break;
+                }
+
+                try {
+                    cachesize = Long.parseLong(args[i++]);
+                } catch (NumberFormatException e) {
+                    error = true;
+                    break;
+                }
+
+                if (cachesize < 0) {
+                    error = true;
+                    break;
+                }
+
+            } else if ("-o".equals(args[i])) {
+
+                i++;
+
+                if (outdir != null || i >= args.length || args[i].charAt(0) == '-') {
+                    error = true;
+                    break;
+                }
+
+                outdir = Paths.get(args[i++]);
+
+            } else if ("-i".equals(args[i])) {
+
+                i++;
+
+                for (; i < args.length && args[i].charAt(0) != '-'; i++) {
+
+                    Path p = Paths.get(args[i]);
+
+                    if (Files.isDirectory(p)) {
+
+                        try (DirectoryStream<Path> ds = Files.newDirectoryStream(p, "*.mxf")) {
+                            for (Path mxf : ds) {
+                                inputs.add(mxf);
+                            }
+                        }
+
+                    } else {
+
+                        inputs.add(p);
+
+                    }
+
+                }
+
+            } else {
+
+                error = true;
+                break;
+
+            }
+
+        }
+
+        if (error || mds == null || outdir == null || inputs.isEmpty()) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        RegXMLBatch batch = new RegXMLBatch(
+            mds,
+            labelreader == null ? null : LabelsRegister.fromXML(labelreader, true),
+            threads == null ? Runtime.getRuntime().availableProcessors() : threads
+        );
+
+        batch.setEssenceDescriptorOnly(isEssenceDescriptorOnly != null && isEssenceDescriptorOnly);
+
+        batch.setPartition(selectedpartition == null ? TargetPartition.HEADER : selectedpartition);
+
+        if (cachesize != null) {
+
+            /* the dictionaries and labels register do not change during the batch */
+            batch.setRenderCache(new RenderCache(cachesize), "batch");
+
+        }
+
+        final Path dir = outdir;
+
+        int successes = batch.process(inputs, new ResultHandler() {
+
+            @Override
+            public void handle(Result result) throws IOException {
+
+                for (Event evt : result.getEvents()) {
+
+                    String msg = result.getPath() + ": " + evt.getCode().getClass().getCanonicalName() + "::" + evt.getCode().toString() + " " + evt.getMessage();
+
+                    switch (evt.getSeverity()) {
+                        case ERROR:
+                        case FATAL:
+                            LOG.severe(msg);
+                            break;
+                        case INFO:
+                            LOG.info(msg);
+                            break;
+                        case WARN:
+                            LOG.warning(msg);
+                            break;
+                    }
+                }
+
+                if (result.getException() != null) {
+
+                    LOG.severe(result.getPath() + ": " + result.getException().getMessage());
+
+                    return;
+                }
+
+                try (OutputStream os = Files.newOutputStream(dir.resolve(result.getPath().getFileName().toString() + ".xml"))) {
+
+                    RegXMLDump.write(result.getDocument(), os);
+
+                } catch (javax.xml.transform.TransformerException e) {
+
+                    throw new IOException(e);
+
+                }
+            }
+        });
+
+        LOG.info(String.format("%d of %d files processed successfully", successes, inputs.size()));
+
+    }
+}
@@ -25,30 +25,56 @@
  */
 package com.sandflow.smpte.tools;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FilenameFilter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import com.sandflow.smpte.mxf.MXFFiles;
 import com.sandflow.smpte.register.LabelsRegister;
+import com.sandflow.smpte.regxml.ExtractionStats;
 import com.sandflow.smpte.regxml.FragmentBuilder;
+import com.sandflow.smpte.regxml.HeaderMetadata;
 import com.sandflow.smpte.regxml.MXFFragmentBuilder;
+import com.sandflow.smpte.regxml.RenderCache;
+import com.sandflow.smpte.regxml.SidecarDataValueStore;
+import com.sandflow.smpte.regxml.dict.DefinitionResolver;
+import com.sandflow.smpte.regxml.dict.LazyDefinitionResolver;
 import com.sandflow.smpte.regxml.dict.MetaDictionary;
 import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import com.sandflow.smpte.regxml.dict.MetaDictionarySnapshot;
+import com.sandflow.smpte.regxml.sinks.DOMFragmentSink;
+import com.sandflow.smpte.regxml.sinks.XMLFragmentSink;
 import com.sandflow.smpte.util.AUID;
 import com.sandflow.smpte.util.UL;
 import com.sandflow.util.events.Event;
@@ -65,15 +91,15 @@ public class RegXMLDump {
 
     private final static Logger LOG = Logger.getLogger(RegXMLDump.class.getName());
 
-    private static final UL ESSENCE_DESCRIPTOR_KEY
+    static final UL ESSENCE_DESCRIPTOR_KEY
         = new UL(new byte[]{0x06, 0x0e, 0x2b, 0x34, 0x02, 0x01, 0x01, 0x01, 0x0D, 0x01, 0x01, 0x01, 0x01, 0x01, 0x24, 0x00});
 
-    private static final UL PREFACE_KEY
+    static final UL PREFACE_KEY
         = UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00");
 
     protected final static String USAGE = "Dump header metadata of an MXF file as a RegXML structure.\n"
         + "  Usage:\n"
-        + "     RegXMLDump ( -all | -ed ) ( -header | -footer | -auto ) (-l labelsregister) -d regxmldictionarydirorfile_1 ... regxmldictionarydirorfile_n -i mxffile\n"
+        + "     RegXMLDump ( -all | -ed ) ( -header | -footer | -auto ) (-l labelsregister) (-maxdatavalue length (-sidecars dir)) (-stream) (-compact) (-gzip) (-o outputfile) (-stats) (-lazy) -d regxmldictionarydirorfile_1 ... regxmldictionarydirorfile_n -i mxffile\n"
         + "     RegXMLDump -?\n"
         + "  Where:\n"
         + "     -all: dumps all header metadata (default)\n"
@@ -81,9 +107,20 @@ public class RegXMLDump {
         + "     -l labelsregister: given a SMPTE labels register, inserts the symbol of labels as XML comment\n"
         + "     -header: dumps metadata from the header partition (default)\n"
         + "     -footer: dumps metadata from the footer partition\n"
-        + "     -auto: dumps metadata from the footer partition if available and from the header if not\n";
+        + "     -auto: dumps metadata from the footer partition if available and from the header if not\n"
+        + "     -maxdatavalue length: writes at most length octets of DataValue properties inline, and truncates longer values\n"
+        + "     -sidecars dir: writes DataValue properties longer than the -maxdatavalue length to files in dir instead of truncating them\n"
+        + "     -stream: writes the RegXML structure as it is generated, declaring namespace prefixes on the first element that uses them\n"
+        + "     -compact: does not indent the RegXML structure\n"
+        + "     -gzip: compresses the output using gzip\n"
+        + "     -o outputfile: writes to outputfile instead of stdout\n"
+        + "     -stats: writes the time spent and octets processed in each phase of the extraction to stderr\n"
+        + "     -lazy: loads each XML dictionary only when one of its definitions is needed (dictionary snapshots are not supported)\n";
 
-    private enum TargetPartition {
+    /**
+     * Partition from which header metadata is dumped
+     */
+    public enum TargetPartition {
         HEADER,
         FOOTER,
         AUTO
@@ -97,10 +134,18 @@ public class RegXMLDump {
         boolean error = false;
         TargetPartition selectedpartition = null;
         Boolean isEssenceDescriptorOnly = null;
-        MetaDictionaryCollection mds = null;
+        ArrayList<File> dictpaths = null;
         SeekableByteChannel f = null;
         FileReader labelreader = null;
         Path p = null;
+        Integer maxdatavalue = null;
+        Path sidecardir = null;
+        boolean isStreaming = false;
+        boolean isCompact = false;
+        boolean isCompressed = false;
+        boolean isLazy = false;
+        Path outpath = null;
+        ExtractionStats stats = null;
 
         for (int i = 0; i < args.length;) {
 
@@ -167,69 +212,107 @@ public class RegXMLDump {
 
             } else if ("-d".equals(args[i])) {
 
-                if (mds != null) {
+                if (dictpaths != null) {
                     error = true;
                     break;
                 }
 
                 i++;
 
-                mds = new MetaDictionaryCollection();
+                dictpaths = new ArrayList<>();
 
                 for (; i < args.length && args[i].charAt(0) != '-'; i++) {
 
-                    File mdf = new File(args[i]);
-
-                    File mdfs[];
+                    dictpaths.add(new File(args[i]));
 
-                    if (mdf.isDirectory()) {
+                }
 
-                        mdfs = mdf.listFiles(
-                            new FilenameFilter(){
-                        
-                                @Override
-                                public boolean accept(File dir, String name) {
-                                    return name.endsWith(".xml");
-                                }
-                            }
-                        );
+            } else if ("-l".equals(args[i])) {
 
-                    } else {
+                if (labelreader != null) {
+                    error = true;
+                    break;
+                }
 
-                        mdfs = new File[] {mdf};
+                i++;
 
-                    }
+                labelreader = new FileReader(args[i]);
 
-                    for(int j = 0; j < mdfs.length; j++ ) {
+                i++;
 
-                        /* load the regxml metadictionary */
-                        FileReader fr = new FileReader(mdfs[j]);
+            } else if ("-maxdatavalue".equals(args[i])) {
 
-                        /* add it to the dictionary group */
-                        mds.addDictionary(MetaDictionary.fromXML(fr));
+                i++;
 
-                    }
+                if (maxdatavalue != null || i >= args.length) {
+                    error = true;
+                    break;
+                }
 
+                try {
+                    maxdatavalue = Integer.parseInt(args[i++]);
+                } catch (NumberFormatException e) {
+                    error = true;
+                    break;
                 }
 
-                if (mds.getDictionaries().isEmpty()) {
+                if (maxdatavalue < 0) {
                     error = true;
                     break;
                 }
 
-            } else if ("-l".equals(args[i])) {
+            } else if ("-sidecars".equals(args[i])) {
 
-                if (labelreader != null) {
+                i++;
+
+                if (sidecardir != null || i >= args.length || args[i].charAt(0) == '-') {
                     error = true;
                     break;
                 }
 
+                sidecardir = Paths.get(args[i++]);
+
+            } else if ("-stream".equals(args[i])) {
+
+                isStreaming = true;
+
                 i++;
 
-                labelreader = new FileReader(args[i]);
+            } else if ("-compact".equals(args[i])) {
+
+                isCompact = true;
+
+                i++;
+
+            } else if ("-lazy".equals(args[i])) {
+
+                isLazy = true;
+
+                i++;
+
+            } else if ("-stats".equals(args[i])) {
+
+                stats = new ExtractionStats();
+
+                i++;
+
+            } else if ("-gzip".equals(args[i])) {
+
+                isCompressed = true;
 
                 i++;
 
+            } else if ("-o".equals(args[i])) {
+
+                i++;
+
+                if (outpath != null || i >= args.length || args[i].charAt(0) == '-') {
+                    error = true;
+                    break;
+                }
+
+                outpath = Paths.get(args[i++]);
+
             } else if ("-i".equals(args[i])) {
 
                 i++;
@@ -268,40 +351,286 @@ public class RegXMLDump {
             isEssenceDescriptorOnly = false;
         }
 
-        if (error || f == null || mds == null || p == null) {
+        DefinitionResolver defresolver = null;
+
+        if (!error && dictpaths != null) {
+
+            if (isLazy) {
+
+                ArrayList<Path> dictfiles = new ArrayList<>();
+
+                /* dictionaries take precedence in the order of the command line */
+                for (File mdf : dictpaths) {
+
+                    if (mdf.isDirectory()) {
+
+                        ArrayList<Path> xmlfiles = new ArrayList<>();
+
+                        for (File xmlf : mdf.listFiles()) {
+                            if (xmlf.getName().endsWith(".xml")) {
+                                xmlfiles.add(xmlf.toPath());
+                            }
+                        }
+
+                        Collections.sort(xmlfiles);
+
+                        dictfiles.addAll(xmlfiles);
+
+                    } else if (MetaDictionarySnapshot.isSnapshot(mdf.toPath())) {
+
+                        /* snapshots are read in full and quickly, and are not scanned */
+                        LOG.severe("Dictionary snapshots cannot be loaded lazily: " + mdf);
+
+                        error = true;
+
+                        break;
+
+                    } else {
+
+                        dictfiles.add(mdf.toPath());
+
+                    }
+                }
+
+                if (!error && !dictfiles.isEmpty()) {
+                    defresolver = new LazyDefinitionResolver(dictfiles);
+                }
+
+            } else {
+
+                MetaDictionaryCollection mds = new MetaDictionaryCollection();
+
+                for (File mdf : dictpaths) {
+                    addDictionaries(mds, mdf);
+                }
+
+                if (!mds.getDictionaries().isEmpty()) {
+                    defresolver = mds;
+                }
+
+            }
+        }
+
+        if (error || f == null || defresolver == null || p == null || (sidecardir != null && maxdatavalue == null)) {
             System.out.println(USAGE);
             return;
         }
 
         /* create an enum name resolver, if available */
-        final LabelsRegister lr;
+        FragmentBuilder.AUIDNameResolver anr = null;
 
         if (labelreader != null) {
 
-            lr = LabelsRegister.fromXML(labelreader);
+            anr = createNameResolver(LabelsRegister.fromXML(labelreader, true));
+
+        }
+
+        UL root = isEssenceDescriptorOnly ? ESSENCE_DESCRIPTOR_KEY : PREFACE_KEY;
+
+        FragmentBuilder.DataValuePolicy dvpolicy = FragmentBuilder.DataValuePolicy.INLINE;
+
+        if (maxdatavalue != null) {
+
+            dvpolicy = new FragmentBuilder.DataValuePolicy(
+                maxdatavalue,
+                sidecardir == null ? null : new SidecarDataValueStore(sidecardir, p.getFileName().toString() + ".")
+            );
+
+        }
+
+        EventHandler evthandler = new EventHandler() {
+
+            @Override
+            public boolean handle(Event evt) {
+                String msg = evt.getCode().getClass().getCanonicalName() + "::" + evt.getCode().toString() + " " + evt.getMessage();
+
+                switch (evt.getSeverity()) {
+                    case ERROR:
+                    case FATAL:
+                        LOG.severe(msg);
+                        break;
+                    case INFO:
+                        LOG.info(msg);
+                        break;
+                    case WARN:
+                        LOG.warning(msg);
+                        break;
+                }
+                return true;
+            }
+        };
+
+        if (isStreaming) {
+
+            /* write the fragment as it is generated, once the header metadata has been read */
+            final Path fOutpath = outpath;
+            final boolean fIsCompressed = isCompressed;
+            final ExtractionStats fStats = stats;
+
+            dump(f, p.getFileName().toString(), defresolver, anr, evthandler, root, selectedpartition, dvpolicy,
+                new Supplier<Writer>() {
+
+                    @Override
+                    public Writer get() {
+                        try {
+                            return new OutputStreamWriter(new CountingOutputStream(openOutput(fOutpath, fIsCompressed), fStats), StandardCharsets.UTF_8);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                },
+                isCompact ? null : "  ",
+                stats
+            );
 
         } else {
 
-            lr = null;
+            Document doc = dump(f, p.getFileName().toString(), defresolver, anr, evthandler, root, selectedpartition, dvpolicy, stats);
+
+            long start = System.nanoTime();
+
+            /* write DOM to file */
+            try (OutputStream os = new CountingOutputStream(openOutput(outpath, isCompressed), stats)) {
+                write(doc, os, !isCompact);
+            }
+
+            if (stats != null) {
+                stats.add(ExtractionStats.Phase.SERIALIZATION, System.nanoTime() - start, 0);
+            }
 
         }
 
-        FragmentBuilder.AUIDNameResolver anr = null;
+        if (stats != null) {
+            System.err.print(stats.toString());
+        }
+
+    }
 
-        if (lr != null) {
+    /**
+     * Adds to a collection the RegXML metadictionaries contained in a file or,
+     * if a directory, in its .xml files. A file can also be a
+     * {@link MetaDictionarySnapshot}.
+     */
+    static void addDictionaries(MetaDictionaryCollection mds, File mdf) throws Exception {
 
-            anr = new FragmentBuilder.AUIDNameResolver() {
+        if (mdf.isDirectory()) {
 
-                @Override
-                public String getLocalName(AUID enumid) {
-                    LabelsRegister.Entry e = lr.getEntryByUL(enumid.asUL());
+            /* parses the files concurrently */
+            MetaDictionaryCollection dirmds = MetaDictionaryCollection.loadAll(
+                mdf.toPath(),
+                ForkJoinPool.commonPool(),
+                new EventHandler() {
 
-                    return e == null ? null : e.getSymbol();
+                    @Override
+                    public boolean handle(Event evt) {
+
+                        LOG.warning(evt.getMessage());
+
+                        return true;
+                    }
                 }
+            );
+
+            for (MetaDictionary md : dirmds.getDictionaries()) {
+                mds.addDictionary(md);
+            }
+
+        } else if (MetaDictionarySnapshot.isSnapshot(mdf.toPath())) {
+
+            for (MetaDictionary md : MetaDictionarySnapshot.read(mdf.toPath())) {
+                mds.addDictionary(md);
+            }
+
+        } else {
+
+            /* load the regxml metadictionary */
+            FileReader fr = new FileReader(mdf);
+
+            /* add it to the dictionary group */
+            mds.addDictionary(MetaDictionary.fromXML(fr));
 
-            };
         }
 
+    }
+
+    /**
+     * Creates a resolver that inserts the symbol of labels as XML comments
+     */
+    static FragmentBuilder.AUIDNameResolver createNameResolver(final LabelsRegister lr) {
+
+        return new FragmentBuilder.AUIDNameResolver() {
+
+            @Override
+            public String getLocalName(AUID enumid) {
+                LabelsRegister.Entry e = lr.getEntryByUL(enumid.asUL());
+
+                return e == null ? null : e.getSymbol();
+            }
+
+        };
+    }
+
+    /**
+     * Creates a RegXML document from the header metadata of an MXF file
+     *
+     * @param f MXF file
+     * @param filename Name of the MXF file, which is written as a comment
+     * @param defresolver MetaDictionary definitions
+     * @param anr Resolves the symbol of labels. May be null.
+     * @param evthandler Calls back the caller when an event occurs
+     * @param root Root class of the Fragment
+     * @param selectedpartition Partition from which the header metadata is read
+     * @param dvpolicy Specifies how DataValue properties are written
+     * @param stats Statistics to which the extraction is added. May be null.
+     * @return RegXML document
+     * @throws Exception
+     */
+    static Document dump(
+        SeekableByteChannel f,
+        String filename,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver anr,
+        EventHandler evthandler,
+        UL root,
+        TargetPartition selectedpartition,
+        FragmentBuilder.DataValuePolicy dvpolicy,
+        ExtractionStats stats) throws Exception {
+
+        return dump(f, filename, defresolver, anr, evthandler, root, selectedpartition, dvpolicy, stats, null, null);
+    }
+
+    /**
+     * Creates a RegXML document from the header metadata of an MXF file,
+     * reusing the rendering of Sets already rendered, e.g. from other MXF files
+     *
+     * @param f MXF file
+     * @param filename Name of the MXF file, which is written as a comment
+     * @param defresolver MetaDictionary definitions
+     * @param anr Resolves the symbol of labels. May be null.
+     * @param evthandler Calls back the caller when an event occurs
+     * @param root Root class of the Fragment
+     * @param selectedpartition Partition from which the header metadata is read
+     * @param dvpolicy Specifies how DataValue properties are written
+     * @param stats Statistics to which the extraction is added. May be null.
+     * @param cache Render cache. May be null.
+     * @param dictversion Identifies defresolver and anr. Must not be null if
+     * cache is not null.
+     * @return RegXML document
+     * @throws Exception
+     */
+    static Document dump(
+        SeekableByteChannel f,
+        String filename,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver anr,
+        EventHandler evthandler,
+        UL root,
+        TargetPartition selectedpartition,
+        FragmentBuilder.DataValuePolicy dvpolicy,
+        ExtractionStats stats,
+        RenderCache cache,
+        String dictversion) throws Exception {
+
         /* create DOM */
         DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
         DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
@@ -309,8 +638,6 @@ public class RegXMLDump {
 
         doc.setXmlStandalone(true);
 
-        UL root = isEssenceDescriptorOnly ? ESSENCE_DESCRIPTOR_KEY : PREFACE_KEY;
-
         DocumentFragment df = null;
 
         TargetPartition actualpartition
@@ -327,50 +654,15 @@ public class RegXMLDump {
 
             try {
 
-                switch (actualpartition) {
-                    case FOOTER:
-
-                        if (MXFFiles.seekFooterPartition(f) < 0) {
-                            throw new Exception("Footer partition not found");
-                        }
-
-                        break;
-
-                    case HEADER:
-
-                        if (MXFFiles.seekHeaderPartition(f) < 0) {
-                            throw new Exception("Header partition not found");
-                        }
-
-                        break;
-
-                }
+                seekPartition(f, actualpartition, stats);
 
                 InputStream is = Channels.newInputStream(f);
 
-                EventHandler evthandler = new EventHandler() {
+                DOMFragmentSink sink = new DOMFragmentSink(doc);
 
-                    @Override
-                    public boolean handle(Event evt) {
-                        String msg = evt.getCode().getClass().getCanonicalName() + "::" + evt.getCode().toString() + " " + evt.getMessage();
-
-                        switch (evt.getSeverity()) {
-                            case ERROR:
-                            case FATAL:
-                                LOG.severe(msg);
-                                break;
-                            case INFO:
-                                LOG.info(msg);
-                                break;
-                            case WARN:
-                                LOG.warning(msg);
-                                break;
-                        }
-                        return true;
-                    }
-                };
+                MXFFragmentBuilder.fromInputStream(is, defresolver, anr, evthandler, root, sink, null, dvpolicy, stats, cache, dictversion);
 
-                df = MXFFragmentBuilder.fromInputStream(is, mds, anr, evthandler, root, doc);
+                df = sink.getFragment();
 
             } catch (Exception e) {
 
@@ -398,26 +690,309 @@ public class RegXMLDump {
 
         }
 
+        appendFragment(doc, df, filename, actualpartition.name());
+
+        return doc;
+    }
+
+    /**
+     * Writes a RegXML document from the header metadata of an MXF file as it
+     * is generated. The document is written only if the header metadata can
+     * be read from the selected partition.
+     *
+     * @param f MXF file
+     * @param filename Name of the MXF file, which is written as a comment
+     * @param defresolver MetaDictionary definitions
+     * @param anr Resolves the symbol of labels. May be null.
+     * @param evthandler Calls back the caller when an event occurs
+     * @param root Root class of the Fragment
+     * @param selectedpartition Partition from which the header metadata is read
+     * @param dvpolicy Specifies how DataValue properties are written
+     * @param out Supplies the Writer to which the document is written, which
+     * is closed when the document is complete
+     * @param indent Indentation of nested elements, or null if the document is
+     * not indented
+     * @param stats Statistics to which the extraction is added. Serialization
+     * is interleaved with, and its time included in, rendering. May be null.
+     * @throws Exception
+     */
+    static void dump(
+        SeekableByteChannel f,
+        String filename,
+        DefinitionResolver defresolver,
+        FragmentBuilder.AUIDNameResolver anr,
+        EventHandler evthandler,
+        UL root,
+        TargetPartition selectedpartition,
+        FragmentBuilder.DataValuePolicy dvpolicy,
+        Supplier<Writer> out,
+        String indent,
+        ExtractionStats stats) throws Exception {
+
+        HeaderMetadata hm = null;
+
+        TargetPartition actualpartition
+            = TargetPartition.AUTO.equals(selectedpartition)
+                ? TargetPartition.FOOTER : selectedpartition;
+
+        /*
+         if selectedpartition is AUTO, then try FOOTER first and then HEADER 
+         if the header metadata of the FOOTER cannot be read or does not
+         contain the root object
+         */
+        while (hm == null) {
+
+            try {
+
+                seekPartition(f, actualpartition, stats);
+
+                hm = HeaderMetadata.fromInputStream(Channels.newInputStream(f), evthandler, stats);
+
+                if (TargetPartition.AUTO.equals(selectedpartition)
+                    && TargetPartition.FOOTER.equals(actualpartition)
+                    && hm.getFirstInstanceOf(defresolver, root) == null) {
+                    throw new Exception("Root object not found in footer partition");
+                }
+
+            } catch (Exception e) {
+
+                if (TargetPartition.AUTO.equals(selectedpartition) && TargetPartition.FOOTER.equals(actualpartition)) {
+
+                    actualpartition = TargetPartition.HEADER;
+
+                    hm = null;
+
+                    f.position(0);
+
+                } else {
+
+                    LOG.severe(e.getMessage());
+
+                    throw e;
+                }
+
+            }
+
+        }
+
+        /* declare the namespaces of the dictionaries on the root element */
+        ArrayList<URI> namespaces = new ArrayList<>();
+
+        if (defresolver instanceof LazyDefinitionResolver) {
+
+            namespaces.addAll(((LazyDefinitionResolver) defresolver).getNamespaces());
+
+        } else if (defresolver instanceof MetaDictionaryCollection) {
+
+            for (MetaDictionary md : ((MetaDictionaryCollection) defresolver).getDictionaries()) {
+                namespaces.add(md.getSchemeURI());
+            }
+
+        }
+
+        namespaces.add(URI.create(FragmentBuilder.REGXML_NS));
+
+        Collections.sort(namespaces);
+
+        try (Writer w = new BufferedWriter(out.get(), 65536)) {
+
+            w.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+
+            w.write("<!--Created: " + new java.util.Date().toString() + "-->");
+            w.write("<!--From: " + filename + "-->");
+            w.write("<!--Partition: " + actualpartition.name() + "-->");
+            w.write("<!--By: regxmllib build " + BuildVersionSingleton.getBuildVersion() + "-->");
+            w.write("<!--See: https://github.com/sandflow/regxmllib-->");
+
+            MXFFragmentBuilder.fromHeaderMetadata(hm, defresolver, anr, evthandler, root, new XMLFragmentSink(w, indent, namespaces), null, dvpolicy, stats);
+
+            if (indent != null) {
+                w.write('\n');
+            }
+        }
+
+    }
+
+    /**
+     * Positions the MXF file at the start of a partition
+     */
+    private static void seekPartition(SeekableByteChannel f, TargetPartition partition, ExtractionStats stats) throws Exception {
+
+        long start = stats == null ? 0 : System.nanoTime();
+
+        if (TargetPartition.FOOTER.equals(partition)) {
+
+            if (MXFFiles.seekFooterPartition(f) < 0) {
+                throw new Exception("Footer partition not found");
+            }
+
+        } else if (MXFFiles.seekHeaderPartition(f) < 0) {
+
+            throw new Exception("Header partition not found");
+
+        }
+
+        if (stats != null) {
+            stats.add(ExtractionStats.Phase.PARTITION_SEEK, System.nanoTime() - start, f.position());
+        }
+    }
+
+    /**
+     * Counts the octets written as part of the serialization phase
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private final ExtractionStats stats;
+
+        CountingOutputStream(OutputStream os, ExtractionStats stats) {
+            super(os);
+            this.stats = stats;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+
+            out.write(b);
+
+            if (stats != null) {
+                stats.add(ExtractionStats.Phase.SERIALIZATION, 0, 1);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+
+            out.write(b, off, len);
+
+            if (stats != null) {
+                stats.add(ExtractionStats.Phase.SERIALIZATION, 0, len);
+            }
+        }
+    }
+
+    /**
+     * Creates a RegXML document from a single MXF partition, e.g. a partition
+     * uploaded to {@link RegXMLServer}
+     *
+     * @param partition MXF partition, starting with the Partition Pack
+     * @param filename Name of the partition, which is written as a comment
+     * @param mds MetaDictionary definitions
+     * @param anr Resolves the symbol of labels. May be null.
+     * @param evthandler Calls back the caller when an event occurs
+     * @param root Root class of the Fragment
+     * @param dvpolicy Specifies how DataValue properties are written
+     * @param cache Render cache. May be null.
+     * @param dictversion Identifies mds and anr. Must not be null if cache is
+     * not null.
+     * @return RegXML document
+     * @throws Exception
+     */
+    static Document dump(
+        InputStream partition,
+        String filename,
+        MetaDictionaryCollection mds,
+        FragmentBuilder.AUIDNameResolver anr,
+        EventHandler evthandler,
+        UL root,
+        FragmentBuilder.DataValuePolicy dvpolicy,
+        RenderCache cache,
+        String dictversion) throws Exception {
+
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+
+        doc.setXmlStandalone(true);
+
+        DOMFragmentSink sink = new DOMFragmentSink(doc);
+
+        MXFFragmentBuilder.fromInputStream(partition, mds, anr, evthandler, root, sink, null, dvpolicy, null, cache, dictversion);
+
+        appendFragment(doc, sink.getFragment(), filename, null);
+
+        return doc;
+    }
+
+    private static void appendFragment(Document doc, DocumentFragment df, String filename, String partition) {
+
         /* date and build version */
         Date now = new java.util.Date();
         doc.appendChild(doc.createComment("Created: " + now.toString()));
-        doc.appendChild(doc.createComment("From: " + p.getFileName().toString()));
-        doc.appendChild(doc.createComment("Partition: " + actualpartition.name()));
+        doc.appendChild(doc.createComment("From: " + filename));
+
+        if (partition != null) {
+            doc.appendChild(doc.createComment("Partition: " + partition));
+        }
+
         doc.appendChild(doc.createComment("By: regxmllib build " + BuildVersionSingleton.getBuildVersion()));
         doc.appendChild(doc.createComment("See: https://github.com/sandflow/regxmllib"));
 
         /* add regxml fragment */
         doc.appendChild(df);
+    }
+
+    /**
+     * Opens the output of the tool
+     *
+     * @param outpath File to which the output is written through a channel,
+     * or stdout if null
+     * @param isCompressed True if the output is compressed using gzip
+     */
+    static OutputStream openOutput(Path outpath, boolean isCompressed) throws IOException {
+
+        OutputStream os;
+
+        if (outpath == null) {
+
+            /* stdout is flushed but not closed */
+            os = new FilterOutputStream(System.out) {
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+
+        } else {
+
+            os = Channels.newOutputStream(
+                FileChannel.open(outpath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)
+            );
+
+        }
+
+        return isCompressed ? new GZIPOutputStream(os, 65536) : new BufferedOutputStream(os, 65536);
+    }
+
+    /**
+     * Writes an indented RegXML document
+     */
+    static void write(Document doc, OutputStream os) throws TransformerException {
+        write(doc, os, true);
+    }
+
+    /**
+     * Writes a RegXML document
+     *
+     * @param doc RegXML document
+     * @param os Stream to which the document is written
+     * @param indent True if the document is indented
+     */
+    static void write(Document doc, OutputStream os, boolean indent) throws TransformerException {
 
-        /* write DOM to file */
         Transformer tr = TransformerFactory.newInstance().newTransformer();
 
-        tr.setOutputProperty(OutputKeys.INDENT, "yes");
-        tr.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+        if (indent) {
+            tr.setOutputProperty(OutputKeys.INDENT, "yes");
+            tr.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+        }
 
         tr.transform(
             new DOMSource(doc),
-            new StreamResult(System.out)
+            new StreamResult(os)
         );
 
     }
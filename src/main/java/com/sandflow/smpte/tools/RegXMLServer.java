@@ -0,0 +1,702 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.tools;
+
+import com.sandflow.smpte.register.LabelsRegister;
+import com.sandflow.smpte.regxml.FragmentBuilder;
+import com.sandflow.smpte.regxml.RenderCache;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryHolder;
+import com.sandflow.smpte.tools.RegXMLDump.TargetPartition;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.util.events.Event;
+import com.sandflow.util.events.EventHandler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.w3c.dom.Document;
+
+/**
+ * Long-running HTTP service that dumps the header metadata of MXF files as
+ * RegXML structures, using dictionaries and a labels register that are loaded
+ * once. The service is built on the JDK HTTP server and exposes the following
+ * endpoints:
+ * <ul>
+ * <li>GET /regxml?path=mxffile: dumps an MXF file accessible to the service</li>
+ * <li>POST /regxml: dumps the MXF partition contained in the request body</li>
+ * <li>GET /health: returns 200 if the service is running</li>
+ * <li>GET /metrics: returns request counters, one per line</li>
+ * <li>POST /reload: reloads the dictionaries, if a loader is set</li>
+ * </ul>
+ * The /regxml endpoint accepts the optional query parameters
+ * mode=(all|ed) and, for files only, partition=(header|footer|auto).
+ *
+ * Dictionaries can be replaced while the service runs (see
+ * {@link MetaDictionaryHolder}): requests in progress complete with the
+ * dictionaries they started with.
+ */
+public class RegXMLServer {
+
+    private final static Logger LOG = Logger.getLogger(RegXMLServer.class.getName());
+
+    protected final static String USAGE = "Serves header metadata of MXF files as RegXML structures over HTTP.\n"
+        + "  Usage:\n"
+        + "     RegXMLServer (-l labelsregister) (-port port) (-bind address) (-j threads) (-root dir) (-cache size) -d regxmldictionarydirorfile_1 ... regxmldictionarydirorfile_n\n"
+        + "     RegXMLServer -?\n"
+        + "  Where:\n"
+        + "     -l labelsregister: given a SMPTE labels register, inserts the symbol of labels as XML comment\n"
+        + "     -port port: port on which the service listens (default: 8080)\n"
+        + "     -bind address: address on which the service listens (default: 127.0.0.1)\n"
+        + "     -j threads: number of requests processed concurrently (default: number of processors)\n"
+        + "     -root dir: only files within dir can be requested (default: no file can be requested, only uploaded)\n"
+        + "     -cache size: reuses the rendering of Sets found in several files, keeping at most size characters of rendered Sets\n"
+        + "  The dictionaries are reloaded from the same paths on POST /reload, which is accepted from the local host only\n";
+
+    private final MetaDictionaryHolder dictionaries;
+    private volatile Callable<MetaDictionaryCollection> loader;
+    private volatile RenderCache rendercache;
+    private final FragmentBuilder.AUIDNameResolver anr;
+    private final Path root;
+    private final long startTime = System.currentTimeMillis();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong inflight = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong latency = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param mds MetaDictionary definitions, shared by all requests. Must not
+     * be null.
+     * @param lr Labels register used to insert the symbol of labels as XML
+     * comments. May be null.
+     * @param root Only files within this directory can be requested. No file
+     * can be requested if null, and partitions must be uploaded instead.
+     */
+    public RegXMLServer(MetaDictionaryCollection mds, LabelsRegister lr, Path root) {
+        this(new MetaDictionaryHolder(mds), lr, root);
+    }
+
+    /**
+     * @param dictionaries Current MetaDictionary definitions, retrieved at the
+     * start of each request. Must not be null.
+     * @param lr Labels register used to insert the symbol of labels as XML
+     * comments. May be null.
+     * @param root Only files within this directory can be requested. No file
+     * can be requested if null, and partitions must be uploaded instead.
+     */
+    public RegXMLServer(MetaDictionaryHolder dictionaries, LabelsRegister lr, Path root) {
+
+        if (dictionaries == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.dictionaries = dictionaries;
+        this.anr = lr == null ? null : RegXMLDump.createNameResolver(lr);
+        this.root = root == null ? null : root.toAbsolutePath().normalize();
+    }
+
+    /**
+     * @param loader Builds new dictionaries when POST /reload is requested from
+     * the local host, or null if reloading is not supported (default)
+     */
+    public void setDictionaryLoader(Callable<MetaDictionaryCollection> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Sets the cache used to reuse the rendering of Sets across requests. The
+     * rendering of Sets is not reused across versions of the dictionaries.
+     * The cache must not be shared with other servers.
+     *
+     * @param cache Render cache, or null to disable caching (default).
+     */
+    public void setRenderCache(RenderCache cache) {
+        this.rendercache = cache;
+    }
+
+    /**
+     * @return Current MetaDictionary definitions
+     */
+    public MetaDictionaryHolder getDictionaries() {
+        return dictionaries;
+    }
+
+    /**
+     * Starts the service
+     *
+     * @param address Address on which the service listens
+     * @param threads Number of requests processed concurrently
+     * @throws IOException
+     */
+    public synchronized void start(InetSocketAddress address, int threads) throws IOException {
+
+        if (server != null || threads < 1) {
+            throw new IllegalStateException();
+        }
+
+        server = HttpServer.create(address, 0);
+
+        server.createContext("/regxml", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange he) throws IOException {
+                handleRegXML(he);
+            }
+        });
+
+        server.createContext("/health", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange he) throws IOException {
+                respond(he, 200, "OK\n");
+            }
+        });
+
+        server.createContext("/metrics", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange he) throws IOException {
+                respond(he, 200, getMetrics());
+            }
+        });
+
+        server.createContext("/reload", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange he) throws IOException {
+                handleReload(he);
+            }
+        });
+
+        executor = Executors.newFixedThreadPool(threads);
+
+        server.setExecutor(executor);
+
+        server.start();
+    }
+
+    /**
+     * Stops the service
+     *
+     * @param delay Maximum time, in seconds, to wait for requests to complete
+     */
+    public synchronized void stop(int delay) {
+
+        if (server != null) {
+
+            server.stop(delay);
+
+            executor.shutdown();
+
+            server = null;
+        }
+    }
+
+    /**
+     * @return Address on which the service listens, or null if not started
+     */
+    public synchronized InetSocketAddress getAddress() {
+        return server == null ? null : server.getAddress();
+    }
+
+    /**
+     * @return Counters, one "name value" pair per line
+     */
+    public String getMetrics() {
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("uptime_ms ").append(System.currentTimeMillis() - startTime).append('\n');
+        MetaDictionaryHolder.Version version = dictionaries.get();
+
+        sb.append("dictionaries ").append(version.getDictionaries().getDictionaries().size()).append('\n');
+        sb.append("dictionaries_version ").append(version.getVersion()).append('\n');
+        sb.append("reloads ").append(reloads.get()).append('\n');
+        sb.append("requests ").append(requests.get()).append('\n');
+        sb.append("failures ").append(failures.get()).append('\n');
+        sb.append("inflight ").append(inflight.get()).append('\n');
+        sb.append("events ").append(events.get()).append('\n');
+        sb.append("bytes_in ").append(bytesIn.get()).append('\n');
+        sb.append("latency_ms_total ").append(latency.get()).append('\n');
+
+        return sb.toString();
+    }
+
+    private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+
+        HashMap<String, String> params = new HashMap<>();
+
+        if (query != null) {
+
+            for (String param : query.split("&")) {
+
+                int sep = param.indexOf('=');
+
+                if (sep < 0) {
+                    params.put(URLDecoder.decode(param, "UTF-8"), "");
+                } else {
+                    params.put(URLDecoder.decode(param.substring(0, sep), "UTF-8"), URLDecoder.decode(param.substring(sep + 1), "UTF-8"));
+                }
+            }
+        }
+
+        return params;
+    }
+
+    private static void respond(HttpExchange he, int status, String msg) throws IOException {
+
+        byte[] body = msg.getBytes(StandardCharsets.UTF_8);
+
+        he.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+
+        he.sendResponseHeaders(status, body.length);
+
+        try (OutputStream os = he.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    /* counts the failure before the client receives the response */
+    private void fail(HttpExchange he, int status, String msg) throws IOException {
+
+        failures.incrementAndGet();
+
+        respond(he, status, msg);
+    }
+
+    /**
+     * Counts the octets read from the request body
+     */
+    private class CountingStream extends InputStream {
+
+        private final InputStream is;
+
+        CountingStream(InputStream is) {
+            this.is = is;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            int b = is.read();
+
+            if (b >= 0) {
+                bytesIn.incrementAndGet();
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            int sz = is.read(b, off, len);
+
+            if (sz > 0) {
+                bytesIn.addAndGet(sz);
+            }
+
+            return sz;
+        }
+    }
+
+    private void handleReload(HttpExchange he) throws IOException {
+
+        try {
+
+            Callable<MetaDictionaryCollection> l = loader;
+
+            if (!"POST".equals(he.getRequestMethod())) {
+                respond(he, 405, "Method not allowed\n");
+                return;
+            }
+
+            if (l == null) {
+                respond(he, 404, "Reloading not supported\n");
+                return;
+            }
+
+            /* reloading is an administrative operation */
+            if (!he.getRemoteAddress().getAddress().isLoopbackAddress()) {
+                respond(he, 403, "Forbidden\n");
+                return;
+            }
+
+            /* the current dictionaries remain in use while the new ones are loaded */
+            MetaDictionaryHolder.Version version;
+
+            try {
+
+                version = dictionaries.publish(l.call());
+
+            } catch (Exception e) {
+
+                LOG.log(Level.WARNING, "Reload failed", e);
+
+                respond(he, 500, "Reload failed\n");
+
+                return;
+            }
+
+            reloads.incrementAndGet();
+
+            LOG.info("Dictionaries reloaded, version " + version.getVersion());
+
+            respond(he, 200, "dictionaries_version " + version.getVersion() + "\n");
+
+        } finally {
+
+            he.close();
+
+        }
+    }
+
+    private void handleRegXML(HttpExchange he) throws IOException {
+
+        long start = System.currentTimeMillis();
+
+        /* used for the whole request, even if the dictionaries are reloaded meanwhile */
+        MetaDictionaryHolder.Version version = dictionaries.get();
+
+        MetaDictionaryCollection mds = version.getDictionaries();
+
+        RenderCache cache = rendercache;
+
+        String dictversion = "v" + version.getVersion();
+
+        requests.incrementAndGet();
+
+        inflight.incrementAndGet();
+
+        int status = 500;
+
+        /* once sent, the response can no longer be replaced by an error */
+        boolean committed = false;
+
+        try {
+
+            Map<String, String> params = parseQuery(he.getRequestURI().getRawQuery());
+
+            String mode = params.get("mode");
+
+            UL rootkey;
+
+            if (mode == null || "all".equals(mode)) {
+                rootkey = RegXMLDump.PREFACE_KEY;
+            } else if ("ed".equals(mode)) {
+                rootkey = RegXMLDump.ESSENCE_DESCRIPTOR_KEY;
+            } else {
+                status = 400;
+                fail(he, status, "Unknown mode: " + mode + "\n");
+                return;
+            }
+
+            EventHandler evthandler = new EventHandler() {
+
+                @Override
+                public boolean handle(Event evt) {
+
+                    events.incrementAndGet();
+
+                    LOG.fine(evt.getCode().getClass().getCanonicalName() + "::" + evt.getCode().toString() + " " + evt.getMessage());
+
+                    return true;
+                }
+            };
+
+            Document doc;
+
+            if ("GET".equals(he.getRequestMethod())) {
+
+                String path = params.get("path");
+
+                TargetPartition partition = TargetPartition.HEADER;
+
+                if (params.get("partition") != null) {
+
+                    try {
+                        partition = TargetPartition.valueOf(params.get("partition").toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        status = 400;
+                        fail(he, status, "Unknown partition: " + params.get("partition") + "\n");
+                        return;
+                    }
+                }
+
+                if (path == null) {
+                    status = 400;
+                    fail(he, status, "Missing path parameter\n");
+                    return;
+                }
+
+                if (root == null) {
+                    status = 403;
+                    fail(he, status, "Files cannot be requested, upload the partition instead\n");
+                    return;
+                }
+
+                Path p = Paths.get(path).toAbsolutePath().normalize();
+
+                boolean inside;
+
+                try {
+
+                    /* resolves symbolic links, which could otherwise point outside of the root directory */
+                    p = p.toRealPath();
+
+                    inside = p.startsWith(root.toRealPath());
+
+                } catch (NoSuchFileException e) {
+
+                    /* missing files are reported as such only within the root directory */
+                    inside = p.startsWith(root);
+
+                }
+
+                if (!inside) {
+                    status = 403;
+                    fail(he, status, "Path outside of root directory\n");
+                    return;
+                }
+
+                try (SeekableByteChannel f = Files.newByteChannel(p)) {
+
+                    doc = RegXMLDump.dump(f, p.getFileName().toString(), mds, anr, evthandler, rootkey, partition, FragmentBuilder.DataValuePolicy.INLINE, null, cache, dictversion);
+
+                } catch (NoSuchFileException e) {
+
+                    status = 404;
+                    fail(he, status, "File not found: " + path + "\n");
+                    return;
+
+                }
+
+            } else if ("POST".equals(he.getRequestMethod())) {
+
+                doc = RegXMLDump.dump(new CountingStream(he.getRequestBody()), "upload", mds, anr, evthandler, rootkey, FragmentBuilder.DataValuePolicy.INLINE, cache, dictversion);
+
+            } else {
+
+                status = 405;
+                fail(he, status, "Method not allowed\n");
+                return;
+
+            }
+
+            status = 200;
+
+            he.getResponseHeaders().set("Content-Type", "application/xml");
+
+            he.sendResponseHeaders(status, 0);
+
+            committed = true;
+
+            try (OutputStream os = he.getResponseBody()) {
+                RegXMLDump.write(doc, os);
+            }
+
+        } catch (Exception e) {
+
+            LOG.log(Level.WARNING, "Extraction failed", e);
+
+            if (committed) {
+
+                /* the client sees a truncated response when the exchange is closed */
+                failures.incrementAndGet();
+
+            } else {
+
+                fail(he, status, "Extraction failed\n");
+
+            }
+
+        } finally {
+
+            inflight.decrementAndGet();
+
+            latency.addAndGet(System.currentTimeMillis() - start);
+
+            he.close();
+
+        }
+    }
+
+    /**
+     * Usage is specified at {@link #USAGE}
+     */
+    public static void main(String[] args) throws Exception {
+
+        boolean error = false;
+        MetaDictionaryCollection mds = null;
+        final List<File> dictpaths = new ArrayList<>();
+        FileReader labelreader = null;
+        int port = 8080;
+        String bind = "127.0.0.1";
+        Integer threads = null;
+        Path root = null;
+        Long cachesize = null;
+
+        for (int i = 0; i < args.length;) {
+
+            if ("-?".equals(args[i])) {
+
+                error = true;
+                break;
+
+            } else if ("-d".equals(args[i])) {
+
+                if (mds != null) {
+                    error = true;
+                    break;
+                }
+
+                i++;
+
+                mds = new MetaDictionaryCollection();
+
+                for (; i < args.length && args[i].charAt(0) != '-'; i++) {
+
+                    RegXMLDump.addDictionaries(mds, new File(args[i]));
+
+                    dictpaths.add(new File(args[i]));
+
+                }
+
+                if (mds.getDictionaries().isEmpty()) {
+                    error = true;
+                    break;
+                }
+
+            } else if ("-l".equals(args[i]) && i + 1 < args.length && labelreader == null) {
+
+                labelreader = new FileReader(args[i + 1]);
+
+                i += 2;
+
+            } else if ("-port".equals(args[i]) && i + 1 < args.length) {
+
+                port = Integer.parseInt(args[i + 1]);
+
+                i += 2;
+
+            } else if ("-bind".equals(args[i]) && i + 1 < args.length) {
+
+                bind = args[i + 1];
+
+                i += 2;
+
+            } else if ("-j".equals(args[i]) && i + 1 < args.length) {
+
+                threads = Integer.parseInt(args[i + 1]);
+
+                i += 2;
+
+            } else if ("-root".equals(args[i]) && i + 1 < args.length) {
+
+                root = Paths.get(args[i + 1]);
+
+                i += 2;
+
+            } else if ("-cache".equals(args[i]) && i + 1 < args.length) {
+
+                cachesize = Long.parseLong(args[i + 1]);
+
+                i += 2;
+
+            } else {
+
+                error = true;
+                break;
+
+            }
+
+        }
+
+        if (error || mds == null) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        RegXMLServer server = new RegXMLServer(
+            mds,
+            labelreader == null ? null : LabelsRegister.fromXML(labelreader, true),
+            root
+        );
+
+        server.setDictionaryLoader(new Callable<MetaDictionaryCollection>() {
+
+            @Override
+            public MetaDictionaryCollection call() throws Exception {
+
+                MetaDictionaryCollection newmds = new MetaDictionaryCollection();
+
+                for (File f : dictpaths) {
+                    RegXMLDump.addDictionaries(newmds, f);
+                }
+
+                return newmds;
+            }
+        });
+
+        if (cachesize != null) {
+            server.setRenderCache(new RenderCache(cachesize));
+        }
+
+        server.start(new InetSocketAddress(bind, port), threads == null ? Runtime.getRuntime().availableProcessors() : threads);
+
+        LOG.info("Listening on " + server.getAddress());
+    }
+}
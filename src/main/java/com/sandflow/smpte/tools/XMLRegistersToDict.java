@@ -32,14 +32,22 @@ import com.sandflow.smpte.register.exceptions.DuplicateEntryException;
 import com.sandflow.smpte.register.exceptions.InvalidEntryException;
 import com.sandflow.smpte.regxml.dict.MetaDictionary;
 import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import com.sandflow.smpte.regxml.dict.MetaDictionarySnapshot;
+import com.sandflow.smpte.regxml.dict.importers.IncrementalRegisterImporter;
 import com.sandflow.util.events.Event;
 import static com.sandflow.smpte.regxml.dict.importers.RegisterImporter.fromRegister;
 import com.sandflow.util.events.EventHandler;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.logging.Logger;
 import jakarta.xml.bind.JAXBException;
 import javax.xml.transform.OutputKeys;
@@ -62,14 +70,35 @@ public class XMLRegistersToDict {
         + "                            -l labelsregpath\n"
         + "                            -g groupsregpath\n"
         + "                            -t typesregpath\n"
+        + "                            [-b snapshotpath]\n"
+        + "                            [-p previousregsdir]\n"
         + "                            outputdir\n"
-        + "         XMLRegistersToDict -?";
+        + "         XMLRegistersToDict -c dictpath snapshotpath\n"
+        + "         XMLRegistersToDict -?\n"
+        + "  -b also writes the metadictionaries to a binary snapshot that loads faster than XML\n"
+        + "  -p only rewrites the metadictionaries in outputdir that are affected by the changes\n"
+        + "     since the registers at previousregsdir (Elements.xml, Groups.xml and Types.xml)\n"
+        + "     from which they were generated\n"
+        + "  -c compiles the XML metadictionaries at dictpath (file or directory) to a binary snapshot";
 
     /**
      * Usage is specified at {@link #USAGE}
      */
     public static void main(String[] args) throws FileNotFoundException, JAXBException, IOException, InvalidEntryException, DuplicateEntryException, Exception {
-        if (args.length != 9
+
+        if (args.length == 3 && "-c".equals(args[0])) {
+
+            MetaDictionaryCollection mds = new MetaDictionaryCollection();
+
+            RegXMLDump.addDictionaries(mds, new File(args[1]));
+
+            writeSnapshot(mds, new File(args[2]));
+
+            return;
+        }
+
+        if (args.length < 9
+            || args.length % 2 == 0
             || "-?".equals(args[0])
             || (!"-e".equals(args[0]))
             || (!"-l".equals(args[2]))
@@ -81,14 +110,31 @@ public class XMLRegistersToDict {
             return;
         }
 
+        File snapshot = null;
+        File prevdir = null;
+
+        for (int i = 8; i < args.length - 1; i += 2) {
+            if ("-b".equals(args[i]) && snapshot == null) {
+                snapshot = new File(args[i + 1]);
+            } else if ("-p".equals(args[i]) && prevdir == null) {
+                prevdir = new File(args[i + 1]);
+            } else {
+                System.out.println(USAGE);
+
+                return;
+            }
+        }
+
+        File outputdir = new File(args[args.length - 1]);
+
         /* NOTE: to mute logging: Logger.getLogger("").setLevel(Level.OFF); */
         FileReader fe = new FileReader(args[1]);
         FileReader fg = new FileReader(args[5]);
         FileReader ft = new FileReader(args[7]);
 
-        ElementsRegister ereg = ElementsRegister.fromXML(fe);
-        GroupsRegister greg = GroupsRegister.fromXML(fg);
-        TypesRegister treg = TypesRegister.fromXML(ft);
+        ElementsRegister ereg = ElementsRegister.fromXML(fe, false);
+        GroupsRegister greg = GroupsRegister.fromXML(fg, false);
+        TypesRegister treg = TypesRegister.fromXML(ft, false);
 
         EventHandler evthandler = new EventHandler() {
 
@@ -112,40 +158,118 @@ public class XMLRegistersToDict {
             }
         };
 
-        MetaDictionaryCollection mds = fromRegister(treg, greg, ereg, evthandler);
-
         Transformer tr = TransformerFactory.newInstance().newTransformer();
 
         tr.setOutputProperty(OutputKeys.INDENT, "yes");
 
-        for (MetaDictionary md : mds.getDictionaries()) {
+        MetaDictionaryCollection mds;
 
-            /* create file name from the Scheme URI */
-            String fname = md.getSchemeURI().getAuthority() + md.getSchemeURI().getPath();
+        if (prevdir != null) {
 
-            File f = new File(args[8], fname.replaceAll("[^a-zA-Z0-9]", "-") + ".xml");
+            ElementsRegister oldereg;
+            GroupsRegister oldgreg;
+            TypesRegister oldtreg;
 
-            Document doc = md.toXML();
+            try (FileReader r = new FileReader(new File(prevdir, "Elements.xml"))) {
+                oldereg = ElementsRegister.fromXML(r, false);
+            }
 
-            /* date and build version */
-            Date now = new java.util.Date();
-            doc.insertBefore(
-                doc.createComment("Created: " + now.toString()),
-                doc.getDocumentElement()
-            );
-            doc.insertBefore(
-                doc.createComment("By: regxmllib build " + BuildVersionSingleton.getBuildVersion()),
-                doc.getDocumentElement()
-            );
-            doc.insertBefore(
-                doc.createComment("See: https://github.com/sandflow/regxmllib"),
-                doc.getDocumentElement()
+            try (FileReader r = new FileReader(new File(prevdir, "Groups.xml"))) {
+                oldgreg = GroupsRegister.fromXML(r, false);
+            }
+
+            try (FileReader r = new FileReader(new File(prevdir, "Types.xml"))) {
+                oldtreg = TypesRegister.fromXML(r, false);
+            }
+
+            IncrementalRegisterImporter.Result changes = IncrementalRegisterImporter.fromRegister(
+                oldtreg, oldgreg, oldereg,
+                treg, greg, ereg,
+                evthandler
             );
 
-            tr.transform(
-                new DOMSource(doc),
-                new StreamResult(f)
+            HashSet<URI> removed = new HashSet<>(changes.getAffectedNamespaces());
+
+            for (MetaDictionary md : changes.getDictionaries().getDictionaries()) {
+                writeDictionary(tr, md, outputdir);
+
+                removed.remove(md.getSchemeURI());
+            }
+
+            /* namespaces that no longer contain any definition */
+            for (URI namespace : removed) {
+                Files.deleteIfExists(getDictionaryFile(namespace, outputdir).toPath());
+            }
+
+            LOG.info(
+                String.format(
+                    "Rewrote %d metadictionaries affected by the register changes",
+                    changes.getDictionaries().getDictionaries().size()
+                )
             );
+
+            if (snapshot != null) {
+                mds = new MetaDictionaryCollection();
+
+                RegXMLDump.addDictionaries(mds, outputdir);
+            } else {
+                mds = null;
+            }
+
+        } else {
+
+            mds = fromRegister(treg, greg, ereg, evthandler);
+
+            for (MetaDictionary md : mds.getDictionaries()) {
+                writeDictionary(tr, md, outputdir);
+            }
+        }
+
+        if (snapshot != null) {
+            writeSnapshot(mds, snapshot);
+        }
+
+    }
+
+    private static File getDictionaryFile(URI schemeURI, File dir) {
+
+        /* create file name from the Scheme URI */
+        String fname = schemeURI.getAuthority() + schemeURI.getPath();
+
+        return new File(dir, fname.replaceAll("[^a-zA-Z0-9]", "-") + ".xml");
+    }
+
+    private static void writeDictionary(Transformer tr, MetaDictionary md, File dir) throws Exception {
+
+        File f = getDictionaryFile(md.getSchemeURI(), dir);
+
+        Document doc = md.toXML();
+
+        /* date and build version */
+        Date now = new java.util.Date();
+        doc.insertBefore(
+            doc.createComment("Created: " + now.toString()),
+            doc.getDocumentElement()
+        );
+        doc.insertBefore(
+            doc.createComment("By: regxmllib build " + BuildVersionSingleton.getBuildVersion()),
+            doc.getDocumentElement()
+        );
+        doc.insertBefore(
+            doc.createComment("See: https://github.com/sandflow/regxmllib"),
+            doc.getDocumentElement()
+        );
+
+        tr.transform(
+            new DOMSource(doc),
+            new StreamResult(f)
+        );
+    }
+
+    private static void writeSnapshot(MetaDictionaryCollection mds, File f) throws IOException {
+
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(f))) {
+            MetaDictionarySnapshot.write(mds.getDictionaries(), os);
         }
 
     }
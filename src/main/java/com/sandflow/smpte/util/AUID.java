@@ -88,6 +88,15 @@ public class AUID {
         System.arraycopy(uuid.getValue(), 0, value, 8, 8);
     }
 
+    /**
+     * Returns the sequence of bytes that make up the AUID (in the order specified by SMPTE ST 377-1)
+     * 
+     * @return Sequence of 16 bytes
+     */
+    public byte[] getValue() {
+        return value;
+    }
+
     @Override
     public boolean equals(Object auid) {
         if (!(auid instanceof AUID)) {
@@ -259,27 +259,25 @@ public class UL {
         return true;
     }
 
+    final static char[] HEXMAP = "0123456789abcdef".toCharArray();
+    final static char[] URNTEMPLATE = "urn:smpte:ul:060e2b34.01010101.01011502.00000000".toCharArray();
+
     @Override
     public String toString() {
 
-        return String.format("urn:smpte:ul:%02x%02x%02x%02x.%02x%02x%02x%02x.%02x%02x%02x%02x.%02x%02x%02x%02x",
-                value[0],
-                value[1],
-                value[2],
-                value[3],
-                value[4],
-                value[5],
-                value[6],
-                value[7],
-                value[8],
-                value[9],
-                value[10],
-                value[11],
-                value[12],
-                value[13],
-                value[14],
-                value[15]
-        );
+        char[] out = Arrays.copyOf(URNTEMPLATE, URNTEMPLATE.length);
+
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+
+                int v = value[4 * i + j] & 0xFF;
+                out[13 + 9 * i + 2 * j] = HEXMAP[v >>> 4];
+                out[13 + 9 * i + 2 * j + 1] = HEXMAP[v & 0x0F];
+
+            }
+        }
+
+        return new String(out);
     }
     
     /**
@@ -25,6 +25,8 @@
  */
 package com.sandflow.util.events;
 
+import java.util.function.Supplier;
+
 /**
  * Convenience class that provides a basic implementation of the
  * {@link com.sandflow.util.events.Event} interface
@@ -33,8 +35,9 @@ package com.sandflow.util.events;
  */
 public class BasicEvent implements Event {
     String message;
+    Supplier<String> messageSupplier;
     Severity severity;
-    Enum code;
+    Enum<?> code;
 
     /**
      * Creates an immutable BasicEvent instance
@@ -43,14 +46,33 @@ public class BasicEvent implements Event {
      * @param code Uniquely identifies the event
      * @param message Describes the event
      */
-    public BasicEvent(Severity severity, Enum code, String message) {
+    public BasicEvent(Severity severity, Enum<?> code, String message) {
         this.message = message;
         this.severity = severity;
         this.code = code;
     }
 
+    /**
+     * Creates an immutable BasicEvent instance whose message is only computed
+     * when first requested
+     * 
+     * @param severity Severity of the event
+     * @param code Uniquely identifies the event
+     * @param message Supplies the description of the event
+     */
+    public BasicEvent(Severity severity, Enum<?> code, Supplier<String> message) {
+        this.messageSupplier = message;
+        this.severity = severity;
+        this.code = code;
+    }
+
+    /* synchronized since the message can be requested from several threads */
     @Override
-    public String getMessage() {
+    public synchronized String getMessage() {
+        if (this.messageSupplier != null) {
+            this.message = this.messageSupplier.get();
+            this.messageSupplier = null;
+        }
         return this.message;
     }
 
@@ -60,7 +82,7 @@ public class BasicEvent implements Event {
     }
 
     @Override
-    public Enum getCode() {
+    public Enum<?> getCode() {
         return this.code;
     }
     
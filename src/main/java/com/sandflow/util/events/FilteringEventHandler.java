@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.util.events;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Event handler that filters, rate-limits and counts the events it forwards
+ * to another handler.
+ *
+ * An event is forwarded unless its code is disabled, its severity is lower
+ * than the minimum severity, or the number of events already forwarded with
+ * the same code has reached the limit. FATAL events are always forwarded.
+ * Every event is counted, whether forwarded or not, so that floods of
+ * identical events can be reported as a single count.
+ *
+ * Event sources can call {@link #offer(java.lang.Enum, com.sandflow.util.events.Event.Severity)}
+ * before creating an event, and create the event only if it is accepted,
+ * which avoids formatting messages that would be discarded.
+ */
+public class FilteringEventHandler implements EventHandler {
+
+    private final EventHandler handler;
+    private final HashSet<Enum<?>> disabled = new HashSet<>();
+    private final HashMap<Enum<?>, Integer> counts = new HashMap<>();
+    private final HashMap<Enum<?>, Integer> suppressedCounts = new HashMap<>();
+    private Event.Severity minSeverity = Event.Severity.INFO;
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * Creates a filtering event handler
+     *
+     * @param handler Handler to which events are forwarded. Must not be null.
+     */
+    public FilteringEventHandler(EventHandler handler) {
+
+        if (handler == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.handler = handler;
+    }
+
+    /**
+     * Enables or disables the forwarding of events with a given code
+     *
+     * @param code Event code
+     * @param enabled true if events with the code are forwarded
+     */
+    public synchronized void setEnabled(Enum<?> code, boolean enabled) {
+        if (enabled) {
+            disabled.remove(code);
+        } else {
+            disabled.add(code);
+        }
+    }
+
+    /**
+     * Sets the minimum severity of forwarded events
+     *
+     * @param severity Minimum severity
+     */
+    public synchronized void setMinimumSeverity(Event.Severity severity) {
+        this.minSeverity = severity;
+    }
+
+    /**
+     * Sets the maximum number of events forwarded for each code
+     *
+     * @param limit Maximum number of events per code
+     */
+    public synchronized void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Indicates whether an event would be forwarded
+     *
+     * @param code Event code
+     * @param severity Event severity
+     * @return true if an event with the code and severity would be forwarded
+     */
+    public synchronized boolean isEnabled(Enum<?> code, Event.Severity severity) {
+
+        if (severity == Event.Severity.FATAL) {
+            return true;
+        }
+
+        if (severity.compareTo(minSeverity) < 0 || disabled.contains(code)) {
+            return false;
+        }
+
+        return count(counts, code) - count(suppressedCounts, code) < limit;
+    }
+
+    /**
+     * Counts an event that is not forwarded, without creating the event
+     *
+     * @param code Event code
+     */
+    public synchronized void suppress(Enum<?> code) {
+        increment(counts, code);
+        increment(suppressedCounts, code);
+    }
+
+    /**
+     * Counts an event as suppressed, without creating the event, unless it
+     * would be forwarded. The check and the count are atomic.
+     *
+     * @param code Event code
+     * @param severity Event severity
+     * @return true if an event with the code and severity would be forwarded,
+     * in which case it is not counted until passed to
+     * {@link #handle(com.sandflow.util.events.Event)}
+     */
+    public synchronized boolean offer(Enum<?> code, Event.Severity severity) {
+
+        if (isEnabled(code, severity)) {
+            return true;
+        }
+
+        suppress(code);
+
+        return false;
+    }
+
+    @Override
+    public boolean handle(Event evt) {
+
+        synchronized (this) {
+
+            if (!offer(evt.getCode(), evt.getSeverity())) {
+                return true;
+            }
+
+            increment(counts, evt.getCode());
+        }
+
+        return handler.handle(evt);
+    }
+
+    /**
+     * @param code Event code
+     * @return Number of events with the code, including suppressed events
+     */
+    public synchronized int getCount(Enum<?> code) {
+        return count(counts, code);
+    }
+
+    /**
+     * @param code Event code
+     * @return Number of events with the code that were not forwarded
+     */
+    public synchronized int getSuppressedCount(Enum<?> code) {
+        return count(suppressedCounts, code);
+    }
+
+    /**
+     * @return Number of events for each code encountered, including
+     * suppressed events
+     */
+    public synchronized Map<Enum<?>, Integer> getCounts() {
+        return Collections.unmodifiableMap(new HashMap<>(counts));
+    }
+
+    private static int count(Map<Enum<?>, Integer> m, Enum<?> code) {
+        Integer c = m.get(code);
+
+        return c == null ? 0 : c;
+    }
+
+    private static void increment(Map<Enum<?>, Integer> m, Enum<?> code) {
+        m.put(code, count(m, code) + 1);
+    }
+
+}
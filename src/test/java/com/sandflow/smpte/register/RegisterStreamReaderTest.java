@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.register;
+
+import com.sandflow.smpte.util.UL;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import junit.framework.TestCase;
+
+public class RegisterStreamReaderTest extends TestCase {
+
+    public RegisterStreamReaderTest(String testName) {
+        super(testName);
+    }
+
+    private static Reader open(String path) {
+        Reader r = new InputStreamReader(ClassLoader.getSystemResourceAsStream(path));
+        assertNotNull(r);
+        return r;
+    }
+
+    /**
+     * Tests that the streaming loader and the JAXB loader agree on every type
+     */
+    public void testTypes() throws Exception {
+        TypesRegister expected = TypesRegister.fromXML(open("registers/snapshot/Types.xml"));
+        TypesRegister actual = TypesRegister.fromXML(open("registers/snapshot/Types.xml"), false);
+
+        assertEquals(expected.getEntries().size(), actual.getEntries().size());
+
+        for (TypesRegister.Entry e : expected.getEntries()) {
+            TypesRegister.Entry a = actual.getEntryByUL(e.getUL());
+
+            assertNotNull(a);
+            assertSame(a, actual.getEntryBySymbol(new QualifiedSymbol(e.getSymbol(), e.getNamespaceName())));
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getDefinition(), a.getDefinition());
+            assertEquals(e.getKind(), a.getKind());
+            assertEquals(e.getTypeKind(), a.getTypeKind());
+            assertEquals(e.getTypeSize(), a.getTypeSize());
+            assertEquals(e.getBaseType(), a.getBaseType());
+            assertEquals(e.getTypeQualifiers(), a.getTypeQualifiers());
+            assertEquals(e.getContextScope(), a.getContextScope());
+            assertEquals(e.getFacets().size(), a.getFacets().size());
+        }
+    }
+
+    /**
+     * Tests KLVSyntax and local tags for both Groups Register schemas
+     */
+    public void testGroups() throws Exception {
+        for (String path : new String[]{"registers/brown_sauce/Groups.xml", "registers/catsup/Groups.xml"}) {
+            GroupsRegister expected = GroupsRegister.fromXML(open(path));
+            GroupsRegister actual = GroupsRegister.fromXML(open(path), false);
+
+            assertSame(expected.getClass(), actual.getClass());
+            assertEquals(expected.getEntries().size(), actual.getEntries().size());
+
+            for (GroupsRegister.Entry e : expected.getEntries()) {
+                GroupsRegister.Entry a = actual.getEntryByUL(e.getUL());
+
+                assertNotNull(a);
+                assertEquals(e.getParent(), a.getParent());
+                assertEquals(e.isConcrete(), a.isConcrete());
+                assertEquals(e.getKlvSyntax(), a.getKlvSyntax());
+                assertEquals(e.getContents().size(), a.getContents().size());
+            }
+        }
+
+        GroupsRegister groups = GroupsRegister.fromXML(open("registers/brown_sauce/Groups.xml"), false);
+
+        GroupsRegister.Entry e = groups.getEntryByUL(UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01011000"));
+
+        assertNotNull(e);
+        assertTrue(e.getKlvSyntax().contains((byte) 0x53));
+
+        boolean found = false;
+
+        for (GroupsRegister.Entry.Record r : e.getContents()) {
+            if (r.getItem().equals(UL.fromURN("urn:smpte:ul:060e2b34.01010107.06010103.07000000"))) {
+                assertEquals((long) 0x1103, r.getLocalTag().longValue());
+                found = true;
+            }
+        }
+
+        assertTrue(found);
+    }
+
+    /**
+     * Tests that lean mode skips informative text only
+     */
+    public void testLean() throws Exception {
+        ElementsRegister elements = ElementsRegister.fromXML(open("registers/brown_sauce/Elements.xml"), true);
+
+        ElementsRegister.Entry e = elements.getEntryByUL(UL.fromURN("urn:smpte:ul:060a2b34.01010101.01010100.00000000"));
+
+        assertNotNull(e);
+        assertEquals("UMIDVideo", e.getSymbol());
+        assertEquals("UMID Video", e.getName());
+        assertEquals(UL.fromURN("urn:smpte:ul:060e2b34.01040101.01300100.00000000"), e.getTypeUL());
+        assertNull(e.getDefinition());
+        assertNull(e.getNotes());
+        assertNull(e.getDefiningDocument());
+
+        LabelsRegister labels = LabelsRegister.fromXML(open("registers/snapshot/Labels.xml"), true);
+
+        assertEquals(LabelsRegister.fromXML(open("registers/snapshot/Labels.xml")).getEntries().size(), labels.getEntries().size());
+    }
+
+}
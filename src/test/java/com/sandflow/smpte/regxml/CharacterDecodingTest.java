@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.smpte.klv.Group;
+import com.sandflow.smpte.klv.MemoryTriplet;
+import com.sandflow.smpte.klv.Triplet;
+import com.sandflow.smpte.mxf.Set;
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import static com.sandflow.smpte.regxml.dict.importers.RegisterImporter.fromRegister;
+import com.sandflow.smpte.util.AUID;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.smpte.util.UUID;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Exercises the decoding of Character and String values by FragmentBuilder
+ */
+public class CharacterDecodingTest {
+
+    private static final UL TAGGEDVALUE_KEY = UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01013f00");
+    private static final UL TAG_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010102.03020102.09010000");
+    private static final UL VALUE_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010102.03020102.0a010000");
+
+    private static final UL CHARACTER_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01100100.00000000");
+    private static final UL UTF16STRING_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01100200.00000000");
+    private static final UL ISO7_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01100400.00000000");
+    private static final UL UTF8STRING_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01100600.00000000");
+
+    private static final String TEXT = "Aé€😀";
+
+    private static MetaDictionaryCollection mds;
+
+    @BeforeClass
+    public static void loadDictionaries() throws Exception {
+
+        final String register_dir = "registers/snapshot/";
+
+        ElementsRegister ereg = ElementsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Elements.xml")), false);
+        GroupsRegister greg = GroupsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Groups.xml")), false);
+        TypesRegister treg = TypesRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Types.xml")), false);
+
+        mds = fromRegister(treg, greg, ereg, evt -> true);
+    }
+
+    /**
+     * Records the text of each element, and the attributes set by
+     * FragmentBuilder on elements containing characters
+     */
+    private static class RecordingSink implements FragmentSink {
+
+        final ArrayDeque<String> elements = new ArrayDeque<>();
+        final Map<String, String> values = new HashMap<>();
+
+        @Override
+        public void startElement(String namespace, String prefix, String localName) {
+            elements.push(localName);
+        }
+
+        @Override
+        public void attribute(String namespace, String prefix, String localName, String value) {
+            values.put(elements.peek() + "@" + localName, value);
+        }
+
+        @Override
+        public void text(String text) {
+            values.merge(elements.peek(), text, String::concat);
+        }
+
+        @Override
+        public void comment(String comment) {
+        }
+
+        @Override
+        public void endElement() {
+            elements.pop();
+        }
+
+        @Override
+        public void endFragment(Map<URI, String> prefixes) {
+        }
+    }
+
+    private static byte[] concat(byte[]... arrays) {
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        for (byte[] a : arrays) {
+            bos.write(a, 0, a.length);
+        }
+
+        return bos.toByteArray();
+    }
+
+    /* encodes an Indirect value of the type identified by ul */
+    private static byte[] indirect(boolean isLittleEndian, UL ul, byte[] value) {
+
+        /* an IDAU that holds a UL swaps its two halves */
+        byte[] idau = new byte[16];
+
+        System.arraycopy(ul.getValue(), 8, idau, 0, 8);
+        System.arraycopy(ul.getValue(), 0, idau, 8, 8);
+
+        if (isLittleEndian) {
+
+            /* reverse the first three fields of the UUID */
+            byte[] le = Arrays.copyOf(idau, 16);
+
+            for (int i = 0; i < 4; i++) {
+                le[i] = idau[3 - i];
+            }
+
+            le[4] = idau[5];
+            le[5] = idau[4];
+            le[6] = idau[7];
+            le[7] = idau[6];
+
+            idau = le;
+        }
+
+        return concat(new byte[]{(byte) (isLittleEndian ? 0x4c : 0x42)}, idau, value);
+    }
+
+    private static Map<String, String> render(FragmentBuilder fb, byte[] tag, byte[] value) throws Exception {
+
+        final ArrayList<Triplet> items = new ArrayList<>();
+
+        items.add(new MemoryTriplet(new AUID(TAG_UL), tag));
+        items.add(new MemoryTriplet(new AUID(VALUE_UL), value));
+
+        Group group = new Group() {
+            @Override
+            public Collection<Triplet> getItems() {
+                return items;
+            }
+
+            @Override
+            public UL getKey() {
+                return TAGGEDVALUE_KEY;
+            }
+        };
+
+        RecordingSink sink = new RecordingSink();
+
+        fb.fromTriplet(group, sink);
+
+        return sink.values;
+    }
+
+    private static FragmentBuilder builder() {
+        return new FragmentBuilder(mds, new HashMap<UUID, Set>(), null, evt -> true);
+    }
+
+    @Test
+    public void testUTF16() throws Exception {
+
+        FragmentBuilder fb = builder();
+
+        /* trailing zeroes terminate strings */
+        Map<String, String> v = render(
+            fb,
+            concat(TEXT.getBytes(StandardCharsets.UTF_16BE), new byte[4]),
+            indirect(true, UTF16STRING_UL, TEXT.getBytes(StandardCharsets.UTF_16LE))
+        );
+
+        assertEquals(TEXT, v.get("Tag"));
+        assertEquals(TEXT, v.get("IndirectValue"));
+        assertEquals("UTF16String", v.get("IndirectValue@actualType"));
+        assertNull(v.get("Tag@escape"));
+
+        v = render(
+            fb,
+            TEXT.getBytes(StandardCharsets.UTF_16BE),
+            indirect(false, UTF16STRING_UL, TEXT.getBytes(StandardCharsets.UTF_16BE))
+        );
+
+        assertEquals(TEXT, v.get("Tag"));
+        assertEquals(TEXT, v.get("IndirectValue"));
+    }
+
+    @Test
+    public void testTruncatedInput() throws Exception {
+
+        FragmentBuilder fb = builder();
+
+        byte[] utf16 = TEXT.getBytes(StandardCharsets.UTF_16BE);
+
+        /* odd number of bytes */
+        Map<String, String> v = render(fb, Arrays.copyOf(utf16, 3), new byte[0]);
+
+        assertEquals("A�", v.get("Tag"));
+
+        /* high surrogate without its low surrogate */
+        v = render(fb, Arrays.copyOf(utf16, utf16.length - 2), new byte[0]);
+
+        assertEquals("Aé€�", v.get("Tag"));
+
+        /* empty value */
+        v = render(fb, new byte[0], indirect(false, UTF8STRING_UL, new byte[0]));
+
+        assertEquals("", v.get("Tag"));
+        assertEquals("", v.get("IndirectValue"));
+    }
+
+    @Test
+    public void testMalformedInput() throws Exception {
+
+        FragmentBuilder fb = builder();
+
+        Map<String, String> v = render(
+            fb,
+            TEXT.getBytes(StandardCharsets.UTF_16BE),
+            indirect(false, UTF8STRING_UL, new byte[]{'a', (byte) 0xc3, '(', 'b', (byte) 0xff})
+        );
+
+        assertEquals("a�(b�", v.get("IndirectValue"));
+
+        /* the decoder is reset between values */
+        v = render(
+            fb,
+            TEXT.getBytes(StandardCharsets.UTF_16BE),
+            indirect(false, UTF8STRING_UL, new byte[]{(byte) 0xe2, (byte) 0x82})
+        );
+
+        assertEquals("�", v.get("IndirectValue"));
+
+        v = render(
+            fb,
+            TEXT.getBytes(StandardCharsets.UTF_16BE),
+            indirect(false, UTF8STRING_UL, TEXT.getBytes(StandardCharsets.UTF_8))
+        );
+
+        assertEquals(TEXT, v.get("IndirectValue"));
+
+        /* non-ASCII bytes are not US-ASCII characters */
+        v = render(
+            fb,
+            TEXT.getBytes(StandardCharsets.UTF_16BE),
+            indirect(false, ISO7_UL, new byte[]{'a', (byte) 0x80, 'b'})
+        );
+
+        assertEquals("a�b", v.get("IndirectValue"));
+    }
+
+    @Test
+    public void testEscapedCharacters() throws Exception {
+
+        FragmentBuilder fb = builder();
+
+        Map<String, String> v = render(
+            fb,
+            TEXT.getBytes(StandardCharsets.UTF_16BE),
+            indirect(false, ISO7_UL, new byte[]{'a', 0x01, '$', 'b', 0, 'c'})
+        );
+
+        assertEquals("a$#x1;$#x24;b", v.get("IndirectValue"));
+        assertEquals("true", v.get("IndirectValue@escape"));
+
+        /* zeroes are not removed from a single character */
+        v = render(
+            fb,
+            TEXT.getBytes(StandardCharsets.UTF_16BE),
+            indirect(false, CHARACTER_UL, new byte[2])
+        );
+
+        assertEquals("$#x0;", v.get("IndirectValue"));
+        assertEquals("true", v.get("IndirectValue@escape"));
+    }
+
+    @Test
+    public void testBufferReuse() throws Exception {
+
+        FragmentBuilder fb = builder();
+
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 1000; i++) {
+            sb.append(TEXT);
+        }
+
+        String longtext = sb.toString();
+
+        /* longer than a decoding chunk, with characters split across chunks */
+        Map<String, String> v = render(
+            fb,
+            longtext.getBytes(StandardCharsets.UTF_16BE),
+            indirect(false, UTF8STRING_UL, longtext.getBytes(StandardCharsets.UTF_8))
+        );
+
+        assertEquals(longtext, v.get("Tag"));
+        assertEquals(longtext, v.get("IndirectValue"));
+
+        /* shorter values do not retain bytes from previous values */
+        v = render(
+            fb,
+            "B".getBytes(StandardCharsets.UTF_16BE),
+            indirect(false, UTF8STRING_UL, "c".getBytes(StandardCharsets.UTF_8))
+        );
+
+        assertEquals("B", v.get("Tag"));
+        assertEquals("c", v.get("IndirectValue"));
+    }
+
+    @Test
+    public void testEscapingAcrossChunks() throws Exception {
+
+        FragmentBuilder fb = builder();
+
+        byte[] value = new byte[3000];
+
+        Arrays.fill(value, (byte) 'a');
+
+        value[2000] = 0x01;
+        value[2500] = 0;
+
+        char[] expected = new char[2000];
+
+        Arrays.fill(expected, 'a');
+
+        Map<String, String> v = render(
+            fb,
+            TEXT.getBytes(StandardCharsets.UTF_16BE),
+            indirect(false, ISO7_UL, value)
+        );
+
+        /* escaped characters and terminating zeroes beyond the first chunk */
+        assertEquals(new String(expected) + "$#x1;" + new String(expected, 0, 499), v.get("IndirectValue"));
+        assertEquals("true", v.get("IndirectValue@escape"));
+    }
+
+}
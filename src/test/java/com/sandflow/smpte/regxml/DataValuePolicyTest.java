@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.smpte.klv.Group;
+import com.sandflow.smpte.klv.MemoryTriplet;
+import com.sandflow.smpte.klv.Triplet;
+import com.sandflow.smpte.mxf.Set;
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import static com.sandflow.smpte.regxml.dict.importers.RegisterImporter.fromRegister;
+import com.sandflow.smpte.util.AUID;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.smpte.util.UUID;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Exercises the inline, truncated and sidecar output of DataValue properties
+ */
+public class DataValuePolicyTest {
+
+    private static final UL TAGGEDVALUE_KEY = UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01013f00");
+    private static final UL VALUE_UL = UL.fromURN("urn:smpte:ul:060e2b34.01010102.03020102.0a010000");
+    private static final UL DATAVALUE_UL = UL.fromURN("urn:smpte:ul:060e2b34.01040101.04100100.00000000");
+
+    private static final int LENGTH = 10000;
+
+    private static MetaDictionaryCollection mds;
+
+    private static byte[] data;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void loadDictionaries() throws Exception {
+
+        final String register_dir = "registers/snapshot/";
+
+        ElementsRegister ereg = ElementsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Elements.xml")), false);
+        GroupsRegister greg = GroupsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Groups.xml")), false);
+        TypesRegister treg = TypesRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Types.xml")), false);
+
+        mds = fromRegister(treg, greg, ereg, evt -> true);
+
+        data = new byte[LENGTH];
+
+        new Random(1).nextBytes(data);
+    }
+
+    /**
+     * Records the text parts and comments of the IndirectValue element
+     */
+    private static class RecordingSink implements FragmentSink {
+
+        final ArrayList<String> elements = new ArrayList<>();
+        final List<String> parts = new ArrayList<>();
+        final List<String> comments = new ArrayList<>();
+
+        private boolean isValue() {
+            return "IndirectValue".equals(elements.get(elements.size() - 1));
+        }
+
+        @Override
+        public void startElement(String namespace, String prefix, String localName) {
+            elements.add(localName);
+        }
+
+        @Override
+        public void attribute(String namespace, String prefix, String localName, String value) {
+        }
+
+        @Override
+        public void text(String text) {
+            if (isValue()) {
+                parts.add(text);
+            }
+        }
+
+        @Override
+        public void comment(String comment) {
+            if (isValue()) {
+                comments.add(comment);
+            }
+        }
+
+        @Override
+        public void endElement() {
+            elements.remove(elements.size() - 1);
+        }
+
+        @Override
+        public void endFragment(Map<URI, String> prefixes) {
+        }
+
+        String getText() {
+            return String.join("", parts);
+        }
+    }
+
+    private static String hex(byte[] value, int length) {
+
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < length; i++) {
+            sb.append(String.format("%02x", value[i]));
+        }
+
+        return sb.toString();
+    }
+
+    /* renders a Tagged Value whose value is a DataValue */
+    private static RecordingSink render(FragmentBuilder.DataValuePolicy policy, byte[] value) throws Exception {
+
+        byte[] indirect = new byte[17 + value.length];
+
+        /* big endian, followed by the IDAU of the DataValue type, which swaps the halves of the UL */
+        indirect[0] = 0x42;
+        System.arraycopy(DATAVALUE_UL.getValue(), 8, indirect, 1, 8);
+        System.arraycopy(DATAVALUE_UL.getValue(), 0, indirect, 9, 8);
+        System.arraycopy(value, 0, indirect, 17, value.length);
+
+        final List<Triplet> items = Arrays.<Triplet>asList(new MemoryTriplet(new AUID(VALUE_UL), indirect));
+
+        Group group = new Group() {
+            @Override
+            public Collection<Triplet> getItems() {
+                return items;
+            }
+
+            @Override
+            public UL getKey() {
+                return TAGGEDVALUE_KEY;
+            }
+        };
+
+        FragmentBuilder fb = new FragmentBuilder(mds, new HashMap<UUID, Set>(), null, evt -> true);
+
+        fb.setDataValuePolicy(policy);
+
+        RecordingSink sink = new RecordingSink();
+
+        fb.fromTriplet(group, sink);
+
+        return sink;
+    }
+
+    @Test
+    public void testInline() throws Exception {
+
+        RecordingSink sink = render(FragmentBuilder.DataValuePolicy.INLINE, data);
+
+        assertEquals(hex(data, LENGTH), sink.getText());
+        assertTrue(sink.comments.isEmpty());
+
+        /* the value is written in parts */
+        assertTrue(sink.parts.size() > 1);
+
+        for (String part : sink.parts) {
+            assertTrue(part.length() <= 8192);
+        }
+
+        sink = render(FragmentBuilder.DataValuePolicy.INLINE, new byte[0]);
+
+        assertEquals(Arrays.asList(""), sink.parts);
+    }
+
+    @Test
+    public void testTruncation() throws Exception {
+
+        byte[] sha1 = MessageDigest.getInstance("SHA-1").digest(data);
+
+        for (int max : new int[]{0, 1, 100, 4096, 4097, LENGTH - 1}) {
+
+            RecordingSink sink = render(new FragmentBuilder.DataValuePolicy(max, null), data);
+
+            assertEquals(hex(data, max), sink.getText());
+
+            assertEquals(
+                Arrays.asList(String.format("DataValue truncated to %d of %d octets, SHA-1 %s", max, LENGTH, hex(sha1, sha1.length))),
+                sink.comments
+            );
+        }
+
+        /* values no longer than the limit are not truncated */
+        for (int max : new int[]{LENGTH, LENGTH + 1}) {
+
+            RecordingSink sink = render(new FragmentBuilder.DataValuePolicy(max, null), data);
+
+            assertEquals(hex(data, LENGTH), sink.getText());
+            assertTrue(sink.comments.isEmpty());
+        }
+    }
+
+    @Test
+    public void testSidecar() throws Exception {
+
+        File dir = folder.newFolder();
+
+        SidecarDataValueStore store = new SidecarDataValueStore(dir.toPath(), "doc.");
+
+        FragmentBuilder.DataValuePolicy policy = new FragmentBuilder.DataValuePolicy(100, store);
+
+        /* short values are written inline */
+        RecordingSink sink = render(policy, Arrays.copyOf(data, 100));
+
+        assertEquals(hex(data, 100), sink.getText());
+        assertTrue(sink.comments.isEmpty());
+        assertEquals(0, dir.list().length);
+
+        /* long values are written to sidecar files */
+        for (int i = 0; i < 2; i++) {
+
+            sink = render(policy, data);
+
+            String name = "doc.IndirectValue." + i + ".bin";
+
+            assertEquals("", sink.getText());
+            assertEquals(Arrays.asList("DataValue stored at " + name), sink.comments);
+            assertArrayEquals(data, Files.readAllBytes(dir.toPath().resolve(name)));
+        }
+
+        assertEquals(2, dir.list().length);
+    }
+
+}
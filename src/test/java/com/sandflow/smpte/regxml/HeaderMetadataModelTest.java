@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.regxml.HeaderMetadataModel.MetadataObject;
+import com.sandflow.smpte.regxml.HeaderMetadataModel.Rational;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import static com.sandflow.smpte.regxml.dict.importers.RegisterImporter.fromRegister;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.smpte.util.UMID;
+import com.sandflow.smpte.util.UUID;
+import com.sandflow.util.events.Event;
+import com.sandflow.util.events.EventHandler;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author Pierre-Anthony Lemieux (pal@sandflow.com)
+ */
+public class HeaderMetadataModelTest {
+
+    private static final UL PREFACE_KEY
+        = UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00");
+
+    private static MetaDictionaryCollection mds;
+
+    private static final EventHandler evthandler = new EventHandler() {
+
+        @Override
+        public boolean handle(Event evt) {
+            return evt.getSeverity() != Event.Severity.FATAL;
+        }
+    };
+
+    @BeforeClass
+    public static void loadDictionaries() throws Exception {
+
+        final String register_dir = "registers/snapshot/";
+
+        ElementsRegister ereg = ElementsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Elements.xml")));
+        GroupsRegister greg = GroupsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Groups.xml")));
+        TypesRegister treg = TypesRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Types.xml")));
+
+        mds = fromRegister(treg, greg, ereg, evthandler);
+
+        assertNotNull(mds);
+    }
+
+    @Test
+    public void testTypedValues() throws Exception {
+
+        InputStream is = ClassLoader.getSystemResourceAsStream("mxf-files/audio1.mxf");
+
+        assertNotNull(is);
+
+        MetadataObject preface = HeaderMetadataModel.fromInputStream(is, mds, evthandler, PREFACE_KEY);
+
+        assertNotNull(preface);
+
+        assertEquals("Preface", preface.getDefinition().getSymbol());
+
+        assertEquals(
+            UUID.fromURN("urn:uuid:afa42131-e099-47fa-493a-f4e0740a3654"),
+            preface.getInstanceID()
+        );
+
+        MetadataObject sp = preface.getObject("ContentStorageObject").getObjects("Packages").get(0);
+
+        assertEquals("SourcePackage", sp.getDefinition().getSymbol());
+
+        assertEquals(
+            UMID.fromURN("urn:smpte:umid:060a2b34.01010105.01010f20.13000000.2d74e41a.176141d2.783ad3e5.ce3e3eb0"),
+            sp.get("PackageID")
+        );
+
+        MetadataObject track = sp.getObjects("PackageTracks").get(0);
+
+        assertEquals(2, track.getLong("TrackID", -1));
+        assertEquals(369164800L, track.getLong("EssenceTrackNumber", -1));
+        assertEquals(new Rational(48000, 1), track.get("EditRate"));
+        assertEquals("Sound", track.getString("TrackName"));
+
+        MetadataObject desc = sp.getObject("EssenceDescription");
+
+        assertEquals(Boolean.TRUE, desc.get("Locked"));
+        assertEquals(2, desc.getLong("ChannelCount", -1));
+        assertEquals(24, desc.getLong("QuantizationBits", -1));
+    }
+
+}
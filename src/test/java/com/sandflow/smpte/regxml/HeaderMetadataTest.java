@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.smpte.klv.Group;
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import static com.sandflow.smpte.regxml.dict.importers.RegisterImporter.fromRegister;
+import com.sandflow.smpte.regxml.sinks.JSONFragmentSink;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.util.events.Event;
+import com.sandflow.util.events.EventHandler;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class HeaderMetadataTest {
+
+    private static final UL PREFACE_KEY
+        = UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00");
+
+    private static final UL ESSENCE_DESCRIPTOR_KEY
+        = UL.fromURN("urn:smpte:ul:060e2b34.02010101.0d010101.01012400");
+
+    private static final EventHandler HANDLER = new EventHandler() {
+
+        @Override
+        public boolean handle(Event evt) {
+            return evt.getSeverity() != Event.Severity.FATAL;
+        }
+    };
+
+    private static MetaDictionaryCollection mds;
+
+    @BeforeClass
+    public static void loadDictionaries() throws Exception {
+
+        final String register_dir = "registers/snapshot/";
+
+        ElementsRegister ereg = ElementsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Elements.xml")));
+        GroupsRegister greg = GroupsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Groups.xml")));
+        TypesRegister treg = TypesRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Types.xml")));
+
+        mds = fromRegister(treg, greg, ereg, HANDLER);
+
+        assertNotNull(mds);
+    }
+
+    private static InputStream open() {
+
+        InputStream is = ClassLoader.getSystemResourceAsStream("mxf-files/video1.mxf");
+
+        assertNotNull(is);
+
+        return is;
+    }
+
+    @Test
+    public void testMultipleFragments() throws Exception {
+
+        HeaderMetadata hm = HeaderMetadata.fromInputStream(open(), HANDLER);
+
+        assertNotNull(hm.getPartitionPack());
+        assertFalse(hm.getGroups().isEmpty());
+        assertFalse(hm.getSets().isEmpty());
+
+        for (UL root : new UL[]{PREFACE_KEY, ESSENCE_DESCRIPTOR_KEY, PREFACE_KEY}) {
+
+            StringWriter expected = new StringWriter();
+
+            MXFFragmentBuilder.fromInputStream(open(), mds, null, HANDLER, root, new JSONFragmentSink(expected));
+
+            StringWriter actual = new StringWriter();
+
+            MXFFragmentBuilder.fromHeaderMetadata(hm, mds, null, HANDLER, root, new JSONFragmentSink(actual), null, FragmentBuilder.DataValuePolicy.INLINE);
+
+            assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void testAllInstances() throws Exception {
+
+        HeaderMetadata hm = HeaderMetadata.fromInputStream(open(), HANDLER);
+
+        List<Group> eds = hm.getInstancesOf(mds, Collections.singleton(ESSENCE_DESCRIPTOR_KEY));
+
+        assertFalse(eds.isEmpty());
+        assertSame(hm.getFirstInstanceOf(mds, ESSENCE_DESCRIPTOR_KEY), eds.get(0));
+
+        final ArrayList<Group> roots = new ArrayList<>();
+
+        int count = MXFFragmentBuilder.fromInputStream(open(), mds, null, HANDLER, Arrays.asList(ESSENCE_DESCRIPTOR_KEY, PREFACE_KEY), new MXFFragmentBuilder.FragmentSinkFactory() {
+
+            @Override
+            public FragmentSink getSink(Group root) {
+
+                roots.add(root);
+
+                return new JSONFragmentSink(new StringWriter());
+            }
+        });
+
+        assertEquals(eds.size() + 1, count);
+        assertEquals(count, roots.size());
+
+        /* the Preface is the first object of the Header Metadata */
+        assertEquals(PREFACE_KEY.getValueOctet(13), roots.get(0).getKey().getValueOctet(13));
+    }
+
+    @Test
+    public void testStats() throws Exception {
+
+        ExtractionStats stats = new ExtractionStats();
+
+        HeaderMetadata hm = HeaderMetadata.fromInputStream(open(), HANDLER, stats);
+
+        assertEquals(hm.getGroups().size(), stats.getSetCount());
+        assertTrue(stats.getPropertyCount() > stats.getSetCount());
+        assertEquals(hm.getPartitionPack().getHeaderByteCount(), stats.getHeaderByteCount());
+        assertTrue(stats.getBytes(ExtractionStats.Phase.PRIMER_PARSE) > 0);
+        assertTrue(stats.getBytes(ExtractionStats.Phase.LOCAL_SET_PARSE) < stats.getHeaderByteCount());
+
+        /* collecting statistics does not change the Fragment */
+        StringWriter expected = new StringWriter();
+
+        MXFFragmentBuilder.fromHeaderMetadata(hm, mds, null, HANDLER, PREFACE_KEY, new JSONFragmentSink(expected), null, FragmentBuilder.DataValuePolicy.INLINE);
+
+        StringWriter actual = new StringWriter();
+
+        MXFFragmentBuilder.fromHeaderMetadata(hm, mds, null, HANDLER, PREFACE_KEY, new JSONFragmentSink(actual), null, FragmentBuilder.DataValuePolicy.INLINE, stats);
+
+        assertEquals(expected.toString(), actual.toString());
+
+        assertTrue(stats.getTime(ExtractionStats.Phase.RENDERING) > 0);
+        assertTrue(stats.getReferenceCount() > 0);
+    }
+
+}
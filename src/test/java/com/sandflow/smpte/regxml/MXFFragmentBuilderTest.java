@@ -30,6 +30,7 @@ import com.sandflow.smpte.register.ElementsRegister;
 import com.sandflow.smpte.register.GroupsRegister;
 import com.sandflow.smpte.register.TypesRegister;
 import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import com.sandflow.smpte.regxml.sinks.XMLFragmentSink;
 import static com.sandflow.smpte.regxml.dict.importers.RegisterImporter.fromRegister;
 import com.sandflow.smpte.util.UL;
 import com.sandflow.util.events.Event;
@@ -39,6 +40,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -59,6 +62,7 @@ import org.w3c.dom.DocumentFragment;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 /**
@@ -220,6 +224,47 @@ public class MXFFragmentBuilderTest {
 
     }
 
+    @Test
+    public void testStreamedAgainstReference() throws IOException, SAXException, KLVException, MXFFragmentBuilder.MXFException, ParserConfigurationException, FragmentBuilder.RuleException {
+
+        final String mxf_file_name = this.ref_file_name.substring(0, this.ref_file_name.lastIndexOf('.')) + ".mxf";
+
+        InputStream sampleis = ClassLoader.getSystemResourceAsStream(MXFFragmentBuilderTest.mxf_files_dir_path + "/" + mxf_file_name);
+
+        assertNotNull(sampleis);
+
+        /* write the regxml fragment as text */
+        StringWriter sw = new StringWriter();
+
+        MXFFragmentBuilder.fromInputStream(
+            sampleis,
+            mds,
+            null,
+            new EventHandler() {
+
+                @Override
+                public boolean handle(Event evt) {
+                    return evt.getSeverity() != Event.Severity.FATAL;
+                }
+            },
+            PREFACE_KEY,
+            new XMLFragmentSink(sw, null, null),
+            null,
+            FragmentBuilder.DataValuePolicy.INLINE
+        );
+
+        Document gendoc = db.parse(new InputSource(new StringReader(sw.toString())));
+
+        /* load the reference document */
+        InputStream refis = ClassLoader.getSystemResourceAsStream(MXFFragmentBuilderTest.ref_files_dir_path + "/" + this.ref_file_name);
+        assertNotNull(refis);
+
+        Document refdoc = db.parse(refis);
+        assertNotNull(refdoc);
+
+        assertTrue(compareDOMElement(gendoc.getDocumentElement(), refdoc.getDocumentElement()));
+    }
+
     static Map<String, String> getAttributes(Element e) {
 
         NodeList nl = e.getChildNodes();
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import static com.sandflow.smpte.regxml.dict.importers.RegisterImporter.fromRegister;
+import com.sandflow.smpte.regxml.sinks.DOMFragmentSink;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.util.events.Event;
+import com.sandflow.util.events.EventHandler;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import javax.xml.parsers.DocumentBuilderFactory;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+/**
+ *
+ * @author Pierre-Anthony Lemieux (pal@sandflow.com)
+ */
+public class ProjectionTest {
+
+    private static final UL PREFACE_KEY
+        = UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00");
+
+    private static final String AAF_NS = "http://www.smpte-ra.org/reg/335/2012";
+
+    private static MetaDictionaryCollection mds;
+
+    @BeforeClass
+    public static void loadDictionaries() throws Exception {
+
+        final String register_dir = "registers/snapshot/";
+
+        ElementsRegister ereg = ElementsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Elements.xml")));
+        GroupsRegister greg = GroupsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Groups.xml")));
+        TypesRegister treg = TypesRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Types.xml")));
+
+        mds = fromRegister(treg, greg, ereg, new EventHandler() {
+
+            @Override
+            public boolean handle(Event evt) {
+                return true;
+            }
+        });
+
+        assertNotNull(mds);
+    }
+
+    private static Document build(Projection projection) throws Exception {
+
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+
+        Document doc = dbf.newDocumentBuilder().newDocument();
+
+        DOMFragmentSink sink = new DOMFragmentSink(doc);
+
+        InputStream is = ClassLoader.getSystemResourceAsStream("mxf-files/audio1.mxf");
+
+        assertNotNull(is);
+
+        MXFFragmentBuilder.fromInputStream(is, mds, null, new EventHandler() {
+
+            @Override
+            public boolean handle(Event evt) {
+                return evt.getSeverity() != Event.Severity.FATAL;
+            }
+        }, PREFACE_KEY, sink, projection);
+
+        doc.appendChild(sink.getFragment());
+
+        return doc;
+    }
+
+    @Test
+    public void testProjection() throws Exception {
+
+        Document full = build(null);
+
+        Document projected = build(Projection.fromPaths(
+            "OperationalPattern",
+            "ContentStorageObject/Packages/SourcePackage/EssenceDescription/urn:smpte:ul:060e2b34.01010101.04060101.00000000"
+        ));
+
+        NodeList ops = projected.getElementsByTagNameNS(AAF_NS, "OperationalPattern");
+
+        assertEquals(1, ops.getLength());
+
+        assertEquals(
+            full.getElementsByTagNameNS(AAF_NS, "OperationalPattern").item(0).getTextContent(),
+            ops.item(0).getTextContent()
+        );
+
+        NodeList rates = projected.getElementsByTagNameNS(AAF_NS, "SampleRate");
+
+        assertEquals(1, rates.getLength());
+
+        assertEquals(
+            full.getElementsByTagNameNS(AAF_NS, "SampleRate").item(0).getTextContent(),
+            rates.item(0).getTextContent()
+        );
+
+        /* properties and objects that are not on a path are skipped */
+        assertEquals(0, projected.getElementsByTagNameNS(AAF_NS, "IdentificationList").getLength());
+        assertEquals(0, projected.getElementsByTagNameNS(AAF_NS, "PackageTracks").getLength());
+        assertEquals(0, projected.getElementsByTagNameNS(AAF_NS, "InstanceID").getLength());
+
+        /* objects that match no class step are not written */
+        assertTrue(full.getElementsByTagNameNS("*", "MaterialPackage").getLength() > 0);
+        assertEquals(0, projected.getElementsByTagNameNS("*", "MaterialPackage").getLength());
+        assertEquals(
+            full.getElementsByTagNameNS("*", "SourcePackage").getLength(),
+            projected.getElementsByTagNameNS("*", "SourcePackage").getLength()
+        );
+    }
+
+    @Test
+    public void testAncestorClassStep() throws Exception {
+
+        Document full = build(null);
+
+        /* Package is the parent class of both MaterialPackage and SourcePackage */
+        Document projected = build(Projection.fromPaths(
+            "ContentStorageObject/Packages/urn:smpte:ul:060e2b34.027f0101.0d010101.01013400/PackageID"
+        ));
+
+        assertEquals(
+            full.getElementsByTagNameNS("*", "MaterialPackage").getLength(),
+            projected.getElementsByTagNameNS("*", "MaterialPackage").getLength()
+        );
+
+        assertEquals(
+            full.getElementsByTagNameNS("*", "SourcePackage").getLength(),
+            projected.getElementsByTagNameNS("*", "SourcePackage").getLength()
+        );
+
+        assertEquals(0, projected.getElementsByTagNameNS(AAF_NS, "EssenceDescription").getLength());
+    }
+
+}
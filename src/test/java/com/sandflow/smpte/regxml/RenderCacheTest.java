@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml;
+
+import com.sandflow.smpte.klv.Group;
+import com.sandflow.smpte.mxf.Set;
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import static com.sandflow.smpte.regxml.dict.importers.RegisterImporter.fromRegister;
+import com.sandflow.smpte.regxml.sinks.JSONFragmentSink;
+import com.sandflow.smpte.util.UL;
+import com.sandflow.smpte.util.UUID;
+import com.sandflow.util.events.Event;
+import com.sandflow.util.events.EventHandler;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RenderCacheTest {
+
+    private static final UL PREFACE_KEY
+        = UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00");
+
+    private static final String[] FILES = {"audio1.mxf", "audio2.mxf", "video1.mxf", "video2.mxf"};
+
+    private static final EventHandler HANDLER = new EventHandler() {
+
+        @Override
+        public boolean handle(Event evt) {
+            return evt.getSeverity() != Event.Severity.FATAL;
+        }
+    };
+
+    private static MetaDictionaryCollection mds;
+
+    @BeforeClass
+    public static void loadDictionaries() throws Exception {
+
+        final String register_dir = "registers/snapshot/";
+
+        ElementsRegister ereg = ElementsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Elements.xml")));
+        GroupsRegister greg = GroupsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Groups.xml")));
+        TypesRegister treg = TypesRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Types.xml")));
+
+        mds = fromRegister(treg, greg, ereg, HANDLER);
+
+        assertNotNull(mds);
+    }
+
+    private static String build(String file, RenderCache cache) throws Exception {
+        return build(file, cache, FragmentBuilder.DataValuePolicy.INLINE, null);
+    }
+
+    private static String build(String file, RenderCache cache, FragmentBuilder.DataValuePolicy policy, ExtractionStats stats) throws Exception {
+
+        InputStream is = ClassLoader.getSystemResourceAsStream("mxf-files/" + file);
+
+        assertNotNull(is);
+
+        HashMap<UUID, Set> setresolver = new HashMap<>();
+
+        Group root = MXFFragmentBuilder.readRootGroup(is, mds, HANDLER, PREFACE_KEY, setresolver);
+
+        FragmentBuilder fb = new FragmentBuilder(mds, setresolver, null, HANDLER);
+
+        fb.setRenderCache(cache, "snapshot");
+
+        fb.setDataValuePolicy(policy);
+
+        fb.setStats(stats);
+
+        StringWriter sw = new StringWriter();
+
+        fb.fromTriplet(root, new JSONFragmentSink(sw));
+
+        return sw.toString();
+    }
+
+    @Test
+    public void testCachedRenderingMatches() throws Exception {
+
+        RenderCache cache = new RenderCache(1 << 24);
+
+        for (int pass = 0; pass < 2; pass++) {
+
+            for (String file : FILES) {
+                assertEquals(file, build(file, null), build(file, cache));
+            }
+
+        }
+
+        assertTrue(cache.getHitCount() > 0);
+        assertTrue(cache.getEntryCount() > 0);
+
+        /* nothing fits in an empty cache */
+        RenderCache empty = new RenderCache(0);
+
+        assertEquals(build(FILES[0], null), build(FILES[0], empty));
+        assertEquals(0, empty.getEntryCount());
+    }
+
+    @Test
+    public void testDataValuePolicyIsPartOfKey() throws Exception {
+
+        RenderCache cache = new RenderCache(1 << 24);
+
+        FragmentBuilder.DataValuePolicy truncating = new FragmentBuilder.DataValuePolicy(4, null);
+
+        for (String file : FILES) {
+
+            /* populates the cache with subtrees rendered with DataValues inlined */
+            assertEquals(file, build(file, null), build(file, cache));
+
+            assertEquals(file, build(file, null, truncating, null), build(file, cache, truncating, null));
+        }
+
+        assertNotEquals(
+            new RenderCache.Key("snapshot", Integer.MAX_VALUE, new byte[]{1}),
+            new RenderCache.Key("snapshot", 4, new byte[]{1})
+        );
+    }
+
+    @Test
+    public void testCachedReferencesAreCounted() throws Exception {
+
+        RenderCache cache = new RenderCache(1 << 24);
+
+        for (String file : FILES) {
+
+            ExtractionStats uncached = new ExtractionStats();
+
+            build(file, null, FragmentBuilder.DataValuePolicy.INLINE, uncached);
+
+            /* populates the cache */
+            build(file, cache);
+
+            long hits = cache.getHitCount();
+
+            ExtractionStats cached = new ExtractionStats();
+
+            build(file, cache, FragmentBuilder.DataValuePolicy.INLINE, cached);
+
+            assertTrue(file, cache.getHitCount() > hits);
+
+            assertEquals(file, uncached.getReferenceCount(), cached.getReferenceCount());
+        }
+    }
+
+}
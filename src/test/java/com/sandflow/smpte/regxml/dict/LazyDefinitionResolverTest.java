@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict;
+
+import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.util.AUID;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LazyDefinitionResolverTest {
+
+    private static final AUID PREFACE = AUID.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00");
+
+    private static final AUID BASE = AUID.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.7f010100");
+    private static final AUID DERIVED = AUID.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.7f010200");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /* writes a dictionary of classes, each given as identification, symbol and parent class */
+    private Path writeDictionary(String name, Object[]... classes) throws Exception {
+
+        URI namespace = URI.create("http://www.example.com/" + name);
+
+        MetaDictionary md = new MetaDictionary(namespace);
+
+        for (Object[] c : classes) {
+
+            ClassDefinition cdef = new ClassDefinition();
+
+            cdef.setNamespace(namespace);
+            cdef.setIdentification((AUID) c[0]);
+            cdef.setSymbol((String) c[1]);
+            cdef.setParentClass((AUID) c[2]);
+            cdef.setConcrete(true);
+
+            md.add(cdef);
+        }
+
+        Path f = folder.getRoot().toPath().resolve(name + ".xml");
+
+        TransformerFactory.newInstance().newTransformer().transform(new DOMSource(md.toXML()), new StreamResult(f.toFile()));
+
+        return f;
+    }
+
+    @Test
+    public void testPrecedence() throws Exception {
+
+        Path first = writeDictionary("first", new Object[]{BASE, "FirstBase", null});
+        Path second = writeDictionary("second", new Object[]{BASE, "SecondBase", null}, new Object[]{DERIVED, "Derived", BASE});
+
+        LazyDefinitionResolver lazy = new LazyDefinitionResolver(Arrays.asList(first, second));
+
+        /* only loads the second file */
+        assertEquals("Derived", lazy.getDefinition(DERIVED).getSymbol());
+
+        /* the first file is loaded since it also defines the AUID */
+        assertEquals("FirstBase", lazy.getDefinition(BASE).getSymbol());
+
+        assertTrue(lazy.isSubclassOf((ClassDefinition) lazy.getDefinition(DERIVED), BASE));
+        assertEquals(Collections.singletonList(MetaDictionary.createNormalizedAUID(DERIVED)), lazy.getSubclassesOf((ClassDefinition) lazy.getDefinition(BASE)));
+
+        /* the files are not reordered */
+        lazy = new LazyDefinitionResolver(Arrays.asList(second, first));
+
+        assertEquals("SecondBase", lazy.getDefinition(BASE).getSymbol());
+    }
+
+    @Test
+    public void testCircularHierarchy() throws Exception {
+
+        Path f = writeDictionary("circular", new Object[]{BASE, "Base", DERIVED}, new Object[]{DERIVED, "Derived", BASE});
+
+        LazyDefinitionResolver lazy = new LazyDefinitionResolver(Collections.singletonList(f));
+
+        ClassDefinition derived = (ClassDefinition) lazy.getDefinition(DERIVED);
+
+        assertTrue(lazy.isSubclassOf(derived, BASE));
+        assertFalse(lazy.isSubclassOf(derived, PREFACE));
+        assertTrue(lazy.getAllMembersOf(derived).isEmpty());
+    }
+
+    @Test
+    public void testLazyLoading() throws Exception {
+
+        Path dir = Paths.get(ClassLoader.getSystemResource("regxml-dicts").toURI());
+
+        MetaDictionaryCollection mds = MetaDictionaryCollection.loadAll(dir, Runnable::run);
+
+        LazyDefinitionResolver lazy = LazyDefinitionResolver.fromDirectory(dir);
+
+        assertEquals(mds.getDictionaries().size(), lazy.getNamespaces().size());
+        assertTrue(lazy.getLoadedDictionaries().getDictionaries().isEmpty());
+
+        ClassDefinition preface = (ClassDefinition) lazy.getDefinition(PREFACE);
+
+        assertNotNull(preface);
+
+        int loaded = lazy.getLoadedDictionaries().getDictionaries().size();
+
+        assertTrue(loaded > 0 && loaded < mds.getDictionaries().size());
+
+        /* the members of Preface may be defined in other dictionaries */
+        assertEquals(
+            new HashSet<>(mds.getAllMembersOf((ClassDefinition) mds.getDefinition(PREFACE))),
+            new HashSet<>(lazy.getAllMembersOf(preface))
+        );
+
+        /* every definition is eventually found */
+        for (MetaDictionary md : mds.getDictionaries()) {
+
+            for (Definition def : md.getDefinitions()) {
+
+                Definition lazydef = lazy.getDefinition(def.getIdentification());
+
+                assertNotNull(lazydef);
+                assertEquals(def.getSymbol(), lazydef.getSymbol());
+
+                if (def instanceof ClassDefinition) {
+                    assertEquals(
+                        new HashSet<>(mds.getSubclassesOf((ClassDefinition) def)),
+                        new HashSet<>(lazy.getSubclassesOf((ClassDefinition) lazydef))
+                    );
+                }
+            }
+        }
+
+        assertEquals(mds.getDictionaries().size(), lazy.getLoadedDictionaries().getDictionaries().size());
+    }
+
+}
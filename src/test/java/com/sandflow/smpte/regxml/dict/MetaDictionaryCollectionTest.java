@@ -0,0 +1,441 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict;
+
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.regxml.dict.definitions.PropertyAliasDefinition;
+import com.sandflow.smpte.regxml.dict.definitions.PropertyDefinition;
+import com.sandflow.smpte.regxml.dict.exceptions.IllegalDictionaryException;
+import static com.sandflow.smpte.regxml.dict.importers.RegisterImporter.fromRegister;
+import com.sandflow.smpte.util.AUID;
+import com.sandflow.util.events.Event;
+import com.sandflow.util.events.EventHandler;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MetaDictionaryCollectionTest {
+
+    private static MetaDictionaryCollection mds;
+
+    @BeforeClass
+    public static void loadDictionaries() throws Exception {
+
+        final String register_dir = "registers/snapshot/";
+
+        ElementsRegister ereg = ElementsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Elements.xml")));
+        GroupsRegister greg = GroupsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Groups.xml")));
+        TypesRegister treg = TypesRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Types.xml")));
+
+        mds = fromRegister(treg, greg, ereg, new EventHandler() {
+
+            @Override
+            public boolean handle(Event evt) {
+                return true;
+            }
+        });
+
+        assertNotNull(mds);
+    }
+
+    @Test
+    public void testClassHierarchy() {
+
+        /* uses the default implementations, which walk the class hierarchy */
+        DefinitionResolver walker = new DefinitionResolver() {
+
+            @Override
+            public Definition getDefinition(AUID identification) {
+                return mds.getDefinition(identification);
+            }
+
+            @Override
+            public Collection<AUID> getSubclassesOf(ClassDefinition definition) {
+                return mds.getSubclassesOf(definition);
+            }
+
+            @Override
+            public Collection<AUID> getMembersOf(ClassDefinition definition) {
+                return mds.getMembersOf(definition);
+            }
+        };
+
+        ArrayList<ClassDefinition> classes = new ArrayList<>();
+
+        for (MetaDictionary md : mds.getDictionaries()) {
+            for (Definition def : md.getDefinitions()) {
+                if (def instanceof ClassDefinition) {
+                    classes.add((ClassDefinition) def);
+                }
+            }
+        }
+
+        assertFalse(classes.isEmpty());
+
+        int subclasses = 0;
+
+        for (ClassDefinition cdef : classes) {
+
+            assertEquals(cdef.getSymbol(), walker.getAllMembersOf(cdef), new ArrayList<>(mds.getAllMembersOf(cdef)));
+
+            for (ClassDefinition ancestor : classes) {
+
+                boolean expected = walker.isSubclassOf(cdef, ancestor.getIdentification());
+
+                assertEquals(expected, mds.isSubclassOf(cdef, ancestor.getIdentification()));
+
+                if (expected) {
+                    subclasses++;
+                }
+            }
+        }
+
+        assertTrue(subclasses > classes.size());
+    }
+
+    @Test
+    public void testCircularHierarchy() {
+
+        AUID self = AUID.fromURN("urn:uuid:00000000-0000-0000-8000-000000000001");
+        AUID first = AUID.fromURN("urn:uuid:00000000-0000-0000-8000-000000000002");
+        AUID second = AUID.fromURN("urn:uuid:00000000-0000-0000-8000-000000000003");
+        AUID unrelated = AUID.fromURN("urn:uuid:00000000-0000-0000-8000-000000000004");
+
+        final HashMap<AUID, ClassDefinition> classes = new HashMap<>();
+
+        for (AUID[] link : new AUID[][]{{self, self}, {first, second}, {second, first}}) {
+
+            ClassDefinition cdef = new ClassDefinition();
+
+            cdef.setIdentification(link[0]);
+            cdef.setParentClass(link[1]);
+
+            classes.put(link[0], cdef);
+        }
+
+        DefinitionResolver resolver = new DefinitionResolver() {
+
+            @Override
+            public Definition getDefinition(AUID identification) {
+                return classes.get(identification);
+            }
+
+            @Override
+            public Collection<AUID> getSubclassesOf(ClassDefinition definition) {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public Collection<AUID> getMembersOf(ClassDefinition definition) {
+                return Collections.singletonList(definition.getIdentification());
+            }
+        };
+
+        assertTrue(resolver.isSubclassOf(classes.get(self), self));
+        assertFalse(resolver.isSubclassOf(classes.get(self), unrelated));
+        assertEquals(Collections.singletonList(self), resolver.getAllMembersOf(classes.get(self)));
+
+        assertTrue(resolver.isSubclassOf(classes.get(first), second));
+        assertFalse(resolver.isSubclassOf(classes.get(first), unrelated));
+        assertEquals(Arrays.asList(first, second), resolver.getAllMembersOf(classes.get(first)));
+    }
+
+    @Test
+    public void testGetDefinition() {
+
+        int count = 0;
+
+        for (MetaDictionary md : mds.getDictionaries()) {
+
+            for (Definition def : md.getDefinitions()) {
+
+                AUID auid = def.getIdentification();
+
+                assertSame(md.getDefinition(auid), mds.getDefinition(auid));
+
+                if (auid.isUL()) {
+
+                    /* lookups ignore the version byte */
+                    byte[] value = auid.getValue().clone();
+
+                    value[7] = (byte) (value[7] + 1);
+
+                    assertSame(md.getDefinition(auid), mds.getDefinition(new AUID(value)));
+                }
+
+                count++;
+            }
+        }
+
+        assertTrue(count > 0);
+
+        assertNull(mds.getDefinition(AUID.fromURN("urn:uuid:00000000-0000-0000-0000-000000000000")));
+    }
+
+    @Test
+    public void testMembersAndSubclasses() {
+
+        for (MetaDictionary md : mds.getDictionaries()) {
+
+            for (Definition def : md.getDefinitions()) {
+
+                if (!(def instanceof ClassDefinition)) {
+                    continue;
+                }
+
+                ClassDefinition cdef = (ClassDefinition) def;
+
+                ArrayList<AUID> members = new ArrayList<>();
+                ArrayList<AUID> subclasses = new ArrayList<>();
+
+                for (MetaDictionary d : mds.getDictionaries()) {
+
+                    if (d.getMembersOf(cdef) != null) {
+                        members.addAll(d.getMembersOf(cdef));
+                    }
+
+                    if (d.getSubclassesOf(cdef) != null) {
+                        subclasses.addAll(d.getSubclassesOf(cdef));
+                    }
+                }
+
+                assertEquals(members, new ArrayList<>(mds.getMembersOf(cdef)));
+                assertEquals(subclasses, new ArrayList<>(mds.getSubclassesOf(cdef)));
+
+                /* computed once */
+                assertSame(mds.getMembersOf(cdef), mds.getMembersOf(cdef));
+                assertSame(mds.getSubclassesOf(cdef), mds.getSubclassesOf(cdef));
+            }
+        }
+    }
+
+    @Test
+    public void testReferencedDefinition() throws Exception {
+
+        DefinitionResolver walker = new DefinitionResolver() {
+
+            @Override
+            public Definition getDefinition(AUID identification) {
+                return mds.getDefinition(identification);
+            }
+
+            @Override
+            public Collection<AUID> getSubclassesOf(ClassDefinition definition) {
+                return mds.getSubclassesOf(definition);
+            }
+
+            @Override
+            public Collection<AUID> getMembersOf(ClassDefinition definition) {
+                return mds.getMembersOf(definition);
+            }
+        };
+
+        mds.freeze();
+
+        java.util.BitSet ids = new java.util.BitSet();
+
+        int count = 0;
+        int referenced = 0;
+
+        for (MetaDictionary md : mds.getDictionaries()) {
+
+            for (Definition def : md.getDefinitions()) {
+
+                assertFalse(ids.get(mds.getId(def)));
+
+                ids.set(mds.getId(def));
+
+                Definition ref = walker.getReferencedDefinition(def);
+
+                assertSame(ref, mds.getReferencedDefinition(def));
+
+                if (ref != null) {
+                    referenced++;
+                }
+
+                count++;
+            }
+        }
+
+        /* ids are dense */
+        assertEquals(count, ids.cardinality());
+        assertEquals(count, ids.length());
+
+        assertTrue(referenced > 0);
+
+        /* a collection sharing dictionaries assigns its own ids */
+        ArrayList<MetaDictionary> shared = new ArrayList<>(mds.getDictionaries());
+
+        Collections.reverse(shared);
+
+        MetaDictionaryCollection other = new MetaDictionaryCollection();
+
+        for (MetaDictionary md : shared) {
+            other.addDictionary(md);
+        }
+
+        other.freeze();
+
+        for (MetaDictionary md : mds.getDictionaries()) {
+
+            for (Definition def : md.getDefinitions()) {
+
+                assertTrue(ids.get(mds.getId(def)));
+                assertTrue(other.getId(def) >= 0);
+
+                assertSame(walker.getReferencedDefinition(def), mds.getReferencedDefinition(def));
+                assertSame(walker.getReferencedDefinition(def), other.getReferencedDefinition(def));
+            }
+        }
+
+        assertEquals(-1, mds.getId(new ClassDefinition()));
+    }
+
+    @Test
+    public void testPropertyAlias() throws Exception {
+
+        AUID property = AUID.fromURN("urn:smpte:ul:060e2b34.01010101.01011502.00000000");
+        AUID memberof = AUID.fromURN("urn:smpte:ul:060e2b34.027f0101.0c020101.01010000");
+        AUID type = AUID.fromURN("urn:smpte:ul:060e2b34.01040101.01030300.00000000");
+
+        PropertyAliasDefinition alias = new PropertyAliasDefinition();
+
+        alias.setNamespace(URI.create("http://www.example.com/aliases"));
+        alias.setIdentification(property);
+        alias.setSymbol("InstanceIDAlias");
+        alias.setType(type);
+        alias.setMemberOf(memberof);
+        alias.setOriginalProperty(property);
+
+        PropertyDefinition original = new PropertyDefinition();
+
+        original.setNamespace(URI.create("http://www.example.com/properties"));
+        original.setIdentification(property);
+        original.setSymbol("InstanceID");
+        original.setType(type);
+        original.setMemberOf(memberof);
+
+        /* the dictionary containing the alias is added first */
+        MetaDictionary aliases = new MetaDictionary(alias.getNamespace());
+        aliases.add(alias);
+
+        MetaDictionary properties = new MetaDictionary(original.getNamespace());
+        properties.add(original);
+
+        MetaDictionaryCollection collection = new MetaDictionaryCollection();
+
+        collection.addDictionary(aliases);
+
+        assertNull(collection.getDefinition(property));
+
+        collection.addDictionary(properties);
+
+        assertSame(original, collection.getDefinition(property));
+
+        /* same when adding definitions individually */
+        collection = new MetaDictionaryCollection();
+
+        collection.addDefinition(alias);
+
+        assertNull(collection.getDefinition(property));
+
+        collection.addDefinition(original);
+
+        assertSame(original, collection.getDefinition(property));
+    }
+
+    @Test
+    public void testLoadAll() throws Exception {
+
+        Path dir = Paths.get(ClassLoader.getSystemResource("regxml-dicts").toURI());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+
+            MetaDictionaryCollection all = MetaDictionaryCollection.loadAll(dir, executor);
+
+            assertEquals(dir.toFile().list().length, all.getDictionaries().size());
+
+            /* a single dictionary references definitions in others */
+            Path single = Files.createTempDirectory("regxml");
+
+            try {
+
+                Files.copy(dir.resolve("www-smpte-ra-org-reg-335-2012.xml"), single.resolve("www-smpte-ra-org-reg-335-2012.xml"));
+
+                try {
+                    MetaDictionaryCollection.loadAll(single, executor);
+                    fail();
+                } catch (IllegalDictionaryException e) {
+                }
+
+                final AtomicInteger count = new AtomicInteger();
+
+                MetaDictionaryCollection partial = MetaDictionaryCollection.loadAll(single, executor, new EventHandler() {
+
+                    @Override
+                    public boolean handle(Event evt) {
+
+                        assertEquals(MetaDictionaryCollection.EventKind.UNRESOLVED_REFERENCE, evt.getCode());
+
+                        count.incrementAndGet();
+
+                        return true;
+                    }
+                });
+
+                assertEquals(1, partial.getDictionaries().size());
+                assertTrue(count.get() > 0);
+
+            } finally {
+                Files.delete(single.resolve("www-smpte-ra-org-reg-335-2012.xml"));
+                Files.delete(single);
+            }
+
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
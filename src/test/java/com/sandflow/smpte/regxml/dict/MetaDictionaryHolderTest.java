@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict;
+
+import com.sandflow.smpte.regxml.dict.definitions.ClassDefinition;
+import com.sandflow.smpte.util.AUID;
+import java.net.URI;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class MetaDictionaryHolderTest {
+
+    private static ClassDefinition createClass(String namespace) {
+
+        ClassDefinition cdef = new ClassDefinition();
+
+        cdef.setNamespace(URI.create(namespace));
+        cdef.setIdentification(AUID.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00"));
+        cdef.setSymbol("Preface");
+
+        return cdef;
+    }
+
+    @Test
+    public void testPublish() throws Exception {
+
+        MetaDictionaryCollection first = new MetaDictionaryCollection();
+
+        first.addDefinition(createClass("http://www.example.com/first"));
+
+        assertFalse(first.isReadOnly());
+
+        MetaDictionaryHolder holder = new MetaDictionaryHolder(first);
+
+        assertTrue(first.isReadOnly());
+
+        MetaDictionaryCollection second = new MetaDictionaryCollection();
+
+        second.addDictionary(new MetaDictionary(URI.create("http://www.example.com/second")));
+
+        MetaDictionaryHolder.Version v2 = holder.publish(second);
+
+        assertEquals(2, v2.getVersion());
+        assertSame(second, holder.get().getDictionaries());
+
+        /* published collections cannot be modified */
+        for (MetaDictionaryCollection mds : new MetaDictionaryCollection[]{first, second}) {
+
+            assertTrue(mds.isReadOnly());
+
+            try {
+                mds.addDefinition(createClass("http://www.example.com/third"));
+                fail();
+            } catch (IllegalStateException e) {
+            }
+
+            try {
+                mds.addDictionary(new MetaDictionary(URI.create("http://www.example.com/third")));
+                fail();
+            } catch (IllegalStateException e) {
+            }
+
+            try {
+                mds.getDictionaries().clear();
+                fail();
+            } catch (UnsupportedOperationException e) {
+            }
+        }
+
+        assertEquals(1, first.getDictionaries().size());
+        assertNotNull(first.getDefinition(AUID.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00")));
+    }
+
+}
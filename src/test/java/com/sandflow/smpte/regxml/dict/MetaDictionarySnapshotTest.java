@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class MetaDictionarySnapshotTest {
+
+    private static List<MetaDictionary> loadXMLDictionaries() throws Exception {
+
+        ArrayList<MetaDictionary> dicts = new ArrayList<>();
+
+        for (File f : new File(ClassLoader.getSystemResource("regxml-dicts").toURI()).listFiles()) {
+            try (FileReader fr = new FileReader(f)) {
+                dicts.add(MetaDictionary.fromXML(fr));
+            }
+        }
+
+        return dicts;
+    }
+
+    private static String toString(MetaDictionary md) throws Exception {
+
+        Transformer tr = TransformerFactory.newInstance().newTransformer();
+
+        StringWriter sw = new StringWriter();
+
+        tr.transform(new DOMSource(md.toXML()), new StreamResult(sw));
+
+        return sw.toString();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+
+        List<MetaDictionary> dicts = loadXMLDictionaries();
+
+        assertFalse(dicts.isEmpty());
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        MetaDictionarySnapshot.write(dicts, bos);
+
+        List<MetaDictionary> snapshot = MetaDictionarySnapshot.read(new ByteArrayInputStream(bos.toByteArray()));
+
+        assertEquals(dicts.size(), snapshot.size());
+
+        for (int i = 0; i < dicts.size(); i++) {
+            assertEquals(dicts.get(i).getSchemeURI(), snapshot.get(i).getSchemeURI());
+            assertEquals(toString(dicts.get(i)), toString(snapshot.get(i)));
+        }
+
+        /* a mapped file yields the same dictionaries */
+        Path p = Files.createTempFile("regxml", ".snapshot");
+
+        try {
+
+            Files.write(p, bos.toByteArray());
+
+            assertTrue(MetaDictionarySnapshot.isSnapshot(p));
+
+            List<MetaDictionary> mapped = MetaDictionarySnapshot.read(p);
+
+            for (int i = 0; i < dicts.size(); i++) {
+                assertEquals(toString(dicts.get(i)), toString(mapped.get(i)));
+            }
+
+        } finally {
+            Files.delete(p);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws Exception {
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        MetaDictionarySnapshot.write(loadXMLDictionaries(), bos);
+
+        byte[] truncated = java.util.Arrays.copyOf(bos.toByteArray(), bos.size() / 2);
+
+        MetaDictionarySnapshot.read(new ByteArrayInputStream(truncated));
+    }
+
+}
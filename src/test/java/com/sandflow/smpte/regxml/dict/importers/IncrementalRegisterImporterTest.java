@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict.importers;
+
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.regxml.dict.MetaDictionary;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class IncrementalRegisterImporterTest {
+
+    private static class Registers {
+
+        final TypesRegister treg;
+        final GroupsRegister greg;
+        final ElementsRegister ereg;
+
+        Registers(String name) throws Exception {
+            String register_dir = "registers/" + name + "/";
+
+            ereg = ElementsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Elements.xml")), false);
+            greg = GroupsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Groups.xml")), false);
+            treg = TypesRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Types.xml")), false);
+        }
+
+        Map<URI, String> toXML(MetaDictionaryCollection mds) throws Exception {
+            HashMap<URI, String> xml = new HashMap<>();
+
+            for (MetaDictionary md : mds.getDictionaries()) {
+                StringWriter sw = new StringWriter();
+
+                TransformerFactory.newInstance().newTransformer().transform(new DOMSource(md.toXML()), new StreamResult(sw));
+
+                xml.put(md.getSchemeURI(), sw.toString());
+            }
+
+            return xml;
+        }
+
+        Map<URI, String> importAll() throws Exception {
+            return toXML(RegisterImporter.fromRegister(treg, greg, ereg, evt -> true));
+        }
+    }
+
+    @Test
+    public void testChangedRegisters() throws Exception {
+
+        Registers prev = new Registers("catsup");
+        Registers cur = new Registers("ponzu");
+
+        IncrementalRegisterImporter.Result changes = IncrementalRegisterImporter.fromRegister(
+            prev.treg, prev.greg, prev.ereg,
+            cur.treg, cur.greg, cur.ereg,
+            evt -> true
+        );
+
+        Map<URI, String> before = prev.importAll();
+        Map<URI, String> after = cur.importAll();
+        Map<URI, String> partial = cur.toXML(changes.getDictionaries());
+
+        assertFalse(changes.getAffectedNamespaces().isEmpty());
+
+        /* affected dictionaries are identical to those of a complete import */
+        for (URI namespace : changes.getAffectedNamespaces()) {
+            assertEquals(after.get(namespace), partial.get(namespace));
+        }
+
+        assertTrue(changes.getAffectedNamespaces().containsAll(partial.keySet()));
+
+        /* all other dictionaries are unchanged */
+        for (URI namespace : after.keySet()) {
+            if (!changes.getAffectedNamespaces().contains(namespace)) {
+                assertEquals(before.get(namespace), after.get(namespace));
+            }
+        }
+
+        for (URI namespace : before.keySet()) {
+            if (!changes.getAffectedNamespaces().contains(namespace)) {
+                assertTrue(after.containsKey(namespace));
+            }
+        }
+    }
+
+    @Test
+    public void testUnchangedRegisters() throws Exception {
+
+        Registers reg = new Registers("snapshot");
+
+        IncrementalRegisterImporter.Result changes = IncrementalRegisterImporter.fromRegister(
+            reg.treg, reg.greg, reg.ereg,
+            reg.treg, reg.greg, reg.ereg,
+            evt -> true
+        );
+
+        assertTrue(changes.getAffectedNamespaces().isEmpty());
+        assertTrue(changes.getDictionaries().getDictionaries().isEmpty());
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.dict.importers;
+
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.register.catsup.ElementsRegisterModel;
+import com.sandflow.smpte.register.catsup.GroupsRegisterModel;
+import com.sandflow.smpte.register.catsup.TypesRegisterModel;
+import com.sandflow.smpte.regxml.dict.MetaDictionary;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import com.sandflow.smpte.regxml.dict.definitions.Definition;
+import com.sandflow.smpte.util.AUID;
+import com.sandflow.smpte.util.UL;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class RegisterImporterTest {
+
+    private static final URI NAMESPACE = URI.create("http://www.example.com/reg");
+
+    private static UL chainUL(int i) {
+        return new UL(new byte[]{
+            0x06, 0x0e, 0x2b, 0x34, 0x01, 0x04, 0x01, 0x01,
+            0x0f, 0x01, (byte) (i >> 16), (byte) (i >> 8), (byte) i, 0x00, 0x00, 0x00
+        });
+    }
+
+    private static TypesRegisterModel.Entry type(UL ul, String symbol, String kind) {
+        TypesRegisterModel.Entry e = new TypesRegisterModel.Entry();
+
+        e.setUL(ul);
+        e.setSymbol(symbol);
+        e.setName(symbol);
+        e.setNamespaceName(NAMESPACE);
+        e.setKind(TypesRegister.Entry.Kind.LEAF);
+        e.setTypeKind(kind);
+
+        return e;
+    }
+
+    @Test
+    public void testPruneLongChain() throws Exception {
+
+        final int length = 100000;
+
+        TypesRegisterModel treg = new TypesRegisterModel();
+
+        /* each type renames the next one, and the last one renames a missing type */
+        for (int i = 0; i < length; i++) {
+            TypesRegisterModel.Entry e = type(chainUL(i), "Chain" + i, TypesRegister.Entry.RENAME_TYPEKIND);
+
+            e.setBaseType(chainUL(i + 1));
+
+            treg.getEntries().add(e);
+        }
+
+        UL uint8 = UL.fromURN("urn:smpte:ul:060e2b34.01040101.01010100.00000000");
+
+        TypesRegisterModel.Entry e = type(uint8, "UInt8", TypesRegister.Entry.INTEGER_TYPEKIND);
+
+        e.setTypeSize(1L);
+        e.setTypeQualifiers(EnumSet.of(TypesRegister.Entry.TypeQualifiers.isNumeric));
+
+        treg.getEntries().add(e);
+
+        MetaDictionaryCollection mds = RegisterImporter.fromRegister(
+            treg,
+            new GroupsRegisterModel(),
+            new ElementsRegisterModel(),
+            evt -> true
+        );
+
+        assertNotNull(mds.getDefinition(new AUID(uint8)));
+
+        for (int i = 0; i < length; i += 997) {
+            assertNull(mds.getDefinition(new AUID(chainUL(i))));
+        }
+    }
+
+    private static ArrayList<String> importSnapshot() throws Exception {
+
+        final String register_dir = "registers/snapshot/";
+
+        ElementsRegister ereg = ElementsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Elements.xml")), false);
+        GroupsRegister greg = GroupsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Groups.xml")), false);
+        TypesRegister treg = TypesRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Types.xml")), false);
+
+        MetaDictionaryCollection mds = RegisterImporter.fromRegister(treg, greg, ereg, evt -> true);
+
+        ArrayList<String> symbols = new ArrayList<>();
+
+        for (MetaDictionary md : mds.getDictionaries()) {
+            for (Definition def : md.getDefinitions()) {
+                symbols.add(md.getSchemeURI() + " " + def.getClass().getSimpleName() + " " + def.getSymbol());
+            }
+        }
+
+        return symbols;
+    }
+
+    @Test
+    public void testDeterministicOrder() throws Exception {
+
+        ArrayList<String> first = importSnapshot();
+
+        assertFalse(first.isEmpty());
+
+        assertEquals(first, importSnapshot());
+    }
+
+}
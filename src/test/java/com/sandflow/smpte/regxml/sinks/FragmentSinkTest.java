@@ -0,0 +1,518 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.regxml.sinks;
+
+import com.sandflow.smpte.register.ElementsRegister;
+import com.sandflow.smpte.register.GroupsRegister;
+import com.sandflow.smpte.register.TypesRegister;
+import com.sandflow.smpte.regxml.FragmentSink;
+import com.sandflow.smpte.regxml.MXFFragmentBuilder;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import static com.sandflow.smpte.regxml.dict.importers.RegisterImporter.fromRegister;
+import com.sandflow.smpte.util.UL;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Decodes the output of the JSON and CBOR sinks and compares it to the
+ * Fragment that was written to them
+ */
+public class FragmentSinkTest {
+
+    private static final UL PREFACE_KEY
+        = UL.fromURN("urn:smpte:ul:060e2b34.027f0101.0d010101.01012f00");
+
+    private static final String NS = "http://www.example.com/ns";
+
+    private static MetaDictionaryCollection mds;
+
+    @BeforeClass
+    public static void loadDictionaries() throws Exception {
+
+        final String register_dir = "registers/snapshot/";
+
+        ElementsRegister ereg = ElementsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Elements.xml")), false);
+        GroupsRegister greg = GroupsRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Groups.xml")), false);
+        TypesRegister treg = TypesRegister.fromXML(new InputStreamReader(ClassLoader.getSystemResourceAsStream(register_dir + "Types.xml")), false);
+
+        mds = fromRegister(treg, greg, ereg, evt -> true);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+
+        Arrays.fill(chars, c);
+
+        return new String(chars);
+    }
+
+    /* strings whose UTF-8 lengths straddle each CBOR length encoding */
+    private static final String[] LENGTHS = {
+        repeat('a', 23), repeat('a', 24), repeat('a', 255), repeat('a', 256),
+        repeat('a', 65535), repeat('a', 65536)
+    };
+
+    private static final String ESCAPED = "quote \" backslash \\ slash / tab \t cr \r lf \n nul \u0000 us \u001f é € 😀";
+
+    /* writes a small fragment to the sink and returns its expected decoding */
+    private static Map<String, Object> writeFragment(FragmentSink sink) throws IOException {
+
+        sink.startElement(NS, "r0", "Root");
+        sink.attribute(NS, "r0", "uid", "urn:uuid:" + ESCAPED);
+        sink.attribute(NS, "r0", "count", "42");
+        sink.comment("not encoded");
+
+        sink.startElement(NS, "r0", "Escaped");
+        sink.text(ESCAPED);
+        sink.endElement();
+
+        sink.startElement(NS, "r0", "Empty");
+        sink.endElement();
+
+        sink.startElement(NS, "r0", "Lengths");
+        for (String s : LENGTHS) {
+            sink.text(s);
+        }
+        sink.endElement();
+
+        sink.startElement(NS, "r0", "Mixed");
+        sink.text("before");
+        sink.startElement(NS, "r0", "Child");
+        sink.attribute(NS, "r0", "n", "-1.5e3");
+        sink.endElement();
+        sink.text("after");
+        sink.endElement();
+
+        sink.endElement();
+
+        LinkedHashMap<URI, String> prefixes = new LinkedHashMap<>();
+
+        prefixes.put(URI.create(NS), "r0");
+
+        sink.endFragment(prefixes);
+
+        LinkedHashMap<String, Object> attrs = new LinkedHashMap<>();
+        attrs.put("r0:uid", "urn:uuid:" + ESCAPED);
+        attrs.put("r0:count", "42");
+
+        /* consecutive text is decoded as a single string */
+        List<Object> lengths = Arrays.asList("r0:Lengths", String.join("", LENGTHS));
+
+        List<Object> root = Arrays.asList(
+            "r0:Root",
+            attrs,
+            Arrays.asList("r0:Escaped", ESCAPED),
+            Arrays.asList("r0:Empty"),
+            lengths,
+            Arrays.asList(
+                "r0:Mixed",
+                "before",
+                Arrays.asList("r0:Child", singleton("r0:n", "-1.5e3")),
+                "after"
+            )
+        );
+
+        LinkedHashMap<String, Object> expected = new LinkedHashMap<>();
+
+        expected.put("fragment", root);
+        expected.put("namespaces", singleton("r0", NS));
+
+        return expected;
+    }
+
+    private static Map<String, Object> singleton(String key, Object value) {
+        LinkedHashMap<String, Object> m = new LinkedHashMap<>();
+
+        m.put(key, value);
+
+        return m;
+    }
+
+    @Test
+    public void testJSONRoundTrip() throws Exception {
+
+        StringWriter sw = new StringWriter();
+
+        Map<String, Object> expected = writeFragment(new JSONFragmentSink(sw));
+
+        assertEquals(expected, new JSONDecoder(sw.toString()).decode());
+    }
+
+    @Test
+    public void testCBORRoundTrip() throws Exception {
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        Map<String, Object> expected = writeFragment(new CBORFragmentSink(bos));
+
+        assertEquals(expected, new CBORDecoder(bos.toByteArray()).decode());
+    }
+
+    @Test
+    public void testEmptyFragment() throws Exception {
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+
+        expected.put("fragment", null);
+        expected.put("namespaces", new LinkedHashMap<>());
+
+        StringWriter sw = new StringWriter();
+
+        new JSONFragmentSink(sw).endFragment(new LinkedHashMap<>());
+
+        assertEquals(expected, new JSONDecoder(sw.toString()).decode());
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        new CBORFragmentSink(bos).endFragment(new LinkedHashMap<>());
+
+        assertEquals(expected, new CBORDecoder(bos.toByteArray()).decode());
+    }
+
+    /* converts a DOM element to the structure encoded by the JSON and CBOR sinks */
+    private static Object fromDOM(Element elem, Map<String, Object> namespaces) {
+
+        ArrayList<Object> array = new ArrayList<>();
+
+        array.add(elem.getTagName());
+
+        LinkedHashMap<String, Object> attrs = new LinkedHashMap<>();
+
+        NamedNodeMap nnm = elem.getAttributes();
+
+        for (int i = 0; i < nnm.getLength(); i++) {
+
+            Attr attr = (Attr) nnm.item(i);
+
+            if ("xmlns".equals(attr.getPrefix())) {
+                namespaces.put(attr.getLocalName(), attr.getValue());
+            } else {
+                attrs.put(attr.getName(), attr.getValue());
+            }
+        }
+
+        if (!attrs.isEmpty()) {
+            array.add(attrs);
+        }
+
+        for (Node n = elem.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeType() == Node.ELEMENT_NODE) {
+                array.add(fromDOM((Element) n, namespaces));
+            } else if (n.getNodeType() == Node.TEXT_NODE) {
+                array.add(n.getNodeValue());
+            }
+        }
+
+        return array;
+    }
+
+    private static InputStream open() {
+
+        InputStream is = ClassLoader.getSystemResourceAsStream("mxf-files/escape-chars.mxf");
+
+        assertNotNull(is);
+
+        return is;
+    }
+
+    @Test
+    public void testFragmentBuilder() throws Exception {
+
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+
+        DOMFragmentSink dom = new DOMFragmentSink(doc);
+
+        MXFFragmentBuilder.fromInputStream(open(), mds, null, evt -> true, PREFACE_KEY, dom);
+
+        LinkedHashMap<String, Object> expected = new LinkedHashMap<>();
+        LinkedHashMap<String, Object> namespaces = new LinkedHashMap<>();
+
+        expected.put("fragment", fromDOM((Element) dom.getFragment().getFirstChild(), namespaces));
+        expected.put("namespaces", namespaces);
+
+        StringWriter sw = new StringWriter();
+
+        MXFFragmentBuilder.fromInputStream(open(), mds, null, evt -> true, PREFACE_KEY, new JSONFragmentSink(sw));
+
+        assertEquals(expected, new JSONDecoder(sw.toString()).decode());
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        MXFFragmentBuilder.fromInputStream(open(), mds, null, evt -> true, PREFACE_KEY, new CBORFragmentSink(bos));
+
+        assertEquals(expected, new CBORDecoder(bos.toByteArray()).decode());
+    }
+
+    /**
+     * Decodes the subset of JSON generated by JSONFragmentSink
+     */
+    private static class JSONDecoder {
+
+        private final String text;
+        private int pos = 0;
+
+        JSONDecoder(String text) {
+            this.text = text;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> decode() {
+
+            Object value = value();
+
+            assertEquals("trailing characters", text.length(), pos);
+
+            return (Map<String, Object>) value;
+        }
+
+        private char next() {
+            return text.charAt(pos++);
+        }
+
+        private void expect(char c) {
+            assertEquals(c, next());
+        }
+
+        private Object value() {
+
+            char c = text.charAt(pos);
+
+            if (c == '{') {
+
+                LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+
+                expect('{');
+
+                if (text.charAt(pos) == '}') {
+                    pos++;
+                    return map;
+                }
+
+                do {
+                    String key = string();
+                    expect(':');
+                    map.put(key, value());
+                } while (next() == ',');
+
+                assertEquals('}', text.charAt(pos - 1));
+
+                return map;
+
+            } else if (c == '[') {
+
+                ArrayList<Object> array = new ArrayList<>();
+
+                expect('[');
+
+                if (text.charAt(pos) == ']') {
+                    pos++;
+                    return array;
+                }
+
+                do {
+                    array.add(value());
+                } while (next() == ',');
+
+                assertEquals(']', text.charAt(pos - 1));
+
+                return array;
+
+            } else if (text.startsWith("null", pos)) {
+
+                pos += 4;
+
+                return null;
+
+            } else {
+
+                return string();
+
+            }
+        }
+
+        private String string() {
+
+            StringBuilder sb = new StringBuilder();
+
+            expect('"');
+
+            for (char c = next(); c != '"'; c = next()) {
+
+                /* control characters must be escaped */
+                assertTrue(c >= 0x20);
+
+                if (c == '\\') {
+
+                    c = next();
+
+                    switch (c) {
+                        case 'n':
+                            sb.append('\n');
+                            break;
+                        case 'r':
+                            sb.append('\r');
+                            break;
+                        case 't':
+                            sb.append('\t');
+                            break;
+                        case 'b':
+                            sb.append('\b');
+                            break;
+                        case 'f':
+                            sb.append('\f');
+                            break;
+                        case 'u':
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                            pos += 4;
+                            break;
+                        default:
+                            sb.append(c);
+                    }
+
+                } else {
+                    sb.append(c);
+                }
+            }
+
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Decodes the subset of CBOR generated by CBORFragmentSink
+     */
+    private static class CBORDecoder {
+
+        private final ByteArrayInputStream is;
+
+        CBORDecoder(byte[] data) {
+            this.is = new ByteArrayInputStream(data);
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> decode() {
+
+            Object value = value(is.read());
+
+            assertEquals("trailing bytes", 0, is.available());
+
+            return (Map<String, Object>) value;
+        }
+
+        private long length(int header) {
+
+            int info = header & 0x1f;
+
+            if (info < 24) {
+                return info;
+            }
+
+            int count = 1 << (info - 24);
+
+            long len = 0;
+
+            for (int i = 0; i < count; i++) {
+                len = (len << 8) | is.read();
+            }
+
+            /* lengths must use the shortest encoding */
+            assertTrue(count == 1 ? len >= 24 : len >= 1L << (4 * count));
+
+            return len;
+        }
+
+        private Object value(int header) {
+
+            switch (header) {
+                case 0xf6:
+                    return null;
+
+                case 0x7f: {
+                    StringBuilder sb = new StringBuilder();
+
+                    for (int h = is.read(); h != 0xff; h = is.read()) {
+                        sb.append((String) value(h));
+                    }
+
+                    return sb.toString();
+                }
+
+                case 0x9f: {
+                    ArrayList<Object> array = new ArrayList<>();
+
+                    for (int h = is.read(); h != 0xff; h = is.read()) {
+                        array.add(value(h));
+                    }
+
+                    return array;
+                }
+
+                case 0xbf: {
+                    LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+
+                    for (int h = is.read(); h != 0xff; h = is.read()) {
+                        map.put((String) value(h), value(is.read()));
+                    }
+
+                    return map;
+                }
+
+                default: {
+
+                    /* text string */
+                    assertEquals(3, header >> 5);
+
+                    byte[] bytes = new byte[(int) length(header)];
+
+                    assertEquals(bytes.length, is.read(bytes, 0, bytes.length));
+
+                    return new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+        }
+    }
+
+}
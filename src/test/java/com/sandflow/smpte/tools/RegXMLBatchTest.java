@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.tools;
+
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+public class RegXMLBatchTest extends TestCase {
+
+    public RegXMLBatchTest(String testName) {
+        super(testName);
+    }
+
+    public void testBatch() throws Exception {
+
+        MetaDictionaryCollection mds = new MetaDictionaryCollection();
+
+        RegXMLDump.addDictionaries(mds, new File(ClassLoader.getSystemResource("regxml-dicts").toURI()));
+
+        ArrayList<Path> paths = new ArrayList<>();
+
+        for (String name : new String[] {"audio1.mxf", "audio2.mxf", "video1.mxf", "video2.mxf", "indirect.mxf"}) {
+            paths.add(Paths.get(ClassLoader.getSystemResource("mxf-files/" + name).toURI()));
+        }
+
+        /* not an MXF file */
+        paths.add(Paths.get(ClassLoader.getSystemResource("regxml-files/audio1.xml").toURI()));
+
+        final Set<Path> handled = new HashSet<>();
+
+        RegXMLBatch batch = new RegXMLBatch(mds, null, 2);
+
+        int successes = batch.process(paths, new RegXMLBatch.ResultHandler() {
+
+            @Override
+            public void handle(RegXMLBatch.Result result) {
+
+                assertTrue(handled.add(result.getPath()));
+
+                assertEquals(result.getException() == null, result.getDocument() != null);
+            }
+        });
+
+        assertEquals(paths.size() - 1, successes);
+        assertEquals(new HashSet<>(paths), handled);
+
+        /* an exception thrown by the handler stops the batch */
+        try {
+
+            batch.process(paths, new RegXMLBatch.ResultHandler() {
+
+                @Override
+                public void handle(RegXMLBatch.Result result) throws IOException {
+                    throw new IOException();
+                }
+            });
+
+            fail();
+
+        } catch (IOException e) {
+        }
+
+        final int[] calls = new int[1];
+
+        try {
+
+            batch.process(paths, new RegXMLBatch.ResultHandler() {
+
+                @Override
+                public void handle(RegXMLBatch.Result result) {
+
+                    calls[0]++;
+
+                    throw new IllegalStateException();
+                }
+            });
+
+            fail();
+
+        } catch (IllegalStateException e) {
+        }
+
+        assertEquals(1, calls[0]);
+
+    }
+
+    public void testMain() throws Exception {
+
+        Path outdir = Files.createTempDirectory("regxmlbatch");
+
+        RegXMLBatch.main(new String[] {
+            "-all",
+            "-j",
+            "2",
+            "-d",
+            Paths.get(ClassLoader.getSystemResource("regxml-dicts").toURI()).toString(),
+            "-o",
+            outdir.toString(),
+            "-i",
+            Paths.get(ClassLoader.getSystemResource("mxf-files/video1.mxf").toURI()).toString()
+        });
+
+        Path out = outdir.resolve("video1.mxf.xml");
+
+        assertTrue(Files.size(out) > 0);
+
+        Files.delete(out);
+        Files.delete(outdir);
+    }
+
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.smpte.tools;
+
+import com.sandflow.smpte.regxml.dict.MetaDictionaryCollection;
+import com.sandflow.smpte.regxml.dict.MetaDictionaryHolder;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import junit.framework.TestCase;
+
+public class RegXMLServerTest extends TestCase {
+
+    private RegXMLServer server;
+
+    public RegXMLServerTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+
+        MetaDictionaryCollection mds = new MetaDictionaryCollection();
+
+        RegXMLDump.addDictionaries(mds, new File(ClassLoader.getSystemResource("regxml-dicts").toURI()));
+
+        server = new RegXMLServer(mds, null, Paths.get(ClassLoader.getSystemResource("mxf-files").toURI()));
+
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.stop(0);
+    }
+
+    private HttpURLConnection open(String path) throws Exception {
+        return (HttpURLConnection) new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), path).openConnection();
+    }
+
+    private static String read(InputStream is) throws Exception {
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        byte[] buf = new byte[4096];
+
+        for (int sz; (sz = is.read(buf)) > 0;) {
+            bos.write(buf, 0, sz);
+        }
+
+        is.close();
+
+        return new String(bos.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public void testRequests() throws Exception {
+
+        Path mxf = Paths.get(ClassLoader.getSystemResource("mxf-files/audio1.mxf").toURI());
+
+        HttpURLConnection c = open("/health");
+
+        assertEquals(200, c.getResponseCode());
+
+        read(c.getInputStream());
+
+        /* file path */
+        c = open("/regxml?mode=ed&path=" + URLEncoder.encode(mxf.toString(), "UTF-8"));
+
+        assertEquals(200, c.getResponseCode());
+
+        assertTrue(read(c.getInputStream()).contains("WAVEPCMDescriptor"));
+
+        /* uploaded partition */
+        c = open("/regxml");
+
+        c.setRequestMethod("POST");
+
+        c.setDoOutput(true);
+
+        try (OutputStream os = c.getOutputStream()) {
+            Files.copy(mxf, os);
+        }
+
+        assertEquals(200, c.getResponseCode());
+
+        assertTrue(read(c.getInputStream()).contains("Preface"));
+
+        /* errors */
+        c = open("/regxml?path=" + URLEncoder.encode(mxf.resolveSibling("missing.mxf").toString(), "UTF-8"));
+
+        assertEquals(404, c.getResponseCode());
+
+        c = open("/regxml?mode=unknown");
+
+        assertEquals(400, c.getResponseCode());
+
+        c = open("/metrics");
+
+        assertEquals(200, c.getResponseCode());
+
+        String metrics = read(c.getInputStream());
+
+        assertTrue(metrics.contains("requests 4\n"));
+        assertTrue(metrics.contains("failures 2\n"));
+    }
+
+    public void testRoot() throws Exception {
+
+        Path mxf = Paths.get(ClassLoader.getSystemResource("mxf-files/audio1.mxf").toURI());
+
+        Path root = Files.createTempDirectory("regxmlserver");
+
+        Path inside = Files.copy(mxf, root.resolve("inside.mxf"));
+        Path link = Files.createSymbolicLink(root.resolve("link.mxf"), mxf);
+
+        server.stop(0);
+
+        server = new RegXMLServer(server.getDictionaries(), null, root);
+
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+
+        try {
+
+            HttpURLConnection c = open("/regxml?mode=ed&path=" + URLEncoder.encode(inside.toString(), "UTF-8"));
+
+            assertEquals(200, c.getResponseCode());
+
+            assertTrue(read(c.getInputStream()).contains("WAVEPCMDescriptor"));
+
+            /* symbolic link to a file outside of the root directory */
+            c = open("/regxml?path=" + URLEncoder.encode(link.toString(), "UTF-8"));
+
+            assertEquals(403, c.getResponseCode());
+
+            c = open("/regxml?path=" + URLEncoder.encode(root.resolve("..").resolve(root.getFileName()).resolve("missing.mxf").toString(), "UTF-8"));
+
+            assertEquals(404, c.getResponseCode());
+
+            c = open("/regxml?path=" + URLEncoder.encode(mxf.toString(), "UTF-8"));
+
+            assertEquals(403, c.getResponseCode());
+
+        } finally {
+
+            Files.delete(link);
+            Files.delete(inside);
+            Files.delete(root);
+
+        }
+    }
+
+    public void testNoRoot() throws Exception {
+
+        Path mxf = Paths.get(ClassLoader.getSystemResource("mxf-files/audio1.mxf").toURI());
+
+        server.stop(0);
+
+        server = new RegXMLServer(server.getDictionaries(), null, null);
+
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+
+        /* no file can be requested */
+        HttpURLConnection c = open("/regxml?path=" + URLEncoder.encode(mxf.toString(), "UTF-8"));
+
+        assertEquals(403, c.getResponseCode());
+
+        /* uploaded partitions are accepted */
+        c = open("/regxml?mode=ed");
+
+        c.setRequestMethod("POST");
+
+        c.setDoOutput(true);
+
+        try (OutputStream os = c.getOutputStream()) {
+            Files.copy(mxf, os);
+        }
+
+        assertEquals(200, c.getResponseCode());
+
+        assertTrue(read(c.getInputStream()).contains("WAVEPCMDescriptor"));
+
+        /* the cause of failures is not disclosed */
+        c = open("/regxml");
+
+        c.setRequestMethod("POST");
+
+        c.setDoOutput(true);
+
+        try (OutputStream os = c.getOutputStream()) {
+            os.write(new byte[]{1, 2, 3});
+        }
+
+        assertEquals(500, c.getResponseCode());
+
+        assertEquals("Extraction failed\n", read(c.getErrorStream()));
+    }
+
+    public void testReload() throws Exception {
+
+        HttpURLConnection c = open("/reload");
+
+        c.setRequestMethod("POST");
+
+        /* no loader */
+        assertEquals(404, c.getResponseCode());
+
+        MetaDictionaryHolder.Version v1 = server.getDictionaries().get();
+
+        assertEquals(1, v1.getVersion());
+
+        server.setDictionaryLoader(new Callable<MetaDictionaryCollection>() {
+
+            @Override
+            public MetaDictionaryCollection call() throws Exception {
+
+                MetaDictionaryCollection mds = new MetaDictionaryCollection();
+
+                RegXMLDump.addDictionaries(mds, new File(ClassLoader.getSystemResource("regxml-dicts").toURI()));
+
+                return mds;
+            }
+        });
+
+        c = open("/reload");
+
+        c.setRequestMethod("POST");
+
+        assertEquals(200, c.getResponseCode());
+
+        assertEquals("dictionaries_version 2\n", read(c.getInputStream()));
+
+        /* the previous version remains usable */
+        MetaDictionaryHolder.Version v2 = server.getDictionaries().get();
+
+        assertEquals(2, v2.getVersion());
+        assertNotSame(v1.getDictionaries(), v2.getDictionaries());
+        assertFalse(v1.getDictionaries().getDictionaries().isEmpty());
+
+        Path mxf = Paths.get(ClassLoader.getSystemResource("mxf-files/audio1.mxf").toURI());
+
+        c = open("/regxml?mode=ed&path=" + URLEncoder.encode(mxf.toString(), "UTF-8"));
+
+        assertEquals(200, c.getResponseCode());
+
+        assertTrue(read(c.getInputStream()).contains("WAVEPCMDescriptor"));
+
+        c = open("/metrics");
+
+        String metrics = read(c.getInputStream());
+
+        assertTrue(metrics.contains("dictionaries_version 2\n"));
+        assertTrue(metrics.contains("reloads 1\n"));
+    }
+
+}
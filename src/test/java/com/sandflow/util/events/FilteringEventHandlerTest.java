@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026, Pierre-Anthony Lemieux (pal@sandflow.com)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.sandflow.util.events;
+
+import java.util.ArrayList;
+import junit.framework.TestCase;
+
+public class FilteringEventHandlerTest extends TestCase {
+
+    private static enum Codes {
+        A,
+        B
+    }
+
+    public FilteringEventHandlerTest(String testName) {
+        super(testName);
+    }
+
+    public void testLimitAndCounts() {
+
+        final ArrayList<Event> received = new ArrayList<>();
+
+        FilteringEventHandler fh = new FilteringEventHandler(new EventHandler() {
+            @Override
+            public boolean handle(Event evt) {
+                received.add(evt);
+                return true;
+            }
+        });
+
+        fh.setLimit(2);
+        fh.setEnabled(Codes.B, false);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(fh.handle(new BasicEvent(Event.Severity.WARN, Codes.A, () -> { throw new AssertionError(); })));
+        }
+
+        fh.handle(new BasicEvent(Event.Severity.ERROR, Codes.B, "b"));
+        fh.handle(new BasicEvent(Event.Severity.FATAL, Codes.B, "b"));
+
+        assertEquals(3, received.size());
+        assertEquals(Event.Severity.FATAL, received.get(2).getSeverity());
+
+        assertFalse(fh.isEnabled(Codes.A, Event.Severity.WARN));
+
+        fh.suppress(Codes.A);
+
+        assertEquals(6, fh.getCount(Codes.A));
+        assertEquals(4, fh.getSuppressedCount(Codes.A));
+        assertEquals(2, fh.getCount(Codes.B));
+        assertEquals(1, fh.getSuppressedCount(Codes.B));
+    }
+
+    public void testOffer() {
+
+        final ArrayList<Event> received = new ArrayList<>();
+
+        FilteringEventHandler fh = new FilteringEventHandler(new EventHandler() {
+            @Override
+            public boolean handle(Event evt) {
+                received.add(evt);
+                return true;
+            }
+        });
+
+        fh.setLimit(1);
+        fh.setMinimumSeverity(Event.Severity.WARN);
+
+        /* accepted events are counted when handled */
+        assertTrue(fh.offer(Codes.A, Event.Severity.WARN));
+        assertEquals(0, fh.getCount(Codes.A));
+
+        fh.handle(new BasicEvent(Event.Severity.WARN, Codes.A, "a"));
+
+        /* rejected events are counted as suppressed */
+        assertFalse(fh.offer(Codes.A, Event.Severity.WARN));
+        assertFalse(fh.offer(Codes.B, Event.Severity.INFO));
+        assertTrue(fh.offer(Codes.A, Event.Severity.FATAL));
+
+        assertEquals(1, received.size());
+        assertEquals(2, fh.getCount(Codes.A));
+        assertEquals(1, fh.getSuppressedCount(Codes.A));
+        assertEquals(1, fh.getSuppressedCount(Codes.B));
+    }
+
+}